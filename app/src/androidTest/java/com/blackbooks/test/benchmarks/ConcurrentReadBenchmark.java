@@ -0,0 +1,117 @@
+package com.blackbooks.test.benchmarks;
+
+import android.test.AndroidTestCase;
+import android.test.RenamingDelegatingContext;
+import android.util.Log;
+
+import com.blackbooks.changes.ChangeBusImpl;
+import com.blackbooks.database.Database;
+import com.blackbooks.database.SQLiteHelper;
+import com.blackbooks.database.TransactionManager;
+import com.blackbooks.database.TransactionManagerImpl;
+import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.repositories.BookRepository;
+import com.blackbooks.repositories.BookRepositoryImpl;
+import com.blackbooks.utils.LogUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Measures the latency of the reads of the book lists while another thread
+ * imports books in a single transaction. It has to run on a device: the
+ * SQLite of the JVM tests executes every statement on the same thread.
+ */
+public class ConcurrentReadBenchmark extends AndroidTestCase {
+
+    private static final int BOOK_COUNT = 5000;
+
+    private SQLiteHelper mSqLiteHelper;
+
+    private BookRepository mBookRepository;
+
+    private TransactionManager mTransactionManager;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        RenamingDelegatingContext ctx = new RenamingDelegatingContext(getContext(), "benchmark-");
+        ctx.deleteDatabase(Database.NAME);
+        SQLiteHelper.initialize(ctx);
+        mSqLiteHelper = SQLiteHelper.getInstance();
+        mBookRepository = new BookRepositoryImpl(mSqLiteHelper);
+        mTransactionManager = new TransactionManagerImpl(mSqLiteHelper, new ChangeBusImpl(mSqLiteHelper));
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mSqLiteHelper.close();
+        super.tearDown();
+    }
+
+    public void testReadLatencyDuringImport() throws Exception {
+        final CountDownLatch importStarted = new CountDownLatch(1);
+        final AtomicBoolean importDone = new AtomicBoolean();
+        final AtomicReference<Throwable> importError = new AtomicReference<>();
+
+        Thread importThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    mTransactionManager.beginTransaction();
+                    try {
+                        importStarted.countDown();
+                        for (int i = 0; i < BOOK_COUNT; i++) {
+                            BookInfo bookInfo = new BookInfo();
+                            bookInfo.title = "Book " + i;
+                            mBookRepository.save(bookInfo);
+                        }
+                        mTransactionManager.setTransactionSuccessful();
+                    } finally {
+                        mTransactionManager.endTransaction();
+                    }
+                } catch (Throwable e) {
+                    importError.set(e);
+                } finally {
+                    importStarted.countDown();
+                    importDone.set(true);
+                }
+            }
+        });
+
+        long importStart = System.nanoTime();
+        importThread.start();
+        importStarted.await();
+
+        List<Long> latencies = new ArrayList<>();
+        int booksSeen = 0;
+        while (!importDone.get()) {
+            long start = System.nanoTime();
+            booksSeen = Math.max(booksSeen, mBookRepository.getBookCount());
+            mBookRepository.getBooksByFirstLetter("B", 20, 0);
+            latencies.add(System.nanoTime() - start);
+        }
+        importThread.join();
+        long importDuration = System.nanoTime() - importStart;
+
+        if (importError.get() != null) {
+            throw new AssertionError(importError.get());
+        }
+        assertFalse("No read completed during the import.", latencies.isEmpty());
+        assertEquals("The reads saw the uncommitted books.", 0, booksSeen);
+        assertEquals(BOOK_COUNT, mBookRepository.getBookCount());
+
+        Collections.sort(latencies);
+        Log.i(LogUtils.TAG, String.format("Import of %d books: %d ms, %d reads during the import, latency median %.2f ms, p95 %.2f ms, max %.2f ms.",
+                BOOK_COUNT,
+                importDuration / 1000000,
+                latencies.size(),
+                latencies.get(latencies.size() / 2) / 1e6,
+                latencies.get(latencies.size() * 95 / 100) / 1e6,
+                latencies.get(latencies.size() - 1) / 1e6));
+    }
+}
@@ -0,0 +1,123 @@
+package com.blackbooks.test.benchmarks;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.test.AndroidTestCase;
+import android.test.RenamingDelegatingContext;
+import android.util.Log;
+
+import com.blackbooks.database.Database;
+import com.blackbooks.database.SQLiteHelper;
+import com.blackbooks.model.persistent.Author;
+import com.blackbooks.sql.Broker;
+import com.blackbooks.sql.BrokerManager;
+import com.blackbooks.utils.LogUtils;
+import com.blackbooks.utils.collections.LongArrayList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares {@link Broker#getAllWhereIn(SQLiteDatabase, String, LongArrayList)},
+ * which reads any number of ids in a single query, with the previous reads of
+ * 250 ids per query whose results were merged.
+ */
+public class WhereInBenchmark extends AndroidTestCase {
+
+    private static final int AUTHOR_COUNT = 60000;
+
+    private static final int[] ID_COUNTS = {50, 1000, 50000};
+
+    private static final int CHUNK_SIZE = 250;
+
+    private static final int RUNS = 5;
+
+    private SQLiteHelper mSqLiteHelper;
+
+    private SQLiteDatabase mDb;
+
+    private Broker<Author> mAuthorBroker;
+
+    private long[] mAuthorIds;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        RenamingDelegatingContext ctx = new RenamingDelegatingContext(getContext(), "benchmark-");
+        ctx.deleteDatabase(Database.NAME);
+        SQLiteHelper.initialize(ctx);
+        mSqLiteHelper = SQLiteHelper.getInstance();
+        mDb = mSqLiteHelper.getWritableDatabase();
+        mAuthorBroker = BrokerManager.getBroker(Author.class);
+
+        mAuthorIds = new long[AUTHOR_COUNT];
+        mDb.beginTransaction();
+        try {
+            for (int i = 0; i < AUTHOR_COUNT; i++) {
+                Author author = new Author();
+                author.name = "Author " + i;
+                mAuthorIds[i] = mAuthorBroker.save(mDb, author);
+            }
+            mDb.setTransactionSuccessful();
+        } finally {
+            mDb.endTransaction();
+        }
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mSqLiteHelper.close();
+        super.tearDown();
+    }
+
+    public void testSingleQueryAgainstChunks() {
+        Random random = new Random(42);
+        for (int idCount : ID_COUNTS) {
+            long[] ids = mAuthorIds.clone();
+            for (int i = ids.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                long id = ids[i];
+                ids[i] = ids[j];
+                ids[j] = id;
+            }
+            LongArrayList idList = LongArrayList.of(Arrays.copyOf(ids, idCount));
+
+            List<Long> singleQuery = new ArrayList<>();
+            List<Long> chunks = new ArrayList<>();
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                int singleQueryCount = mAuthorBroker.getAllWhereIn(mDb, Author.Cols.AUT_ID, idList).size();
+                singleQuery.add(System.nanoTime() - start);
+
+                start = System.nanoTime();
+                int chunksCount = getAllWhereInChunks(idList).size();
+                chunks.add(System.nanoTime() - start);
+
+                assertEquals(idCount, singleQueryCount);
+                assertEquals(idCount, chunksCount);
+            }
+
+            Collections.sort(singleQuery);
+            Collections.sort(chunks);
+            Log.i(LogUtils.TAG, String.format("getAllWhereIn of %d ids: single query median %.2f ms, chunks of %d median %.2f ms.",
+                    idCount,
+                    singleQuery.get(RUNS / 2) / 1e6,
+                    CHUNK_SIZE,
+                    chunks.get(RUNS / 2) / 1e6));
+        }
+    }
+
+    private List<Author> getAllWhereInChunks(LongArrayList idList) {
+        List<Author> authorList = new ArrayList<>();
+        for (int start = 0; start < idList.size(); start += CHUNK_SIZE) {
+            LongArrayList chunk = new LongArrayList(CHUNK_SIZE);
+            for (int i = start; i < Math.min(start + CHUNK_SIZE, idList.size()); i++) {
+                chunk.add(idList.get(i));
+            }
+            authorList.addAll(mAuthorBroker.getAllWhereIn(mDb, Author.Cols.AUT_ID, chunk));
+        }
+        return authorList;
+    }
+}
@@ -28,7 +28,6 @@ import com.blackbooks.fragments.isbnlookup.IsbnLookupFragment.IsbnLookupListener
 import com.blackbooks.model.nonpersistent.BookInfo;
 import com.blackbooks.services.BookService;
 import com.blackbooks.utils.BeanUtils;
-import com.blackbooks.utils.VariableUtils;
 
 import java.security.InvalidParameterException;
 
@@ -308,6 +307,7 @@ public final class BookEditActivity extends FragmentActivity implements IsbnLook
         if (intent.hasExtra(EXTRA_BOOK_ID)) {
             long bookId = intent.getLongExtra(EXTRA_BOOK_ID, 0);
             mBookInfo = bookService.getBookInfo(bookId);
+            bookService.loadBookThumbnails(mBookInfo);
             mBookInfoOriginal = new BookInfo(mBookInfo);
 
             setTitleEditMode();
@@ -374,8 +374,6 @@ public final class BookEditActivity extends FragmentActivity implements IsbnLook
             if (isValid) {
                 bookService.saveBookInfo(mBookInfo);
 
-                VariableUtils.getInstance().setReloadBookList(true);
-
                 String title = mBookInfo.title;
                 String message;
                 switch (mMode) {
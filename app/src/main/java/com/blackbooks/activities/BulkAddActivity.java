@@ -15,7 +15,6 @@ import android.view.MenuItem;
 import com.blackbooks.R;
 import com.blackbooks.fragments.bulkadd.BulkAddFragmentLookedUp;
 import com.blackbooks.fragments.bulkadd.BulkAddFragmentPending;
-import com.blackbooks.utils.VariableUtils;
 
 /**
  * Bulk scan activity.
@@ -37,7 +36,6 @@ public final class BulkAddActivity extends FragmentActivity implements ViewPager
      */
     public static final int TAB_LOOKED_UP = 1;
 
-    private final VariableUtils mVariableUtils = VariableUtils.getInstance();
 
     private PagerAdapter mPagerAdapter;
     private ViewPager mViewPager;
@@ -98,10 +96,6 @@ public final class BulkAddActivity extends FragmentActivity implements ViewPager
     public void onTabSelected(ActionBar.Tab tab, FragmentTransaction ft) {
         int tabPosition = tab.getPosition();
         mViewPager.setCurrentItem(tabPosition);
-
-        if ((tabPosition == TAB_PENDING && mVariableUtils.getReloadIsbnListPending()) || (tabPosition == TAB_LOOKED_UP && mVariableUtils.getReloadIsbnListLookedUp())) {
-            mPagerAdapter.notifyDataSetChanged();
-        }
     }
 
     @Override
@@ -161,16 +155,5 @@ public final class BulkAddActivity extends FragmentActivity implements ViewPager
         public int getCount() {
             return 2;
         }
-
-        @Override
-        public int getItemPosition(Object object) {
-            int itemPosition = super.getItemPosition(object);
-            if (object instanceof BulkAddFragmentPending && mVariableUtils.getReloadIsbnListPending()) {
-                itemPosition = POSITION_NONE;
-            } else if (object instanceof BulkAddFragmentLookedUp && mVariableUtils.getReloadIsbnListLookedUp()) {
-                itemPosition = POSITION_NONE;
-            }
-            return itemPosition;
-        }
     }
 }
@@ -17,7 +17,8 @@ import android.widget.TextView;
 
 import com.blackbooks.R;
 import com.blackbooks.cache.ThumbnailManager;
-import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.nonpersistent.BookSearchResult;
+import com.blackbooks.model.nonpersistent.Snippet;
 import com.blackbooks.model.persistent.Author;
 import com.blackbooks.utils.StringUtils;
 
@@ -27,9 +28,10 @@ import java.util.regex.Pattern;
 
 /**
  * An adapter that displays the results of a book search. The matching text
- * inside the books' title is highlighted.
+ * inside the books' title is highlighted, and the snippet of the description
+ * is shown around its matching terms.
  */
-public final class BookSearchResultsAdapter extends ArrayAdapter<BookInfo> {
+public final class BookSearchResultsAdapter extends ArrayAdapter<BookSearchResult> {
 
     private static final Pattern PATTERN = Pattern.compile("[^\\s\\p{Punct}]+");
     private final String mQuery;
@@ -88,25 +90,33 @@ public final class BookSearchResultsAdapter extends ArrayAdapter<BookInfo> {
         spannable.setSpan(new StyleSpan(Typeface.BOLD), highlightStart, highlightEnd, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
     }
 
-    private static void highlightDescription(String search, String originalText, TextView textDescriptionStart,
-                                             TextView textDescriptionEnd) {
-        String normalizedOriginalText = StringUtils.normalize(originalText);
-        String normalizedSearch = StringUtils.normalize(search);
-
-        int startIndex = firstIndexOf(normalizedSearch, normalizedOriginalText);
-
-        if (startIndex >= 0) {
-            int endIndex = startIndex + normalizedSearch.length();
-
-            Spannable highlighted = new SpannableString(originalText.substring(0, endIndex));
-            highlightSpannable(highlighted, startIndex, endIndex);
-            String endText = originalText.substring(endIndex);
+    /**
+     * Show the snippet of a description: the text up to the end of its first
+     * matching term, highlighted, then the rest of the text.
+     *
+     * @param snippet              The snippet of the description.
+     * @param textDescriptionStart Shows the start of the snippet, ellipsized at its start.
+     * @param textDescriptionEnd   Shows the end of the snippet, ellipsized at its end.
+     */
+    private static void showDescriptionSnippet(Snippet snippet, TextView textDescriptionStart,
+                                               TextView textDescriptionEnd) {
+        int[] highlights = snippet.highlights;
+        if (highlights.length >= 2) {
+            int splitIndex = highlights[1];
+
+            Spannable start = new SpannableString(snippet.text.substring(0, splitIndex));
+            highlightSpannable(start, highlights[0], highlights[1]);
+            Spannable end = new SpannableString(snippet.text.substring(splitIndex));
+            for (int i = 2; i + 1 < highlights.length; i += 2) {
+                highlightSpannable(end, highlights[i] - splitIndex, highlights[i + 1] - splitIndex);
+            }
 
-            textDescriptionStart.setText(highlighted);
-            textDescriptionEnd.setText(endText);
+            textDescriptionStart.setVisibility(View.VISIBLE);
+            textDescriptionStart.setText(start);
+            textDescriptionEnd.setText(end);
         } else {
             textDescriptionStart.setVisibility(View.GONE);
-            textDescriptionEnd.setText(originalText);
+            textDescriptionEnd.setText(snippet.text);
         }
     }
 
@@ -138,7 +148,7 @@ public final class BookSearchResultsAdapter extends ArrayAdapter<BookInfo> {
     @Override
     public View getView(int position, View convertView, ViewGroup parent) {
 
-        BookInfo bookInfo = this.getItem(position);
+        BookSearchResult bookInfo = this.getItem(position);
 
         if (convertView == null) {
             convertView = mInflater.inflate(R.layout.search_results_item_book, parent, false);
@@ -160,10 +170,11 @@ public final class BookSearchResultsAdapter extends ArrayAdapter<BookInfo> {
         } else {
             textSubtitle.setText(highlight(mQuery, bookInfo.subtitle));
         }
-        if (bookInfo.description == null) {
+        if (bookInfo.descriptionSnippet == null) {
             layoutDescription.setVisibility(View.GONE);
         } else {
-            highlightDescription(mQuery, bookInfo.description, textDescriptionStart, textDescriptionEnd);
+            layoutDescription.setVisibility(View.VISIBLE);
+            showDescriptionSnippet(bookInfo.descriptionSnippet, textDescriptionStart, textDescriptionEnd);
         }
 
         List<Author> authorList = bookInfo.authors;
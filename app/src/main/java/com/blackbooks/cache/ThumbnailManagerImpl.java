@@ -22,6 +22,12 @@ public final class ThumbnailManagerImpl implements ThumbnailManager {
 
     private final BookRepository bookRepository;
 
+    /**
+     * Id of the cover of the books that do not have a small thumbnail.
+     */
+    private static final long NO_COVER = 0L;
+
+    private final LruCache<Long, Long> smallThumbnailCoverIdCache;
     private final LruCache<Long, Bitmap> smallThumbnailCache;
     private Bitmap undefinedBitmap;
 
@@ -33,6 +39,7 @@ public final class ThumbnailManagerImpl implements ThumbnailManager {
 
         int maxMemoryKB = (int) (Runtime.getRuntime().maxMemory() / 1024);
         int totalCacheSize = maxMemoryKB / 8;
+        smallThumbnailCoverIdCache = new LruCache<>(4096);
         smallThumbnailCache = new LruCache<Long, Bitmap>(totalCacheSize) {
             @Override
             protected int sizeOf(Long key, Bitmap value) {
@@ -55,12 +62,13 @@ public final class ThumbnailManagerImpl implements ThumbnailManager {
 
     /**
      * Remove the small and normal thumbnail corresponding to a book from the
-     * cache.
+     * cache. The bitmaps are cached by cover, the image of a cover never
+     * changes: only the cover of the book is forgotten.
      *
      * @param bookId Id of the book.
      */
     public void removeThumbnails(long bookId) {
-        smallThumbnailCache.remove(bookId);
+        smallThumbnailCoverIdCache.remove(bookId);
     }
 
     /**
@@ -72,7 +80,11 @@ public final class ThumbnailManagerImpl implements ThumbnailManager {
      * @param progressBar ProgressBar.
      */
     private void draw(long bookId, Context context, ImageView imageView, ProgressBar progressBar) {
-        Bitmap bmp = smallThumbnailCache.get(bookId);
+        Bitmap bmp = null;
+        Long coverId = smallThumbnailCoverIdCache.get(bookId);
+        if (coverId != null) {
+            bmp = coverId == NO_COVER ? getUndefinedBitmap(context) : smallThumbnailCache.get(coverId);
+        }
         if (bmp != null) {
             imageView.setImageBitmap(bmp);
             progressBar.setVisibility(View.GONE);
@@ -104,7 +116,9 @@ public final class ThumbnailManagerImpl implements ThumbnailManager {
 
     /**
      * Task to load a book and set draw its small or normal thumbnail in a given
-     * ImageView.
+     * ImageView. The image is only read when the bitmap of the cover of the
+     * book is not already in the cache, as when several books share the same
+     * cover.
      */
     private final class BookLoadTask extends AsyncTask<Long, Void, byte[]> {
 
@@ -112,6 +126,7 @@ public final class ThumbnailManagerImpl implements ThumbnailManager {
         private final long mBookId;
         private final ImageView mImageView;
         private final ProgressBar mProgressBar;
+        private long mCoverId;
 
         /**
          * Constructor.
@@ -130,21 +145,34 @@ public final class ThumbnailManagerImpl implements ThumbnailManager {
 
         @Override
         protected byte[] doInBackground(Long... params) {
-            return bookRepository.getBookSmallThumbnail(mBookId);
+            Long coverId = bookRepository.getBookSmallThumbnailCoverId(mBookId);
+            mCoverId = coverId != null ? coverId : NO_COVER;
+            if (mCoverId == NO_COVER || smallThumbnailCache.get(mCoverId) != null) {
+                return null;
+            }
+            return bookRepository.getCoverImage(mCoverId);
         }
 
         @Override
         protected void onPostExecute(byte[] result) {
             super.onPostExecute(result);
-            Bitmap smallThumbnailBmp;
+            Bitmap smallThumbnailBmp = null;
 
             if (result != null && result.length > 0) {
                 smallThumbnailBmp = BitmapFactory.decodeByteArray(result, 0, result.length);
-            } else {
-                smallThumbnailBmp = getUndefinedBitmap(mContext);
+                if (smallThumbnailBmp != null) {
+                    smallThumbnailCache.put(mCoverId, smallThumbnailBmp);
+                }
+            } else if (mCoverId != NO_COVER) {
+                smallThumbnailBmp = smallThumbnailCache.get(mCoverId);
             }
 
-            smallThumbnailCache.put(mBookId, smallThumbnailBmp);
+            if (smallThumbnailBmp != null || mCoverId == NO_COVER) {
+                smallThumbnailCoverIdCache.put(mBookId, mCoverId);
+            }
+            if (smallThumbnailBmp == null) {
+                smallThumbnailBmp = getUndefinedBitmap(mContext);
+            }
 
             mImageView.setImageBitmap(smallThumbnailBmp);
             mProgressBar.setVisibility(View.GONE);
@@ -0,0 +1,105 @@
+package com.blackbooks.changes;
+
+import java.util.Arrays;
+
+/**
+ * A change of the content of a table, posted on the {@link ChangeBus} once it
+ * has been committed. The change names the rows that have been inserted,
+ * updated or deleted, or only the table when too many rows have changed to
+ * name them.
+ */
+public final class Change {
+
+    private static final long[] NO_IDS = new long[0];
+
+    public final Type type;
+    public final String table;
+    public final long[] ids;
+
+    /**
+     * Constructor.
+     *
+     * @param type  Type of the change.
+     * @param table Name of the changed table.
+     * @param ids   Ids of the changed rows.
+     */
+    private Change(Type type, String table, long[] ids) {
+        this.type = type;
+        this.table = table;
+        this.ids = ids;
+    }
+
+    /**
+     * Create the change of rows that have been inserted.
+     *
+     * @param table Table name.
+     * @param ids   Ids of the inserted rows.
+     * @return Change.
+     */
+    public static Change inserted(String table, long... ids) {
+        return new Change(Type.INSERTED, table, ids);
+    }
+
+    /**
+     * Create the change of rows that have been updated.
+     *
+     * @param table Table name.
+     * @param ids   Ids of the updated rows.
+     * @return Change.
+     */
+    public static Change updated(String table, long... ids) {
+        return new Change(Type.UPDATED, table, ids);
+    }
+
+    /**
+     * Create the change of rows that have been deleted.
+     *
+     * @param table Table name.
+     * @param ids   Ids of the deleted rows.
+     * @return Change.
+     */
+    public static Change deleted(String table, long... ids) {
+        return new Change(Type.DELETED, table, ids);
+    }
+
+    /**
+     * Create the change of any number of rows of a table.
+     *
+     * @param table Table name.
+     * @return Change.
+     */
+    public static Change tableChanged(String table) {
+        return new Change(Type.TABLE_CHANGED, table, NO_IDS);
+    }
+
+    @Override
+    public String toString() {
+        return "Change[" + type + " " + table + " " + Arrays.toString(ids) + "]";
+    }
+
+    /**
+     * The types of change.
+     */
+    public enum Type {
+
+        /**
+         * Rows have been inserted.
+         */
+        INSERTED,
+
+        /**
+         * Rows have been updated.
+         */
+        UPDATED,
+
+        /**
+         * Rows have been deleted.
+         */
+        DELETED,
+
+        /**
+         * Any rows of the table may have changed.
+         */
+        TABLE_CHANGED
+    }
+}
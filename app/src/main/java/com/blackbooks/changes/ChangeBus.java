@@ -0,0 +1,39 @@
+package com.blackbooks.changes;
+
+/**
+ * Delivers the changes of the database made by the services to the listeners
+ * that display the data, so that they only update the affected rows.
+ */
+public interface ChangeBus {
+
+    /**
+     * Start listening to the changes.
+     *
+     * @param listener ChangeListener.
+     */
+    void register(ChangeListener listener);
+
+    /**
+     * Stop listening to the changes.
+     *
+     * @param listener ChangeListener.
+     */
+    void unregister(ChangeListener listener);
+
+    /**
+     * Post a change. When the current thread is in a transaction, the change
+     * is held back until {@link #flush()} is called after the transaction.
+     *
+     * @param change Change.
+     */
+    void post(Change change);
+
+    /**
+     * Deliver the changes held back by the current thread, if it is no more
+     * in a transaction. Called by
+     * {@link com.blackbooks.database.TransactionManager#endTransaction()} and
+     * {@link com.blackbooks.repositories.AbstractRepository}, next to the
+     * query and name caches.
+     */
+    void flush();
+}
@@ -0,0 +1,114 @@
+package com.blackbooks.changes;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.blackbooks.database.SQLiteHelper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The change bus of the application. The changes are delivered to the
+ * listeners on the main thread, once the transaction that made them is over,
+ * so that the listeners reading the changed rows see them. When more than
+ * {@link #MAX_ROW_COUNT} rows of a table have changed in a transaction, a
+ * single table change is delivered instead.
+ */
+public final class ChangeBusImpl implements ChangeBus {
+
+    private static final int MAX_ROW_COUNT = 100;
+
+    private final SQLiteHelper sqLiteHelper;
+    private final Handler handler;
+    private final List<ChangeListener> listeners;
+    private final ThreadLocal<List<Change>> pendingChanges;
+
+    public ChangeBusImpl(SQLiteHelper sqLiteHelper) {
+        this.sqLiteHelper = sqLiteHelper;
+        this.handler = new Handler(Looper.getMainLooper());
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.pendingChanges = new ThreadLocal<List<Change>>() {
+            @Override
+            protected List<Change> initialValue() {
+                return new ArrayList<>();
+            }
+        };
+    }
+
+    @Override
+    public void register(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void unregister(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void post(Change change) {
+        pendingChanges.get().add(change);
+        flush();
+    }
+
+    @Override
+    public void flush() {
+        List<Change> changes = pendingChanges.get();
+        if (changes.isEmpty() || sqLiteHelper.getWritableDatabase().inTransaction()) {
+            return;
+        }
+        final List<Change> committedChanges = coalesce(changes);
+        changes.clear();
+
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                for (Change change : committedChanges) {
+                    for (ChangeListener listener : listeners) {
+                        // A listener may unregister while the others are called.
+                        if (listeners.contains(listener)) {
+                            listener.onChange(change);
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Replace the row changes of the tables that have changed too much by a
+     * single table change.
+     *
+     * @param changes The changes held back.
+     * @return The changes to deliver.
+     */
+    private static List<Change> coalesce(List<Change> changes) {
+        Map<String, Integer> rowCountMap = new HashMap<>();
+        Set<String> changedTables = new HashSet<>();
+        for (Change change : changes) {
+            Integer rowCount = rowCountMap.get(change.table);
+            rowCount = (rowCount == null ? 0 : rowCount) + change.ids.length;
+            rowCountMap.put(change.table, rowCount);
+            if (change.type == Change.Type.TABLE_CHANGED || rowCount > MAX_ROW_COUNT) {
+                changedTables.add(change.table);
+            }
+        }
+
+        List<Change> committedChanges = new ArrayList<>();
+        Set<String> deliveredTables = new HashSet<>();
+        for (Change change : changes) {
+            if (!changedTables.contains(change.table)) {
+                committedChanges.add(change);
+            } else if (deliveredTables.add(change.table)) {
+                committedChanges.add(Change.tableChanged(change.table));
+            }
+        }
+        return committedChanges;
+    }
+}
@@ -0,0 +1,14 @@
+package com.blackbooks.changes;
+
+/**
+ * Listens to the changes posted on the {@link ChangeBus}.
+ */
+public interface ChangeListener {
+
+    /**
+     * Called on the main thread when a change has been committed.
+     *
+     * @param change Change.
+     */
+    void onChange(Change change);
+}
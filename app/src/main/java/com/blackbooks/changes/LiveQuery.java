@@ -0,0 +1,124 @@
+package com.blackbooks.changes;
+
+import android.os.AsyncTask;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A query whose result is loaded in the background and loaded again each time
+ * one of the tables it reads changes, as long as it is observed.
+ *
+ * @param <T> Type of the result.
+ */
+public abstract class LiveQuery<T> implements ChangeListener {
+
+    private final ChangeBus mChangeBus;
+    private final Set<String> mTables;
+
+    private Observer<T> mObserver;
+    private LoadTask mLoadTask;
+    private boolean mStale;
+
+    /**
+     * Constructor.
+     *
+     * @param changeBus ChangeBus.
+     * @param tables    The tables read by the query.
+     */
+    protected LiveQuery(ChangeBus changeBus, String... tables) {
+        mChangeBus = changeBus;
+        mTables = new HashSet<>(Arrays.asList(tables));
+    }
+
+    /**
+     * Start observing the result: it is loaded now, then each time it changes.
+     * Must be called on the main thread.
+     *
+     * @param observer Observer.
+     */
+    public final void observe(Observer<T> observer) {
+        if (mObserver == null) {
+            mChangeBus.register(this);
+        }
+        mObserver = observer;
+        load();
+    }
+
+    /**
+     * Stop observing the result. Must be called on the main thread.
+     */
+    public final void stop() {
+        mChangeBus.unregister(this);
+        mObserver = null;
+        if (mLoadTask != null) {
+            mLoadTask.cancel(true);
+            mLoadTask = null;
+        }
+    }
+
+    @Override
+    public final void onChange(Change change) {
+        if (mObserver != null && mTables.contains(change.table)) {
+            load();
+        }
+    }
+
+    /**
+     * Run the query. Called on a background thread.
+     *
+     * @return The result.
+     */
+    protected abstract T query();
+
+    /**
+     * Load the result, or load it again once the current load is over.
+     */
+    private void load() {
+        if (mLoadTask != null) {
+            mStale = true;
+        } else {
+            mStale = false;
+            mLoadTask = new LoadTask();
+            mLoadTask.execute();
+        }
+    }
+
+    /**
+     * Receives the results of a {@link LiveQuery}.
+     *
+     * @param <T> Type of the result.
+     */
+    public interface Observer<T> {
+
+        /**
+         * Called on the main thread when the result has been loaded.
+         *
+         * @param result The result.
+         */
+        void onResult(T result);
+    }
+
+    /**
+     * The task running the query.
+     */
+    private final class LoadTask extends AsyncTask<Void, Void, T> {
+
+        @Override
+        protected T doInBackground(Void... params) {
+            return query();
+        }
+
+        @Override
+        protected void onPostExecute(T result) {
+            mLoadTask = null;
+            if (mObserver != null) {
+                mObserver.onResult(result);
+                if (mStale) {
+                    load();
+                }
+            }
+        }
+    }
+}
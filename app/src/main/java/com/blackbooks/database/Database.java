@@ -6,7 +6,9 @@ import com.blackbooks.model.persistent.BookAuthor;
 import com.blackbooks.model.persistent.BookCategory;
 import com.blackbooks.model.persistent.BookLocation;
 import com.blackbooks.model.persistent.Category;
+import com.blackbooks.model.persistent.Cover;
 import com.blackbooks.model.persistent.Isbn;
+import com.blackbooks.model.persistent.LibraryStats;
 import com.blackbooks.model.persistent.Publisher;
 import com.blackbooks.model.persistent.Series;
 import com.blackbooks.model.persistent.fts.BookFTS;
@@ -30,7 +32,7 @@ public final class Database {
      * <strong>Remark:</strong> this version is completely independent from the application version.
      * </p>
      */
-    public static final int VERSION = 5;
+    public static final int VERSION = 10;
 
     private static final Database mInstance = new Database();
     private static List<Class<?>> mTables;
@@ -45,12 +47,14 @@ public final class Database {
         mTables.add(Series.class);
         mTables.add(BookLocation.class);
         mTables.add(Publisher.class);
+        mTables.add(Cover.class);
         mTables.add(Book.class);
         mTables.add(Author.class);
         mTables.add(BookAuthor.class);
         mTables.add(Category.class);
         mTables.add(BookCategory.class);
         mTables.add(Isbn.class);
+        mTables.add(LibraryStats.class);
 
         mFTSTables = new ArrayList<Class<?>>();
         mFTSTables.add(BookFTS.class);
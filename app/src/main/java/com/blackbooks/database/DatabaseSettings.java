@@ -0,0 +1,68 @@
+package com.blackbooks.database;
+
+/**
+ * The settings applied by {@link SQLiteHelper} when it opens the database.
+ */
+public final class DatabaseSettings {
+
+    /**
+     * The settings used by the application.
+     */
+    public static final DatabaseSettings DEFAULT = new DatabaseSettings(-2048, 16L * 1024 * 1024, Synchronous.NORMAL, 256, 1024 * 1024);
+
+    /**
+     * The size of the page cache: a number of pages if positive, a number of
+     * KiB if negative (PRAGMA cache_size).
+     */
+    public final int cacheSize;
+
+    /**
+     * The number of bytes of the database file that can be read through
+     * memory-mapped I/O, 0 to disable it (PRAGMA mmap_size).
+     */
+    public final long mmapSize;
+
+    /**
+     * When SQLite waits for the data to be written to the disk (PRAGMA
+     * synchronous).
+     */
+    public final Synchronous synchronous;
+
+    /**
+     * The maximum number of query results kept by the query cache of the
+     * repositories, 0 to disable it.
+     */
+    public final int queryCacheEntries;
+
+    /**
+     * The maximum memory taken by the query results kept by the query cache
+     * of the repositories, in bytes.
+     */
+    public final long queryCacheBytes;
+
+    /**
+     * Constructor.
+     *
+     * @param cacheSize         Size of the page cache.
+     * @param mmapSize          Size of the memory map.
+     * @param synchronous       Synchronous mode.
+     * @param queryCacheEntries Maximum number of cached query results.
+     * @param queryCacheBytes   Maximum memory taken by the cached query results.
+     */
+    public DatabaseSettings(int cacheSize, long mmapSize, Synchronous synchronous, int queryCacheEntries,
+                            long queryCacheBytes) {
+        this.cacheSize = cacheSize;
+        this.mmapSize = mmapSize;
+        this.synchronous = synchronous;
+        this.queryCacheEntries = queryCacheEntries;
+        this.queryCacheBytes = queryCacheBytes;
+    }
+
+    /**
+     * The values of PRAGMA synchronous. With the write-ahead log, NORMAL never
+     * corrupts the database, a power loss can only undo the last commits.
+     */
+    public enum Synchronous {
+        OFF, NORMAL, FULL
+    }
+}
@@ -0,0 +1,202 @@
+package com.blackbooks.database;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+
+import com.blackbooks.sql.QueryCache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The full-text index of the books, the BOOK_FTS table. It reads the text
+ * of the books from the BOOK table and is maintained by triggers on it, so
+ * the services never write it.
+ * <p>
+ * An external content table deletes a row by tokenizing its current text:
+ * the rows are removed from the index before the books are updated or
+ * deleted, and the books are indexed again after they are updated. The
+ * updates of the other columns of the books leave the index alone.
+ */
+public final class FullTextIndex {
+
+    private static final String TEXT_MODIFIED = "OLD.BOO_TITLE IS NOT NEW.BOO_TITLE"
+            + " OR OLD.BOO_SUBTITLE IS NOT NEW.BOO_SUBTITLE"
+            + " OR OLD.BOO_DESCRIPTION IS NOT NEW.BOO_DESCRIPTION";
+    private static final String INSERT_NEW = "\tINSERT INTO BOOK_FTS (DOCID, BOO_TITLE, BOO_SUBTITLE, BOO_DESCRIPTION)"
+            + " VALUES (NEW.BOO_ID, NEW.BOO_TITLE, NEW.BOO_SUBTITLE, NEW.BOO_DESCRIPTION);\n";
+    private static final String DELETE_OLD = "\tDELETE FROM BOOK_FTS WHERE DOCID = OLD.BOO_ID;\n";
+
+    /**
+     * The names of the triggers and their bodies, created with
+     * "CREATE TRIGGER IF NOT EXISTS " + name + body.
+     */
+    private static final String[][] TRIGGERS = {
+            {"BOOK_FTS_AFTER_INSERT", " AFTER INSERT ON BOOK BEGIN\n" +
+                    INSERT_NEW +
+                    "END;"},
+            {"BOOK_FTS_BEFORE_UPDATE", " BEFORE UPDATE OF BOO_TITLE, BOO_SUBTITLE, BOO_DESCRIPTION ON BOOK\n" +
+                    "WHEN " + TEXT_MODIFIED + " BEGIN\n" +
+                    DELETE_OLD +
+                    "END;"},
+            {"BOOK_FTS_AFTER_UPDATE", " AFTER UPDATE OF BOO_TITLE, BOO_SUBTITLE, BOO_DESCRIPTION ON BOOK\n" +
+                    "WHEN " + TEXT_MODIFIED + " BEGIN\n" +
+                    INSERT_NEW +
+                    "END;"},
+            {"BOOK_FTS_BEFORE_DELETE", " BEFORE DELETE ON BOOK BEGIN\n" +
+                    DELETE_OLD +
+                    "END;"}
+    };
+
+    /**
+     * The first version of SQLite whose FTS4 tables have the integrity-check
+     * command.
+     */
+    private static final int[] INTEGRITY_CHECK_VERSION = {3, 12, 0};
+
+    private FullTextIndex() {
+    }
+
+    /**
+     * Add the triggers to a database whose tables have just been created,
+     * then index the books.
+     *
+     * @param db SQLiteDatabase.
+     */
+    public static void create(SQLiteDatabase db) {
+        rebuild(db);
+    }
+
+    /**
+     * Declare the table written by the triggers to a query cache, so that the
+     * searches it holds are evicted with the books.
+     *
+     * @param cache QueryCache.
+     */
+    public static void addDependentTables(QueryCache cache) {
+        cache.addDependentTables("BOOK", "BOOK_FTS");
+    }
+
+    /**
+     * Drop the triggers, so that many books can be written without indexing
+     * them one by one. The index is out of date until
+     * {@link #rebuild(SQLiteDatabase)} is called.
+     *
+     * @param db SQLiteDatabase.
+     */
+    public static void dropTriggers(SQLiteDatabase db) {
+        for (String[] trigger : TRIGGERS) {
+            db.execSQL("DROP TRIGGER IF EXISTS " + trigger[0] + ";");
+        }
+    }
+
+    /**
+     * Rebuild the index if a bulk write has left it without its triggers, for
+     * instance when the application has been killed during an import.
+     *
+     * @param db SQLiteDatabase.
+     */
+    public static void recover(SQLiteDatabase db) {
+        if (!getMissingTriggers(db).isEmpty()) {
+            rebuild(db);
+        }
+    }
+
+    /**
+     * Index all the books again in a single pass and create the triggers that
+     * are missing, for instance after the books have been written by
+     * {@link #dropTriggers(SQLiteDatabase)}.
+     *
+     * @param db SQLiteDatabase.
+     */
+    public static void rebuild(SQLiteDatabase db) {
+        db.beginTransaction();
+        try {
+            for (String[] trigger : TRIGGERS) {
+                db.execSQL("CREATE TRIGGER IF NOT EXISTS " + trigger[0] + trigger[1]);
+            }
+            db.execSQL("INSERT INTO BOOK_FTS (BOOK_FTS) VALUES ('rebuild');");
+
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Compare the index with the books: the triggers must exist and each book
+     * must be indexed once. When SQLite has it, the integrity-check command
+     * also compares the terms of the index with the text of the books.
+     *
+     * @param db SQLiteDatabase.
+     * @return The description of each error, empty if the index is right.
+     */
+    public static List<String> check(SQLiteDatabase db) {
+        List<String> errors = new ArrayList<>();
+
+        for (String trigger : getMissingTriggers(db)) {
+            errors.add("The trigger " + trigger + " is missing.");
+        }
+
+        // The docsize table of BOOK_FTS has a row per indexed book.
+        Cursor cursor = db.rawQuery("SELECT BOO_ID FROM BOOK WHERE BOO_ID NOT IN (SELECT DOCID FROM BOOK_FTS_docsize);", null);
+        try {
+            while (cursor.moveToNext()) {
+                errors.add("BOOK " + cursor.getLong(0) + " is not indexed.");
+            }
+        } finally {
+            cursor.close();
+        }
+        cursor = db.rawQuery("SELECT DOCID FROM BOOK_FTS_docsize WHERE DOCID NOT IN (SELECT BOO_ID FROM BOOK);", null);
+        try {
+            while (cursor.moveToNext()) {
+                errors.add("BOOK_FTS indexes the deleted book " + cursor.getLong(0) + ".");
+            }
+        } finally {
+            cursor.close();
+        }
+
+        if (hasIntegrityCheck(db)) {
+            try {
+                db.execSQL("INSERT INTO BOOK_FTS (BOOK_FTS) VALUES ('integrity-check');");
+            } catch (SQLiteException e) {
+                errors.add("BOOK_FTS does not match the books: " + e.getMessage());
+            }
+        }
+        return errors;
+    }
+
+    private static List<String> getMissingTriggers(SQLiteDatabase db) {
+        List<String> missingTriggers = new ArrayList<>();
+        for (String[] trigger : TRIGGERS) {
+            missingTriggers.add(trigger[0]);
+        }
+        Cursor cursor = db.rawQuery("SELECT name FROM sqlite_master WHERE type = 'trigger' AND tbl_name = 'BOOK';", null);
+        try {
+            while (cursor.moveToNext()) {
+                missingTriggers.remove(cursor.getString(0));
+            }
+        } finally {
+            cursor.close();
+        }
+        return missingTriggers;
+    }
+
+    private static boolean hasIntegrityCheck(SQLiteDatabase db) {
+        Cursor cursor = db.rawQuery("SELECT sqlite_version();", null);
+        try {
+            cursor.moveToFirst();
+            String[] version = cursor.getString(0).split("\\.");
+            for (int i = 0; i < INTEGRITY_CHECK_VERSION.length; i++) {
+                int number = i < version.length ? Integer.parseInt(version[i]) : 0;
+                if (number != INTEGRITY_CHECK_VERSION[i]) {
+                    return number > INTEGRITY_CHECK_VERSION[i];
+                }
+            }
+            return true;
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.blackbooks.database;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.blackbooks.sql.QueryCache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The counters of the library: the row of the LIBRARY_STATS table and the
+ * book count columns of the AUTHOR, CATEGORY, SERIES and BOOK_LOCATION
+ * tables. They are maintained by triggers, so the summary and the group lists
+ * read them instead of counting the books.
+ * <p>
+ * The counts mirror the queries of the repositories: the languages are the
+ * distinct language codes and the loans the distinct persons who are loaned
+ * a book.
+ */
+public final class LibraryStatistics {
+
+    /**
+     * The count of each group table and the query counting it from the books.
+     */
+    private static final String[][] GROUP_COUNTS = {
+            {"AUTHOR", "AUT_ID", "AUT_BOOK_COUNT", "SELECT COUNT(*) FROM BOOK_AUTHOR WHERE BOOK_AUTHOR.AUT_ID = AUTHOR.AUT_ID"},
+            {"CATEGORY", "CAT_ID", "CAT_BOOK_COUNT", "SELECT COUNT(*) FROM BOOK_CATEGORY WHERE BOOK_CATEGORY.CAT_ID = CATEGORY.CAT_ID"},
+            {"SERIES", "SER_ID", "SER_BOOK_COUNT", "SELECT COUNT(*) FROM BOOK WHERE BOOK.SER_ID = SERIES.SER_ID"},
+            {"BOOK_LOCATION", "BKL_ID", "BKL_BOOK_COUNT", "SELECT COUNT(*) FROM BOOK WHERE BOOK.BKL_ID = BOOK_LOCATION.BKL_ID"}
+    };
+
+    /**
+     * The columns of LIBRARY_STATS and the query counting each of them.
+     */
+    private static final String[][] LIBRARY_COUNTS = {
+            {"LIS_BOOKS", "SELECT COUNT(*) FROM BOOK"},
+            {"LIS_AUTHORS", "SELECT COUNT(*) FROM AUTHOR"},
+            {"LIS_CATEGORIES", "SELECT COUNT(*) FROM CATEGORY"},
+            {"LIS_LANGUAGES", "SELECT COUNT(DISTINCT BOO_LANGUAGE_CODE) FROM BOOK"},
+            {"LIS_SERIES", "SELECT COUNT(*) FROM SERIES"},
+            {"LIS_BOOK_LOCATIONS", "SELECT COUNT(*) FROM BOOK_LOCATION"},
+            {"LIS_TO_READ", "SELECT COUNT(*) FROM BOOK WHERE BOO_IS_READ = 0"},
+            {"LIS_LOANS", "SELECT COUNT(DISTINCT BOO_LOANED_TO) FROM BOOK WHERE BOO_LOANED_TO IS NOT NULL"},
+            {"LIS_FAVOURITES", "SELECT COUNT(*) FROM BOOK WHERE BOO_IS_FAVOURITE = 1"}
+    };
+
+    /**
+     * Each table written by the triggers and the tables whose triggers write it.
+     */
+    private static final String[][] TRIGGER_TARGETS = {
+            {"LIBRARY_STATS", "BOOK", "AUTHOR", "CATEGORY", "SERIES", "BOOK_LOCATION"},
+            {"AUTHOR", "BOOK_AUTHOR"},
+            {"CATEGORY", "BOOK_CATEGORY"},
+            {"SERIES", "BOOK"},
+            {"BOOK_LOCATION", "BOOK"}
+    };
+
+    // A language code or a person is counted when the first book having it is
+    // added and uncounted when the last one is removed. The codes are compared
+    // case-sensitively, like COUNT(DISTINCT), the COLLATE NOCASE comparison
+    // only lets SQLite find the other books in the BOOK_BOO_LANGUAGE_CODE index.
+    private static final String FIRST_LANGUAGE = "(NEW.BOO_LANGUAGE_CODE IS NOT NULL AND NOT EXISTS (SELECT 1 FROM BOOK WHERE BOO_LANGUAGE_CODE = NEW.BOO_LANGUAGE_CODE COLLATE NOCASE AND BOO_LANGUAGE_CODE = NEW.BOO_LANGUAGE_CODE AND BOO_ID <> NEW.BOO_ID))";
+    private static final String LAST_LANGUAGE = "(OLD.BOO_LANGUAGE_CODE IS NOT NULL AND NOT EXISTS (SELECT 1 FROM BOOK WHERE BOO_LANGUAGE_CODE = OLD.BOO_LANGUAGE_CODE COLLATE NOCASE AND BOO_LANGUAGE_CODE = OLD.BOO_LANGUAGE_CODE))";
+    private static final String FIRST_LOAN = "(NEW.BOO_LOANED_TO IS NOT NULL AND NOT EXISTS (SELECT 1 FROM BOOK WHERE BOO_LOANED_TO = NEW.BOO_LOANED_TO AND BOO_ID <> NEW.BOO_ID))";
+    private static final String LAST_LOAN = "(OLD.BOO_LOANED_TO IS NOT NULL AND NOT EXISTS (SELECT 1 FROM BOOK WHERE BOO_LOANED_TO = OLD.BOO_LOANED_TO))";
+
+    private static final String[] TRIGGERS = {
+            "CREATE TRIGGER AUTHOR_AFTER_INSERT AFTER INSERT ON AUTHOR BEGIN\n" +
+                    "\tUPDATE LIBRARY_STATS SET LIS_AUTHORS = LIS_AUTHORS + 1;\n" +
+                    "END;",
+            "CREATE TRIGGER AUTHOR_AFTER_DELETE AFTER DELETE ON AUTHOR BEGIN\n" +
+                    "\tUPDATE LIBRARY_STATS SET LIS_AUTHORS = LIS_AUTHORS - 1;\n" +
+                    "END;",
+            "CREATE TRIGGER CATEGORY_AFTER_INSERT AFTER INSERT ON CATEGORY BEGIN\n" +
+                    "\tUPDATE LIBRARY_STATS SET LIS_CATEGORIES = LIS_CATEGORIES + 1;\n" +
+                    "END;",
+            "CREATE TRIGGER CATEGORY_AFTER_DELETE AFTER DELETE ON CATEGORY BEGIN\n" +
+                    "\tUPDATE LIBRARY_STATS SET LIS_CATEGORIES = LIS_CATEGORIES - 1;\n" +
+                    "END;",
+            "CREATE TRIGGER SERIES_AFTER_INSERT AFTER INSERT ON SERIES BEGIN\n" +
+                    "\tUPDATE LIBRARY_STATS SET LIS_SERIES = LIS_SERIES + 1;\n" +
+                    "END;",
+            "CREATE TRIGGER SERIES_AFTER_DELETE AFTER DELETE ON SERIES BEGIN\n" +
+                    "\tUPDATE LIBRARY_STATS SET LIS_SERIES = LIS_SERIES - 1;\n" +
+                    "END;",
+            "CREATE TRIGGER BOOK_LOCATION_AFTER_INSERT AFTER INSERT ON BOOK_LOCATION BEGIN\n" +
+                    "\tUPDATE LIBRARY_STATS SET LIS_BOOK_LOCATIONS = LIS_BOOK_LOCATIONS + 1;\n" +
+                    "END;",
+            "CREATE TRIGGER BOOK_LOCATION_AFTER_DELETE AFTER DELETE ON BOOK_LOCATION BEGIN\n" +
+                    "\tUPDATE LIBRARY_STATS SET LIS_BOOK_LOCATIONS = LIS_BOOK_LOCATIONS - 1;\n" +
+                    "END;",
+
+            "CREATE TRIGGER BOOK_AFTER_INSERT AFTER INSERT ON BOOK BEGIN\n" +
+                    "\tUPDATE LIBRARY_STATS SET\n" +
+                    "\t\tLIS_BOOKS = LIS_BOOKS + 1,\n" +
+                    "\t\tLIS_TO_READ = LIS_TO_READ + (NEW.BOO_IS_READ = 0),\n" +
+                    "\t\tLIS_FAVOURITES = LIS_FAVOURITES + (NEW.BOO_IS_FAVOURITE = 1),\n" +
+                    "\t\tLIS_LANGUAGES = LIS_LANGUAGES + " + FIRST_LANGUAGE + ",\n" +
+                    "\t\tLIS_LOANS = LIS_LOANS + " + FIRST_LOAN + ";\n" +
+                    "\tUPDATE SERIES SET SER_BOOK_COUNT = SER_BOOK_COUNT + 1 WHERE SER_ID = NEW.SER_ID;\n" +
+                    "\tUPDATE BOOK_LOCATION SET BKL_BOOK_COUNT = BKL_BOOK_COUNT + 1 WHERE BKL_ID = NEW.BKL_ID;\n" +
+                    "END;",
+            "CREATE TRIGGER BOOK_AFTER_DELETE AFTER DELETE ON BOOK BEGIN\n" +
+                    "\tUPDATE LIBRARY_STATS SET\n" +
+                    "\t\tLIS_BOOKS = LIS_BOOKS - 1,\n" +
+                    "\t\tLIS_TO_READ = LIS_TO_READ - (OLD.BOO_IS_READ = 0),\n" +
+                    "\t\tLIS_FAVOURITES = LIS_FAVOURITES - (OLD.BOO_IS_FAVOURITE = 1),\n" +
+                    "\t\tLIS_LANGUAGES = LIS_LANGUAGES - " + LAST_LANGUAGE + ",\n" +
+                    "\t\tLIS_LOANS = LIS_LOANS - " + LAST_LOAN + ";\n" +
+                    "\tUPDATE SERIES SET SER_BOOK_COUNT = SER_BOOK_COUNT - 1 WHERE SER_ID = OLD.SER_ID;\n" +
+                    "\tUPDATE BOOK_LOCATION SET BKL_BOOK_COUNT = BKL_BOOK_COUNT - 1 WHERE BKL_ID = OLD.BKL_ID;\n" +
+                    "END;",
+            "CREATE TRIGGER BOOK_AFTER_UPDATE_IS_READ AFTER UPDATE OF BOO_IS_READ ON BOOK\n" +
+                    "WHEN NEW.BOO_IS_READ IS NOT OLD.BOO_IS_READ BEGIN\n" +
+                    "\tUPDATE LIBRARY_STATS SET LIS_TO_READ = LIS_TO_READ + (NEW.BOO_IS_READ = 0) - (OLD.BOO_IS_READ = 0);\n" +
+                    "END;",
+            "CREATE TRIGGER BOOK_AFTER_UPDATE_IS_FAVOURITE AFTER UPDATE OF BOO_IS_FAVOURITE ON BOOK\n" +
+                    "WHEN NEW.BOO_IS_FAVOURITE IS NOT OLD.BOO_IS_FAVOURITE BEGIN\n" +
+                    "\tUPDATE LIBRARY_STATS SET LIS_FAVOURITES = LIS_FAVOURITES + (NEW.BOO_IS_FAVOURITE = 1) - (OLD.BOO_IS_FAVOURITE = 1);\n" +
+                    "END;",
+            "CREATE TRIGGER BOOK_AFTER_UPDATE_LANGUAGE_CODE AFTER UPDATE OF BOO_LANGUAGE_CODE ON BOOK\n" +
+                    "WHEN NEW.BOO_LANGUAGE_CODE IS NOT OLD.BOO_LANGUAGE_CODE BEGIN\n" +
+                    "\tUPDATE LIBRARY_STATS SET LIS_LANGUAGES = LIS_LANGUAGES + " + FIRST_LANGUAGE + " - " + LAST_LANGUAGE + ";\n" +
+                    "END;",
+            "CREATE TRIGGER BOOK_AFTER_UPDATE_LOANED_TO AFTER UPDATE OF BOO_LOANED_TO ON BOOK\n" +
+                    "WHEN NEW.BOO_LOANED_TO IS NOT OLD.BOO_LOANED_TO BEGIN\n" +
+                    "\tUPDATE LIBRARY_STATS SET LIS_LOANS = LIS_LOANS + " + FIRST_LOAN + " - " + LAST_LOAN + ";\n" +
+                    "END;",
+            "CREATE TRIGGER BOOK_AFTER_UPDATE_SER_ID AFTER UPDATE OF SER_ID ON BOOK\n" +
+                    "WHEN NEW.SER_ID IS NOT OLD.SER_ID BEGIN\n" +
+                    "\tUPDATE SERIES SET SER_BOOK_COUNT = SER_BOOK_COUNT - 1 WHERE SER_ID = OLD.SER_ID;\n" +
+                    "\tUPDATE SERIES SET SER_BOOK_COUNT = SER_BOOK_COUNT + 1 WHERE SER_ID = NEW.SER_ID;\n" +
+                    "END;",
+            "CREATE TRIGGER BOOK_AFTER_UPDATE_BKL_ID AFTER UPDATE OF BKL_ID ON BOOK\n" +
+                    "WHEN NEW.BKL_ID IS NOT OLD.BKL_ID BEGIN\n" +
+                    "\tUPDATE BOOK_LOCATION SET BKL_BOOK_COUNT = BKL_BOOK_COUNT - 1 WHERE BKL_ID = OLD.BKL_ID;\n" +
+                    "\tUPDATE BOOK_LOCATION SET BKL_BOOK_COUNT = BKL_BOOK_COUNT + 1 WHERE BKL_ID = NEW.BKL_ID;\n" +
+                    "END;",
+
+            "CREATE TRIGGER BOOK_AUTHOR_AFTER_INSERT AFTER INSERT ON BOOK_AUTHOR BEGIN\n" +
+                    "\tUPDATE AUTHOR SET AUT_BOOK_COUNT = AUT_BOOK_COUNT + 1 WHERE AUT_ID = NEW.AUT_ID;\n" +
+                    "END;",
+            "CREATE TRIGGER BOOK_AUTHOR_AFTER_DELETE AFTER DELETE ON BOOK_AUTHOR BEGIN\n" +
+                    "\tUPDATE AUTHOR SET AUT_BOOK_COUNT = AUT_BOOK_COUNT - 1 WHERE AUT_ID = OLD.AUT_ID;\n" +
+                    "END;",
+            "CREATE TRIGGER BOOK_AUTHOR_AFTER_UPDATE_AUT_ID AFTER UPDATE OF AUT_ID ON BOOK_AUTHOR\n" +
+                    "WHEN NEW.AUT_ID IS NOT OLD.AUT_ID BEGIN\n" +
+                    "\tUPDATE AUTHOR SET AUT_BOOK_COUNT = AUT_BOOK_COUNT - 1 WHERE AUT_ID = OLD.AUT_ID;\n" +
+                    "\tUPDATE AUTHOR SET AUT_BOOK_COUNT = AUT_BOOK_COUNT + 1 WHERE AUT_ID = NEW.AUT_ID;\n" +
+                    "END;",
+            "CREATE TRIGGER BOOK_CATEGORY_AFTER_INSERT AFTER INSERT ON BOOK_CATEGORY BEGIN\n" +
+                    "\tUPDATE CATEGORY SET CAT_BOOK_COUNT = CAT_BOOK_COUNT + 1 WHERE CAT_ID = NEW.CAT_ID;\n" +
+                    "END;",
+            "CREATE TRIGGER BOOK_CATEGORY_AFTER_DELETE AFTER DELETE ON BOOK_CATEGORY BEGIN\n" +
+                    "\tUPDATE CATEGORY SET CAT_BOOK_COUNT = CAT_BOOK_COUNT - 1 WHERE CAT_ID = OLD.CAT_ID;\n" +
+                    "END;",
+            "CREATE TRIGGER BOOK_CATEGORY_AFTER_UPDATE_CAT_ID AFTER UPDATE OF CAT_ID ON BOOK_CATEGORY\n" +
+                    "WHEN NEW.CAT_ID IS NOT OLD.CAT_ID BEGIN\n" +
+                    "\tUPDATE CATEGORY SET CAT_BOOK_COUNT = CAT_BOOK_COUNT - 1 WHERE CAT_ID = OLD.CAT_ID;\n" +
+                    "\tUPDATE CATEGORY SET CAT_BOOK_COUNT = CAT_BOOK_COUNT + 1 WHERE CAT_ID = NEW.CAT_ID;\n" +
+                    "END;"
+    };
+
+    private LibraryStatistics() {
+    }
+
+    /**
+     * Add the triggers to a database whose tables, book count columns
+     * included, have just been created, then compute the counters.
+     *
+     * @param db SQLiteDatabase.
+     */
+    public static void create(SQLiteDatabase db) {
+        for (String trigger : TRIGGERS) {
+            db.execSQL(trigger);
+        }
+        rebuild(db);
+    }
+
+    /**
+     * Declare the tables written by the triggers to a query cache, so that
+     * the counters it holds are evicted with the books.
+     *
+     * @param cache QueryCache.
+     */
+    public static void addDependentTables(QueryCache cache) {
+        for (String[] triggerTarget : TRIGGER_TARGETS) {
+            for (int i = 1; i < triggerTarget.length; i++) {
+                cache.addDependentTables(triggerTarget[i], triggerTarget[0]);
+            }
+        }
+    }
+
+    /**
+     * Compute all the counters again from the books, for instance after the
+     * tables have been modified with the triggers disabled or dropped.
+     *
+     * @param db SQLiteDatabase.
+     */
+    public static void rebuild(SQLiteDatabase db) {
+        db.beginTransaction();
+        try {
+            for (String[] groupCount : GROUP_COUNTS) {
+                db.execSQL("UPDATE " + groupCount[0] + " SET " + groupCount[2] + " = (" + groupCount[3] + ");");
+            }
+
+            StringBuilder columns = new StringBuilder("LIS_ID");
+            StringBuilder values = new StringBuilder("1");
+            for (String[] libraryCount : LIBRARY_COUNTS) {
+                columns.append(", ").append(libraryCount[0]);
+                values.append(", (").append(libraryCount[1]).append(")");
+            }
+            db.execSQL("DELETE FROM LIBRARY_STATS;");
+            db.execSQL("INSERT INTO LIBRARY_STATS (" + columns + ") VALUES (" + values + ");");
+
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Compare the counters with the counts computed from the books.
+     *
+     * @param db SQLiteDatabase.
+     * @return The description of each wrong counter, empty if they are all right.
+     */
+    public static List<String> check(SQLiteDatabase db) {
+        List<String> errors = new ArrayList<>();
+
+        for (String[] groupCount : GROUP_COUNTS) {
+            String sql = "SELECT " + groupCount[1] + ", " + groupCount[2] + ", (" + groupCount[3] + ") FROM " + groupCount[0]
+                    + " WHERE " + groupCount[2] + " <> (" + groupCount[3] + ");";
+            Cursor cursor = db.rawQuery(sql, null);
+            try {
+                while (cursor.moveToNext()) {
+                    errors.add(groupCount[0] + " " + cursor.getLong(0) + ": " + groupCount[2] + " is " + cursor.getLong(1)
+                            + " instead of " + cursor.getLong(2) + ".");
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*)");
+        for (String[] libraryCount : LIBRARY_COUNTS) {
+            sql.append(", MAX(").append(libraryCount[0]).append("), (").append(libraryCount[1]).append(")");
+        }
+        sql.append(" FROM LIBRARY_STATS;");
+        Cursor cursor = db.rawQuery(sql.toString(), null);
+        try {
+            cursor.moveToFirst();
+            if (cursor.getLong(0) != 1) {
+                errors.add("LIBRARY_STATS has " + cursor.getLong(0) + " rows instead of 1.");
+            } else {
+                for (int i = 0; i < LIBRARY_COUNTS.length; i++) {
+                    long actual = cursor.getLong(1 + 2 * i);
+                    long expected = cursor.getLong(2 + 2 * i);
+                    if (actual != expected) {
+                        errors.add("LIBRARY_STATS: " + LIBRARY_COUNTS[i][0] + " is " + actual + " instead of " + expected + ".");
+                    }
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        return errors;
+    }
+}
@@ -1,45 +1,75 @@
 package com.blackbooks.database;
 
 import android.content.Context;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
 import android.util.Log;
 
+import com.blackbooks.database.upgrades.Version10;
 import com.blackbooks.database.upgrades.Version2;
 import com.blackbooks.database.upgrades.Version3;
 import com.blackbooks.database.upgrades.Version4;
 import com.blackbooks.database.upgrades.Version5;
+import com.blackbooks.database.upgrades.Version6;
+import com.blackbooks.database.upgrades.Version7;
+import com.blackbooks.database.upgrades.Version8;
+import com.blackbooks.database.upgrades.Version9;
 import com.blackbooks.sql.Broker;
 import com.blackbooks.sql.BrokerManager;
 import com.blackbooks.sql.FTSBroker;
 import com.blackbooks.sql.FTSBrokerManager;
+import com.blackbooks.sql.QueryCache;
+import com.blackbooks.sql.QueryCacheManager;
 import com.blackbooks.utils.LogUtils;
 
 import java.util.List;
 
 /**
  * Helper class to create/open/upgrade the database.
+ * <p>
+ * The database uses a write-ahead log: SQLiteDatabase then keeps a pool of
+ * connections, one for the writes and the others for the reads made outside
+ * of a transaction. A long write transaction, like an import, does not block
+ * the reads of the other threads, which see the database as it was before
+ * the transaction.
  */
 public final class SQLiteHelper extends SQLiteOpenHelper {
 
     private static SQLiteHelper mInstance;
 
+    private final DatabaseSettings mSettings;
+
+    private boolean mForeignKeysDeferred;
+
     /**
      * Private constructor.
      *
-     * @param context Context.
+     * @param context  Context.
+     * @param settings DatabaseSettings.
      */
-    private SQLiteHelper(Context context) {
+    private SQLiteHelper(Context context, DatabaseSettings settings) {
         super(context, Database.NAME, null, Database.VERSION);
+        mSettings = settings;
     }
 
     /**
-     * Initialize the singleton.
+     * Initialize the singleton with the default settings.
      *
      * @param context Context.
      */
     public static synchronized void initialize(Context context) {
-        mInstance = new SQLiteHelper(context);
+        initialize(context, DatabaseSettings.DEFAULT);
+    }
+
+    /**
+     * Initialize the singleton.
+     *
+     * @param context  Context.
+     * @param settings DatabaseSettings.
+     */
+    public static synchronized void initialize(Context context, DatabaseSettings settings) {
+        mInstance = new SQLiteHelper(context, settings);
     }
 
     /**
@@ -74,21 +104,65 @@ public final class SQLiteHelper extends SQLiteOpenHelper {
         }
         Log.i(LogUtils.TAG, "Full-Text-Search tables successfully created.");
 
+        LibraryStatistics.create(db);
+        FullTextIndex.create(db);
+
         Log.i(LogUtils.TAG, "Database successfully created.");
     }
 
     @Override
-    public SQLiteDatabase getWritableDatabase() {
-        SQLiteDatabase db = super.getWritableDatabase();
+    public void onConfigure(SQLiteDatabase db) {
+        db.enableWriteAheadLogging();
+
+        // The foreign keys are enabled for all the connections of the pool.
+        // The upgrades drop tables that other tables reference: a database
+        // about to be created or upgraded gets them in onOpen, once ready.
+        mForeignKeysDeferred = db.getVersion() != Database.VERSION;
+        if (!mForeignKeysDeferred && !db.isReadOnly()) {
+            db.setForeignKeyConstraintsEnabled(true);
+        }
+
+        // The pragmas are run on the primary connection, used for the writes
+        // and for all the reads made in a transaction. SQLiteDatabase has no
+        // hook for the read connections of the pool, opened on demand, that
+        // keep the cache_size and mmap_size of SQLite. synchronous only
+        // matters to the commits, which are all made on this connection.
+        executePragma(db, "cache_size = " + mSettings.cacheSize);
+        executePragma(db, "mmap_size = " + mSettings.mmapSize);
+        executePragma(db, "synchronous = " + mSettings.synchronous.name());
+    }
+
+    @Override
+    public void onOpen(SQLiteDatabase db) {
+        if (!db.isReadOnly()) {
+            if (mForeignKeysDeferred) {
+                db.setForeignKeyConstraintsEnabled(true);
+                mForeignKeysDeferred = false;
+            }
+            FullTextIndex.recover(db);
+        }
 
-        // Enable foreign keys. It must be executed every time we get the
-        // database.
-        db.execSQL("PRAGMA foreign_keys = ON;");
-        return db;
+        QueryCache queryCache = QueryCacheManager.getCache(db);
+        queryCache.setLimits(mSettings.queryCacheEntries, mSettings.queryCacheBytes);
+        for (Class<?> table : Database.getInstance().getTables()) {
+            queryCache.addCascadingForeignKeys(table);
+        }
+        LibraryStatistics.addDependentTables(queryCache);
+        FullTextIndex.addDependentTables(queryCache);
+    }
+
+    /**
+     * Copy the content of the write-ahead log to the database file, so that
+     * the file alone holds all the committed transactions.
+     */
+    public void checkpoint() {
+        executePragma(getWritableDatabase(), "wal_checkpoint(FULL)");
     }
 
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        Log.i(LogUtils.TAG, "Upgrading the database from version " + oldVersion + " to version " + newVersion + ".");
+        long start = System.currentTimeMillis();
 
         if (oldVersion < 2) {
             Version2.upgrade(db);
@@ -102,5 +176,38 @@ public final class SQLiteHelper extends SQLiteOpenHelper {
         if (oldVersion < 5) {
             Version5.upgrade(db);
         }
+        if (oldVersion < 6) {
+            Version6.upgrade(db);
+        }
+        if (oldVersion < 7) {
+            Version7.upgrade(db);
+        }
+        if (oldVersion < 8) {
+            Version8.upgrade(db);
+        }
+        if (oldVersion < 9) {
+            Version9.upgrade(db);
+        }
+        if (oldVersion < 10) {
+            Version10.upgrade(db);
+        }
+
+        Log.i(LogUtils.TAG, "Database successfully upgraded in " + (System.currentTimeMillis() - start) + " ms.");
+    }
+
+    /**
+     * Execute a pragma. Some pragmas return their new value, they cannot be
+     * executed by {@link SQLiteDatabase#execSQL(String)}.
+     *
+     * @param db     SQLiteDatabase.
+     * @param pragma The pragma, without the PRAGMA keyword.
+     */
+    private static void executePragma(SQLiteDatabase db, String pragma) {
+        Cursor cursor = db.rawQuery("PRAGMA " + pragma + ";", null);
+        try {
+            cursor.moveToFirst();
+        } finally {
+            cursor.close();
+        }
     }
 }
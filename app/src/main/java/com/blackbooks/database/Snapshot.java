@@ -0,0 +1,234 @@
+package com.blackbooks.database;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import com.blackbooks.model.persistent.Author;
+import com.blackbooks.model.persistent.Book;
+import com.blackbooks.model.persistent.BookAuthor;
+import com.blackbooks.model.persistent.BookCategory;
+import com.blackbooks.model.persistent.BookLocation;
+import com.blackbooks.model.persistent.Category;
+import com.blackbooks.model.persistent.Cover;
+import com.blackbooks.model.persistent.Publisher;
+import com.blackbooks.model.persistent.Series;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A snapshot of the library: the books, the tables they reference and the
+ * covers, in a compact binary format read and written as a stream.
+ * <p>
+ * The snapshot starts with the {@link #MAGIC} bytes, the {@link #VERSION} of
+ * the format and a byte of flags. When {@link #FLAG_DEFLATE} is set,
+ * everything that follows is compressed with deflate. Then come the tables:
+ * the name of the table, the number of columns and their names, then the
+ * records, each one preceded by its length, and an empty record. A table with
+ * an empty name ends the snapshot. A record holds a type byte per column
+ * followed by the value: a zigzag varint for an integer, 8 bytes for a real,
+ * a length-prefixed UTF-8 text or blob, nothing for null. Lengths and counts
+ * are unsigned varints.
+ * <p>
+ * The names of the tables and columns make old snapshots readable when
+ * columns are added: the columns unknown to the reader are skipped and the
+ * missing ones get their default values. The counters maintained by
+ * {@link LibraryStatistics} are not written, the triggers compute them again.
+ */
+public final class Snapshot {
+
+    public static final byte[] MAGIC = {'B', 'B', 'S', 'N'};
+    public static final int VERSION = 1;
+
+    public static final int FLAG_DEFLATE = 1;
+
+    public static final int TYPE_NULL = 0;
+    public static final int TYPE_INTEGER = 1;
+    public static final int TYPE_REAL = 2;
+    public static final int TYPE_TEXT = 3;
+    public static final int TYPE_BLOB = 4;
+
+    /**
+     * The tables of a snapshot and their columns, the first one being the
+     * primary key. The referenced tables come first so that the rows can be
+     * inserted in this order.
+     */
+    private static final String[][] TABLES = {
+            {Cover.NAME, Cover.Cols.COV_ID, Cover.Cols.COV_HASH, Cover.Cols.COV_IMAGE},
+            {Author.NAME, Author.Cols.AUT_ID, Author.Cols.AUT_NAME},
+            {Category.NAME, Category.Cols.CAT_ID, Category.Cols.CAT_NAME},
+            {Publisher.NAME, Publisher.Cols.PUB_ID, Publisher.Cols.PUB_NAME},
+            {Series.NAME, Series.Cols.SER_ID, Series.Cols.SER_NAME},
+            {BookLocation.NAME, BookLocation.Cols.BKL_ID, BookLocation.Cols.BKL_NAME},
+            {Book.NAME, Book.Cols.BOO_ID, Book.Cols.BOO_TITLE, Book.Cols.BOO_SUBTITLE, Book.Cols.BOO_LANGUAGE_CODE,
+                    Book.Cols.PUB_ID, Book.Cols.BOO_PUBLISHED_DATE, Book.Cols.BOO_DESCRIPTION, Book.Cols.BOO_PAGE_COUNT,
+                    Book.Cols.BOO_SMALL_THUMBNAIL_COV_ID, Book.Cols.BOO_THUMBNAIL_COV_ID, Book.Cols.BOO_IS_READ,
+                    Book.Cols.BOO_IS_FAVOURITE, Book.Cols.BOO_ISBN_10, Book.Cols.BOO_ISBN_13, Book.Cols.BOO_COMMENT,
+                    Book.Cols.BKL_ID, Book.Cols.SER_ID, Book.Cols.BOO_NUMBER, Book.Cols.BOO_LOANED_TO,
+                    Book.Cols.BOO_LOAN_DATE},
+            {BookAuthor.NAME, BookAuthor.Cols.BKA_ID, BookAuthor.Cols.BOO_ID, BookAuthor.Cols.AUT_ID},
+            {BookCategory.NAME, BookCategory.Cols.BCA_ID, BookCategory.Cols.BOO_ID, BookCategory.Cols.CAT_ID}
+    };
+
+    private Snapshot() {
+    }
+
+    /**
+     * Get the names of the tables of a snapshot, in the order they are
+     * written.
+     *
+     * @return Table names.
+     */
+    public static List<String> getTables() {
+        List<String> tables = new ArrayList<>(TABLES.length);
+        for (String[] table : TABLES) {
+            tables.add(table[0]);
+        }
+        return tables;
+    }
+
+    /**
+     * Write a snapshot of the library. Should be called in a transaction, so
+     * that the tables are read in the same state.
+     *
+     * @param db           SQLiteDatabase.
+     * @param outputStream The stream of the snapshot. It is not closed.
+     * @param compress     True to compress the snapshot with deflate.
+     * @return The number of books written.
+     * @throws IOException if the stream cannot be written.
+     */
+    public static int write(SQLiteDatabase db, OutputStream outputStream, boolean compress) throws IOException {
+        SnapshotWriter writer = new SnapshotWriter(outputStream, compress);
+        int bookCount = 0;
+        for (String[] table : TABLES) {
+            String[] columns = getColumns(table);
+            String sql = "SELECT " + join(columns) + " FROM " + table[0] + " ORDER BY " + columns[0];
+            Cursor cursor = db.rawQuery(sql, null);
+            try {
+                int rowCount = writer.writeTable(table[0], columns, cursor);
+                if (table[0].equals(Book.NAME)) {
+                    bookCount = rowCount;
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        writer.finish();
+        return bookCount;
+    }
+
+    /**
+     * Insert the rows of a snapshot into tables that have just been emptied
+     * by {@link #clear(SQLiteDatabase)}. The rows keep their ids. Each table is
+     * inserted with a single compiled statement, bound again for each record.
+     * Must be called in a transaction.
+     *
+     * @param db          SQLiteDatabase.
+     * @param inputStream The stream of the snapshot. It is not closed.
+     * @return The number of books read.
+     * @throws IOException if the stream cannot be read or is not a valid snapshot.
+     */
+    public static int read(SQLiteDatabase db, InputStream inputStream) throws IOException {
+        SnapshotReader reader = new SnapshotReader(inputStream);
+        int bookCount = 0;
+        String tableName;
+        while ((tableName = reader.nextTable()) != null) {
+            String[] table = getTable(tableName);
+            if (table == null) {
+                // A table of a later version of the format.
+                continue;
+            }
+
+            // The values of the columns unknown to this version are not bound.
+            String[] columns = reader.getColumns();
+            List<String> knownColumnList = new ArrayList<>(columns.length);
+            int[] knownColumnIndexes = new int[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                if (contains(table, columns[i])) {
+                    knownColumnIndexes[knownColumnList.size()] = i;
+                    knownColumnList.add(columns[i]);
+                }
+            }
+            if (knownColumnList.isEmpty()) {
+                continue;
+            }
+
+            String[] knownColumns = knownColumnList.toArray(new String[knownColumnList.size()]);
+            StringBuilder sql = new StringBuilder();
+            sql.append("INSERT INTO ").append(tableName).append(" (").append(join(knownColumns)).append(") VALUES (?");
+            for (int i = 1; i < knownColumns.length; i++) {
+                sql.append(", ?");
+            }
+            sql.append(")");
+
+            SQLiteStatement statement = db.compileStatement(sql.toString());
+            try {
+                int rowCount = 0;
+                while (reader.nextRecord()) {
+                    for (int i = 0; i < knownColumns.length; i++) {
+                        reader.bind(knownColumnIndexes[i], statement, i + 1);
+                    }
+                    statement.executeInsert();
+                    rowCount++;
+                }
+                if (tableName.equals(Book.NAME)) {
+                    bookCount = rowCount;
+                }
+            } finally {
+                statement.close();
+            }
+        }
+        return bookCount;
+    }
+
+    /**
+     * Delete the rows of the tables of a snapshot. Must be called in a
+     * transaction.
+     *
+     * @param db SQLiteDatabase.
+     */
+    public static void clear(SQLiteDatabase db) {
+        for (int i = TABLES.length - 1; i >= 0; i--) {
+            db.delete(TABLES[i][0], null, null);
+        }
+    }
+
+    private static String[] getTable(String tableName) {
+        for (String[] table : TABLES) {
+            if (table[0].equals(tableName)) {
+                return table;
+            }
+        }
+        return null;
+    }
+
+    private static String[] getColumns(String[] table) {
+        String[] columns = new String[table.length - 1];
+        System.arraycopy(table, 1, columns, 0, columns.length);
+        return columns;
+    }
+
+    private static boolean contains(String[] table, String column) {
+        for (int i = 1; i < table.length; i++) {
+            if (table[i].equals(column)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String join(String[] columns) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(columns[i]);
+        }
+        return sb.toString();
+    }
+}
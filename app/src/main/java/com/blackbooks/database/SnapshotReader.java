@@ -0,0 +1,285 @@
+package com.blackbooks.database;
+
+import android.database.sqlite.SQLiteStatement;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads a library snapshot in the format described by {@link Snapshot}, one
+ * table and one record at a time. The record is read into a buffer reused
+ * from one record to the next, and its values are only decoded when they are
+ * bound to a statement.
+ */
+public final class SnapshotReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Limits the lengths read from the stream, so that a corrupt length does
+     * not lead to a huge allocation.
+     */
+    private static final int MAX_LENGTH = 64 * 1024 * 1024;
+
+    private final InputStream mInputStream;
+
+    private String[] mColumns;
+    private boolean mIsTableEnded = true;
+
+    private byte[] mRecord = new byte[1024];
+    private int mRecordLength;
+    private int[] mValueOffsets = new int[32];
+
+    /**
+     * The position following the last varint read from the record.
+     */
+    private int mVarintEnd;
+
+    /**
+     * Constructor. The header of the snapshot is read at once.
+     *
+     * @param inputStream The stream of the snapshot. It is not closed.
+     * @throws IOException if the stream cannot be read or is not a snapshot of a supported version.
+     */
+    public SnapshotReader(InputStream inputStream) throws IOException {
+        for (byte magicByte : Snapshot.MAGIC) {
+            if (inputStream.read() != magicByte) {
+                throw new IOException("Not a library snapshot.");
+            }
+        }
+        int version = inputStream.read();
+        if (version < 1 || version > Snapshot.VERSION) {
+            throw new IOException(String.format("Unsupported snapshot version %d.", version));
+        }
+        int flags = readByte(inputStream);
+        if ((flags & Snapshot.FLAG_DEFLATE) != 0) {
+            // The inflater is slow to call for a few bytes at a time.
+            mInputStream = new BufferedInputStream(
+                    new InflaterInputStream(inputStream, new Inflater(), BUFFER_SIZE), BUFFER_SIZE);
+        } else {
+            mInputStream = new BufferedInputStream(inputStream, BUFFER_SIZE);
+        }
+    }
+
+    /**
+     * Move to the next table, skipping the records left in the current one.
+     *
+     * @return The name of the table, or null at the end of the snapshot.
+     * @throws IOException if the stream cannot be read.
+     */
+    public String nextTable() throws IOException {
+        while (!mIsTableEnded) {
+            nextRecord();
+        }
+        String table = readText();
+        if (table.isEmpty()) {
+            return null;
+        }
+        int columnCount = readLength();
+        mColumns = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            mColumns[i] = readText();
+        }
+        if (mValueOffsets.length < columnCount) {
+            mValueOffsets = new int[columnCount];
+        }
+        mIsTableEnded = false;
+        return table;
+    }
+
+    /**
+     * Get the names of the columns of the current table, in the order of the
+     * values of its records.
+     *
+     * @return Column names.
+     */
+    public String[] getColumns() {
+        return mColumns;
+    }
+
+    /**
+     * Read the next record of the current table.
+     *
+     * @return True if a record has been read, false at the end of the table.
+     * @throws IOException if the stream cannot be read.
+     */
+    public boolean nextRecord() throws IOException {
+        if (mIsTableEnded) {
+            return false;
+        }
+        int length = readLength();
+        if (length == 0) {
+            mIsTableEnded = true;
+            return false;
+        }
+        if (mRecord.length < length) {
+            mRecord = new byte[Math.max(length, mRecord.length * 2)];
+        }
+        readFully(mRecord, length);
+        mRecordLength = length;
+
+        int position = 0;
+        for (int i = 0; i < mColumns.length; i++) {
+            mValueOffsets[i] = position;
+            position = skipValue(position);
+        }
+        if (position != length) {
+            throw new IOException("Corrupt snapshot: the record is longer than its columns.");
+        }
+        return true;
+    }
+
+    /**
+     * Bind a value of the current record to an argument of a statement.
+     *
+     * @param column    The index of the value, in the order of {@link #getColumns()}.
+     * @param statement The statement.
+     * @param argIndex  The index of the argument, starting at 1.
+     */
+    public void bind(int column, SQLiteStatement statement, int argIndex) {
+        int position = mValueOffsets[column];
+        int type = mRecord[position++];
+        switch (type) {
+            case Snapshot.TYPE_INTEGER:
+                long zigzag = readVarint(position);
+                statement.bindLong(argIndex, (zigzag >>> 1) ^ -(zigzag & 1));
+                break;
+
+            case Snapshot.TYPE_REAL:
+                long bits = 0;
+                for (int i = 0; i < 8; i++) {
+                    bits = (bits << 8) | (mRecord[position + i] & 0xFF);
+                }
+                statement.bindDouble(argIndex, Double.longBitsToDouble(bits));
+                break;
+
+            case Snapshot.TYPE_TEXT:
+                int textLength = (int) readVarint(position);
+                statement.bindString(argIndex, new String(mRecord, mVarintEnd, textLength, UTF_8));
+                break;
+
+            case Snapshot.TYPE_BLOB:
+                int blobLength = (int) readVarint(position);
+                byte[] blob = new byte[blobLength];
+                System.arraycopy(mRecord, mVarintEnd, blob, 0, blobLength);
+                statement.bindBlob(argIndex, blob);
+                break;
+
+            default:
+                statement.bindNull(argIndex);
+                break;
+        }
+    }
+
+    private long readVarint(int position) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = mRecord[position++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        mVarintEnd = position;
+        return value;
+    }
+
+    /**
+     * Get the position following a value of the record, checking that it
+     * fits in the record.
+     *
+     * @param position The position of the value.
+     * @return The position of the next value.
+     * @throws IOException if the value is corrupt.
+     */
+    private int skipValue(int position) throws IOException {
+        checkPosition(position + 1);
+        int type = mRecord[position++];
+        switch (type) {
+            case Snapshot.TYPE_NULL:
+                return position;
+
+            case Snapshot.TYPE_INTEGER:
+                return skipVarint(position);
+
+            case Snapshot.TYPE_REAL:
+                return checkPosition(position + 8);
+
+            case Snapshot.TYPE_TEXT:
+            case Snapshot.TYPE_BLOB:
+                int end = skipVarint(position);
+                long length = readVarint(position);
+                if (length > mRecordLength - end) {
+                    throw new IOException("Corrupt snapshot: the value is longer than the record.");
+                }
+                return end + (int) length;
+
+            default:
+                throw new IOException(String.format("Corrupt snapshot: unknown value type %d.", type));
+        }
+    }
+
+    private int skipVarint(int position) throws IOException {
+        for (int i = 0; i < 10; i++) {
+            checkPosition(position + 1);
+            if ((mRecord[position++] & 0x80) == 0) {
+                return position;
+            }
+        }
+        throw new IOException("Corrupt snapshot: integer too long.");
+    }
+
+    private int checkPosition(int position) throws IOException {
+        if (position > mRecordLength) {
+            throw new IOException("Corrupt snapshot: the record is shorter than its columns.");
+        }
+        return position;
+    }
+
+    private String readText() throws IOException {
+        int length = readLength();
+        byte[] bytes = new byte[length];
+        readFully(bytes, length);
+        return new String(bytes, UTF_8);
+    }
+
+    private int readLength() throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = readByte(mInputStream);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0 && shift < 35);
+        if (value < 0 || value > MAX_LENGTH) {
+            throw new IOException("Corrupt snapshot: length too long.");
+        }
+        return value;
+    }
+
+    private void readFully(byte[] buffer, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            int count = mInputStream.read(buffer, offset, length - offset);
+            if (count < 0) {
+                throw new EOFException("Truncated snapshot.");
+            }
+            offset += count;
+        }
+    }
+
+    private static int readByte(InputStream inputStream) throws IOException {
+        int b = inputStream.read();
+        if (b < 0) {
+            throw new EOFException("Truncated snapshot.");
+        }
+        return b;
+    }
+}
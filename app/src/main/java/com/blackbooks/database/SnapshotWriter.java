@@ -0,0 +1,243 @@
+package com.blackbooks.database;
+
+import android.database.CharArrayBuffer;
+import android.database.Cursor;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a library snapshot in the format described by {@link Snapshot}. The
+ * rows are read from cursors and encoded one at a time into a buffer reused
+ * from one row to the next.
+ */
+public final class SnapshotWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final OutputStream mOutputStream;
+    private final DeflaterOutputStream mDeflaterOutputStream;
+    private final Deflater mDeflater;
+    private final CharArrayBuffer mCharBuffer = new CharArrayBuffer(256);
+
+    private byte[] mRecord = new byte[1024];
+    private int mRecordLength;
+
+    /**
+     * Constructor. The header of the snapshot is written at once.
+     *
+     * @param outputStream The stream of the snapshot. It is not closed by {@link #finish()}.
+     * @param compress     True to compress everything following the header with deflate.
+     * @throws IOException if the stream cannot be written.
+     */
+    public SnapshotWriter(OutputStream outputStream, boolean compress) throws IOException {
+        outputStream.write(Snapshot.MAGIC);
+        outputStream.write(Snapshot.VERSION);
+        outputStream.write(compress ? Snapshot.FLAG_DEFLATE : 0);
+
+        // The records are buffered before the deflater, which is slow to
+        // call for a few bytes at a time.
+        if (compress) {
+            mDeflater = new Deflater(Deflater.BEST_SPEED);
+            mDeflaterOutputStream = new DeflaterOutputStream(outputStream, mDeflater, BUFFER_SIZE);
+            mOutputStream = new BufferedOutputStream(mDeflaterOutputStream, BUFFER_SIZE);
+        } else {
+            mDeflater = null;
+            mDeflaterOutputStream = null;
+            mOutputStream = new BufferedOutputStream(outputStream, BUFFER_SIZE);
+        }
+    }
+
+    /**
+     * Write a table: its name, its columns, then a record for each row of the
+     * cursor. The cursor must select the columns in the same order. It is not
+     * closed.
+     *
+     * @param table   The name of the table.
+     * @param columns The names of the columns.
+     * @param cursor  The rows of the table.
+     * @return The number of rows written.
+     * @throws IOException if the stream cannot be written.
+     */
+    public int writeTable(String table, String[] columns, Cursor cursor) throws IOException {
+        mRecordLength = 0;
+        writeText(table);
+        writeVarint(columns.length);
+        for (String column : columns) {
+            writeText(column);
+        }
+        flushRecord(false);
+
+        int rowCount = 0;
+        while (cursor.moveToNext()) {
+            mRecordLength = 0;
+            for (int i = 0; i < columns.length; i++) {
+                writeValue(cursor, i);
+            }
+            flushRecord(true);
+            rowCount++;
+        }
+
+        // An empty record ends the table.
+        writeVarintTo(mOutputStream, 0);
+        return rowCount;
+    }
+
+    /**
+     * Write the end of the snapshot and flush the stream.
+     *
+     * @throws IOException if the stream cannot be written.
+     */
+    public void finish() throws IOException {
+        // A table without a name ends the snapshot.
+        mRecordLength = 0;
+        writeText("");
+        flushRecord(false);
+
+        mOutputStream.flush();
+        if (mDeflaterOutputStream != null) {
+            mDeflaterOutputStream.finish();
+            mDeflater.end();
+            mDeflaterOutputStream.flush();
+        }
+    }
+
+    private void writeValue(Cursor cursor, int index) {
+        int type = cursor.getType(index);
+        switch (type) {
+            case Cursor.FIELD_TYPE_INTEGER:
+                writeByte(Snapshot.TYPE_INTEGER);
+                long value = cursor.getLong(index);
+                writeVarint((value << 1) ^ (value >> 63));
+                break;
+
+            case Cursor.FIELD_TYPE_FLOAT:
+                writeByte(Snapshot.TYPE_REAL);
+                long bits = Double.doubleToLongBits(cursor.getDouble(index));
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    writeByte((int) (bits >>> shift));
+                }
+                break;
+
+            case Cursor.FIELD_TYPE_STRING:
+                writeByte(Snapshot.TYPE_TEXT);
+                cursor.copyStringToBuffer(index, mCharBuffer);
+                writeUtf8(mCharBuffer.data, mCharBuffer.sizeCopied);
+                break;
+
+            case Cursor.FIELD_TYPE_BLOB:
+                writeByte(Snapshot.TYPE_BLOB);
+                byte[] blob = cursor.getBlob(index);
+                writeVarint(blob.length);
+                ensureCapacity(blob.length);
+                System.arraycopy(blob, 0, mRecord, mRecordLength, blob.length);
+                mRecordLength += blob.length;
+                break;
+
+            default:
+                writeByte(Snapshot.TYPE_NULL);
+                break;
+        }
+    }
+
+    private void writeText(String text) {
+        char[] chars = text.toCharArray();
+        writeUtf8(chars, chars.length);
+    }
+
+    /**
+     * Write the length of the UTF-8 encoding of characters, then the encoding
+     * itself.
+     *
+     * @param chars  The characters.
+     * @param length The number of characters to write.
+     */
+    private void writeUtf8(char[] chars, int length) {
+        int byteCount = 0;
+        for (int i = 0; i < length; i++) {
+            char c = chars[i];
+            if (c < 0x80) {
+                byteCount++;
+            } else if (c < 0x800) {
+                byteCount += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(chars[i + 1])) {
+                byteCount += 4;
+                i++;
+            } else {
+                byteCount += 3;
+            }
+        }
+        writeVarint(byteCount);
+        ensureCapacity(byteCount);
+
+        byte[] record = mRecord;
+        int position = mRecordLength;
+        for (int i = 0; i < length; i++) {
+            char c = chars[i];
+            if (c < 0x80) {
+                record[position++] = (byte) c;
+            } else if (c < 0x800) {
+                record[position++] = (byte) (0xC0 | (c >> 6));
+                record[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(chars[i + 1])) {
+                int codePoint = Character.toCodePoint(c, chars[++i]);
+                record[position++] = (byte) (0xF0 | (codePoint >> 18));
+                record[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                record[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                record[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                record[position++] = (byte) (0xE0 | (c >> 12));
+                record[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                record[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        mRecordLength = position;
+    }
+
+    private void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            mRecord[mRecordLength++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        mRecord[mRecordLength++] = (byte) value;
+    }
+
+    private void writeByte(int value) {
+        ensureCapacity(1);
+        mRecord[mRecordLength++] = (byte) value;
+    }
+
+    /**
+     * Write the current record to the stream.
+     *
+     * @param lengthPrefixed True to write the length of the record first.
+     * @throws IOException if the stream cannot be written.
+     */
+    private void flushRecord(boolean lengthPrefixed) throws IOException {
+        if (lengthPrefixed) {
+            writeVarintTo(mOutputStream, mRecordLength);
+        }
+        mOutputStream.write(mRecord, 0, mRecordLength);
+    }
+
+    private void ensureCapacity(int byteCount) {
+        int capacity = mRecordLength + byteCount;
+        if (capacity > mRecord.length) {
+            byte[] record = new byte[Math.max(capacity, mRecord.length * 2)];
+            System.arraycopy(mRecord, 0, record, 0, mRecordLength);
+            mRecord = record;
+        }
+    }
+
+    private static void writeVarintTo(OutputStream outputStream, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            outputStream.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        outputStream.write(value);
+    }
+}
@@ -1,11 +1,19 @@
 package com.blackbooks.database;
 
+import android.database.sqlite.SQLiteDatabase;
+
+import com.blackbooks.changes.ChangeBus;
+import com.blackbooks.sql.NameCacheManager;
+import com.blackbooks.sql.QueryCacheManager;
+
 public class TransactionManagerImpl implements TransactionManager {
 
     private final SQLiteHelper sqLiteHelper;
+    private final ChangeBus changeBus;
 
-    public TransactionManagerImpl(SQLiteHelper sqLiteHelper) {
+    public TransactionManagerImpl(SQLiteHelper sqLiteHelper, ChangeBus changeBus) {
         this.sqLiteHelper = sqLiteHelper;
+        this.changeBus = changeBus;
     }
 
     @Override
@@ -15,7 +23,11 @@ public class TransactionManagerImpl implements TransactionManager {
 
     @Override
     public void endTransaction() {
-        sqLiteHelper.getWritableDatabase().endTransaction();
+        SQLiteDatabase db = sqLiteHelper.getWritableDatabase();
+        db.endTransaction();
+        QueryCacheManager.getCache(db).endTransaction(db);
+        NameCacheManager.getCache(db).endTransaction(db);
+        changeBus.flush();
     }
 
     @Override
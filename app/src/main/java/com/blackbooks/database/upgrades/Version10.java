@@ -0,0 +1,54 @@
+package com.blackbooks.database.upgrades;
+
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * Upgrades the Black Books database to version 10.
+ * <p>
+ * BOOK_FTS becomes an external content table: it no longer stores a copy of
+ * the text of the books but reads it from the BOOK table, and is written by
+ * triggers on it. The unicode61 tokenizer takes over the normalization of
+ * the text. The books are then indexed, the only time the upgrades from a
+ * version older than 9 build the index.
+ */
+public final class Version10 {
+
+    // The triggers of FullTextIndex, as of version 10.
+    private static final String[] TRIGGERS = {
+            "CREATE TRIGGER BOOK_FTS_AFTER_INSERT AFTER INSERT ON BOOK BEGIN\n" +
+                    "\tINSERT INTO BOOK_FTS (DOCID, BOO_TITLE, BOO_SUBTITLE, BOO_DESCRIPTION) VALUES (NEW.BOO_ID, NEW.BOO_TITLE, NEW.BOO_SUBTITLE, NEW.BOO_DESCRIPTION);\n" +
+                    "END;",
+            "CREATE TRIGGER BOOK_FTS_BEFORE_UPDATE BEFORE UPDATE OF BOO_TITLE, BOO_SUBTITLE, BOO_DESCRIPTION ON BOOK\n" +
+                    "WHEN OLD.BOO_TITLE IS NOT NEW.BOO_TITLE OR OLD.BOO_SUBTITLE IS NOT NEW.BOO_SUBTITLE OR OLD.BOO_DESCRIPTION IS NOT NEW.BOO_DESCRIPTION BEGIN\n" +
+                    "\tDELETE FROM BOOK_FTS WHERE DOCID = OLD.BOO_ID;\n" +
+                    "END;",
+            "CREATE TRIGGER BOOK_FTS_AFTER_UPDATE AFTER UPDATE OF BOO_TITLE, BOO_SUBTITLE, BOO_DESCRIPTION ON BOOK\n" +
+                    "WHEN OLD.BOO_TITLE IS NOT NEW.BOO_TITLE OR OLD.BOO_SUBTITLE IS NOT NEW.BOO_SUBTITLE OR OLD.BOO_DESCRIPTION IS NOT NEW.BOO_DESCRIPTION BEGIN\n" +
+                    "\tINSERT INTO BOOK_FTS (DOCID, BOO_TITLE, BOO_SUBTITLE, BOO_DESCRIPTION) VALUES (NEW.BOO_ID, NEW.BOO_TITLE, NEW.BOO_SUBTITLE, NEW.BOO_DESCRIPTION);\n" +
+                    "END;",
+            "CREATE TRIGGER BOOK_FTS_BEFORE_DELETE BEFORE DELETE ON BOOK BEGIN\n" +
+                    "\tDELETE FROM BOOK_FTS WHERE DOCID = OLD.BOO_ID;\n" +
+                    "END;"
+    };
+
+    /**
+     * Upgrade.
+     *
+     * @param db SQLiteDatabase.
+     */
+    public static void upgrade(SQLiteDatabase db) {
+        db.execSQL("DROP TABLE BOOK_FTS;");
+        db.execSQL("CREATE VIRTUAL TABLE BOOK_FTS USING FTS4 (\n" +
+                "\tBOO_TITLE,\n" +
+                "\tBOO_SUBTITLE,\n" +
+                "\tBOO_DESCRIPTION,\n" +
+                "\tcontent=\"BOOK\",\n" +
+                "\ttokenize=unicode61,\n" +
+                "\tprefix=\"2,3\"\n" +
+                ");");
+        for (String trigger : TRIGGERS) {
+            db.execSQL(trigger);
+        }
+        db.execSQL("INSERT INTO BOOK_FTS (BOOK_FTS) VALUES ('rebuild');");
+    }
+}
@@ -0,0 +1,25 @@
+package com.blackbooks.database.upgrades;
+
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * Upgrades the Black Books database to version 6.
+ */
+public final class Version6 {
+
+    /**
+     * Upgrade.
+     *
+     * @param db SQLiteDatabase.
+     */
+    public static void upgrade(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX BOOK_BOO_TITLE ON BOOK (BOO_TITLE COLLATE NOCASE);");
+        db.execSQL("CREATE INDEX BOOK_BOO_ISBN_10 ON BOOK (BOO_ISBN_10 COLLATE NOCASE);");
+        db.execSQL("CREATE INDEX BOOK_BOO_ISBN_13 ON BOOK (BOO_ISBN_13 COLLATE NOCASE);");
+        db.execSQL("CREATE INDEX BOOK_BOO_LANGUAGE_CODE ON BOOK (BOO_LANGUAGE_CODE COLLATE NOCASE, BOO_TITLE COLLATE NOCASE);");
+        db.execSQL("CREATE INDEX BOOK_BOO_LOANED_TO ON BOOK (BOO_LOANED_TO, BOO_TITLE COLLATE NOCASE);");
+        db.execSQL("CREATE INDEX BOOK_TO_READ ON BOOK (BOO_TITLE COLLATE NOCASE) WHERE BOO_IS_READ = 0;");
+        db.execSQL("CREATE INDEX BOOK_FAVOURITE ON BOOK (BOO_TITLE COLLATE NOCASE) WHERE BOO_IS_FAVOURITE = 1;");
+        db.execSQL("CREATE INDEX ISBN_TO_LOOK_UP ON ISBN (ISB_DATE_ADDED) WHERE ISB_LOOKED_UP = 0;");
+    }
+}
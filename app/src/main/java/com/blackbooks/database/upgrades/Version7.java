@@ -0,0 +1,181 @@
+package com.blackbooks.database.upgrades;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import com.blackbooks.utils.HashUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Upgrades the Black Books database to version 7.
+ * <p>
+ * The thumbnails are moved from the BOOK table to the COVER table, where each
+ * distinct image is stored once. The BOOK table is then rebuilt without its
+ * BLOB columns.
+ */
+public final class Version7 {
+
+    /**
+     * Upgrade.
+     *
+     * @param db SQLiteDatabase.
+     */
+    public static void upgrade(SQLiteDatabase db) {
+        String createCover = "CREATE TABLE COVER  (\n" +
+                "\tCOV_ID INTEGER PRIMARY KEY AUTOINCREMENT,\n" +
+                "\tCOV_HASH TEXT NOT NULL UNIQUE,\n" +
+                "\tCOV_IMAGE BLOB NOT NULL\n" +
+                ");";
+
+        String addSmallThumbnailCoverId = "ALTER TABLE BOOK ADD COLUMN BOO_SMALL_THUMBNAIL_COV_ID INTEGER;";
+        String addThumbnailCoverId = "ALTER TABLE BOOK ADD COLUMN BOO_THUMBNAIL_COV_ID INTEGER;";
+
+        String createBookNew = "CREATE TABLE BOOK_NEW  (\n" +
+                "\tBOO_ID INTEGER PRIMARY KEY AUTOINCREMENT,\n" +
+                "\tBOO_TITLE TEXT NOT NULL,\n" +
+                "\tBOO_SUBTITLE TEXT,\n" +
+                "\tBOO_LANGUAGE_CODE TEXT,\n" +
+                "\tPUB_ID INTEGER,\n" +
+                "\tBOO_PUBLISHED_DATE INTEGER,\n" +
+                "\tBOO_DESCRIPTION TEXT,\n" +
+                "\tBOO_PAGE_COUNT INTEGER,\n" +
+                "\tBOO_SMALL_THUMBNAIL_COV_ID INTEGER,\n" +
+                "\tBOO_THUMBNAIL_COV_ID INTEGER,\n" +
+                "\tBOO_IS_READ INTEGER NOT NULL,\n" +
+                "\tBOO_IS_FAVOURITE INTEGER NOT NULL,\n" +
+                "\tBOO_ISBN_10 TEXT,\n" +
+                "\tBOO_ISBN_13 TEXT,\n" +
+                "\tBOO_COMMENT TEXT,\n" +
+                "\tBKL_ID INTEGER,\n" +
+                "\tSER_ID INTEGER,\n" +
+                "\tBOO_NUMBER INTEGER,\n" +
+                "\tBOO_LOANED_TO TEXT,\n" +
+                "\tBOO_LOAN_DATE INTEGER,\n" +
+                "\tFOREIGN KEY (PUB_ID) REFERENCES PUBLISHER(PUB_ID),\n" +
+                "\tFOREIGN KEY (BOO_SMALL_THUMBNAIL_COV_ID) REFERENCES COVER(COV_ID),\n" +
+                "\tFOREIGN KEY (BOO_THUMBNAIL_COV_ID) REFERENCES COVER(COV_ID),\n" +
+                "\tFOREIGN KEY (BKL_ID) REFERENCES BOOK_LOCATION(BKL_ID),\n" +
+                "\tFOREIGN KEY (SER_ID) REFERENCES SERIES(SER_ID)\n" +
+                ");";
+
+        String columns = "BOO_ID, BOO_TITLE, BOO_SUBTITLE, BOO_LANGUAGE_CODE, PUB_ID, BOO_PUBLISHED_DATE, BOO_DESCRIPTION, " +
+                "BOO_PAGE_COUNT, BOO_SMALL_THUMBNAIL_COV_ID, BOO_THUMBNAIL_COV_ID, BOO_IS_READ, BOO_IS_FAVOURITE, BOO_ISBN_10, " +
+                "BOO_ISBN_13, BOO_COMMENT, BKL_ID, SER_ID, BOO_NUMBER, BOO_LOANED_TO, BOO_LOAN_DATE";
+        String insertIntoBookNew = "INSERT INTO BOOK_NEW(" + columns + ") SELECT " + columns + " FROM BOOK;";
+
+        // The old table is dropped before the new one takes its name: renaming
+        // the old table instead would also rename the references of the other
+        // tables to it.
+        String dropBook = "DROP TABLE BOOK;";
+        String renameBookNew = "ALTER TABLE BOOK_NEW RENAME TO BOOK;";
+
+        db.execSQL(createCover);
+        db.execSQL(addSmallThumbnailCoverId);
+        db.execSQL(addThumbnailCoverId);
+
+        moveThumbnailsToCovers(db);
+
+        db.execSQL(createBookNew);
+        db.execSQL(insertIntoBookNew);
+        db.execSQL(dropBook);
+        db.execSQL(renameBookNew);
+
+        db.execSQL("CREATE INDEX BOOK_PUB_ID ON BOOK (PUB_ID);");
+        db.execSQL("CREATE INDEX BOOK_BOO_SMALL_THUMBNAIL_COV_ID ON BOOK (BOO_SMALL_THUMBNAIL_COV_ID);");
+        db.execSQL("CREATE INDEX BOOK_BOO_THUMBNAIL_COV_ID ON BOOK (BOO_THUMBNAIL_COV_ID);");
+        db.execSQL("CREATE INDEX BOOK_BKL_ID ON BOOK (BKL_ID);");
+        db.execSQL("CREATE INDEX BOOK_SER_ID ON BOOK (SER_ID);");
+        db.execSQL("CREATE INDEX BOOK_BOO_TITLE ON BOOK (BOO_TITLE COLLATE NOCASE);");
+        db.execSQL("CREATE INDEX BOOK_BOO_ISBN_10 ON BOOK (BOO_ISBN_10 COLLATE NOCASE);");
+        db.execSQL("CREATE INDEX BOOK_BOO_ISBN_13 ON BOOK (BOO_ISBN_13 COLLATE NOCASE);");
+        db.execSQL("CREATE INDEX BOOK_BOO_LANGUAGE_CODE ON BOOK (BOO_LANGUAGE_CODE COLLATE NOCASE, BOO_TITLE COLLATE NOCASE);");
+        db.execSQL("CREATE INDEX BOOK_BOO_LOANED_TO ON BOOK (BOO_LOANED_TO, BOO_TITLE COLLATE NOCASE);");
+        db.execSQL("CREATE INDEX BOOK_TO_READ ON BOOK (BOO_TITLE COLLATE NOCASE) WHERE BOO_IS_READ = 0;");
+        db.execSQL("CREATE INDEX BOOK_FAVOURITE ON BOOK (BOO_TITLE COLLATE NOCASE) WHERE BOO_IS_FAVOURITE = 1;");
+    }
+
+    /**
+     * Copy the thumbnails of the books to the COVER table and reference them
+     * from the new columns of the books. The books are read one at a time, so
+     * that only the thumbnails of one book are held in memory.
+     *
+     * @param db SQLiteDatabase.
+     */
+    private static void moveThumbnailsToCovers(SQLiteDatabase db) {
+        List<Long> bookIdList = new ArrayList<>();
+        Cursor cursor = db.rawQuery("SELECT BOO_ID FROM BOOK WHERE BOO_SMALL_THUMBNAIL IS NOT NULL OR BOO_THUMBNAIL IS NOT NULL;", null);
+        try {
+            while (cursor.moveToNext()) {
+                bookIdList.add(cursor.getLong(0));
+            }
+        } finally {
+            cursor.close();
+        }
+
+        SQLiteStatement insertCover = db.compileStatement("INSERT INTO COVER(COV_HASH, COV_IMAGE) VALUES (?, ?);");
+        SQLiteStatement updateBook = db.compileStatement("UPDATE BOOK SET BOO_SMALL_THUMBNAIL_COV_ID = ?, BOO_THUMBNAIL_COV_ID = ? WHERE BOO_ID = ?;");
+        try {
+            Map<String, Long> coverIdMap = new HashMap<>();
+            for (Long bookId : bookIdList) {
+                byte[] smallThumbnail;
+                byte[] thumbnail;
+                cursor = db.rawQuery("SELECT BOO_SMALL_THUMBNAIL, BOO_THUMBNAIL FROM BOOK WHERE BOO_ID = ?;", new String[]{String.valueOf(bookId)});
+                try {
+                    if (!cursor.moveToFirst()) {
+                        continue;
+                    }
+                    smallThumbnail = cursor.getBlob(0);
+                    thumbnail = cursor.getBlob(1);
+                } finally {
+                    cursor.close();
+                }
+
+                updateBook.clearBindings();
+                bindCoverId(updateBook, 1, saveCover(insertCover, coverIdMap, smallThumbnail));
+                bindCoverId(updateBook, 2, saveCover(insertCover, coverIdMap, thumbnail));
+                updateBook.bindLong(3, bookId);
+                updateBook.executeUpdateDelete();
+            }
+        } finally {
+            insertCover.close();
+            updateBook.close();
+        }
+    }
+
+    /**
+     * Get the id of the cover holding an image, inserting it if needed.
+     *
+     * @param insertCover The statement inserting a cover.
+     * @param coverIdMap  The ids of the covers inserted so far, by hash.
+     * @param image       The image, can be null.
+     * @return The id of the cover, null if the image is null or empty.
+     */
+    private static Long saveCover(SQLiteStatement insertCover, Map<String, Long> coverIdMap, byte[] image) {
+        if (image == null || image.length == 0) {
+            return null;
+        }
+        String hash = HashUtils.sha1(image);
+        Long coverId = coverIdMap.get(hash);
+        if (coverId == null) {
+            insertCover.clearBindings();
+            insertCover.bindString(1, hash);
+            insertCover.bindBlob(2, image);
+            coverId = insertCover.executeInsert();
+            coverIdMap.put(hash, coverId);
+        }
+        return coverId;
+    }
+
+    private static void bindCoverId(SQLiteStatement statement, int index, Long coverId) {
+        if (coverId == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindLong(index, coverId);
+        }
+    }
+}
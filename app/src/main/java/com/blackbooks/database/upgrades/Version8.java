@@ -0,0 +1,50 @@
+package com.blackbooks.database.upgrades;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import com.blackbooks.database.LibraryStatistics;
+
+/**
+ * Upgrades the Black Books database to version 8.
+ * <p>
+ * Adds the LIBRARY_STATS table and the book count columns of the AUTHOR,
+ * CATEGORY, SERIES and BOOK_LOCATION tables, then lets
+ * {@link LibraryStatistics} add the triggers maintaining them and compute
+ * them from the books already in the database.
+ */
+public final class Version8 {
+
+    /**
+     * Upgrade.
+     *
+     * @param db SQLiteDatabase.
+     */
+    public static void upgrade(SQLiteDatabase db) {
+        String createLibraryStats = "CREATE TABLE LIBRARY_STATS  (\n" +
+                "\tLIS_ID INTEGER PRIMARY KEY AUTOINCREMENT,\n" +
+                "\tLIS_BOOKS INTEGER NOT NULL,\n" +
+                "\tLIS_AUTHORS INTEGER NOT NULL,\n" +
+                "\tLIS_CATEGORIES INTEGER NOT NULL,\n" +
+                "\tLIS_LANGUAGES INTEGER NOT NULL,\n" +
+                "\tLIS_SERIES INTEGER NOT NULL,\n" +
+                "\tLIS_BOOK_LOCATIONS INTEGER NOT NULL,\n" +
+                "\tLIS_TO_READ INTEGER NOT NULL,\n" +
+                "\tLIS_LOANS INTEGER NOT NULL,\n" +
+                "\tLIS_FAVOURITES INTEGER NOT NULL\n" +
+                ");";
+
+        db.execSQL(createLibraryStats);
+
+        db.execSQL("ALTER TABLE AUTHOR ADD COLUMN AUT_BOOK_COUNT INTEGER NOT NULL DEFAULT 0;");
+        db.execSQL("ALTER TABLE CATEGORY ADD COLUMN CAT_BOOK_COUNT INTEGER NOT NULL DEFAULT 0;");
+        db.execSQL("ALTER TABLE SERIES ADD COLUMN SER_BOOK_COUNT INTEGER NOT NULL DEFAULT 0;");
+        db.execSQL("ALTER TABLE BOOK_LOCATION ADD COLUMN BKL_BOOK_COUNT INTEGER NOT NULL DEFAULT 0;");
+
+        db.execSQL("CREATE INDEX AUTHOR_AUT_NAME ON AUTHOR (AUT_NAME COLLATE NOCASE);");
+        db.execSQL("CREATE INDEX CATEGORY_CAT_NAME ON CATEGORY (CAT_NAME COLLATE NOCASE);");
+        db.execSQL("CREATE INDEX SERIES_SER_NAME ON SERIES (SER_NAME COLLATE NOCASE);");
+        db.execSQL("CREATE INDEX BOOK_LOCATION_BKL_NAME ON BOOK_LOCATION (BKL_NAME COLLATE NOCASE);");
+
+        LibraryStatistics.create(db);
+    }
+}
@@ -0,0 +1,28 @@
+package com.blackbooks.database.upgrades;
+
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * Upgrades the Black Books database to version 9.
+ * <p>
+ * The BOOK_FTS table is created again with an index of the prefixes of 2 and
+ * 3 characters. It is left empty: {@link Version10} replaces it by an
+ * external content table, and indexes the books once.
+ */
+public final class Version9 {
+
+    /**
+     * Upgrade.
+     *
+     * @param db SQLiteDatabase.
+     */
+    public static void upgrade(SQLiteDatabase db) {
+        db.execSQL("DROP TABLE BOOK_FTS;");
+        db.execSQL("CREATE VIRTUAL TABLE BOOK_FTS USING FTS4 (\n" +
+                "\tTITLE,\n" +
+                "\tSUBTITLE,\n" +
+                "\tDESCRIPTION,\n" +
+                "\tprefix=\"2,3\"\n" +
+                ");");
+    }
+}
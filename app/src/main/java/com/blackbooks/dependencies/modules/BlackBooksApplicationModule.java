@@ -12,6 +12,8 @@ import com.blackbooks.activities.BookListActivity;
 import com.blackbooks.activities.IsbnLookupActivity;
 import com.blackbooks.cache.ThumbnailManager;
 import com.blackbooks.cache.ThumbnailManagerImpl;
+import com.blackbooks.changes.ChangeBus;
+import com.blackbooks.changes.ChangeBusImpl;
 import com.blackbooks.database.SQLiteHelper;
 import com.blackbooks.database.TransactionManager;
 import com.blackbooks.database.TransactionManagerImpl;
@@ -65,6 +67,8 @@ import com.blackbooks.repositories.CategoryRepository;
 import com.blackbooks.repositories.CategoryRepositoryImpl;
 import com.blackbooks.repositories.IsbnRepository;
 import com.blackbooks.repositories.IsbnRepositoryImpl;
+import com.blackbooks.repositories.LibraryStatsRepository;
+import com.blackbooks.repositories.LibraryStatsRepositoryImpl;
 import com.blackbooks.repositories.PublisherRepository;
 import com.blackbooks.repositories.PublisherRepositoryImpl;
 import com.blackbooks.repositories.SeriesRepository;
@@ -76,6 +80,8 @@ import com.blackbooks.services.AuthorService;
 import com.blackbooks.services.AuthorServiceImpl;
 import com.blackbooks.services.BookGroupService;
 import com.blackbooks.services.BookGroupServiceImpl;
+import com.blackbooks.services.BookImportService;
+import com.blackbooks.services.BookImportServiceImpl;
 import com.blackbooks.services.BookLocationService;
 import com.blackbooks.services.BookLocationServiceImpl;
 import com.blackbooks.services.BookService;
@@ -92,6 +98,8 @@ import com.blackbooks.services.PublisherService;
 import com.blackbooks.services.PublisherServiceImpl;
 import com.blackbooks.services.SeriesService;
 import com.blackbooks.services.SeriesServiceImpl;
+import com.blackbooks.services.SnapshotService;
+import com.blackbooks.services.SnapshotServiceImpl;
 import com.blackbooks.services.SummaryService;
 import com.blackbooks.services.SummaryServiceImpl;
 import com.blackbooks.services.search.BookSearcher;
@@ -230,8 +238,8 @@ public abstract class BlackBooksApplicationModule {
     abstract SummaryFragment summaryFragment();
 
     @Provides
-    static AuthorService provideAuthorService(AuthorRepository authorRepository) {
-        return new AuthorServiceImpl(authorRepository);
+    static AuthorService provideAuthorService(AuthorRepository authorRepository, ChangeBus changeBus) {
+        return new AuthorServiceImpl(authorRepository, changeBus);
     }
 
     @Provides
@@ -259,14 +267,19 @@ public abstract class BlackBooksApplicationModule {
         return new BookGroupServiceImpl(sqLiteHelper);
     }
 
+    @Provides
+    static BookImportService provideBookImportService(BookService bookService, FullTextSearchService fullTextSearchService) {
+        return new BookImportServiceImpl(bookService, fullTextSearchService);
+    }
+
     @Provides
     static BookLocationRepository provideBookLocationRepository(SQLiteHelper sqLiteHelper) {
         return new BookLocationRepositoryImpl(sqLiteHelper);
     }
 
     @Provides
-    static BookLocationService provideBookLocationService(BookLocationRepository bookLocationRepository) {
-        return new BookLocationServiceImpl(bookLocationRepository);
+    static BookLocationService provideBookLocationService(BookLocationRepository bookLocationRepository, ChangeBus changeBus) {
+        return new BookLocationServiceImpl(bookLocationRepository, changeBus);
     }
 
     @Provides
@@ -288,25 +301,25 @@ public abstract class BlackBooksApplicationModule {
             BookAuthorRepository bookAuthorRepository,
             BookCategoryRepository bookCategoryRepository,
             BookLocationRepository bookLocationRepository,
-            BookFTSRepository bookFTSRepository,
             BookRepository bookRepository,
             CategoryRepository categoryRepository,
             PublisherRepository publisherRepository,
             SeriesRepository seriesRepository,
             ThumbnailManager thumbnailManager,
-            TransactionManager transactionManager) {
+            TransactionManager transactionManager,
+            ChangeBus changeBus) {
         return new BookServiceImpl(
                 authorRepository,
                 bookAuthorRepository,
                 bookCategoryRepository,
-                bookFTSRepository,
                 bookLocationRepository,
                 bookRepository,
                 categoryRepository,
                 publisherRepository,
                 seriesRepository,
                 thumbnailManager,
-                transactionManager);
+                transactionManager,
+                changeBus);
     }
 
     @Provides
@@ -315,8 +328,14 @@ public abstract class BlackBooksApplicationModule {
     }
 
     @Provides
-    static CategoryService provideCategoryService(CategoryRepository categoryRepository) {
-        return new CategoryServiceImpl(categoryRepository);
+    static CategoryService provideCategoryService(CategoryRepository categoryRepository, ChangeBus changeBus) {
+        return new CategoryServiceImpl(categoryRepository, changeBus);
+    }
+
+    @Provides
+    @Singleton
+    static ChangeBus provideChangeBus(SQLiteHelper sqLiteHelper) {
+        return new ChangeBusImpl(sqLiteHelper);
     }
 
     @Provides
@@ -340,8 +359,14 @@ public abstract class BlackBooksApplicationModule {
     }
 
     @Provides
-    static IsbnService provideIsbnService(BookService bookService, IsbnRepository isbnRepository, SQLiteHelper sqLiteHelper) {
-        return new IsbnServiceImpl(bookService, isbnRepository, sqLiteHelper);
+    static IsbnService provideIsbnService(BookService bookService, IsbnRepository isbnRepository, SQLiteHelper sqLiteHelper,
+                                          ChangeBus changeBus) {
+        return new IsbnServiceImpl(bookService, isbnRepository, sqLiteHelper, changeBus);
+    }
+
+    @Provides
+    static LibraryStatsRepository provideLibraryStatsRepository(SQLiteHelper sqLiteHelper) {
+        return new LibraryStatsRepositoryImpl(sqLiteHelper);
     }
 
     @Provides
@@ -365,8 +390,14 @@ public abstract class BlackBooksApplicationModule {
     }
 
     @Provides
-    static SeriesService provideSeriesService(SeriesRepository seriesRepository) {
-        return new SeriesServiceImpl(seriesRepository);
+    static SeriesService provideSeriesService(SeriesRepository seriesRepository, ChangeBus changeBus) {
+        return new SeriesServiceImpl(seriesRepository, changeBus);
+    }
+
+    @Provides
+    static SnapshotService provideSnapshotService(SQLiteHelper sqLiteHelper, ThumbnailManager thumbnailManager,
+                                                  ChangeBus changeBus) {
+        return new SnapshotServiceImpl(sqLiteHelper, thumbnailManager, changeBus);
     }
 
     @Provides
@@ -375,8 +406,8 @@ public abstract class BlackBooksApplicationModule {
     }
 
     @Provides
-    static SummaryService provideSummaryService(AuthorRepository authorRepository, BookLocationRepository bookLocationRepository, BookRepository bookRepository, CategoryRepository categoryRepository, SeriesRepository seriesRepository) {
-        return new SummaryServiceImpl(authorRepository, bookLocationRepository, bookRepository, categoryRepository, seriesRepository);
+    static SummaryService provideSummaryService(BookRepository bookRepository, LibraryStatsRepository libraryStatsRepository) {
+        return new SummaryServiceImpl(bookRepository, libraryStatsRepository);
     }
 
     @Provides
@@ -386,7 +417,7 @@ public abstract class BlackBooksApplicationModule {
     }
 
     @Provides
-    static TransactionManager provideTransactionManager(SQLiteHelper sqLiteHelper) {
-        return new TransactionManagerImpl(sqLiteHelper);
+    static TransactionManager provideTransactionManager(SQLiteHelper sqLiteHelper, ChangeBus changeBus) {
+        return new TransactionManagerImpl(sqLiteHelper, changeBus);
     }
 }
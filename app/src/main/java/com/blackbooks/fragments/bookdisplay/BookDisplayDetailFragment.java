@@ -31,7 +31,6 @@ import com.blackbooks.services.BookService;
 import com.blackbooks.utils.BitmapUtils;
 import com.blackbooks.utils.DateUtils;
 import com.blackbooks.utils.StringUtils;
-import com.blackbooks.utils.VariableUtils;
 
 import java.util.Locale;
 
@@ -191,7 +190,6 @@ public final class BookDisplayDetailFragment extends Fragment {
         String message = String.format(getString(R.string.message_book_deleted), title);
 
         bookService.deleteBook(mBookInfo.id);
-        VariableUtils.getInstance().setReloadBookList(true);
         Toast.makeText(this.getActivity(), message, Toast.LENGTH_SHORT).show();
 
         if (mBookDisplayListener != null) {
@@ -244,6 +242,7 @@ public final class BookDisplayDetailFragment extends Fragment {
      */
     private void loadBookInfo(long bookId) {
         mBookInfo = bookService.getBookInfo(bookId);
+        bookService.loadBookThumbnails(mBookInfo);
 
         if (mBookDisplayListener != null) {
             mBookDisplayListener.onBookLoaded(mBookInfo);
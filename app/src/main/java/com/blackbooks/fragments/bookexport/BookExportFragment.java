@@ -33,16 +33,16 @@ import com.blackbooks.fragments.dialogs.ProgressDialogFragment;
 import com.blackbooks.fragments.dialogs.TextQualifier;
 import com.blackbooks.fragments.dialogs.TextQualifierPicker;
 import com.blackbooks.fragments.dialogs.TextQualifierPicker.TextQualifierPickerListener;
-import com.blackbooks.model.nonpersistent.BookExport;
 import com.blackbooks.services.ExportService;
 import com.blackbooks.utils.FileUtils;
 import com.blackbooks.utils.LogUtils;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
-import java.util.List;
+import java.io.Writer;
 
 import javax.inject.Inject;
 
@@ -255,47 +255,45 @@ public final class BookExportFragment extends Fragment implements TextQualifierP
         protected String doInBackground(Void... params) {
             String errorMessage = null;
 
-            OutputStreamWriter writer = null;
+            Writer writer = null;
             try {
                 Log.i(LogUtils.TAG, "Exporting books to CSV.");
 
-                List<BookExport> bookExportList = exportService.getBookExportList(null);
+                int bookCount = exportService.getBookExportCount();
 
-                Log.i(LogUtils.TAG, String.format("%d books to export.", bookExportList.size()));
+                Log.i(LogUtils.TAG, String.format("%d books to export.", bookCount));
 
                 mProgressDialogFragment = ProgressDialogFragment.newInstanceHorizontal(
                         R.string.title_dialog_export_books,
                         R.string.message_export_books,
-                        bookExportList.size()
+                        bookCount
                 );
                 mProgressDialogFragment.setTargetFragment(BookExportFragment.this, 0);
 
                 final FragmentManager fm = getActivity().getSupportFragmentManager();
                 mProgressDialogFragment.show(fm, TAG_PROGRESS_DIALOG_FRAGMENT);
 
-                writer = new OutputStreamWriter(new FileOutputStream(mExportFile), "UTF-8");
+                writer = new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(mExportFile)), "UTF-8");
 
                 writer.append(FileUtils.UTF8_BOM);
-                if (mFirstRowContainsHeader) {
-                    writer.append(BookExport.getCsvHeader(mTextQualifier, mColumnSeparator));
-                    writer.append('\n');
-                }
-
-                int i = 0;
-                for (BookExport bookExport : bookExportList) {
-                    if (isCancelled()) {
-                        Log.i(LogUtils.TAG, "CSV export task cancelled, aborting.");
-                        break;
-                    }
-
-                    writer.append(bookExport.toCsv(mTextQualifier, mColumnSeparator));
-                    writer.append('\n');
-
-                    i++;
-                    publishProgress(i);
+                exportService.exportBooks(writer, mTextQualifier, mColumnSeparator, mFirstRowContainsHeader,
+                        new ExportService.ExportListener() {
+                            @Override
+                            public void onProgress(int rowCount) {
+                                publishProgress(rowCount);
+                            }
+
+                            @Override
+                            public boolean isCancelled() {
+                                return CsvExportTask.this.isCancelled();
+                            }
+                        });
+
+                if (isCancelled()) {
+                    Log.i(LogUtils.TAG, "CSV export task cancelled, aborting.");
+                } else {
+                    Log.i(LogUtils.TAG, "Export finished successfully.");
                 }
-
-                Log.i(LogUtils.TAG, "Export finished successfully.");
             } catch (IOException e) {
                 Log.e(LogUtils.TAG, e.getMessage(), e);
                 errorMessage = e.getMessage();
@@ -16,29 +16,43 @@ import android.widget.Toast;
 import com.blackbooks.R;
 import com.blackbooks.activities.BookListActivity;
 import com.blackbooks.adapters.BookGroupListAdapter;
+import com.blackbooks.changes.Change;
+import com.blackbooks.changes.ChangeBus;
+import com.blackbooks.changes.ChangeListener;
 import com.blackbooks.model.nonpersistent.BookGroup;
-import com.blackbooks.utils.VariableUtils;
+import com.blackbooks.model.nonpersistent.PageKey;
+import com.blackbooks.model.persistent.Book;
 
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+
+import javax.inject.Inject;
 
 /**
  * A fragment to display the book groups of a certain type.
  */
-public abstract class AbstractBookGroupListFragment extends ListFragment {
+public abstract class AbstractBookGroupListFragment extends ListFragment implements ChangeListener {
 
     private static final int GROUPS_BY_PAGE = 50;
 
     private GroupLoadTask mGroupLoadTask;
+    private GroupRefreshTask mGroupRefreshTask;
+    private boolean mRefreshPending;
 
     private boolean mAlreadyLoaded;
     private Integer mBookGroupCount;
-    private int mLastPage = 1;
     private int mLastItem = -1;
 
     private BookGroupListAdapter mBookGroupListAdapter;
 
     private TextView mTextViewFooter;
 
+    @Inject
+    ChangeBus changeBus;
+
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -46,6 +60,7 @@ public abstract class AbstractBookGroupListFragment extends ListFragment {
 
         mBookGroupListAdapter = new BookGroupListAdapter(getActivity());
         setListAdapter(mBookGroupListAdapter);
+        changeBus.register(this);
     }
 
     @Override
@@ -96,7 +111,7 @@ public abstract class AbstractBookGroupListFragment extends ListFragment {
     public void onResume() {
         super.onResume();
 
-        if (!mAlreadyLoaded || VariableUtils.getInstance().getReloadBookGroupList()) {
+        if (!mAlreadyLoaded) {
             mAlreadyLoaded = true;
             reloadBookGroups();
         }
@@ -105,9 +120,20 @@ public abstract class AbstractBookGroupListFragment extends ListFragment {
     @Override
     public void onDestroy() {
         super.onDestroy();
+        changeBus.unregister(this);
         if (mGroupLoadTask != null) {
             mGroupLoadTask.cancel(true);
         }
+        if (mGroupRefreshTask != null) {
+            mGroupRefreshTask.cancel(true);
+        }
+    }
+
+    @Override
+    public void onChange(Change change) {
+        if (mAlreadyLoaded && getTables().contains(change.table)) {
+            refreshBookGroups();
+        }
     }
 
     @Override
@@ -138,30 +164,43 @@ public abstract class AbstractBookGroupListFragment extends ListFragment {
     protected abstract int getBookGroupCount();
 
     /**
-     * Load book groups.
+     * Load a page of book groups.
      *
-     * @param limit  Limit.
-     * @param offset Offset.
+     * @param limit Limit.
+     * @param after The key of the last group already loaded, null to load the first page.
      * @return List of BookGroup.
      */
-    protected abstract List<BookGroup> loadBookGroupList(int limit, int offset);
+    protected abstract List<BookGroup> loadBookGroupList(int limit, PageKey after);
 
     /**
-     * Load more book groups.
+     * Return the tables whose changes can change the book groups. The groups
+     * are loaded again when one of them changes.
+     *
+     * @return Table names.
+     */
+    protected Set<String> getTables() {
+        return new HashSet<>(Arrays.asList(Book.NAME));
+    }
+
+    /**
+     * Load the book groups that follow the last one of the list.
      */
     private void loadMoreBookGroups() {
-        mGroupLoadTask = new GroupLoadTask(GROUPS_BY_PAGE, GROUPS_BY_PAGE * (mLastPage - 1));
+        PageKey after = null;
+        int count = mBookGroupListAdapter.getCount();
+        if (count > 0) {
+            BookGroup lastBookGroup = mBookGroupListAdapter.getItem(count - 1);
+            after = new PageKey(lastBookGroup.name, lastBookGroup.id);
+        }
+        mGroupLoadTask = new GroupLoadTask(GROUPS_BY_PAGE, after);
         mGroupLoadTask.execute();
-        mLastPage++;
     }
 
     /**
      * Reload the book groups.
      */
     protected final void reloadBookGroups() {
-        VariableUtils.getInstance().setReloadBookGroupList(false);
         mLastItem = -1;
-        mLastPage = 1;
         mBookGroupListAdapter.clear();
         loadMoreBookGroups();
     }
@@ -198,10 +237,64 @@ public abstract class AbstractBookGroupListFragment extends ListFragment {
      * @param bookGroup BookGroup.
      */
     protected final void removeBookGroupFromAdapter(BookGroup bookGroup) {
-        VariableUtils.getInstance().setReloadBookList(true);
         mBookGroupCount--;
         mBookGroupListAdapter.remove(bookGroup);
         mBookGroupListAdapter.notifyDataSetChanged();
+        setFooterText();
+    }
+
+    /**
+     * Load the displayed book groups again, once the current refresh is over
+     * if there is one.
+     */
+    private void refreshBookGroups() {
+        if (mGroupRefreshTask != null) {
+            mRefreshPending = true;
+        } else {
+            mRefreshPending = false;
+            mGroupRefreshTask = new GroupRefreshTask(Math.max(mBookGroupListAdapter.getCount(), GROUPS_BY_PAGE));
+            mGroupRefreshTask.execute();
+        }
+    }
+
+    /**
+     * Update the list adapter with the book groups loaded again, only changing
+     * the groups that have been added, removed or modified so that the list
+     * keeps its position.
+     *
+     * @param bookGroupList The book groups.
+     */
+    private void updateBookGroups(List<BookGroup> bookGroupList) {
+        Set<Serializable> idSet = new HashSet<>();
+        for (BookGroup bookGroup : bookGroupList) {
+            idSet.add(bookGroup.id);
+        }
+        for (int i = mBookGroupListAdapter.getCount() - 1; i >= 0; i--) {
+            BookGroup bookGroup = mBookGroupListAdapter.getItem(i);
+            if (!idSet.contains(bookGroup.id)) {
+                mBookGroupListAdapter.remove(bookGroup);
+            }
+        }
+
+        for (int i = 0; i < bookGroupList.size(); i++) {
+            BookGroup bookGroup = bookGroupList.get(i);
+            BookGroup current = i < mBookGroupListAdapter.getCount() ? mBookGroupListAdapter.getItem(i) : null;
+            if (current != null && current.id.equals(bookGroup.id)) {
+                current.name = bookGroup.name;
+                current.count = bookGroup.count;
+            } else {
+                // The group is new, or has moved after being renamed.
+                for (int j = i + 1; j < mBookGroupListAdapter.getCount(); j++) {
+                    if (mBookGroupListAdapter.getItem(j).id.equals(bookGroup.id)) {
+                        mBookGroupListAdapter.remove(mBookGroupListAdapter.getItem(j));
+                        break;
+                    }
+                }
+                mBookGroupListAdapter.insert(bookGroup, i);
+            }
+        }
+        mBookGroupListAdapter.notifyDataSetChanged();
+        setFooterText();
     }
 
     /**
@@ -210,23 +303,23 @@ public abstract class AbstractBookGroupListFragment extends ListFragment {
     private final class GroupLoadTask extends AsyncTask<Void, Void, List<BookGroup>> {
 
         private final int mLimit;
-        private final int mOffset;
+        private final PageKey mAfter;
 
         /**
          * Constructor.
          *
-         * @param limit  The max number of groups to return.
-         * @param offset Offset.
+         * @param limit The max number of groups to return.
+         * @param after The key of the last group already loaded, null to load the first page.
          */
-        public GroupLoadTask(int limit, int offset) {
+        public GroupLoadTask(int limit, PageKey after) {
             mLimit = limit;
-            mOffset = offset;
+            mAfter = after;
         }
 
         @Override
         protected List<BookGroup> doInBackground(Void... params) {
             mBookGroupCount = AbstractBookGroupListFragment.this.getBookGroupCount();
-            return AbstractBookGroupListFragment.this.loadBookGroupList(mLimit, mOffset);
+            return AbstractBookGroupListFragment.this.loadBookGroupList(mLimit, mAfter);
         }
 
         @Override
@@ -247,4 +340,38 @@ public abstract class AbstractBookGroupListFragment extends ListFragment {
             setFooterText();
         }
     }
+
+    /**
+     * A task to load again the book groups already displayed.
+     */
+    private final class GroupRefreshTask extends AsyncTask<Void, Void, List<BookGroup>> {
+
+        private final int mLimit;
+
+        /**
+         * Constructor.
+         *
+         * @param limit The max number of groups to return.
+         */
+        public GroupRefreshTask(int limit) {
+            mLimit = limit;
+        }
+
+        @Override
+        protected List<BookGroup> doInBackground(Void... params) {
+            mBookGroupCount = AbstractBookGroupListFragment.this.getBookGroupCount();
+            return AbstractBookGroupListFragment.this.loadBookGroupList(mLimit, null);
+        }
+
+        @Override
+        protected void onPostExecute(List<BookGroup> bookGroups) {
+            super.onPostExecute(bookGroups);
+
+            mGroupRefreshTask = null;
+            updateBookGroups(bookGroups);
+            if (mRefreshPending) {
+                refreshBookGroups();
+            }
+        }
+    }
 }
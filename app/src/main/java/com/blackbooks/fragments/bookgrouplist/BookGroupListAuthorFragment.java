@@ -13,12 +13,14 @@ import com.blackbooks.R;
 import com.blackbooks.fragments.dialogs.AuthorDeleteFragment;
 import com.blackbooks.fragments.dialogs.AuthorEditFragment;
 import com.blackbooks.model.nonpersistent.BookGroup;
+import com.blackbooks.model.nonpersistent.PageKey;
+import com.blackbooks.model.persistent.Author;
 import com.blackbooks.repositories.AuthorRepository;
 import com.blackbooks.services.AuthorService;
 import com.blackbooks.services.BookGroupService;
-import com.blackbooks.utils.VariableUtils;
 
 import java.util.List;
+import java.util.Set;
 
 import javax.inject.Inject;
 
@@ -60,8 +62,15 @@ public final class BookGroupListAuthorFragment extends AbstractBookGroupListFrag
     }
 
     @Override
-    protected List<BookGroup> loadBookGroupList(int limit, int offset) {
-        return bookGroupService.getBookGroupListAuthor(limit, offset);
+    protected List<BookGroup> loadBookGroupList(int limit, PageKey after) {
+        return bookGroupService.getBookGroupListAuthor(limit, after);
+    }
+
+    @Override
+    protected Set<String> getTables() {
+        Set<String> tables = super.getTables();
+        tables.add(Author.NAME);
+        return tables;
     }
 
     @Override
@@ -119,15 +128,12 @@ public final class BookGroupListAuthorFragment extends AbstractBookGroupListFrag
 
         String message = getString(R.string.message_author_modified, bookGroup.name);
         Toast.makeText(getActivity(), message, Toast.LENGTH_SHORT).show();
-
-        super.reloadBookGroups();
     }
 
     @Override
     public void onAuthorDeleted(BookGroup bookGroup) {
         authorService.deleteAuthor((Long) bookGroup.id);
 
-        VariableUtils.getInstance().setReloadBookList(true);
         String message = getString(R.string.message_author_deleted, bookGroup.name);
         Toast.makeText(this.getActivity(), message, Toast.LENGTH_SHORT).show();
 
@@ -13,12 +13,14 @@ import com.blackbooks.R;
 import com.blackbooks.fragments.dialogs.BookLocationDeleteFragment;
 import com.blackbooks.fragments.dialogs.BookLocationEditFragment;
 import com.blackbooks.model.nonpersistent.BookGroup;
+import com.blackbooks.model.nonpersistent.PageKey;
+import com.blackbooks.model.persistent.BookLocation;
 import com.blackbooks.repositories.BookLocationRepository;
 import com.blackbooks.services.BookGroupService;
 import com.blackbooks.services.BookLocationService;
-import com.blackbooks.utils.VariableUtils;
 
 import java.util.List;
+import java.util.Set;
 
 import javax.inject.Inject;
 
@@ -55,8 +57,15 @@ public final class BookGroupListBookLocationFragment extends AbstractBookGroupLi
     }
 
     @Override
-    protected List<BookGroup> loadBookGroupList(int limit, int offset) {
-        return bookGroupService.getBookGroupListBookLocation(limit, offset);
+    protected List<BookGroup> loadBookGroupList(int limit, PageKey after) {
+        return bookGroupService.getBookGroupListBookLocation(limit, after);
+    }
+
+    @Override
+    protected Set<String> getTables() {
+        Set<String> tables = super.getTables();
+        tables.add(BookLocation.NAME);
+        return tables;
     }
 
     @Override
@@ -120,15 +129,12 @@ public final class BookGroupListBookLocationFragment extends AbstractBookGroupLi
 
         String message = getString(R.string.message_author_modified, bookGroup.name);
         Toast.makeText(getActivity(), message, Toast.LENGTH_SHORT).show();
-
-        super.reloadBookGroups();
     }
 
     @Override
     public void onBookLocationDeleted(BookGroup bookGroup) {
         bookLocationService.deleteBookLocation((Long) bookGroup.id);
 
-        VariableUtils.getInstance().setReloadBookList(true);
         String message = getString(R.string.message_book_location_deleted, bookGroup.name);
         Toast.makeText(this.getActivity(), message, Toast.LENGTH_SHORT).show();
 
@@ -13,11 +13,14 @@ import com.blackbooks.R;
 import com.blackbooks.fragments.dialogs.CategoryDeleteFragment;
 import com.blackbooks.fragments.dialogs.CategoryEditFragment;
 import com.blackbooks.model.nonpersistent.BookGroup;
+import com.blackbooks.model.nonpersistent.PageKey;
+import com.blackbooks.model.persistent.Category;
 import com.blackbooks.repositories.CategoryRepository;
 import com.blackbooks.services.BookGroupService;
-import com.blackbooks.utils.VariableUtils;
+import com.blackbooks.services.CategoryService;
 
 import java.util.List;
+import java.util.Set;
 
 import javax.inject.Inject;
 
@@ -36,7 +39,7 @@ public final class BookGroupListCategoryFragment extends AbstractBookGroupListFr
     private static final String TAG_FRAGMENT_CATEGORY_DELETE = "TAG_FRAGMENT_CATEGORY_DELETE";
 
     @Inject
-    CategoryRepository categoryService;
+    CategoryService categoryService;
 
     @Inject
     BookGroupService bookGroupService;
@@ -55,8 +58,15 @@ public final class BookGroupListCategoryFragment extends AbstractBookGroupListFr
     }
 
     @Override
-    protected List<BookGroup> loadBookGroupList(int limit, int offset) {
-        return bookGroupService.getBookGroupListCategory(limit, offset);
+    protected List<BookGroup> loadBookGroupList(int limit, PageKey after) {
+        return bookGroupService.getBookGroupListCategory(limit, after);
+    }
+
+    @Override
+    protected Set<String> getTables() {
+        Set<String> tables = super.getTables();
+        tables.add(Category.NAME);
+        return tables;
     }
 
     @Override
@@ -120,15 +130,12 @@ public final class BookGroupListCategoryFragment extends AbstractBookGroupListFr
 
         String message = getString(R.string.message_category_modified, bookGroup.name);
         Toast.makeText(getActivity(), message, Toast.LENGTH_SHORT).show();
-
-        super.reloadBookGroups();
     }
 
     @Override
     public void onCategoryDeleted(BookGroup bookGroup) {
         categoryService.deleteCategory((Long) bookGroup.id);
 
-        VariableUtils.getInstance().setReloadBookList(true);
         String message = getString(R.string.message_category_deleted, bookGroup.name);
         Toast.makeText(this.getActivity(), message, Toast.LENGTH_SHORT).show();
 
@@ -5,6 +5,7 @@ import android.os.Bundle;
 
 import com.blackbooks.R;
 import com.blackbooks.model.nonpersistent.BookGroup;
+import com.blackbooks.model.nonpersistent.PageKey;
 import com.blackbooks.services.BookGroupService;
 import com.blackbooks.services.SummaryService;
 
@@ -42,8 +43,8 @@ public final class BookGroupListFirstLetterFragment extends AbstractBookGroupLis
     }
 
     @Override
-    protected List<BookGroup> loadBookGroupList(int limit, int offset) {
-        return bookGroupService.getBookGroupListFirstLetter(limit, offset);
+    protected List<BookGroup> loadBookGroupList(int limit, PageKey after) {
+        return bookGroupService.getBookGroupListFirstLetter(limit, after);
     }
 
     @Override
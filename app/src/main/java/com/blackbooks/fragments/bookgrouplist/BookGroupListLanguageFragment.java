@@ -5,6 +5,7 @@ import android.content.res.Resources;
 
 import com.blackbooks.R;
 import com.blackbooks.model.nonpersistent.BookGroup;
+import com.blackbooks.model.nonpersistent.PageKey;
 import com.blackbooks.repositories.BookRepository;
 import com.blackbooks.services.BookGroupService;
 
@@ -43,9 +44,9 @@ public final class BookGroupListLanguageFragment extends AbstractBookGroupListFr
     }
 
     @Override
-    protected List<BookGroup> loadBookGroupList(int limit, int offset) {
+    protected List<BookGroup> loadBookGroupList(int limit, PageKey after) {
         List<BookGroup> bookGroupList;
-        if (offset == 0) {
+        if (after == null) {
             bookGroupList = bookGroupService.getBookGroupListLanguage();
         } else {
             bookGroupList = new ArrayList<>();
@@ -5,6 +5,7 @@ import android.content.res.Resources;
 
 import com.blackbooks.R;
 import com.blackbooks.model.nonpersistent.BookGroup;
+import com.blackbooks.model.nonpersistent.PageKey;
 import com.blackbooks.repositories.BookRepository;
 import com.blackbooks.services.BookGroupService;
 
@@ -41,8 +42,8 @@ public final class BookGroupListLoanFragment extends AbstractBookGroupListFragme
     }
 
     @Override
-    protected List<BookGroup> loadBookGroupList(int limit, int offset) {
-        return bookGroupService.getBookGroupListLoan(limit, offset);
+    protected List<BookGroup> loadBookGroupList(int limit, PageKey after) {
+        return bookGroupService.getBookGroupListLoan(limit, after);
     }
 
     @Override
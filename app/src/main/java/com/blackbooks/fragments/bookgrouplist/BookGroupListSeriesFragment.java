@@ -13,11 +13,14 @@ import com.blackbooks.R;
 import com.blackbooks.fragments.dialogs.SeriesDeleteFragment;
 import com.blackbooks.fragments.dialogs.SeriesEditFragment;
 import com.blackbooks.model.nonpersistent.BookGroup;
+import com.blackbooks.model.nonpersistent.PageKey;
+import com.blackbooks.model.persistent.Series;
 import com.blackbooks.repositories.SeriesRepository;
 import com.blackbooks.services.BookGroupService;
-import com.blackbooks.utils.VariableUtils;
+import com.blackbooks.services.SeriesService;
 
 import java.util.List;
+import java.util.Set;
 
 import javax.inject.Inject;
 
@@ -37,7 +40,7 @@ public final class BookGroupListSeriesFragment extends AbstractBookGroupListFrag
     BookGroupService bookGroupService;
 
     @Inject
-    SeriesRepository seriesService;
+    SeriesService seriesService;
 
     @Inject
     SeriesRepository summaryService;
@@ -59,8 +62,15 @@ public final class BookGroupListSeriesFragment extends AbstractBookGroupListFrag
     }
 
     @Override
-    protected List<BookGroup> loadBookGroupList(int limit, int offset) {
-        return bookGroupService.getBookGroupListSeries(limit, offset);
+    protected List<BookGroup> loadBookGroupList(int limit, PageKey after) {
+        return bookGroupService.getBookGroupListSeries(limit, after);
+    }
+
+    @Override
+    protected Set<String> getTables() {
+        Set<String> tables = super.getTables();
+        tables.add(Series.NAME);
+        return tables;
     }
 
     @Override
@@ -118,15 +128,12 @@ public final class BookGroupListSeriesFragment extends AbstractBookGroupListFrag
 
         String message = getString(R.string.message_series_modifed, bookGroup.name);
         Toast.makeText(getActivity(), message, Toast.LENGTH_SHORT).show();
-
-        super.reloadBookGroups();
     }
 
     @Override
     public void onSeriesDeleted(BookGroup bookGroup) {
         seriesService.deleteSeries((Long) bookGroup.id);
 
-        VariableUtils.getInstance().setReloadBookList(true);
         String message = getString(R.string.message_series_deleted, bookGroup.name);
         Toast.makeText(this.getActivity(), message, Toast.LENGTH_SHORT).show();
 
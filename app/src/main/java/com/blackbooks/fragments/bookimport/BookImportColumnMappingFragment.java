@@ -2,11 +2,9 @@ package com.blackbooks.fragments.bookimport;
 
 import android.content.Context;
 import android.content.Intent;
-import android.database.sqlite.SQLiteDatabase;
 import android.os.AsyncTask;
 import android.os.Bundle;
 import android.support.v4.app.Fragment;
-import android.support.v4.app.FragmentManager;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.Menu;
@@ -22,14 +20,12 @@ import android.widget.Toast;
 import com.blackbooks.R;
 import com.blackbooks.activities.SummaryActivity;
 import com.blackbooks.adapters.CsvColumnListAdapter;
-import com.blackbooks.database.SQLiteHelper;
+import com.blackbooks.changes.ChangeBus;
 import com.blackbooks.fragments.dialogs.ColumnSeparator;
 import com.blackbooks.fragments.dialogs.ProgressDialogFragment;
 import com.blackbooks.fragments.dialogs.TextQualifier;
-import com.blackbooks.model.nonpersistent.BookInfo;
 import com.blackbooks.model.nonpersistent.CsvColumn;
-import com.blackbooks.model.persistent.Book;
-import com.blackbooks.services.BookService;
+import com.blackbooks.services.BookImportService;
 import com.blackbooks.utils.CsvUtils;
 import com.blackbooks.utils.LogUtils;
 
@@ -61,7 +57,10 @@ public final class BookImportColumnMappingFragment extends Fragment implements P
     private CsvParsingTask mCsvParsingTask;
 
     @Inject
-    BookService bookService;
+    BookImportService bookImportService;
+
+    @Inject
+    ChangeBus changeBus;
 
     /**
      * Constructor.
@@ -222,9 +221,9 @@ public final class BookImportColumnMappingFragment extends Fragment implements P
     }
 
     /**
-     * The asynchronous task that will parse the CSV file and save the list of books read from it.
+     * The asynchronous task that will parse the CSV file and save the books read from it.
      */
-    private final class CsvParsingTask extends AsyncTask<Void, Integer, Void> {
+    private final class CsvParsingTask extends AsyncTask<Void, Void, Void> {
 
         private final File mFile;
         private final char mColumnSeparator;
@@ -256,91 +255,43 @@ public final class BookImportColumnMappingFragment extends Fragment implements P
         }
 
         @Override
-        protected Void doInBackground(Void... voids) {
-            List<BookInfo> bookInfoList;
-            try {
-                String message = String.format("Parsing file '%s' (column separator: '%c', text qualifier: '%c', first row contains headers: %b, column mappings: %s).", mFile.getAbsolutePath(), mColumnSeparator, mTextQualifier, mFirstRowContainsHeader, mCsvColumns);
-                Log.i(LogUtils.TAG, message);
+        protected void onPreExecute() {
+            super.onPreExecute();
+            // The number of books is not known before the whole file has been read.
+            mProgressDialogFragment = ProgressDialogFragment.newInstanceSpinner(
+                    R.string.title_dialog_save_parsed_books,
+                    R.string.message_save_parsed_books
+            );
+            mProgressDialogFragment.setTargetFragment(BookImportColumnMappingFragment.this, 0);
+            mProgressDialogFragment.show(getActivity().getSupportFragmentManager(), TAG_PROGRESS_DIALOG_FRAGMENT);
+        }
 
-                bookInfoList = CsvUtils.parseCsvFile(mFile, mColumnSeparator, mTextQualifier, mFirstRowContainsHeader, mCsvColumns);
+        @Override
+        protected Void doInBackground(Void... voids) {
+            String message = String.format("Importing file '%s' (column separator: '%c', text qualifier: '%c', first row contains headers: %b, column mappings: %s).", mFile.getAbsolutePath(), mColumnSeparator, mTextQualifier, mFirstRowContainsHeader, mCsvColumns);
+            Log.i(LogUtils.TAG, message);
 
-                Log.i(LogUtils.TAG, String.format("Parsing finished. %d books read.", bookInfoList.size()));
+            try {
+                bookImportService.importCsvFile(mFile, mColumnSeparator, mTextQualifier, mFirstRowContainsHeader, mCsvColumns,
+                        new BookImportService.ImportListener() {
+                            @Override
+                            public void onProgress(int bookCount, int booksPerSecond) {
+                                Log.d(LogUtils.TAG, String.format("%d books saved (%d books per second).", bookCount, booksPerSecond));
+                            }
+
+                            @Override
+                            public boolean isCancelled() {
+                                return CsvParsingTask.this.isCancelled();
+                            }
+                        });
             } catch (InterruptedException e) {
-                return null;
-            }
-
-            if (!bookInfoList.isEmpty()) {
-
-
-                mProgressDialogFragment = ProgressDialogFragment.newInstanceHorizontal(
-                        R.string.title_dialog_save_parsed_books,
-                        R.string.message_save_parsed_books,
-                        bookInfoList.size()
-                );
-                mProgressDialogFragment.setTargetFragment(BookImportColumnMappingFragment.this, 0);
-
-                final FragmentManager fm = getActivity().getSupportFragmentManager();
-                mProgressDialogFragment.show(fm, TAG_PROGRESS_DIALOG_FRAGMENT);
-
-                final SQLiteDatabase db = SQLiteHelper.getInstance().getWritableDatabase();
-                db.beginTransaction();
-                try {
-                    int i = 0;
-                    boolean isCancelled = false;
-                    for (final BookInfo bookInfo : bookInfoList) {
-                        if (isCancelled = isCancelled()) {
-                            Log.i(LogUtils.TAG, "Book import task cancelled, aborting.");
-                            break;
-                        }
-
-                        processBookInfo(bookInfo);
-                        i++;
-                        publishProgress(i);
-                    }
-
-                    if (!isCancelled) {
-                        Log.i(LogUtils.TAG, "Book import finished successfully.");
-                        db.setTransactionSuccessful();
-                    }
-                } finally {
-                    db.endTransaction();
-                }
+                Log.i(LogUtils.TAG, "Book import task cancelled, aborting.");
             }
+            changeBus.flush();
 
             return null;
         }
 
-        /**
-         * Process a parsed book and save it in the database if everything is fine.
-         *
-         * @param bookInfo The book.
-         */
-        private void processBookInfo(BookInfo bookInfo) {
-            boolean ok = true;
-            if (bookInfo.id != null) {
-                final Book book = bookService.getBook(bookInfo.id);
-                if (book == null) {
-                    ok = false;
-                    final String msg = String.format(
-                            "Book %s cannot be updated because there is no row in table %s with the id %d.",
-                            bookInfo.title, Book.NAME, bookInfo.id);
-                    Log.w(LogUtils.TAG, msg);
-                }
-            }
-
-            if (ok) {
-                Log.d(LogUtils.TAG, String.format("Saving book '%s'.", bookInfo.title));
-                bookService.saveBookInfo(bookInfo);
-            }
-        }
-
-        @Override
-        protected void onProgressUpdate(Integer... values) {
-            super.onProgressUpdate(values);
-            int progress = values[0];
-            mProgressDialogFragment.setProgress(progress);
-        }
-
         @Override
         protected void onPostExecute(Void aVoid) {
             super.onPostExecute(aVoid);
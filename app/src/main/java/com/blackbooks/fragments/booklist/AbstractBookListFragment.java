@@ -27,12 +27,21 @@ import com.blackbooks.activities.BookDisplayActivity;
 import com.blackbooks.activities.BookEditActivity;
 import com.blackbooks.adapters.BookListAdapter;
 import com.blackbooks.cache.ThumbnailManager;
+import com.blackbooks.changes.Change;
+import com.blackbooks.changes.ChangeBus;
+import com.blackbooks.changes.ChangeListener;
 import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.nonpersistent.PageKey;
 import com.blackbooks.model.persistent.Author;
 import com.blackbooks.model.persistent.Book;
+import com.blackbooks.model.persistent.BookLocation;
+import com.blackbooks.model.persistent.Category;
+import com.blackbooks.model.persistent.Series;
 import com.blackbooks.services.BookService;
-import com.blackbooks.utils.VariableUtils;
+import com.blackbooks.utils.StringUtils;
+import com.blackbooks.utils.collections.LongArrayList;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.inject.Inject;
@@ -42,7 +51,7 @@ import dagger.android.support.AndroidSupportInjection;
 /**
  * Fragment to display the books belonging to a particular group.
  */
-public abstract class AbstractBookListFragment extends ListFragment {
+public abstract class AbstractBookListFragment extends ListFragment implements ChangeListener {
 
     private static final String AMAZON_SEARCH_RESULT_URL = "http://www.amazon.com/gp/search?ie=UTF8&index=books&keywords=%s&tag=blaboo0c-20";
 
@@ -57,7 +66,6 @@ public abstract class AbstractBookListFragment extends ListFragment {
 
     private Integer mBookCount;
     private boolean mAlreadyLoaded;
-    private int mLastPage = 1;
     private int mLastItem = -1;
     private BookLoadTask mBookLoadTask;
 
@@ -71,6 +79,9 @@ public abstract class AbstractBookListFragment extends ListFragment {
     @Inject
     ThumbnailManager thumbnailManager;
 
+    @Inject
+    ChangeBus changeBus;
+
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -78,6 +89,7 @@ public abstract class AbstractBookListFragment extends ListFragment {
 
         mBookListAdapter = new BookListAdapter(getActivity(), thumbnailManager);
         setListAdapter(mBookListAdapter);
+        changeBus.register(this);
     }
 
     @Override
@@ -166,24 +178,49 @@ public abstract class AbstractBookListFragment extends ListFragment {
     public void onResume() {
         super.onResume();
 
-        if (!mAlreadyLoaded || VariableUtils.getInstance().getReloadBookList()) {
+        if (!mAlreadyLoaded) {
             mAlreadyLoaded = true;
-            VariableUtils.getInstance().setReloadBookList(false);
-            mLastItem = -1;
-            mLastPage = 1;
-            mBookListAdapter.clear();
-            loadMoreBooks();
+            reloadBooks();
         }
     }
 
     @Override
     public void onDestroy() {
         super.onDestroy();
+        changeBus.unregister(this);
         if (mBookLoadTask != null) {
             mBookLoadTask.cancel(true);
         }
     }
 
+    @Override
+    public void onChange(Change change) {
+        if (!mAlreadyLoaded) {
+            return;
+        }
+        if (change.type == Change.Type.TABLE_CHANGED) {
+            if (change.table.equals(Book.NAME) || change.table.equals(Author.NAME) || change.table.equals(Category.NAME)
+                    || change.table.equals(Series.NAME) || change.table.equals(BookLocation.NAME)) {
+                reloadBooks();
+            }
+        } else if (change.table.equals(Book.NAME)) {
+            if (change.type == Change.Type.DELETED) {
+                for (long id : change.ids) {
+                    removeBookFromAdapter(id);
+                }
+                mBookListAdapter.notifyDataSetChanged();
+                setFooterText();
+            } else {
+                new BookChangeTask(change.ids).execute();
+            }
+        } else {
+            long[] ids = getBookIdsReferring(change.table, change.ids);
+            if (ids.length > 0) {
+                new BookChangeTask(ids).execute();
+            }
+        }
+    }
+
     @Override
     public void onListItemClick(ListView l, View v, int position, long id) {
         Book book = (Book) getListAdapter().getItem(position);
@@ -255,13 +292,13 @@ public abstract class AbstractBookListFragment extends ListFragment {
     protected abstract int getBookCount();
 
     /**
-     * Load books.
+     * Load a page of books.
      *
-     * @param limit  Limit.
-     * @param offset Offset.
+     * @param limit Limit.
+     * @param after The key of the last book already loaded, null to load the first page.
      * @return List of BookInfo.
      */
-    protected abstract List<BookInfo> loadBookInfoList(int limit, int offset);
+    protected abstract List<BookInfo> loadBookInfoList(int limit, PageKey after);
 
     /**
      * Return the title of the activity.
@@ -280,20 +317,111 @@ public abstract class AbstractBookListFragment extends ListFragment {
         String message = String.format(getString(R.string.message_book_deleted), title);
 
         bookService.deleteBook(book.id);
-        VariableUtils.getInstance().setReloadBookList(true);
         Toast.makeText(this.getActivity(), message, Toast.LENGTH_SHORT).show();
-        mBookCount--;
-        mBookListAdapter.remove(book);
+        removeBookFromAdapter(book.id);
         mBookListAdapter.notifyDataSetChanged();
+        setFooterText();
+    }
+
+    /**
+     * Get the ids of the loaded books referring to rows of another table.
+     *
+     * @param table The name of the other table.
+     * @param ids   The ids of the rows of the other table.
+     * @return The ids of the books.
+     */
+    private long[] getBookIdsReferring(String table, long[] ids) {
+        LongArrayList bookIdList = new LongArrayList();
+        for (int i = 0; i < mBookListAdapter.getCount(); i++) {
+            BookInfo bookInfo = mBookListAdapter.getItem(i);
+            boolean refers = false;
+            for (long id : ids) {
+                if (table.equals(Author.NAME)) {
+                    for (Author author : bookInfo.authors) {
+                        refers |= author.id != null && author.id == id;
+                    }
+                } else if (table.equals(Category.NAME)) {
+                    for (Category category : bookInfo.categories) {
+                        refers |= category.id != null && category.id == id;
+                    }
+                } else if (table.equals(Series.NAME)) {
+                    refers |= bookInfo.seriesId != null && bookInfo.seriesId == id;
+                } else if (table.equals(BookLocation.NAME)) {
+                    refers |= bookInfo.bookLocationId != null && bookInfo.bookLocationId == id;
+                }
+            }
+            if (refers) {
+                bookIdList.add(bookInfo.id);
+            }
+        }
+        return bookIdList.toArray();
+    }
+
+    /**
+     * Get the position at which a book should be inserted in the loaded books,
+     * in the order of the book lists.
+     *
+     * @param bookInfo BookInfo.
+     * @return Position, equal to the number of loaded books if the book comes
+     * after all of them.
+     */
+    private int getSortedPosition(BookInfo bookInfo) {
+        int position = 0;
+        while (position < mBookListAdapter.getCount()) {
+            BookInfo current = mBookListAdapter.getItem(position);
+            int compare = StringUtils.compareNoCase(bookInfo.title, current.title);
+            if (compare < 0 || (compare == 0 && bookInfo.id < current.id)) {
+                break;
+            }
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Reload the books from the first page.
+     */
+    private void reloadBooks() {
+        if (mBookLoadTask != null) {
+            mBookLoadTask.cancel(true);
+        }
+        mLastItem = -1;
+        mBookListAdapter.clear();
+        loadMoreBooks();
+    }
+
+    /**
+     * Remove a book from the loaded books, if it is loaded.
+     *
+     * @param bookId Id of the book.
+     * @return True if the book was loaded.
+     */
+    private boolean removeBookFromAdapter(long bookId) {
+        for (int i = 0; i < mBookListAdapter.getCount(); i++) {
+            BookInfo bookInfo = mBookListAdapter.getItem(i);
+            if (bookInfo.id == bookId) {
+                mBookListAdapter.remove(bookInfo);
+                if (mBookCount != null) {
+                    mBookCount--;
+                }
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
-     * Load more books.
+     * Load the books that follow the last one of the list.
      */
     private void loadMoreBooks() {
-        mBookLoadTask = new BookLoadTask(BOOKS_BY_PAGE, BOOKS_BY_PAGE * (mLastPage - 1));
+        PageKey after = null;
+        int count = mBookListAdapter.getCount();
+        if (count > 0) {
+            BookInfo lastBookInfo = mBookListAdapter.getItem(count - 1);
+            after = new PageKey(lastBookInfo.title, lastBookInfo.id);
+        }
+        mBookLoadTask = new BookLoadTask(BOOKS_BY_PAGE, after);
         mBookLoadTask.execute();
-        mLastPage++;
     }
 
     /**
@@ -347,8 +475,6 @@ public abstract class AbstractBookListFragment extends ListFragment {
         String message = getString(R.string.message_book_returned, book.title);
         Toast.makeText(getActivity(), message, Toast.LENGTH_SHORT).show();
 
-        VariableUtils.getInstance().setReloadBookGroupList(true);
-
         book.loanedTo = null;
         mBookListAdapter.notifyDataSetChanged();
     }
@@ -440,24 +566,24 @@ public abstract class AbstractBookListFragment extends ListFragment {
     private final class BookLoadTask extends AsyncTask<Void, Void, List<BookInfo>> {
 
         private final int mLimit;
-        private final int mOffset;
+        private final PageKey mAfter;
 
         /**
          * Constructor.
          *
-         * @param limit  Max number of books to load.
-         * @param offset The offset when loading books.
+         * @param limit Max number of books to load.
+         * @param after The key of the last book already loaded, null to load the first page.
          */
-        public BookLoadTask(int limit, int offset) {
+        public BookLoadTask(int limit, PageKey after) {
             super();
             mLimit = limit;
-            mOffset = offset;
+            mAfter = after;
         }
 
         @Override
         protected List<BookInfo> doInBackground(Void... params) {
             mBookCount = AbstractBookListFragment.this.getBookCount();
-            return AbstractBookListFragment.this.loadBookInfoList(mLimit, mOffset);
+            return AbstractBookListFragment.this.loadBookInfoList(mLimit, mAfter);
         }
 
         @Override
@@ -478,4 +604,67 @@ public abstract class AbstractBookListFragment extends ListFragment {
             setFooterText();
         }
     }
+
+    /**
+     * A task to load again some books that have changed, and to update them in
+     * the list. A book that no more belongs to the group is removed, and a book
+     * that now belongs to it is inserted if it comes before the last loaded
+     * book.
+     */
+    private final class BookChangeTask extends AsyncTask<Void, Void, List<BookInfo>> {
+
+        private final long[] mBookIds;
+
+        /**
+         * Constructor.
+         *
+         * @param bookIds The ids of the changed books.
+         */
+        public BookChangeTask(long[] bookIds) {
+            super();
+            mBookIds = bookIds;
+        }
+
+        @Override
+        protected List<BookInfo> doInBackground(Void... params) {
+            List<BookInfo> bookInfoList = new ArrayList<>();
+            for (long bookId : mBookIds) {
+                BookInfo bookInfo = null;
+                Book book = bookService.getBook(bookId);
+                if (book != null) {
+                    // The first book after the one just before it is the book itself if it belongs to the group.
+                    List<BookInfo> page = loadBookInfoList(1, new PageKey(book.title, bookId - 1));
+                    if (!page.isEmpty() && page.get(0).id == bookId) {
+                        bookInfo = page.get(0);
+                    }
+                }
+                bookInfoList.add(bookInfo);
+            }
+            mBookCount = AbstractBookListFragment.this.getBookCount();
+            return bookInfoList;
+        }
+
+        @Override
+        protected void onPostExecute(List<BookInfo> bookInfoList) {
+            super.onPostExecute(bookInfoList);
+
+            Integer bookCount = mBookCount;
+            for (int i = 0; i < mBookIds.length; i++) {
+                removeBookFromAdapter(mBookIds[i]);
+
+                BookInfo bookInfo = bookInfoList.get(i);
+                if (bookInfo != null) {
+                    int position = getSortedPosition(bookInfo);
+                    int loadedCount = mBookListAdapter.getCount();
+                    // Past the last loaded book, the book will be loaded with the next page.
+                    if (position < loadedCount || loadedCount + 1 >= bookCount) {
+                        mBookListAdapter.insert(bookInfo, position);
+                    }
+                }
+            }
+            mBookCount = bookCount;
+            mBookListAdapter.notifyDataSetChanged();
+            setFooterText();
+        }
+    }
 }
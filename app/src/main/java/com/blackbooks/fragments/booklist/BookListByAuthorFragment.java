@@ -5,6 +5,7 @@ import android.os.Bundle;
 
 import com.blackbooks.R;
 import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.nonpersistent.PageKey;
 import com.blackbooks.model.persistent.Author;
 import com.blackbooks.services.AuthorService;
 import com.blackbooks.services.BookService;
@@ -69,8 +70,8 @@ public final class BookListByAuthorFragment extends AbstractBookListFragment {
     }
 
     @Override
-    protected List<BookInfo> loadBookInfoList(int limit, int offset) {
-        return bookService.getBookInfoListByAuthor(mAuthorId, limit, offset);
+    protected List<BookInfo> loadBookInfoList(int limit, PageKey after) {
+        return bookService.getBookInfoListByAuthor(mAuthorId, limit, after);
     }
 
     @Override
@@ -6,6 +6,7 @@ import android.os.Bundle;
 
 import com.blackbooks.R;
 import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.nonpersistent.PageKey;
 import com.blackbooks.model.persistent.BookLocation;
 import com.blackbooks.services.BookLocationService;
 
@@ -66,8 +67,8 @@ public final class BookListByBookLocationFragment extends AbstractBookListFragme
     }
 
     @Override
-    protected List<BookInfo> loadBookInfoList(int limit, int offset) {
-        return bookService.getBookInfoListByBookLocation(mBookLocationId, limit, offset);
+    protected List<BookInfo> loadBookInfoList(int limit, PageKey after) {
+        return bookService.getBookInfoListByBookLocation(mBookLocationId, limit, after);
     }
 
     @Override
@@ -4,6 +4,7 @@ import android.os.Bundle;
 
 import com.blackbooks.R;
 import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.nonpersistent.PageKey;
 import com.blackbooks.model.persistent.Category;
 import com.blackbooks.services.CategoryService;
 
@@ -56,8 +57,8 @@ public final class BookListByCategoryFragment extends AbstractBookListFragment {
     }
 
     @Override
-    protected List<BookInfo> loadBookInfoList(int limit, int offset) {
-        return bookService.getBookInfoListByCategory(mCategoryId, limit, offset);
+    protected List<BookInfo> loadBookInfoList(int limit, PageKey after) {
+        return bookService.getBookInfoListByCategory(mCategoryId, limit, after);
     }
 
     @Override
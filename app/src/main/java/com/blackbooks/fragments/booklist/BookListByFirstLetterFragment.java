@@ -5,6 +5,7 @@ import android.os.Bundle;
 
 import com.blackbooks.R;
 import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.nonpersistent.PageKey;
 
 import java.util.List;
 
@@ -48,8 +49,8 @@ public final class BookListByFirstLetterFragment extends AbstractBookListFragmen
     }
 
     @Override
-    protected List<BookInfo> loadBookInfoList(int limit, int offset) {
-        return bookService.getBookInfoListByFirstLetter(mFirstLetter, limit, offset);
+    protected List<BookInfo> loadBookInfoList(int limit, PageKey after) {
+        return bookService.getBookInfoListByFirstLetter(mFirstLetter, limit, after);
     }
 
     @Override
@@ -4,6 +4,7 @@ import android.os.Bundle;
 
 import com.blackbooks.R;
 import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.nonpersistent.PageKey;
 
 import java.util.List;
 
@@ -47,8 +48,8 @@ public final class BookListByLoanedFragment extends AbstractBookListFragment {
     }
 
     @Override
-    protected List<BookInfo> loadBookInfoList(int limit, int offset) {
-        return bookService.getBookInfoListByLoanedTo(mLoanedTo, limit, offset);
+    protected List<BookInfo> loadBookInfoList(int limit, PageKey after) {
+        return bookService.getBookInfoListByLoanedTo(mLoanedTo, limit, after);
     }
 
     @Override
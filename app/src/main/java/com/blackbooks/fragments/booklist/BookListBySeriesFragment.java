@@ -4,6 +4,7 @@ import android.content.Context;
 import android.os.Bundle;
 
 import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.nonpersistent.PageKey;
 import com.blackbooks.model.persistent.Series;
 import com.blackbooks.repositories.SeriesRepository;
 
@@ -64,8 +65,8 @@ public final class BookListBySeriesFragment extends AbstractBookListFragment {
     }
 
     @Override
-    protected List<BookInfo> loadBookInfoList(int limit, int offset) {
-        return bookService.getBookInfoListBySeries(mSeriesId, limit, offset);
+    protected List<BookInfo> loadBookInfoList(int limit, PageKey after) {
+        return bookService.getBookInfoListBySeries(mSeriesId, limit, after);
     }
 
     @Override
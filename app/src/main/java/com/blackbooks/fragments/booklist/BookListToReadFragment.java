@@ -4,6 +4,7 @@ import android.content.Context;
 
 import com.blackbooks.R;
 import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.nonpersistent.PageKey;
 import com.blackbooks.repositories.BookRepository;
 
 import java.util.List;
@@ -32,8 +33,8 @@ public final class BookListToReadFragment extends AbstractBookListFragment {
     }
 
     @Override
-    protected List<BookInfo> loadBookInfoList(int limit, int offset) {
-        return bookService.getBookInfoListToRead(limit, offset);
+    protected List<BookInfo> loadBookInfoList(int limit, PageKey after) {
+        return bookService.getBookInfoListToRead(limit, after);
     }
 
     @Override
@@ -35,7 +35,6 @@ import com.blackbooks.model.nonpersistent.BookInfo;
 import com.blackbooks.model.persistent.Book;
 import com.blackbooks.services.BookService;
 import com.blackbooks.utils.DateUtils;
-import com.blackbooks.utils.VariableUtils;
 
 import java.text.ParseException;
 import java.util.Date;
@@ -296,7 +295,6 @@ public final class BookLoanFragment extends Fragment implements DatePickerListen
             message = String.format(message, mBookInfo.title, mBookInfo.loanedTo);
             Toast.makeText(getActivity(), message, Toast.LENGTH_LONG).show();
 
-            VariableUtils.getInstance().setReloadBookList(true);
             mBookLoanListener.onBookLoaned();
         }
     }
@@ -315,7 +313,6 @@ public final class BookLoanFragment extends Fragment implements DatePickerListen
         message = String.format(message, mBookInfo.title);
         Toast.makeText(getActivity(), message, Toast.LENGTH_SHORT).show();
 
-        VariableUtils.getInstance().setReloadBookList(true);
         mBookLoanListener.onBookReturned();
     }
 
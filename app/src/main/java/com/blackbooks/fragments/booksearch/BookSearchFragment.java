@@ -18,10 +18,17 @@ import com.blackbooks.R;
 import com.blackbooks.activities.BookDisplayActivity;
 import com.blackbooks.adapters.BookSearchResultsAdapter;
 import com.blackbooks.cache.ThumbnailManager;
+import com.blackbooks.changes.Change;
+import com.blackbooks.changes.ChangeBus;
+import com.blackbooks.changes.ChangeListener;
 import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.nonpersistent.BookSearchResult;
+import com.blackbooks.model.persistent.Author;
+import com.blackbooks.model.persistent.Book;
+import com.blackbooks.model.persistent.Category;
+import com.blackbooks.model.persistent.Series;
 import com.blackbooks.services.FullTextSearchService;
 import com.blackbooks.utils.StringUtils;
-import com.blackbooks.utils.VariableUtils;
 
 import java.util.List;
 
@@ -32,7 +39,7 @@ import dagger.android.support.AndroidSupportInjection;
 /**
  * Book search fragment.
  */
-public final class BookSearchFragment extends ListFragment {
+public final class BookSearchFragment extends ListFragment implements ChangeListener {
 
     private static final String ARGS_QUERY = "ARGS_QUERY";
 
@@ -46,7 +53,7 @@ public final class BookSearchFragment extends ListFragment {
     private String mFooterText;
 
     private boolean mAlreadyLoaded;
-    private int mLastPage = 1;
+    private boolean mResultsChanged;
     private int mLastItem = -1;
 
     private BookSearchTask mBookSearchTask;
@@ -57,6 +64,9 @@ public final class BookSearchFragment extends ListFragment {
     @Inject
     ThumbnailManager mThumbnailManager;
 
+    @Inject
+    ChangeBus changeBus;
+
     /**
      * Return a new instance of BookSearchFragment that is initialized to perform a search with
      * a given query.
@@ -84,6 +94,7 @@ public final class BookSearchFragment extends ListFragment {
 
         mAdapter = new BookSearchResultsAdapter(getActivity(), mQuery, mThumbnailManager);
         setListAdapter(mAdapter);
+        changeBus.register(this);
     }
 
     @Override
@@ -145,37 +156,61 @@ public final class BookSearchFragment extends ListFragment {
     public void onResume() {
         super.onResume();
 
-        if (!mAlreadyLoaded || VariableUtils.getInstance().getReloadBookList()) {
+        if (!mAlreadyLoaded || mResultsChanged) {
             mAlreadyLoaded = true;
-            VariableUtils.getInstance().setReloadBookList(false);
-            mLastItem = -1;
-            mLastPage = 1;
-            mAdapter.clear();
-            loadMoreBooks();
+            reloadBooks();
         }
     }
 
     @Override
     public void onDestroy() {
         super.onDestroy();
+        changeBus.unregister(this);
+        if (mBookSearchTask != null) {
+            mBookSearchTask.cancel(true);
+        }
+    }
+
+    @Override
+    public void onChange(Change change) {
+        // The rank of a book in the results depends on all its texts: the search is run again.
+        if (change.table.equals(Book.NAME) || change.table.equals(Author.NAME) || change.table.equals(Category.NAME)
+                || change.table.equals(Series.NAME)) {
+            mResultsChanged = true;
+            if (mAlreadyLoaded && isResumed()) {
+                reloadBooks();
+            }
+        }
+    }
+
+    /**
+     * Run the search again from the first page.
+     */
+    private void reloadBooks() {
         if (mBookSearchTask != null) {
             mBookSearchTask.cancel(true);
         }
+        mResultsChanged = false;
+        mLastItem = -1;
+        mAdapter.clear();
+        loadMoreBooks();
     }
 
     /**
-     * Load more books.
+     * Load the books that follow the last one of the results. The results are
+     * ranked by relevance, which has no key to seek on as the book lists have:
+     * the next page starts at the number of books loaded (see
+     * {@link com.blackbooks.repositories.BookFTSRepositoryImpl#searchBooks(String, int, int)}).
      */
     private void loadMoreBooks() {
-        mBookSearchTask = new BookSearchTask(RESULTS_BY_PAGE, RESULTS_BY_PAGE * (mLastPage - 1));
+        mBookSearchTask = new BookSearchTask(RESULTS_BY_PAGE, mAdapter.getCount());
         mBookSearchTask.execute();
-        mLastPage++;
     }
 
     /**
      * Implementation of AsyncTask used to search books without blocking the UI.
      */
-    private class BookSearchTask extends AsyncTask<Void, Void, List<BookInfo>> {
+    private class BookSearchTask extends AsyncTask<Void, Void, List<BookSearchResult>> {
 
         private final int mLimit;
         private final int mOffset;
@@ -184,7 +219,7 @@ public final class BookSearchFragment extends ListFragment {
          * Constructor.
          *
          * @param limit  Max number of books to load.
-         * @param offset The offset when loading books.
+         * @param offset The number of books already loaded.
          */
         public BookSearchTask(int limit, int offset) {
             super();
@@ -193,7 +228,7 @@ public final class BookSearchFragment extends ListFragment {
         }
 
         @Override
-        protected List<BookInfo> doInBackground(Void... params) {
+        protected List<BookSearchResult> doInBackground(Void... params) {
             String query = StringUtils.normalize(mQuery);
             query += "*";
             mBookCount = fullTextSearchService.getSearchResultCount(query);
@@ -201,7 +236,7 @@ public final class BookSearchFragment extends ListFragment {
         }
 
         @Override
-        protected void onPostExecute(List<BookInfo> result) {
+        protected void onPostExecute(List<BookSearchResult> result) {
 
             int initialAdapterBookCount = mAdapter.getCount();
 
@@ -24,9 +24,12 @@ import com.blackbooks.R;
 import com.blackbooks.activities.BookDisplayActivity;
 import com.blackbooks.adapters.LookedUpIsbnListAdapter;
 import com.blackbooks.cache.ThumbnailManager;
+import com.blackbooks.changes.Change;
+import com.blackbooks.changes.ChangeBus;
+import com.blackbooks.changes.ChangeListener;
+import com.blackbooks.model.persistent.Book;
 import com.blackbooks.model.persistent.Isbn;
-import com.blackbooks.repositories.IsbnRepository;
-import com.blackbooks.utils.VariableUtils;
+import com.blackbooks.services.IsbnService;
 
 import java.util.List;
 
@@ -37,12 +40,13 @@ import dagger.android.support.AndroidSupportInjection;
 /**
  * A fragment to display the IBNs that have been looked up.
  */
-public final class BulkAddFragmentLookedUp extends ListFragment {
+public final class BulkAddFragmentLookedUp extends ListFragment implements ChangeListener {
 
     private static final int ISBNS_BY_PAGE = 50;
 
     private Integer mIsbnCount;
     private boolean mAlreadyLoaded;
+    private boolean mIsbnsChanged;
     private int mLastPage = 1;
     private int mLastItem = -1;
 
@@ -54,7 +58,10 @@ public final class BulkAddFragmentLookedUp extends ListFragment {
     ThumbnailManager thumbnailManager;
 
     @Inject
-    IsbnRepository isbnService;
+    IsbnService isbnService;
+
+    @Inject
+    ChangeBus changeBus;
 
     @Override
     public void onAttach(Context context) {
@@ -70,6 +77,7 @@ public final class BulkAddFragmentLookedUp extends ListFragment {
 
         mLookedUpIsbnListAdapter = new LookedUpIsbnListAdapter(getActivity(), thumbnailManager);
         setListAdapter(mLookedUpIsbnListAdapter);
+        changeBus.register(this);
     }
 
     @Override
@@ -123,9 +131,8 @@ public final class BulkAddFragmentLookedUp extends ListFragment {
     public void onResume() {
         super.onResume();
 
-        if (!mAlreadyLoaded || VariableUtils.getInstance().getReloadIsbnListLookedUp()) {
+        if (!mAlreadyLoaded || mIsbnsChanged) {
             mAlreadyLoaded = true;
-            VariableUtils.getInstance().setReloadIsbnListLookedUp(false);
             reloadIsbns();
         }
     }
@@ -133,9 +140,20 @@ public final class BulkAddFragmentLookedUp extends ListFragment {
     @Override
     public void onDestroy() {
         super.onDestroy();
+        changeBus.unregister(this);
         if (mIsbnListLookedUpLoadTask != null) {
             mIsbnListLookedUpLoadTask.cancel(true);
         }
+
+    @Override
+    public void onChange(Change change) {
+        if (change.table.equals(Isbn.NAME) || change.table.equals(Book.NAME)) {
+            mIsbnsChanged = true;
+            if (mAlreadyLoaded && isResumed()) {
+                reloadIsbns();
+            }
+        }
+    }
     }
 
     @Override
@@ -171,7 +189,6 @@ public final class BulkAddFragmentLookedUp extends ListFragment {
      */
     private void deleteAll() {
         isbnService.deleteAllLookedUpIsbns();
-        reloadIsbns();
     }
 
     /**
@@ -187,6 +204,10 @@ public final class BulkAddFragmentLookedUp extends ListFragment {
      * Reload the list of ISBNs from the first page.
      */
     private void reloadIsbns() {
+        if (mIsbnListLookedUpLoadTask != null) {
+            mIsbnListLookedUpLoadTask.cancel(true);
+        }
+        mIsbnsChanged = false;
         mLookedUpIsbnListAdapter.clear();
         mLastItem = -1;
         mLastPage = 1;
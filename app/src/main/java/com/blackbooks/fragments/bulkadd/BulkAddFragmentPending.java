@@ -27,6 +27,9 @@ import android.widget.Toast;
 import com.blackbooks.R;
 import com.blackbooks.adapters.PendingIsbnListAdapter;
 import com.blackbooks.fragments.dialogs.IsbnAddFragment;
+import com.blackbooks.changes.Change;
+import com.blackbooks.changes.ChangeBus;
+import com.blackbooks.changes.ChangeListener;
 import com.blackbooks.fragments.dialogs.ScannerInstallFragment;
 import com.blackbooks.model.persistent.Isbn;
 import com.blackbooks.service.BulkSearchService;
@@ -44,7 +47,7 @@ import dagger.android.support.AndroidSupportInjection;
 /**
  * Bulk add fragment.
  */
-public final class BulkAddFragmentPending extends ListFragment implements IsbnAddFragment.IsbnAddListener {
+public final class BulkAddFragmentPending extends ListFragment implements IsbnAddFragment.IsbnAddListener, ChangeListener {
 
     private static final int ISBNS_BY_PAGE = 50;
 
@@ -53,6 +56,7 @@ public final class BulkAddFragmentPending extends ListFragment implements IsbnAd
 
     private Integer mIsbnCount;
     private boolean mAlreadyLoaded;
+    private boolean mIsbnsChanged;
     private int mLastPage = 1;
     private int mLastItem = -1;
 
@@ -64,6 +68,9 @@ public final class BulkAddFragmentPending extends ListFragment implements IsbnAd
     @Inject
     IsbnService isbnService;
 
+    @Inject
+    ChangeBus changeBus;
+
     /**
      * Return a new instance of BulkAddFragment.
      *
@@ -87,6 +94,7 @@ public final class BulkAddFragmentPending extends ListFragment implements IsbnAd
 
         mPendingIsbnListAdapter = new PendingIsbnListAdapter(getActivity());
         setListAdapter(mPendingIsbnListAdapter);
+        changeBus.register(this);
     }
 
     @Override
@@ -139,9 +147,20 @@ public final class BulkAddFragmentPending extends ListFragment implements IsbnAd
     @Override
     public void onDestroy() {
         super.onDestroy();
+        changeBus.unregister(this);
         if (mIsbnListLoadTask != null) {
             mIsbnListLoadTask.cancel(true);
         }
+
+    @Override
+    public void onChange(Change change) {
+        if (change.table.equals(Isbn.NAME)) {
+            mIsbnsChanged = true;
+            if (mAlreadyLoaded && isResumed()) {
+                reloadIsbns();
+            }
+        }
+    }
     }
 
     @Override
@@ -191,16 +210,14 @@ public final class BulkAddFragmentPending extends ListFragment implements IsbnAd
      */
     private void deleteAll() {
         isbnService.deleteAllPendingIsbns();
-        reloadIsbns();
     }
 
     @Override
     public void onResume() {
         super.onResume();
 
-        if (!mAlreadyLoaded || VariableUtils.getInstance().getReloadIsbnListPending()) {
+        if (!mAlreadyLoaded || mIsbnsChanged) {
             mAlreadyLoaded = true;
-            VariableUtils.getInstance().setReloadIsbnListPending(false);
             reloadIsbns();
         }
 
@@ -266,14 +283,16 @@ public final class BulkAddFragmentPending extends ListFragment implements IsbnAd
      */
     private void saveIsbn(String isbn) {
         isbnService.saveIsbn(isbn);
-
-        reloadIsbns();
     }
 
     /**
      * Reload the list of ISBNs from the first page.
      */
     private void reloadIsbns() {
+        if (mIsbnListLoadTask != null) {
+            mIsbnListLoadTask.cancel(true);
+        }
+        mIsbnsChanged = false;
         mPendingIsbnListAdapter.clear();
         mLastItem = -1;
         mLastPage = 1;
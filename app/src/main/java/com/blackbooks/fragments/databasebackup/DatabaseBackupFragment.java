@@ -19,6 +19,7 @@ import android.widget.Toast;
 
 import com.blackbooks.R;
 import com.blackbooks.database.Database;
+import com.blackbooks.database.SQLiteHelper;
 import com.blackbooks.fragments.dialogs.ProgressDialogFragment;
 import com.blackbooks.fragments.dialogs.ProgressDialogFragment.OnProgressDialogListener;
 import com.blackbooks.utils.FileUtils;
@@ -153,7 +154,9 @@ public final class DatabaseBackupFragment extends Fragment implements OnProgress
                     Log.i(LogUtils.TAG, "Could not create backup file.");
                 } else {
                     try {
-
+                        // The last transactions may only be in the write-ahead
+                        // log, next to the database file.
+                        SQLiteHelper.getInstance().checkpoint();
                         success = FileUtils.copy(currentDB, mDatabaseBackup);
                     } catch (InterruptedException e) {
                         Log.i(LogUtils.TAG, "Backup interrupted, aborting.");
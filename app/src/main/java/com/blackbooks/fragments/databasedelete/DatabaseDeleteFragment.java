@@ -3,6 +3,7 @@ package com.blackbooks.fragments.databasedelete;
 import android.Manifest;
 import android.app.Activity;
 import android.content.pm.PackageManager;
+import android.database.sqlite.SQLiteDatabase;
 import android.os.AsyncTask;
 import android.os.Bundle;
 import android.support.annotation.NonNull;
@@ -162,7 +163,7 @@ public final class DatabaseDeleteFragment extends Fragment implements ProgressDi
                 Log.i(LogUtils.TAG, "Delete database task cancelled, aborting.");
                 result = false;
             } else {
-                result = currentDB.delete();
+                result = SQLiteDatabase.deleteDatabase(currentDB);
             }
             return result;
         }
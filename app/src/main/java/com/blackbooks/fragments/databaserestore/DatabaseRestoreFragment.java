@@ -197,6 +197,10 @@ public final class DatabaseRestoreFragment extends Fragment implements ProgressD
                 try {
                     Log.i(LogUtils.TAG, "Replacing the database by the dump.");
 
+                    // A write-ahead log left by the current database must not
+                    // be applied to the dump.
+                    new File(currentDB.getPath() + "-wal").delete();
+                    new File(currentDB.getPath() + "-shm").delete();
                     boolean success = FileUtils.copy(mBackupFile, currentDB);
 
                     if (success) {
@@ -15,8 +15,16 @@ import android.widget.TextView;
 import com.blackbooks.R;
 import com.blackbooks.activities.BookGroupListActivity;
 import com.blackbooks.activities.BookListActivity;
+import com.blackbooks.changes.ChangeBus;
+import com.blackbooks.changes.LiveQuery;
 import com.blackbooks.model.nonpersistent.BookGroup;
 import com.blackbooks.model.nonpersistent.Summary;
+import com.blackbooks.model.persistent.Author;
+import com.blackbooks.model.persistent.Book;
+import com.blackbooks.model.persistent.BookLocation;
+import com.blackbooks.model.persistent.Category;
+import com.blackbooks.model.persistent.LibraryStats;
+import com.blackbooks.model.persistent.Series;
 import com.blackbooks.services.SummaryService;
 
 import javax.inject.Inject;
@@ -31,12 +39,30 @@ public final class SummaryFragment extends Fragment {
     @Inject
     SummaryService summaryService;
 
+    @Inject
+    ChangeBus changeBus;
+
+    private LiveQuery<Summary> mSummaryQuery;
+
     @Override
     public void onAttach(Context context) {
         AndroidSupportInjection.inject(this);
         super.onAttach(context);
     }
 
+    @Override
+    public void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        mSummaryQuery = new LiveQuery<Summary>(changeBus, Book.NAME, Author.NAME, Category.NAME, Series.NAME,
+                BookLocation.NAME, LibraryStats.NAME) {
+            @Override
+            protected Summary query() {
+                return summaryService.getSummary();
+            }
+        };
+    }
+
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
         return inflater.inflate(R.layout.fragment_summary, container, false);
@@ -125,6 +151,27 @@ public final class SummaryFragment extends Fragment {
             }
         });
 
+        mSummaryQuery.observe(new LiveQuery.Observer<Summary>() {
+            @Override
+            public void onResult(Summary summary) {
+                setSummary(summary);
+            }
+        });
+    }
+
+    @Override
+    public void onPause() {
+        super.onPause();
+        mSummaryQuery.stop();
+    }
+
+    /**
+     * Display the statistics of the library.
+     *
+     * @param summary Summary.
+     */
+    private void setSummary(Summary summary) {
+        View view = getView();
         TextView mTextBooksCount = (TextView) view.findViewById(R.id.summary_booksCount);
         TextView mTextAuthorsCount = (TextView) view.findViewById(R.id.summary_authorsCount);
         TextView mTextCategoriesCount = (TextView) view.findViewById(R.id.summary_categoriesCount);
@@ -135,7 +182,6 @@ public final class SummaryFragment extends Fragment {
         TextView mTextLoanedCount = (TextView) view.findViewById(R.id.summary_loanCount);
         TextView mTextFavouriteCount = (TextView) view.findViewById(R.id.summary_favouriteCount);
 
-        Summary summary = summaryService.getSummary();
         Resources res = getResources();
 
         mTextBooksCount.setText(res.getQuantityString(R.plurals.label_summary_books, summary.books, summary.books));
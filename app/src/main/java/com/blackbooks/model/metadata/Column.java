@@ -34,6 +34,22 @@ public @interface Column {
      */
     boolean mandatory() default false;
 
+    /**
+     * The default value of the column, as an SQL literal.
+     *
+     * @return Default value, empty for none.
+     */
+    String defaultValue() default "";
+
+    /**
+     * Indicates whether the column is only written by the database, through
+     * its default value and triggers. A Broker reads it but never inserts nor
+     * updates it.
+     *
+     * @return True if the column is read-only.
+     */
+    boolean readOnly() default false;
+
     /**
      * This property has a sense only if the referencedType is set. If true,
      * this property indicates that if the referenced row is deleted, the
@@ -23,6 +23,33 @@ public @interface FTSTable {
      */
     FTSModules ftsModuleVersion();
 
+    /**
+     * The lengths of the prefixes indexed in addition to the full terms, so
+     * that prefix queries of these lengths do not scan the whole term list.
+     * Needs FTS4.
+     *
+     * @return Prefix lengths.
+     */
+    int[] prefix() default {};
+
+    /**
+     * The table holding the text of an external content table, whose rowid
+     * is the primary key of the FTS table. The FTS table then only stores its
+     * index, which has to be written by triggers on the content table. Needs
+     * FTS4.
+     *
+     * @return Content table name, empty for a table storing its own text.
+     */
+    String content() default "";
+
+    /**
+     * The tokenizer of the table, for instance "unicode61" to fold the case
+     * and remove the diacritics of all the letters.
+     *
+     * @return Tokenizer, empty for the default one.
+     */
+    String tokenize() default "";
+
     /**
      * The version of the database when this table was added to it.
      *
@@ -0,0 +1,47 @@
+package com.blackbooks.model.metadata;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares an index of a table, in {@link Table#indexes()}. The indexes on the
+ * foreign keys do not have to be declared, they are created from the
+ * {@link Column#referencedType()} of the columns.
+ */
+@Target({})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Index {
+
+    /**
+     * Name of the index.
+     *
+     * @return Name.
+     */
+    String name();
+
+    /**
+     * The indexed columns, in order. A column can be followed by a collation,
+     * as in "BOO_TITLE COLLATE NOCASE", the index is then only used by the
+     * comparisons and sorts using the same collation.
+     *
+     * @return Indexed columns.
+     */
+    String[] columns();
+
+    /**
+     * The condition of a partial index, empty to index all the rows. A partial
+     * index is only used by the queries whose WHERE clause contains the same
+     * condition, with the same constant values.
+     *
+     * @return Condition.
+     */
+    String where() default "";
+
+    /**
+     * The version of the database when this index was added to it.
+     *
+     * @return Version.
+     */
+    int version();
+}
@@ -19,6 +19,13 @@ public @interface Table {
      */
     String name();
 
+    /**
+     * The indexes of the table, other than the indexes on the foreign keys.
+     *
+     * @return Indexes.
+     */
+    Index[] indexes() default {};
+
     /**
      * The version of the database when this table was added to it.
      *
@@ -0,0 +1,25 @@
+package com.blackbooks.model.metadata;
+
+/**
+ * Interface to implement by the persistent classes whose updates should only
+ * write the columns that have changed. The broker keeps in each instance the
+ * values its columns had in the database when it was read or last saved.
+ */
+public interface Trackable {
+
+    /**
+     * Get the values of the columns when the instance was read or last saved.
+     * The returned array is owned by the broker and must not be modified.
+     *
+     * @return The original values, null if the instance is not tracked.
+     */
+    Object[] getOriginalValues();
+
+    /**
+     * Set the values of the columns when the instance was read or last saved.
+     *
+     * @param originalValues The original values, null to stop tracking the
+     *                       instance.
+     */
+    void setOriginalValues(Object[] originalValues);
+}
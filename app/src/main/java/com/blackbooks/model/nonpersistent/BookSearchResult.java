@@ -0,0 +1,35 @@
+package com.blackbooks.model.nonpersistent;
+
+import com.blackbooks.model.persistent.Book;
+
+/**
+ * A book found by a full-text search, with an excerpt of its description
+ * around the matching terms.
+ */
+public class BookSearchResult extends BookInfo {
+
+    private static final long serialVersionUID = -2260519542307542437L;
+
+    /**
+     * The excerpt of the description, null if the book has no description.
+     */
+    public Snippet descriptionSnippet;
+
+    /**
+     * Constructor.
+     *
+     * @param book Book.
+     */
+    public BookSearchResult(Book book) {
+        super(book);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param bookInfo BookInfo.
+     */
+    public BookSearchResult(BookInfo bookInfo) {
+        super(bookInfo);
+    }
+}
@@ -0,0 +1,25 @@
+package com.blackbooks.model.nonpersistent;
+
+import java.io.Serializable;
+
+/**
+ * The position of the last item of a page, in a list sorted by a text and an
+ * id. The next page is made of the items that follow this position, so that it
+ * can be selected without skipping the previous pages with an offset.
+ */
+public final class PageKey implements Serializable {
+
+    public final String sortKey;
+    public final Serializable id;
+
+    /**
+     * Constructor.
+     *
+     * @param sortKey The text by which the list is sorted.
+     * @param id      The id breaking ties between items with the same text.
+     */
+    public PageKey(String sortKey, Serializable id) {
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+}
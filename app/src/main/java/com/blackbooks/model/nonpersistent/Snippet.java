@@ -0,0 +1,26 @@
+package com.blackbooks.model.nonpersistent;
+
+import java.io.Serializable;
+
+/**
+ * An excerpt of a text around the terms matching a search, and the ranges
+ * of these terms in the excerpt.
+ */
+public final class Snippet implements Serializable {
+
+    private static final long serialVersionUID = 4285711374082671548L;
+
+    public final String text;
+    public final int[] highlights;
+
+    /**
+     * Constructor.
+     *
+     * @param text       The excerpt.
+     * @param highlights The start and end index of each matching term in the excerpt, one pair after the other.
+     */
+    public Snippet(String text, int[] highlights) {
+        this.text = text;
+        this.highlights = highlights;
+    }
+}
@@ -2,11 +2,14 @@ package com.blackbooks.model.persistent;
 
 import com.blackbooks.model.metadata.Column;
 import com.blackbooks.model.metadata.Column.SQLiteDataType;
+import com.blackbooks.model.metadata.Index;
 import com.blackbooks.model.metadata.Table;
 
 import java.io.Serializable;
 
-@Table(name = Author.NAME, version = 1)
+@Table(name = Author.NAME, version = 1, indexes = {
+        @Index(name = "AUTHOR_AUT_NAME", columns = {Author.Cols.AUT_NAME + " COLLATE NOCASE"}, version = 8)
+})
 public class Author implements Serializable {
 
     public static final String NAME = "AUTHOR";
@@ -19,6 +22,13 @@ public class Author implements Serializable {
     @Column(name = Cols.AUT_NAME, mandatory = true, unique = true, type = SQLiteDataType.TEXT, version = 1)
     public String name;
 
+    /**
+     * The number of books, maintained by the triggers of
+     * {@link com.blackbooks.database.LibraryStatistics}.
+     */
+    @Column(name = Cols.AUT_BOOK_COUNT, type = SQLiteDataType.INTEGER, mandatory = true, defaultValue = "0", readOnly = true, version = 8)
+    public Long bookCount;
+
     /**
      * Default constructor.
      */
@@ -34,10 +44,12 @@ public class Author implements Serializable {
         this();
         this.id = author.id;
         this.name = author.name;
+        this.bookCount = author.bookCount;
     }
 
     public final static class Cols {
         public final static String AUT_ID = "AUT_ID";
         public final static String AUT_NAME = "AUT_NAME";
+        public final static String AUT_BOOK_COUNT = "AUT_BOOK_COUNT";
     }
 }
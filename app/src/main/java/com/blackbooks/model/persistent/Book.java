@@ -2,13 +2,23 @@ package com.blackbooks.model.persistent;
 
 import com.blackbooks.model.metadata.Column;
 import com.blackbooks.model.metadata.Column.SQLiteDataType;
+import com.blackbooks.model.metadata.Index;
 import com.blackbooks.model.metadata.Table;
+import com.blackbooks.model.metadata.Trackable;
 
 import java.io.Serializable;
 import java.util.Date;
 
-@Table(name = Book.NAME, version = 1)
-public class Book implements Serializable {
+@Table(name = Book.NAME, version = 1, indexes = {
+        @Index(name = "BOOK_BOO_TITLE", columns = {Book.Cols.BOO_TITLE + " COLLATE NOCASE"}, version = 6),
+        @Index(name = "BOOK_BOO_ISBN_10", columns = {Book.Cols.BOO_ISBN_10 + " COLLATE NOCASE"}, version = 6),
+        @Index(name = "BOOK_BOO_ISBN_13", columns = {Book.Cols.BOO_ISBN_13 + " COLLATE NOCASE"}, version = 6),
+        @Index(name = "BOOK_BOO_LANGUAGE_CODE", columns = {Book.Cols.BOO_LANGUAGE_CODE + " COLLATE NOCASE", Book.Cols.BOO_TITLE + " COLLATE NOCASE"}, version = 6),
+        @Index(name = "BOOK_BOO_LOANED_TO", columns = {Book.Cols.BOO_LOANED_TO, Book.Cols.BOO_TITLE + " COLLATE NOCASE"}, version = 6),
+        @Index(name = "BOOK_TO_READ", columns = {Book.Cols.BOO_TITLE + " COLLATE NOCASE"}, where = Book.Cols.BOO_IS_READ + " = 0", version = 6),
+        @Index(name = "BOOK_FAVOURITE", columns = {Book.Cols.BOO_TITLE + " COLLATE NOCASE"}, where = Book.Cols.BOO_IS_FAVOURITE + " = 1", version = 6)
+})
+public class Book implements Serializable, Trackable {
 
     public static final String NAME = "BOOK";
 
@@ -38,11 +48,11 @@ public class Book implements Serializable {
     @Column(name = Cols.BOO_PAGE_COUNT, type = SQLiteDataType.INTEGER, version = 1)
     public Long pageCount;
 
-    @Column(name = Cols.BOO_SMALL_THUMBNAIL, type = SQLiteDataType.BLOB, version = 1)
-    public byte[] smallThumbnail;
+    @Column(name = Cols.BOO_SMALL_THUMBNAIL_COV_ID, type = SQLiteDataType.INTEGER, referencedType = Cover.class, version = 7)
+    public Long smallThumbnailCoverId;
 
-    @Column(name = Cols.BOO_THUMBNAIL, type = SQLiteDataType.BLOB, version = 1)
-    public byte[] thumbnail;
+    @Column(name = Cols.BOO_THUMBNAIL_COV_ID, type = SQLiteDataType.INTEGER, referencedType = Cover.class, version = 7)
+    public Long thumbnailCoverId;
 
     @Column(name = Cols.BOO_IS_READ, type = SQLiteDataType.INTEGER, mandatory = true, version = 1)
     public Long isRead;
@@ -74,6 +84,30 @@ public class Book implements Serializable {
     @Column(name = Cols.BOO_LOAN_DATE, type = SQLiteDataType.INTEGER, version = 1)
     public Date loanDate;
 
+    /**
+     * The image of the small thumbnail, stored in the {@link Cover} referenced
+     * by {@link #smallThumbnailCoverId}. Only set once the thumbnails have
+     * been loaded.
+     */
+    public byte[] smallThumbnail;
+
+    /**
+     * The image of the thumbnail, stored in the {@link Cover} referenced by
+     * {@link #thumbnailCoverId}. Only set once the thumbnails have been
+     * loaded.
+     */
+    public byte[] thumbnail;
+
+    /**
+     * Indicates whether {@link #smallThumbnail} and {@link #thumbnail} hold
+     * the images of the covers, so that the covers of an existing book are
+     * only written when they have been loaded. It is not a column, but it is
+     * serialized with the thumbnails it describes.
+     */
+    public boolean coversLoaded;
+
+    private transient Object[] originalValues;
+
     /**
      * Default constructor.
      */
@@ -97,8 +131,8 @@ public class Book implements Serializable {
         this.publishedDate = book.publishedDate;
         this.description = book.description;
         this.pageCount = book.pageCount;
-        this.smallThumbnail = book.smallThumbnail;
-        this.thumbnail = book.thumbnail;
+        this.smallThumbnailCoverId = book.smallThumbnailCoverId;
+        this.thumbnailCoverId = book.thumbnailCoverId;
         this.isRead = book.isRead;
         this.isFavourite = book.isFavourite;
         this.isbn10 = book.isbn10;
@@ -109,6 +143,20 @@ public class Book implements Serializable {
         this.number = book.number;
         this.loanedTo = book.loanedTo;
         this.loanDate = book.loanDate;
+        this.smallThumbnail = book.smallThumbnail;
+        this.thumbnail = book.thumbnail;
+        this.coversLoaded = book.coversLoaded;
+        this.originalValues = book.originalValues;
+    }
+
+    @Override
+    public Object[] getOriginalValues() {
+        return originalValues;
+    }
+
+    @Override
+    public void setOriginalValues(Object[] originalValues) {
+        this.originalValues = originalValues;
     }
 
     public static final class Cols {
@@ -120,8 +168,8 @@ public class Book implements Serializable {
         public static final String BOO_PUBLISHED_DATE = "BOO_PUBLISHED_DATE";
         public static final String BOO_DESCRIPTION = "BOO_DESCRIPTION";
         public static final String BOO_PAGE_COUNT = "BOO_PAGE_COUNT";
-        public static final String BOO_SMALL_THUMBNAIL = "BOO_SMALL_THUMBNAIL";
-        public static final String BOO_THUMBNAIL = "BOO_THUMBNAIL";
+        public static final String BOO_SMALL_THUMBNAIL_COV_ID = "BOO_SMALL_THUMBNAIL_COV_ID";
+        public static final String BOO_THUMBNAIL_COV_ID = "BOO_THUMBNAIL_COV_ID";
         public static final String BOO_IS_READ = "BOO_IS_READ";
         public static final String BOO_IS_FAVOURITE = "BOO_IS_FAVOURITE";
         public static final String BOO_ISBN_10 = "BOO_ISBN_10";
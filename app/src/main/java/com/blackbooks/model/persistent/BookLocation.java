@@ -2,11 +2,14 @@ package com.blackbooks.model.persistent;
 
 import com.blackbooks.model.metadata.Column;
 import com.blackbooks.model.metadata.Column.SQLiteDataType;
+import com.blackbooks.model.metadata.Index;
 import com.blackbooks.model.metadata.Table;
 
 import java.io.Serializable;
 
-@Table(name = BookLocation.NAME, version = 1)
+@Table(name = BookLocation.NAME, version = 1, indexes = {
+        @Index(name = "BOOK_LOCATION_BKL_NAME", columns = {BookLocation.Cols.BKL_NAME + " COLLATE NOCASE"}, version = 8)
+})
 public class BookLocation implements Serializable {
 
     public static final String NAME = "BOOK_LOCATION";
@@ -19,6 +22,13 @@ public class BookLocation implements Serializable {
     @Column(name = Cols.BKL_NAME, mandatory = true, unique = true, type = SQLiteDataType.TEXT, version = 1)
     public String name;
 
+    /**
+     * The number of books, maintained by the triggers of
+     * {@link com.blackbooks.database.LibraryStatistics}.
+     */
+    @Column(name = Cols.BKL_BOOK_COUNT, type = SQLiteDataType.INTEGER, mandatory = true, defaultValue = "0", readOnly = true, version = 8)
+    public Long bookCount;
+
     /**
      * Default constructor.
      */
@@ -33,10 +43,12 @@ public class BookLocation implements Serializable {
     public BookLocation(BookLocation bookLocation) {
         this.id = bookLocation.id;
         this.name = bookLocation.name;
+        this.bookCount = bookLocation.bookCount;
     }
 
     public class Cols {
         public static final String BKL_ID = "BKL_ID";
         public static final String BKL_NAME = "BKL_NAME";
+        public static final String BKL_BOOK_COUNT = "BKL_BOOK_COUNT";
     }
 }
@@ -2,11 +2,14 @@ package com.blackbooks.model.persistent;
 
 import com.blackbooks.model.metadata.Column;
 import com.blackbooks.model.metadata.Column.SQLiteDataType;
+import com.blackbooks.model.metadata.Index;
 import com.blackbooks.model.metadata.Table;
 
 import java.io.Serializable;
 
-@Table(name = Category.NAME, version = 1)
+@Table(name = Category.NAME, version = 1, indexes = {
+        @Index(name = "CATEGORY_CAT_NAME", columns = {Category.Cols.CAT_NAME + " COLLATE NOCASE"}, version = 8)
+})
 public class Category implements Serializable {
 
     public static final String NAME = "CATEGORY";
@@ -19,6 +22,13 @@ public class Category implements Serializable {
     @Column(name = Cols.CAT_NAME, type = SQLiteDataType.TEXT, unique = true, mandatory = true, version = 1)
     public String name;
 
+    /**
+     * The number of books, maintained by the triggers of
+     * {@link com.blackbooks.database.LibraryStatistics}.
+     */
+    @Column(name = Cols.CAT_BOOK_COUNT, type = SQLiteDataType.INTEGER, mandatory = true, defaultValue = "0", readOnly = true, version = 8)
+    public Long bookCount;
+
     /**
      * Default constructor.
      */
@@ -34,10 +44,12 @@ public class Category implements Serializable {
         this();
         this.id = category.id;
         this.name = category.name;
+        this.bookCount = category.bookCount;
     }
 
     public final static class Cols {
         public final static String CAT_ID = "CAT_ID";
         public final static String CAT_NAME = "CAT_NAME";
+        public final static String CAT_BOOK_COUNT = "CAT_BOOK_COUNT";
     }
 }
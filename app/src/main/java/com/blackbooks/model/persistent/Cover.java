@@ -0,0 +1,53 @@
+package com.blackbooks.model.persistent;
+
+import com.blackbooks.model.metadata.Column;
+import com.blackbooks.model.metadata.Column.SQLiteDataType;
+import com.blackbooks.model.metadata.Table;
+
+import java.io.Serializable;
+
+/**
+ * The image of a cover. The covers are stored apart from the books, once per
+ * distinct image: the books sharing the same image, like the placeholder
+ * image of a search provider, reference the same cover.
+ */
+@Table(name = Cover.NAME, version = 7)
+public class Cover implements Serializable {
+
+    public static final String NAME = "COVER";
+
+    private static final long serialVersionUID = -6130420853365386829L;
+
+    @Column(name = Cols.COV_ID, primaryKey = true, type = SQLiteDataType.INTEGER, version = 7)
+    public Long id;
+
+    @Column(name = Cols.COV_HASH, mandatory = true, unique = true, type = SQLiteDataType.TEXT, version = 7)
+    public String hash;
+
+    @Column(name = Cols.COV_IMAGE, mandatory = true, type = SQLiteDataType.BLOB, version = 7)
+    public byte[] image;
+
+    /**
+     * Default constructor.
+     */
+    public Cover() {
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param cover Cover.
+     */
+    public Cover(Cover cover) {
+        this();
+        this.id = cover.id;
+        this.hash = cover.hash;
+        this.image = cover.image;
+    }
+
+    public final static class Cols {
+        public final static String COV_ID = "COV_ID";
+        public final static String COV_HASH = "COV_HASH";
+        public final static String COV_IMAGE = "COV_IMAGE";
+    }
+}
@@ -2,12 +2,15 @@ package com.blackbooks.model.persistent;
 
 import com.blackbooks.model.metadata.Column;
 import com.blackbooks.model.metadata.Column.SQLiteDataType;
+import com.blackbooks.model.metadata.Index;
 import com.blackbooks.model.metadata.Table;
 
 import java.io.Serializable;
 import java.util.Date;
 
-@Table(name = Isbn.NAME, version = 3)
+@Table(name = Isbn.NAME, version = 3, indexes = {
+        @Index(name = "ISBN_TO_LOOK_UP", columns = {Isbn.Cols.ISB_DATE_ADDED}, where = Isbn.Cols.ISB_LOOKED_UP + " = 0", version = 6)
+})
 public class Isbn implements Serializable {
 
     public static final String NAME = "ISBN";
@@ -0,0 +1,73 @@
+package com.blackbooks.model.persistent;
+
+import com.blackbooks.model.metadata.Column;
+import com.blackbooks.model.metadata.Column.SQLiteDataType;
+import com.blackbooks.model.metadata.Table;
+
+import java.io.Serializable;
+
+/**
+ * The counts of the summary of the library. The table holds a single row,
+ * kept up to date by the triggers of {@link com.blackbooks.database.LibraryStatistics}.
+ */
+@Table(name = LibraryStats.NAME, version = 8)
+public class LibraryStats implements Serializable {
+
+    public static final String NAME = "LIBRARY_STATS";
+
+    /**
+     * The id of the only row of the table.
+     */
+    public static final long ID = 1L;
+
+    private static final long serialVersionUID = 2867152960457162391L;
+
+    @Column(name = Cols.LIS_ID, primaryKey = true, type = SQLiteDataType.INTEGER, version = 8)
+    public Long id;
+
+    @Column(name = Cols.LIS_BOOKS, mandatory = true, type = SQLiteDataType.INTEGER, version = 8)
+    public Long books;
+
+    @Column(name = Cols.LIS_AUTHORS, mandatory = true, type = SQLiteDataType.INTEGER, version = 8)
+    public Long authors;
+
+    @Column(name = Cols.LIS_CATEGORIES, mandatory = true, type = SQLiteDataType.INTEGER, version = 8)
+    public Long categories;
+
+    @Column(name = Cols.LIS_LANGUAGES, mandatory = true, type = SQLiteDataType.INTEGER, version = 8)
+    public Long languages;
+
+    @Column(name = Cols.LIS_SERIES, mandatory = true, type = SQLiteDataType.INTEGER, version = 8)
+    public Long series;
+
+    @Column(name = Cols.LIS_BOOK_LOCATIONS, mandatory = true, type = SQLiteDataType.INTEGER, version = 8)
+    public Long bookLocations;
+
+    @Column(name = Cols.LIS_TO_READ, mandatory = true, type = SQLiteDataType.INTEGER, version = 8)
+    public Long toRead;
+
+    @Column(name = Cols.LIS_LOANS, mandatory = true, type = SQLiteDataType.INTEGER, version = 8)
+    public Long loans;
+
+    @Column(name = Cols.LIS_FAVOURITES, mandatory = true, type = SQLiteDataType.INTEGER, version = 8)
+    public Long favourites;
+
+    /**
+     * Default constructor.
+     */
+    public LibraryStats() {
+    }
+
+    public final static class Cols {
+        public final static String LIS_ID = "LIS_ID";
+        public final static String LIS_BOOKS = "LIS_BOOKS";
+        public final static String LIS_AUTHORS = "LIS_AUTHORS";
+        public final static String LIS_CATEGORIES = "LIS_CATEGORIES";
+        public final static String LIS_LANGUAGES = "LIS_LANGUAGES";
+        public final static String LIS_SERIES = "LIS_SERIES";
+        public final static String LIS_BOOK_LOCATIONS = "LIS_BOOK_LOCATIONS";
+        public final static String LIS_TO_READ = "LIS_TO_READ";
+        public final static String LIS_LOANS = "LIS_LOANS";
+        public final static String LIS_FAVOURITES = "LIS_FAVOURITES";
+    }
+}
@@ -2,11 +2,14 @@ package com.blackbooks.model.persistent;
 
 import com.blackbooks.model.metadata.Column;
 import com.blackbooks.model.metadata.Column.SQLiteDataType;
+import com.blackbooks.model.metadata.Index;
 import com.blackbooks.model.metadata.Table;
 
 import java.io.Serializable;
 
-@Table(name = Series.NAME, version = 1)
+@Table(name = Series.NAME, version = 1, indexes = {
+        @Index(name = "SERIES_SER_NAME", columns = {Series.Cols.SER_NAME + " COLLATE NOCASE"}, version = 8)
+})
 public class Series implements Serializable {
 
     public static final String NAME = "SERIES";
@@ -19,6 +22,13 @@ public class Series implements Serializable {
     @Column(name = Cols.SER_NAME, mandatory = true, unique = true, type = SQLiteDataType.TEXT, version = 1)
     public String name;
 
+    /**
+     * The number of books, maintained by the triggers of
+     * {@link com.blackbooks.database.LibraryStatistics}.
+     */
+    @Column(name = Cols.SER_BOOK_COUNT, type = SQLiteDataType.INTEGER, mandatory = true, defaultValue = "0", readOnly = true, version = 8)
+    public Long bookCount;
+
     /**
      * Default constructor.
      */
@@ -34,10 +44,12 @@ public class Series implements Serializable {
         this();
         this.id = series.id;
         this.name = series.name;
+        this.bookCount = series.bookCount;
     }
 
     public class Cols {
         public static final String SER_ID = "SER_ID";
         public static final String SER_NAME = "SER_NAME";
+        public static final String SER_BOOK_COUNT = "SER_BOOK_COUNT";
     }
 }
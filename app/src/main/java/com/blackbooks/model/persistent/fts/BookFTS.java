@@ -4,36 +4,39 @@ import com.blackbooks.model.metadata.FTSColumn;
 import com.blackbooks.model.metadata.FTSTable;
 import com.blackbooks.model.metadata.FTSTable.FTSModules;
 import com.blackbooks.model.persistent.Book;
-import com.blackbooks.utils.StringUtils;
 
-@FTSTable(name = BookFTS.NAME, ftsModuleVersion = FTSModules.FTS4, version = 1)
+/**
+ * The full-text index of the books, ranked by {@link com.blackbooks.sql.Bm25}.
+ * The prefixes of 2 and 3 characters are indexed, the search being a prefix
+ * query.
+ * <p>
+ * The text is not copied: the index reads it from the BOOK table, whose
+ * columns it names, and is written by the triggers of
+ * {@link com.blackbooks.database.FullTextIndex}. The unicode61 tokenizer
+ * ignores the case and the diacritics.
+ */
+@FTSTable(name = BookFTS.NAME, ftsModuleVersion = FTSModules.FTS4, content = Book.NAME, tokenize = "unicode61",
+        prefix = {2, 3}, version = 1)
 public class BookFTS {
 
     public static final String NAME = "BOOK_FTS";
 
     @FTSColumn(name = Cols.DOCID, primaryKey = true, version = 1)
-    public final Long docid;
+    public Long docid;
 
-    @FTSColumn(name = Cols.TITLE, version = 1)
-    public final String title;
+    @FTSColumn(name = Cols.BOO_TITLE, version = 1)
+    public String title;
 
-    @FTSColumn(name = Cols.SUBTITLE, version = 1)
-    public final String subtitle;
+    @FTSColumn(name = Cols.BOO_SUBTITLE, version = 1)
+    public String subtitle;
 
-    @FTSColumn(name = Cols.DESCRIPTION, version = 1)
-    public final String description;
-
-    public BookFTS(Book book) {
-        this.docid = book.id;
-        this.title = StringUtils.normalize(book.title);
-        this.subtitle = StringUtils.normalize(book.subtitle);
-        this.description = StringUtils.normalize(book.description);
-    }
+    @FTSColumn(name = Cols.BOO_DESCRIPTION, version = 1)
+    public String description;
 
     public class Cols {
         public static final String DOCID = "DOCID";
-        public static final String TITLE = "TITLE";
-        public static final String SUBTITLE = "SUBTITLE";
-        public static final String DESCRIPTION = "DESCRIPTION";
+        public static final String BOO_TITLE = Book.Cols.BOO_TITLE;
+        public static final String BOO_SUBTITLE = Book.Cols.BOO_SUBTITLE;
+        public static final String BOO_DESCRIPTION = Book.Cols.BOO_DESCRIPTION;
     }
 }
@@ -1,16 +1,40 @@
 package com.blackbooks.repositories;
 
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 
+import com.blackbooks.changes.ChangeBus;
 import com.blackbooks.database.SQLiteHelper;
+import com.blackbooks.model.nonpersistent.PageKey;
+import com.blackbooks.sql.NameCache;
+import com.blackbooks.sql.NameCacheManager;
+import com.blackbooks.sql.QueryCache;
+import com.blackbooks.sql.QueryCacheManager;
+import com.blackbooks.sql.StatementCacheManager;
+import com.blackbooks.utils.collections.LongArrayList;
 
 public abstract class AbstractRepository {
 
     private final SQLiteHelper sqLiteHelper;
+    private final ChangeBus changeBus;
 
     protected AbstractRepository(SQLiteHelper sqLiteHelper) {
+        this(sqLiteHelper, null);
+    }
 
+    /**
+     * Constructor of a class that posts changes on a {@link ChangeBus}: the
+     * changes held back during its transactions are delivered by
+     * {@link #endTransaction()}. The repositories, that post nothing, do not
+     * need one.
+     *
+     * @param sqLiteHelper SQLiteHelper.
+     * @param changeBus    ChangeBus.
+     */
+    protected AbstractRepository(SQLiteHelper sqLiteHelper, ChangeBus changeBus) {
         this.sqLiteHelper = sqLiteHelper;
+        this.changeBus = changeBus;
     }
 
     protected SQLiteDatabase getReadableDatabase() {
@@ -20,4 +44,208 @@ public abstract class AbstractRepository {
     protected SQLiteDatabase getWritableDatabase() {
         return sqLiteHelper.getWritableDatabase();
     }
+
+    /**
+     * Run a query, or get its result from the {@link QueryCache} if the same
+     * query has already been run with the same arguments since the tables it
+     * reads were last written.
+     *
+     * @param sql           SQL query.
+     * @param selectionArgs Selection arguments.
+     * @param tables        All the tables read by the query.
+     * @param reader        Reads the result from the cursor. The result is
+     *                      shared by all the callers, it must not be modified.
+     * @param <R>           Type of the result.
+     * @return The result.
+     */
+    @SuppressWarnings("unchecked")
+    protected <R> R queryCached(String sql, String[] selectionArgs, String[] tables, CursorReader<R> reader) {
+        SQLiteDatabase db = getReadableDatabase();
+        QueryCache cache = QueryCacheManager.getCache(db);
+        String key = QueryCache.buildKey(sql, selectionArgs);
+
+        R result = (R) cache.get(key);
+        if (result == null) {
+            long sequence = cache.getSequence();
+            Cursor cursor = db.rawQuery(sql, selectionArgs);
+            try {
+                long byteCount = QueryCache.estimateByteCount(cursor);
+                result = reader.read(cursor);
+                cache.put(key, tables, result, byteCount, sequence);
+            } finally {
+                cursor.close();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Evict the cached query results read from tables written without going
+     * through a {@link com.blackbooks.sql.Broker}.
+     *
+     * @param tables The written tables.
+     */
+    protected void invalidateQueryCache(String... tables) {
+        SQLiteDatabase db = getWritableDatabase();
+        QueryCache cache = QueryCacheManager.getCache(db);
+        for (String table : tables) {
+            cache.invalidate(db, table);
+        }
+    }
+
+    /**
+     * Get the id of the row of a table identified by a unique name, from the
+     * {@link NameCache} if it has already been selected.
+     *
+     * @param table      Table name.
+     * @param idColumn   The id column.
+     * @param nameColumn The unique name column.
+     * @param name       The name.
+     * @return The id, null if there is no row with this name.
+     */
+    protected Long getIdByName(String table, String idColumn, String nameColumn, String name) {
+        SQLiteDatabase db = getReadableDatabase();
+        NameCache cache = NameCacheManager.getCache(db);
+        Long id = cache.get(table, name);
+        if (id == null) {
+            long sequence = cache.getSequence();
+            String sql = "SELECT " + idColumn + " FROM " + table + " WHERE " + nameColumn + " = ?;";
+            Cursor cursor = db.rawQuery(sql, new String[]{name});
+            try {
+                if (cursor.moveToFirst()) {
+                    id = cursor.getLong(0);
+                    cache.put(table, name, id, sequence);
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Let the name cache know that rows have been inserted in a table.
+     *
+     * @param table Table name.
+     */
+    protected void nameInserted(String table) {
+        SQLiteDatabase db = getWritableDatabase();
+        NameCacheManager.getCache(db).inserted(db, table);
+    }
+
+    /**
+     * Evict from the name cache a row that has been deleted or renamed.
+     *
+     * @param table Table name.
+     * @param id    The id of the row.
+     */
+    protected void nameRemoved(String table, long id) {
+        SQLiteDatabase db = getWritableDatabase();
+        NameCacheManager.getCache(db).removed(db, table, id);
+    }
+
+    /**
+     * Evict from the name cache all the rows of a table.
+     *
+     * @param table Table name.
+     */
+    protected void invalidateNameCache(String table) {
+        SQLiteDatabase db = getWritableDatabase();
+        NameCacheManager.getCache(db).invalidate(db, table);
+    }
+
+    /**
+     * Delete the rows of a table that are no longer referenced, among the
+     * rows whose references have just been removed. Each candidate is checked
+     * through the indexes of the referencing tables, so that the cost does not
+     * depend on the size of the tables.
+     *
+     * @param table           Table name.
+     * @param idColumn        The id column.
+     * @param orphanCondition The condition telling that a row of the table,
+     *                        which is not aliased, is no longer referenced.
+     * @param idList          The ids of the candidates.
+     */
+    protected void deleteOrphans(String table, String idColumn, String orphanCondition, LongArrayList idList) {
+        if (idList.isEmpty()) {
+            return;
+        }
+        SQLiteDatabase db = getWritableDatabase();
+        String sql = "DELETE FROM " + table + " WHERE " + idColumn + " = ? AND " + orphanCondition + ";";
+        SQLiteStatement statement = StatementCacheManager.getCache(db).getStatement(sql);
+        NameCache nameCache = NameCacheManager.getCache(db);
+        boolean deleted = false;
+        try {
+            synchronized (statement) {
+                for (int i = 0; i < idList.size(); i++) {
+                    long id = idList.get(i);
+                    statement.bindLong(1, id);
+                    if (statement.executeUpdateDelete() > 0) {
+                        nameCache.removed(db, table, id);
+                        deleted = true;
+                    }
+                }
+            }
+        } finally {
+            statement.releaseReference();
+        }
+        if (deleted) {
+            invalidateQueryCache(table);
+        }
+    }
+
+    /**
+     * End a transaction of the writable database, and let the query cache,
+     * the name cache and the change bus know when it is over.
+     */
+    protected void endTransaction() {
+        SQLiteDatabase db = getWritableDatabase();
+        db.endTransaction();
+        QueryCacheManager.getCache(db).endTransaction(db);
+        NameCacheManager.getCache(db).endTransaction(db);
+        if (changeBus != null) {
+            changeBus.flush();
+        }
+    }
+
+    /**
+     * Build the condition selecting the rows that follow a {@link PageKey}, in
+     * a list sorted by "sortColumn COLLATE NOCASE, idColumn". The sort column
+     * is bounded from below, so that an index on it can be used.
+     *
+     * @param sortColumn The text column by which the list is sorted.
+     * @param idColumn   The id column breaking ties.
+     * @return SQL condition, whose arguments are given by
+     * {@link #getPageSelectionArgs(PageKey)}.
+     */
+    protected static String buildPageCondition(String sortColumn, String idColumn) {
+        return "(" + sortColumn + " >= ? COLLATE NOCASE AND (" + sortColumn + " > ? COLLATE NOCASE OR " + idColumn + " > ?))";
+    }
+
+    /**
+     * Get the arguments of the condition built by
+     * {@link #buildPageCondition(String, String)}.
+     *
+     * @param after The key of the last row of the previous page.
+     * @return Selection arguments.
+     */
+    protected static String[] getPageSelectionArgs(PageKey after) {
+        return new String[]{after.sortKey, after.sortKey, String.valueOf(after.id)};
+    }
+
+    /**
+     * Reads the result of a query from its cursor.
+     *
+     * @param <R> Type of the result.
+     */
+    protected interface CursorReader<R> {
+
+        /**
+         * Read the result.
+         *
+         * @param cursor The cursor, before its first row.
+         * @return The result, not null.
+         */
+        R read(Cursor cursor);
+    }
 }
@@ -1,6 +1,7 @@
 package com.blackbooks.repositories;
 
 import com.blackbooks.model.persistent.Author;
+import com.blackbooks.utils.collections.LongArrayList;
 
 import java.util.List;
 
@@ -8,7 +9,7 @@ public interface AuthorRepository {
 
     void deleteAuthor(long authorId);
 
-    List<Author> getAuthorsByIds(List<Long> authorIdList);
+    List<Author> getAuthorsByIds(LongArrayList authorIdList);
 
     void deleteAuthorsWithoutBooks();
 
@@ -16,6 +17,8 @@ public interface AuthorRepository {
 
     Author getAuthorByCriteria(Author criteria);
 
+    List<Author> getAuthorListByNames(List<String> names);
+
     List<Author> getAuthorListByText(String text);
 
     long saveAuthor(Author author);
@@ -23,4 +26,8 @@ public interface AuthorRepository {
     void updateAuthor(long authorId, String newName);
 
     int getAuthorCount();
+
+    Long getAuthorIdByName(String name);
+
+    void deleteAuthorsWithoutBooks(LongArrayList authorIdList);
 }
@@ -8,6 +8,7 @@ import com.blackbooks.database.SQLiteHelper;
 import com.blackbooks.model.persistent.Author;
 import com.blackbooks.model.persistent.BookAuthor;
 import com.blackbooks.sql.BrokerManager;
+import com.blackbooks.utils.collections.LongArrayList;
 
 import java.util.List;
 
@@ -19,10 +20,11 @@ public class AuthorRepositoryImpl extends AbstractRepository implements AuthorRe
     @Override
     public void deleteAuthor(long authorId) {
         BrokerManager.getBroker(Author.class).delete(getWritableDatabase(), authorId);
+        nameRemoved(Author.NAME, authorId);
     }
 
     @Override
-    public List<Author> getAuthorsByIds(List<Long> authorIdList) {
+    public List<Author> getAuthorsByIds(LongArrayList authorIdList) {
         return BrokerManager.getBroker(Author.class).getAllWhereIn(getReadableDatabase(), Author.Cols.AUT_ID, authorIdList);
     }
 
@@ -33,6 +35,8 @@ public class AuthorRepositoryImpl extends AbstractRepository implements AuthorRe
                 + " = aut." + Author.Cols.AUT_ID + " WHERE bka." + BookAuthor.Cols.BKA_ID + " IS NULL)";
 
         getWritableDatabase().execSQL(sql);
+        invalidateQueryCache(Author.NAME);
+        invalidateNameCache(Author.NAME);
     }
 
     @Override
@@ -45,6 +49,11 @@ public class AuthorRepositoryImpl extends AbstractRepository implements AuthorRe
         return BrokerManager.getBroker(Author.class).getByCriteria(getReadableDatabase(), criteria);
     }
 
+    @Override
+    public List<Author> getAuthorListByNames(List<String> names) {
+        return BrokerManager.getBroker(Author.class).getAllWhereIn(getReadableDatabase(), Author.Cols.AUT_NAME, names);
+    }
+
     @Override
     public List<Author> getAuthorListByText(String text) {
         String sql = "SELECT * FROM " + Author.NAME + " WHERE LOWER(" + Author.Cols.AUT_NAME
@@ -55,7 +64,14 @@ public class AuthorRepositoryImpl extends AbstractRepository implements AuthorRe
 
     @Override
     public long saveAuthor(Author author) {
-        return BrokerManager.getBroker(Author.class).save(getWritableDatabase(), author);
+        boolean isCreation = author.id == null;
+        long authorId = BrokerManager.getBroker(Author.class).save(getWritableDatabase(), author);
+        if (isCreation) {
+            nameInserted(Author.NAME);
+        } else {
+            nameRemoved(Author.NAME, authorId);
+        }
+        return authorId;
     }
 
     @Override
@@ -65,6 +81,8 @@ public class AuthorRepositoryImpl extends AbstractRepository implements AuthorRe
         String whereClause = Author.Cols.AUT_ID + " = ?";
         String[] whereArgs = new String[]{String.valueOf(authorId)};
         getWritableDatabase().updateWithOnConflict(Author.NAME, values, whereClause, whereArgs, SQLiteDatabase.CONFLICT_ROLLBACK);
+        invalidateQueryCache(Author.NAME);
+        nameRemoved(Author.NAME, authorId);
     }
 
     @Override
@@ -80,4 +98,16 @@ public class AuthorRepositoryImpl extends AbstractRepository implements AuthorRe
         cursor.close();
         return result;
     }
+
+    @Override
+    public Long getAuthorIdByName(String name) {
+        return getIdByName(Author.NAME, Author.Cols.AUT_ID, Author.Cols.AUT_NAME, name);
+    }
+
+    @Override
+    public void deleteAuthorsWithoutBooks(LongArrayList authorIdList) {
+        String orphanCondition = "NOT EXISTS (SELECT 1 FROM " + BookAuthor.NAME + " WHERE " + BookAuthor.NAME + "." + BookAuthor.Cols.AUT_ID
+                + " = " + Author.NAME + "." + Author.Cols.AUT_ID + ")";
+        deleteOrphans(Author.NAME, Author.Cols.AUT_ID, orphanCondition, authorIdList);
+    }
 }
@@ -1,6 +1,7 @@
 package com.blackbooks.repositories;
 
 import com.blackbooks.model.persistent.BookAuthor;
+import com.blackbooks.utils.collections.LongArrayList;
 
 import java.util.List;
 
@@ -14,5 +15,7 @@ public interface BookAuthorRepository {
 
     long saveBookAuthor(BookAuthor bookAuthor);
 
-    List<BookAuthor> getBookAuthorListByBooks(List<Long> bookIdList);
+    void saveBookAuthors(List<BookAuthor> bookAuthorList);
+
+    List<BookAuthor> getBookAuthorListByBooks(LongArrayList bookIdList);
 }
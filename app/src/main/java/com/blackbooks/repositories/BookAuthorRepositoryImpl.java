@@ -4,6 +4,7 @@ package com.blackbooks.repositories;
 import com.blackbooks.database.SQLiteHelper;
 import com.blackbooks.model.persistent.BookAuthor;
 import com.blackbooks.sql.BrokerManager;
+import com.blackbooks.utils.collections.LongArrayList;
 
 import java.util.List;
 
@@ -62,8 +63,17 @@ public final class BookAuthorRepositoryImpl extends AbstractRepository implement
         return BrokerManager.getBroker(BookAuthor.class).save(getWritableDatabase(), bookAuthor);
     }
 
+    /**
+     * Save a list of BookAuthor.
+     *
+     * @param bookAuthorList List of BookAuthor.
+     */
+    public void saveBookAuthors(List<BookAuthor> bookAuthorList) {
+        BrokerManager.getBroker(BookAuthor.class).saveAll(getWritableDatabase(), bookAuthorList);
+    }
+
     @Override
-    public List<BookAuthor> getBookAuthorListByBooks(List<Long> bookIdList) {
+    public List<BookAuthor> getBookAuthorListByBooks(LongArrayList bookIdList) {
         return BrokerManager.getBroker(BookAuthor.class).getAllWhereIn(getReadableDatabase(), BookAuthor.Cols.BOO_ID, bookIdList);
     }
 }
@@ -1,6 +1,7 @@
 package com.blackbooks.repositories;
 
 import com.blackbooks.model.persistent.BookCategory;
+import com.blackbooks.utils.collections.LongArrayList;
 
 import java.util.List;
 
@@ -13,4 +14,8 @@ public interface BookCategoryRepository {
     List<BookCategory> getBookCategoryListByCategory(long categoryId);
 
     long saveBookCategory(BookCategory bookCategory);
+
+    void saveBookCategories(List<BookCategory> bookCategoryList);
+
+    List<BookCategory> getBookCategoryListByBooks(LongArrayList bookIdList);
 }
@@ -3,6 +3,7 @@ package com.blackbooks.repositories;
 import com.blackbooks.database.SQLiteHelper;
 import com.blackbooks.model.persistent.BookCategory;
 import com.blackbooks.sql.BrokerManager;
+import com.blackbooks.utils.collections.LongArrayList;
 
 import java.util.List;
 
@@ -58,4 +59,18 @@ public class BookCategoryRepositoryImpl extends AbstractRepository implements Bo
     public long saveBookCategory(BookCategory bookCategory) {
         return BrokerManager.getBroker(BookCategory.class).save(getWritableDatabase(), bookCategory);
     }
+
+    /**
+     * Save a list of BookCategory.
+     *
+     * @param bookCategoryList List of BookCategory.
+     */
+    public void saveBookCategories(List<BookCategory> bookCategoryList) {
+        BrokerManager.getBroker(BookCategory.class).saveAll(getWritableDatabase(), bookCategoryList);
+    }
+
+    @Override
+    public List<BookCategory> getBookCategoryListByBooks(LongArrayList bookIdList) {
+        return BrokerManager.getBroker(BookCategory.class).getAllWhereIn(getReadableDatabase(), BookCategory.Cols.BOO_ID, bookIdList);
+    }
 }
@@ -1,18 +1,17 @@
 package com.blackbooks.repositories;
 
-import com.blackbooks.model.persistent.Book;
-import com.blackbooks.model.persistent.fts.BookFTS;
+import com.blackbooks.model.nonpersistent.BookSearchResult;
 
 import java.util.List;
 
 public interface BookFTSRepository {
     int getSearchResultCount(String query);
 
-    List<Book> searchBooks(String query, int limit, int offset);
+    List<BookSearchResult> searchBooks(String query, int limit, int offset);
 
-    void deleteBook(long bookId);
+    void suspendIndex();
 
-    void insert(BookFTS bookFts);
+    void rebuildIndex();
 
-    void update(BookFTS bookFts);
+    List<String> checkIndex();
 }
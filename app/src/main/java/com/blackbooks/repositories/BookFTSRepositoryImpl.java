@@ -2,15 +2,79 @@ package com.blackbooks.repositories;
 
 import android.database.Cursor;
 
+import com.blackbooks.database.FullTextIndex;
 import com.blackbooks.database.SQLiteHelper;
+import com.blackbooks.model.nonpersistent.BookSearchResult;
+import com.blackbooks.model.nonpersistent.Snippet;
 import com.blackbooks.model.persistent.Book;
 import com.blackbooks.model.persistent.fts.BookFTS;
-import com.blackbooks.sql.BrokerManager;
-import com.blackbooks.sql.FTSBrokerManager;
+import com.blackbooks.sql.Bm25;
+import com.blackbooks.utils.collections.LongArrayList;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class BookFTSRepositoryImpl extends AbstractRepository implements BookFTSRepository {
+
+    /**
+     * The weights of the columns of BOOK_FTS in the relevance of a book: a
+     * term found in the title counts more than in the subtitle, and more
+     * than in the description.
+     */
+    private static final double[] COLUMN_WEIGHTS = {10.0, 5.0, 1.0};
+
+    /**
+     * The index of the description in the columns of BOOK_FTS.
+     */
+    private static final int DESCRIPTION_COLUMN = 2;
+
+    /**
+     * The number of tokens of the description snippets.
+     */
+    private static final int SNIPPET_TOKENS = 15;
+
+    private static final char HIGHLIGHT_START = '\u0002';
+    private static final char HIGHLIGHT_END = '\u0003';
+    private static final char ELLIPSIS = '\u2026';
+
+    /**
+     * Reads the ids of the matching books, ordered by decreasing relevance
+     * then by id.
+     */
+    private static final CursorReader<long[]> RANKING_READER = new CursorReader<long[]>() {
+        @Override
+        public long[] read(Cursor cursor) {
+            int count = cursor.getCount();
+            final long[] ids = new long[count];
+            final double[] scores = new double[count];
+            Integer[] order = new Integer[count];
+            for (int i = 0; cursor.moveToNext(); i++) {
+                ids[i] = cursor.getLong(0);
+                scores[i] = Bm25.score(cursor.getBlob(1), COLUMN_WEIGHTS);
+                order[i] = i;
+            }
+            Arrays.sort(order, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer i1, Integer i2) {
+                    int result = Double.compare(scores[i2], scores[i1]);
+                    if (result == 0) {
+                        result = ids[i1] < ids[i2] ? -1 : (ids[i1] == ids[i2] ? 0 : 1);
+                    }
+                    return result;
+                }
+            });
+            long[] rankedIds = new long[count];
+            for (int i = 0; i < count; i++) {
+                rankedIds[i] = ids[order[i]];
+            }
+            return rankedIds;
+        }
+    };
+
     public BookFTSRepositoryImpl(SQLiteHelper sqLiteHelper) {
         super(sqLiteHelper);
     }
@@ -27,34 +91,125 @@ public class BookFTSRepositoryImpl extends AbstractRepository implements BookFTS
         return resultCount;
     }
 
+    /**
+     * Search books, the most relevant first. All the matches have to be
+     * scored to be ranked: the ranking is kept in the query cache, so that
+     * the next pages of the same search only select their own books.
+     * <p>
+     * Unlike the book lists, the pages are not selected by key: the relevance
+     * is computed in Java, there is no column to seek on. The offset is an
+     * index in the cached ranking, reaching a page does not read the previous
+     * ones.
+     *
+     * @param query  The full-text query.
+     * @param limit  Limit.
+     * @param offset Offset.
+     * @return The books of the page, with a snippet of their description.
+     */
     @Override
-    public List<Book> searchBooks(String query, int limit, int offset) {
-        String sql = "SELECT book." + Book.Cols.BOO_ID + ", book." + Book.Cols.BOO_TITLE + ", book." + Book.Cols.BOO_SUBTITLE
-                + ", book." + Book.Cols.BOO_DESCRIPTION + " FROM " + BookFTS.NAME + " book_fts JOIN " + Book.NAME
-                + " book ON book." + Book.Cols.BOO_ID + " = book_fts." + BookFTS.Cols.DOCID + " WHERE book_fts MATCH ? ORDER BY "
-                + Book.Cols.BOO_TITLE + " COLLATE NOCASE LIMIT ? OFFSET ?;";
-
-        String selection[] = new String[]{
-                query,
-                String.valueOf(limit),
-                String.valueOf(offset)
-        };
-
-        return BrokerManager.getBroker(Book.class).rawSelect(getReadableDatabase(), sql, selection);
+    public List<BookSearchResult> searchBooks(String query, int limit, int offset) {
+        String rankingSql = "SELECT " + BookFTS.Cols.DOCID + ", matchinfo(book_fts, '" + Bm25.MATCHINFO_FORMAT + "') FROM "
+                + BookFTS.NAME + " book_fts WHERE book_fts MATCH ?;";
+        long[] rankedIds = queryCached(rankingSql, new String[]{query}, new String[]{BookFTS.NAME}, RANKING_READER);
+
+        List<BookSearchResult> resultList = new ArrayList<>();
+        if (offset >= rankedIds.length) {
+            return resultList;
+        }
+        LongArrayList pageIdList = LongArrayList.of(
+                Arrays.copyOfRange(rankedIds, offset, Math.min(offset + limit, rankedIds.length)));
+
+        StringBuilder sql = new StringBuilder();
+        sql.append("SELECT book.").append(Book.Cols.BOO_ID)
+                .append(", book.").append(Book.Cols.BOO_TITLE)
+                .append(", book.").append(Book.Cols.BOO_SUBTITLE)
+                .append(", book.").append(Book.Cols.BOO_DESCRIPTION)
+                .append(", snippet(book_fts, '").append(HIGHLIGHT_START).append("', '").append(HIGHLIGHT_END)
+                .append("', '").append(ELLIPSIS).append("', ").append(DESCRIPTION_COLUMN).append(", ").append(SNIPPET_TOKENS)
+                .append(") FROM ").append(BookFTS.NAME).append(" book_fts JOIN ").append(Book.NAME)
+                .append(" book ON book.").append(Book.Cols.BOO_ID).append(" = book_fts.").append(BookFTS.Cols.DOCID)
+                .append(" WHERE book_fts MATCH ? AND book_fts.").append(BookFTS.Cols.DOCID).append(" IN (");
+        String[] selectionArgs = new String[pageIdList.size() + 1];
+        selectionArgs[0] = query;
+        for (int i = 0; i < pageIdList.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append('?');
+            selectionArgs[i + 1] = Long.toString(pageIdList.get(i));
+        }
+        sql.append(");");
+
+        Map<Long, BookSearchResult> resultMap = new HashMap<>();
+        Cursor cursor = getReadableDatabase().rawQuery(sql.toString(), selectionArgs);
+        try {
+            while (cursor.moveToNext()) {
+                Book book = new Book();
+                book.id = cursor.getLong(0);
+                book.title = cursor.getString(1);
+                book.subtitle = cursor.getString(2);
+                book.description = cursor.getString(3);
+                BookSearchResult result = new BookSearchResult(book);
+                if (book.description != null) {
+                    result.descriptionSnippet = toSnippet(cursor.getString(4));
+                }
+                resultMap.put(book.id, result);
+            }
+        } finally {
+            cursor.close();
+        }
+
+        // The books are selected in no particular order.
+        for (int i = 0; i < pageIdList.size(); i++) {
+            BookSearchResult result = resultMap.get(pageIdList.get(i));
+            if (result != null) {
+                resultList.add(result);
+            }
+        }
+        return resultList;
     }
 
     @Override
-    public void deleteBook(long bookId) {
-        FTSBrokerManager.getBroker(BookFTS.class).delete(getWritableDatabase(), bookId);
+    public void suspendIndex() {
+        FullTextIndex.dropTriggers(getWritableDatabase());
     }
 
     @Override
-    public void insert(BookFTS bookFts) {
-        FTSBrokerManager.getBroker(BookFTS.class).insert(getWritableDatabase(), bookFts);
+    public void rebuildIndex() {
+        FullTextIndex.rebuild(getWritableDatabase());
+        invalidateQueryCache(BookFTS.NAME);
     }
 
     @Override
-    public void update(BookFTS bookFts) {
-        FTSBrokerManager.getBroker(BookFTS.class).update(getWritableDatabase(), bookFts);
+    public List<String> checkIndex() {
+        return FullTextIndex.check(getWritableDatabase());
+    }
+
+    /**
+     * Turn the result of snippet() into a Snippet, removing the marks around
+     * the matching terms. The index reads the text from the BOOK table, so
+     * the snippet is an excerpt of the original description. The description
+     * may contain the characters of the marks: a start is only taken outside
+     * a highlight and an end inside one, the other marks are dropped.
+     *
+     * @param ftsSnippet The result of snippet().
+     * @return Snippet.
+     */
+    private static Snippet toSnippet(String ftsSnippet) {
+        StringBuilder text = new StringBuilder(ftsSnippet.length());
+        int[] highlights = new int[ftsSnippet.length()];
+        int highlightCount = 0;
+        for (int i = 0; i < ftsSnippet.length(); i++) {
+            char c = ftsSnippet.charAt(i);
+            boolean isOpen = highlightCount % 2 == 1;
+            if ((c == HIGHLIGHT_START && !isOpen) || (c == HIGHLIGHT_END && isOpen)) {
+                highlights[highlightCount++] = text.length();
+            } else if (c != HIGHLIGHT_START && c != HIGHLIGHT_END) {
+                text.append(c);
+            }
+        }
+        // A highlight started but never ended is dropped.
+        highlights = Arrays.copyOf(highlights, highlightCount - highlightCount % 2);
+        return new Snippet(text.toString(), highlights);
     }
 }
@@ -1,6 +1,7 @@
 package com.blackbooks.repositories;
 
 import com.blackbooks.model.persistent.BookLocation;
+import com.blackbooks.utils.collections.LongArrayList;
 
 import java.util.List;
 
@@ -13,6 +14,8 @@ public interface BookLocationRepository {
 
     BookLocation getBookLocationByCriteria(BookLocation criteria);
 
+    List<BookLocation> getBookLocationListByNames(List<String> names);
+
     List<BookLocation> getBookLocationListByText(String text);
 
     long saveBookLocation(BookLocation bookLocation);
@@ -20,4 +23,10 @@ public interface BookLocationRepository {
     void updateBookLocation(long bookLocationId, String newName);
 
     int getBookLocationCount();
+
+    List<BookLocation> getBookLocationsByIds(LongArrayList bookLocationIdList);
+
+    Long getBookLocationIdByName(String name);
+
+    void deleteBookLocationsWithoutBooks(LongArrayList bookLocationIdList);
 }
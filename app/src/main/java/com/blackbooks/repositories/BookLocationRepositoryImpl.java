@@ -8,6 +8,7 @@ import com.blackbooks.database.SQLiteHelper;
 import com.blackbooks.model.persistent.Book;
 import com.blackbooks.model.persistent.BookLocation;
 import com.blackbooks.sql.BrokerManager;
+import com.blackbooks.utils.collections.LongArrayList;
 
 import java.util.List;
 
@@ -26,11 +27,13 @@ public class BookLocationRepositoryImpl extends AbstractRepository implements Bo
             String whereClause = Book.Cols.BKL_ID + " = ?";
             String[] whereArgs = new String[]{String.valueOf(bookLocationId)};
             db.updateWithOnConflict(Book.NAME, values, whereClause, whereArgs, SQLiteDatabase.CONFLICT_ROLLBACK);
+            invalidateQueryCache(Book.NAME);
 
             BrokerManager.getBroker(BookLocation.class).delete(db, bookLocationId);
+            nameRemoved(BookLocation.NAME, bookLocationId);
             db.setTransactionSuccessful();
         } finally {
-            db.endTransaction();
+            endTransaction();
         }
     }
 
@@ -40,6 +43,8 @@ public class BookLocationRepositoryImpl extends AbstractRepository implements Bo
                 + BookLocation.Cols.BKL_ID + " FROM " + BookLocation.NAME + " bkl LEFT JOIN " + Book.NAME + " boo ON boo."
                 + Book.Cols.BKL_ID + " = bkl." + BookLocation.Cols.BKL_ID + " WHERE boo." + Book.Cols.BOO_ID + " IS NULL)";
         getWritableDatabase().execSQL(sql);
+        invalidateQueryCache(BookLocation.NAME);
+        invalidateNameCache(BookLocation.NAME);
     }
 
     @Override
@@ -52,6 +57,11 @@ public class BookLocationRepositoryImpl extends AbstractRepository implements Bo
         return BrokerManager.getBroker(BookLocation.class).getByCriteria(getReadableDatabase(), criteria);
     }
 
+    @Override
+    public List<BookLocation> getBookLocationListByNames(List<String> names) {
+        return BrokerManager.getBroker(BookLocation.class).getAllWhereIn(getReadableDatabase(), BookLocation.Cols.BKL_NAME, names);
+    }
+
     @Override
     public List<BookLocation> getBookLocationListByText(String text) {
         String sql = "SELECT * FROM " + BookLocation.NAME + " WHERE LOWER(" + BookLocation.Cols.BKL_NAME
@@ -62,7 +72,14 @@ public class BookLocationRepositoryImpl extends AbstractRepository implements Bo
 
     @Override
     public long saveBookLocation(BookLocation bookLocation) {
-        return BrokerManager.getBroker(BookLocation.class).save(getWritableDatabase(), bookLocation);
+        boolean isCreation = bookLocation.id == null;
+        long bookLocationId = BrokerManager.getBroker(BookLocation.class).save(getWritableDatabase(), bookLocation);
+        if (isCreation) {
+            nameInserted(BookLocation.NAME);
+        } else {
+            nameRemoved(BookLocation.NAME, bookLocationId);
+        }
+        return bookLocationId;
     }
 
     @Override
@@ -72,6 +89,8 @@ public class BookLocationRepositoryImpl extends AbstractRepository implements Bo
         String whereClause = BookLocation.Cols.BKL_ID + " = ?";
         String[] whereArgs = new String[]{String.valueOf(bookLocationId)};
         getWritableDatabase().update(BookLocation.NAME, values, whereClause, whereArgs);
+        invalidateQueryCache(BookLocation.NAME);
+        nameRemoved(BookLocation.NAME, bookLocationId);
     }
 
     @Override
@@ -87,4 +106,21 @@ public class BookLocationRepositoryImpl extends AbstractRepository implements Bo
         cursor.close();
         return result;
     }
+
+    @Override
+    public List<BookLocation> getBookLocationsByIds(LongArrayList bookLocationIdList) {
+        return BrokerManager.getBroker(BookLocation.class).getAllWhereIn(getReadableDatabase(), BookLocation.Cols.BKL_ID, bookLocationIdList);
+    }
+
+    @Override
+    public Long getBookLocationIdByName(String name) {
+        return getIdByName(BookLocation.NAME, BookLocation.Cols.BKL_ID, BookLocation.Cols.BKL_NAME, name);
+    }
+
+    @Override
+    public void deleteBookLocationsWithoutBooks(LongArrayList bookLocationIdList) {
+        String orphanCondition = "NOT EXISTS (SELECT 1 FROM " + Book.NAME + " WHERE " + Book.NAME + "." + Book.Cols.BKL_ID
+                + " = " + BookLocation.NAME + "." + BookLocation.Cols.BKL_ID + ")";
+        deleteOrphans(BookLocation.NAME, BookLocation.Cols.BKL_ID, orphanCondition, bookLocationIdList);
+    }
 }
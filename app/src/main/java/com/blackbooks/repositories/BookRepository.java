@@ -1,7 +1,9 @@
 package com.blackbooks.repositories;
 
 import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.nonpersistent.PageKey;
 import com.blackbooks.model.persistent.Book;
+import com.blackbooks.utils.collections.LongArrayList;
 
 import java.util.List;
 
@@ -9,8 +11,16 @@ public interface BookRepository {
 
     Book getBook(long bookId);
 
+    List<Book> getBooksByIds(LongArrayList bookIdList);
+
     long save(BookInfo bookInfo);
 
+    void loadThumbnails(Book book);
+
+    boolean isModified(Book book, String... columnNames);
+
+    void saveAll(List<BookInfo> bookInfoList);
+
     void deleteBook(long bookId);
 
     List<Book> getBooksBySeries(long seriesId, int limit, int offset);
@@ -51,6 +61,12 @@ public interface BookRepository {
 
     byte[] getBookSmallThumbnail(long bookId);
 
+    Long getBookSmallThumbnailCoverId(long bookId);
+
+    byte[] getCoverImage(long coverId);
+
+    void deleteCoversWithoutBooks(LongArrayList coverIdList);
+
     void markBookAsFavourite(long bookId);
 
     void markBookAsRead(long bookId);
@@ -65,6 +81,24 @@ public interface BookRepository {
 
     List<Book> getBooksByAuthor(long authorId, int limit, int offset);
 
+    List<Book> getBooksByAuthor(long authorId, int limit, PageKey after);
+
+    List<Book> getBooksByBookLocation(long bookLocationId, int limit, PageKey after);
+
+    List<Book> getBooksByCategory(long categoryId, int limit, PageKey after);
+
+    List<Book> getBooksByFirstLetter(String firstLetter, int limit, PageKey after);
+
+    List<Book> getBooksByLanguage(String languageCode, int limit, PageKey after);
+
+    List<Book> getBooksByLoanedTo(String loanedTo, int limit, PageKey after);
+
+    List<Book> getBooksBySeries(long seriesId, int limit, PageKey after);
+
+    List<Book> getFavouriteBooks(int limit, PageKey after);
+
+    List<Book> getBookInfoListToRead(int limit, PageKey after);
+
     List<Book> getBooksByIsbn10(String isbn);
 
     List<Book> getBooksByIsbn13(String isbn);
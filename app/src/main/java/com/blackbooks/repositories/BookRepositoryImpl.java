@@ -1,19 +1,40 @@
 package com.blackbooks.repositories;
 
 import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
 
 import com.blackbooks.database.SQLiteHelper;
 import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.nonpersistent.PageKey;
 import com.blackbooks.model.persistent.Book;
 import com.blackbooks.model.persistent.BookAuthor;
 import com.blackbooks.model.persistent.BookCategory;
+import com.blackbooks.model.persistent.Cover;
+import com.blackbooks.sql.Broker;
 import com.blackbooks.sql.BrokerManager;
+import com.blackbooks.utils.HashUtils;
 import com.blackbooks.utils.StringUtils;
+import com.blackbooks.utils.collections.LongArrayList;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 
 public class BookRepositoryImpl extends AbstractRepository implements BookRepository {
 
+    /**
+     * Reads the integer in the first column of the first row of a cursor.
+     */
+    private static final CursorReader<Integer> INT_READER = new CursorReader<Integer>() {
+
+        @Override
+        public Integer read(Cursor cursor) {
+            cursor.moveToNext();
+            return cursor.getInt(0);
+        }
+    };
+
     public BookRepositoryImpl(SQLiteHelper sqLiteHelper) {
         super(sqLiteHelper);
     }
@@ -23,9 +44,38 @@ public class BookRepositoryImpl extends AbstractRepository implements BookReposi
         return BrokerManager.getBroker(Book.class).get(getReadableDatabase(), bookId);
     }
 
+    @Override
+    public List<Book> getBooksByIds(LongArrayList bookIdList) {
+        return BrokerManager.getBroker(Book.class).getAllWhereIn(getReadableDatabase(), Book.Cols.BOO_ID, bookIdList);
+    }
+
     @Override
     public long save(BookInfo bookInfo) {
-        return BrokerManager.getBroker(Book.class).save(getWritableDatabase(), bookInfo);
+        SQLiteDatabase db = getWritableDatabase();
+        saveCovers(db, bookInfo);
+        return BrokerManager.getBroker(Book.class).save(db, bookInfo);
+    }
+
+    @Override
+    public void loadThumbnails(Book book) {
+        SQLiteDatabase db = getReadableDatabase();
+        book.smallThumbnail = getCoverImage(db, book.smallThumbnailCoverId);
+        book.thumbnail = getCoverImage(db, book.thumbnailCoverId);
+        book.coversLoaded = true;
+    }
+
+    @Override
+    public boolean isModified(Book book, String... columnNames) {
+        return BrokerManager.getBroker(Book.class).isModified(book, columnNames);
+    }
+
+    @Override
+    public void saveAll(List<BookInfo> bookInfoList) {
+        SQLiteDatabase db = getWritableDatabase();
+        for (BookInfo bookInfo : bookInfoList) {
+            saveCovers(db, bookInfo);
+        }
+        BrokerManager.getBroker(Book.class).saveAll(db, bookInfoList);
     }
 
     @Override
@@ -66,10 +116,9 @@ public class BookRepositoryImpl extends AbstractRepository implements BookReposi
         };
 
         String selectedColumns = StringUtils.join(selectedColumnList, ", ");
-        String sql = "SELECT " + selectedColumns + " FROM " + Book.NAME + " boo WHERE boo." + Book.Cols.BOO_IS_FAVOURITE + " = ? ORDER BY boo." + Book.Cols.BOO_TITLE + " COLLATE NOCASE LIMIT ? OFFSET ?;";
+        String sql = "SELECT " + selectedColumns + " FROM " + Book.NAME + " boo WHERE boo." + Book.Cols.BOO_IS_FAVOURITE + " = 1 ORDER BY boo." + Book.Cols.BOO_TITLE + " COLLATE NOCASE LIMIT ? OFFSET ?;";
 
         String[] selectionArgs = new String[]{
-                String.valueOf(1L),
                 String.valueOf(limit),
                 String.valueOf(offset)
         };
@@ -89,10 +138,9 @@ public class BookRepositoryImpl extends AbstractRepository implements BookReposi
         };
 
         String selectedColumns = StringUtils.join(selectedColumnList, ", ");
-        String sql = "SELECT " + selectedColumns + " FROM " + Book.NAME + " boo WHERE boo." + Book.Cols.BOO_IS_READ + " = ? ORDER BY boo." + Book.Cols.BOO_TITLE + " COLLATE NOCASE LIMIT ? OFFSET ?;";
+        String sql = "SELECT " + selectedColumns + " FROM " + Book.NAME + " boo WHERE boo." + Book.Cols.BOO_IS_READ + " = 0 ORDER BY boo." + Book.Cols.BOO_TITLE + " COLLATE NOCASE LIMIT ? OFFSET ?;";
 
         String[] selectionArgs = new String[]{
-                String.valueOf(0L),
                 String.valueOf(limit),
                 String.valueOf(offset)
         };
@@ -104,7 +152,7 @@ public class BookRepositoryImpl extends AbstractRepository implements BookReposi
     public int getBookCountByAuthor(long authorId) {
         String sql = "SELECT COUNT(*) FROM " + BookAuthor.NAME + " WHERE " + BookAuthor.Cols.AUT_ID + " = ?;";
         String[] selectionArgs = {String.valueOf(authorId)};
-        return queryInt(sql, selectionArgs);
+        return queryInt(sql, selectionArgs, BookAuthor.NAME);
     }
 
     @Override
@@ -119,7 +167,7 @@ public class BookRepositoryImpl extends AbstractRepository implements BookReposi
             selectionArgs = new String[]{String.valueOf(bookLocationId)};
         }
 
-        return queryInt(sql, selectionArgs);
+        return queryInt(sql, selectionArgs, Book.NAME);
     }
 
     @Override
@@ -135,14 +183,14 @@ public class BookRepositoryImpl extends AbstractRepository implements BookReposi
             selectionArgs = new String[]{String.valueOf(categoryId)};
         }
 
-        return queryInt(sql, selectionArgs);
+        return queryInt(sql, selectionArgs, BookCategory.NAME);
     }
 
     @Override
     public int getBookCountByFirstLetter(String firstLetter) {
-        String sql = "SELECT COUNT(*) FROM " + Book.NAME + " WHERE SUBSTR(UPPER(" + Book.Cols.BOO_TITLE + "), 1, 1) = ?;";
+        String sql = "SELECT COUNT(*) FROM " + Book.NAME + " WHERE " + buildFirstLetterCondition(Book.Cols.BOO_TITLE) + ";";
 
-        return queryInt(sql, new String[]{firstLetter});
+        return queryInt(sql, getFirstLetterSelectionArgs(firstLetter), Book.NAME);
     }
 
     @Override
@@ -154,10 +202,10 @@ public class BookRepositoryImpl extends AbstractRepository implements BookReposi
             sql += " IS NULL;";
             selectionArgs = null;
         } else {
-            sql += " = ?;";
+            sql += " = ? COLLATE NOCASE;";
             selectionArgs = new String[]{languageCode};
         }
-        return queryInt(sql, selectionArgs);
+        return queryInt(sql, selectionArgs, Book.NAME);
     }
 
     @Override
@@ -172,7 +220,7 @@ public class BookRepositoryImpl extends AbstractRepository implements BookReposi
             sql += " = ?;";
             selectionArgs = new String[]{loanedTo};
         }
-        return queryInt(sql, selectionArgs);
+        return queryInt(sql, selectionArgs, Book.NAME);
     }
 
     @Override
@@ -188,43 +236,43 @@ public class BookRepositoryImpl extends AbstractRepository implements BookReposi
             selectionArgs = new String[]{String.valueOf(seriesId)};
         }
 
-        return queryInt(sql, selectionArgs);
+        return queryInt(sql, selectionArgs, Book.NAME);
     }
 
     @Override
     public int getBookCount() {
         String sql = "SELECT COUNT(*) FROM " + Book.NAME;
-        return queryInt(sql);
+        return queryInt(sql, null, Book.NAME);
     }
 
     @Override
     public int getBookToReadCount() {
         String sql = "SELECT COUNT(*) FROM " + Book.NAME + " WHERE " + Book.Cols.BOO_IS_READ + " = 0;";
-        return queryInt(sql);
+        return queryInt(sql, null, Book.NAME);
     }
 
     @Override
     public int getBookLoanCount() {
         String sql = "SELECT COUNT(DISTINCT " + Book.Cols.BOO_LOANED_TO + ") FROM " + Book.NAME + " WHERE " + Book.Cols.BOO_LOANED_TO + " IS NOT NULL;";
-        return queryInt(sql);
+        return queryInt(sql, null, Book.NAME);
     }
 
     @Override
     public int getFavouriteBooks() {
         String sql = "SELECT COUNT(*) FROM " + Book.NAME + " WHERE " + Book.Cols.BOO_IS_FAVOURITE + " = 1;";
-        return queryInt(sql);
+        return queryInt(sql, null, Book.NAME);
     }
 
     @Override
     public int getLanguageCount() {
         String sql = "SELECT COUNT(DISTINCT " + Book.Cols.BOO_LANGUAGE_CODE + ") FROM " + Book.NAME;
-        return queryInt(sql);
+        return queryInt(sql, null, Book.NAME);
     }
 
     @Override
     public int getFirstLetterCount() {
-        String sql = "SELECT COUNT(DISTINCT UPPER(SUBSTR(" + Book.Cols.BOO_TITLE + ", 1, 1))) FROM " + Book.NAME;
-        return queryInt(sql);
+        String sql = "SELECT COUNT(DISTINCT SUBSTR(UPPER(" + Book.Cols.BOO_TITLE + "), 1, 1)) FROM " + Book.NAME;
+        return queryInt(sql, null, Book.NAME);
     }
 
     @Override
@@ -273,10 +321,32 @@ public class BookRepositoryImpl extends AbstractRepository implements BookReposi
 
     @Override
     public byte[] getBookSmallThumbnail(long bookId) {
-        String sql = "SELECT " + Book.Cols.BOO_SMALL_THUMBNAIL + " FROM " + Book.NAME + " WHERE " + Book.Cols.BOO_ID + " = ?;";
+        String sql = "SELECT cov." + Cover.Cols.COV_IMAGE + " FROM " + Book.NAME + " boo JOIN " + Cover.NAME + " cov ON cov."
+                + Cover.Cols.COV_ID + " = boo." + Book.Cols.BOO_SMALL_THUMBNAIL_COV_ID + " WHERE boo." + Book.Cols.BOO_ID + " = ?;";
+        String[] selectionArgs = new String[]{String.valueOf(bookId)};
+        List<Cover> coverList = BrokerManager.getBroker(Cover.class).rawSelect(getReadableDatabase(), sql, selectionArgs);
+        return coverList.isEmpty() ? null : coverList.get(0).image;
+    }
+
+    @Override
+    public Long getBookSmallThumbnailCoverId(long bookId) {
+        String sql = "SELECT " + Book.Cols.BOO_SMALL_THUMBNAIL_COV_ID + " FROM " + Book.NAME + " WHERE " + Book.Cols.BOO_ID + " = ?;";
         String[] selectionArgs = new String[]{String.valueOf(bookId)};
-        Book book = BrokerManager.getBroker(Book.class).rawSelect(getReadableDatabase(), sql, selectionArgs).get(0);
-        return book.smallThumbnail;
+        List<Book> bookList = BrokerManager.getBroker(Book.class).rawSelect(getReadableDatabase(), sql, selectionArgs);
+        return bookList.isEmpty() ? null : bookList.get(0).smallThumbnailCoverId;
+    }
+
+    @Override
+    public byte[] getCoverImage(long coverId) {
+        return getCoverImage(getReadableDatabase(), coverId);
+    }
+
+    @Override
+    public void deleteCoversWithoutBooks(LongArrayList coverIdList) {
+        String orphanCondition = "NOT EXISTS (SELECT 1 FROM " + Book.NAME + " WHERE " + Book.NAME + "." + Book.Cols.BOO_SMALL_THUMBNAIL_COV_ID
+                + " = " + Cover.NAME + "." + Cover.Cols.COV_ID + ") AND NOT EXISTS (SELECT 1 FROM " + Book.NAME + " WHERE " + Book.NAME + "."
+                + Book.Cols.BOO_THUMBNAIL_COV_ID + " = " + Cover.NAME + "." + Cover.Cols.COV_ID + ")";
+        deleteOrphans(Cover.NAME, Cover.Cols.COV_ID, orphanCondition, coverIdList);
     }
 
     @Override
@@ -286,9 +356,10 @@ public class BookRepositoryImpl extends AbstractRepository implements BookReposi
             String sql = "UPDATE " + Book.NAME + " SET " + Book.Cols.BOO_IS_FAVOURITE + " = 1 - " + Book.Cols.BOO_IS_FAVOURITE
                     + " Where " + Book.Cols.BOO_ID + " = " + bookId + ";";
             getWritableDatabase().execSQL(sql);
+            invalidateQueryCache(Book.NAME);
             getWritableDatabase().setTransactionSuccessful();
         } finally {
-            getWritableDatabase().endTransaction();
+            endTransaction();
         }
     }
 
@@ -299,9 +370,10 @@ public class BookRepositoryImpl extends AbstractRepository implements BookReposi
             String sql = "UPDATE " + Book.NAME + " SET " + Book.Cols.BOO_IS_READ + " = 1 - " + Book.Cols.BOO_IS_READ + " Where "
                     + Book.Cols.BOO_ID + " = " + bookId + ";";
             getWritableDatabase().execSQL(sql);
+            invalidateQueryCache(Book.NAME);
             getWritableDatabase().setTransactionSuccessful();
         } finally {
-            getWritableDatabase().endTransaction();
+            endTransaction();
         }
     }
 
@@ -312,9 +384,10 @@ public class BookRepositoryImpl extends AbstractRepository implements BookReposi
             String sql = "UPDATE " + Book.NAME + " SET " + Book.Cols.BOO_LOANED_TO + " = null, " + Book.Cols.BOO_LOAN_DATE
                     + " = null" + " Where " + Book.Cols.BOO_ID + " = " + bookId + ";";
             getWritableDatabase().execSQL(sql);
+            invalidateQueryCache(Book.NAME);
             getWritableDatabase().setTransactionSuccessful();
         } finally {
-            getWritableDatabase().endTransaction();
+            endTransaction();
         }
     }
 
@@ -329,13 +402,12 @@ public class BookRepositoryImpl extends AbstractRepository implements BookReposi
         };
 
         String selectedColumns = StringUtils.join(selectedColumnList, ", ");
-        String sql = "SELECT " + selectedColumns + " FROM " + Book.NAME + " boo WHERE boo." + Book.Cols.BOO_TITLE + " LIKE ? || '%' COLLATE NOCASE ORDER BY " + Book.Cols.BOO_TITLE + " COLLATE NOCASE LIMIT ? OFFSET ?;";
+        String sql = "SELECT " + selectedColumns + " FROM " + Book.NAME + " boo WHERE " + buildFirstLetterCondition("boo." + Book.Cols.BOO_TITLE) + " ORDER BY " + Book.Cols.BOO_TITLE + " COLLATE NOCASE LIMIT ? OFFSET ?;";
 
-        String[] selectionArgs = new String[]{
-                String.valueOf(firstLetter),
-                String.valueOf(limit),
-                String.valueOf(offset)
-        };
+        List<String> selectionArgList = new ArrayList<>(Arrays.asList(getFirstLetterSelectionArgs(firstLetter)));
+        selectionArgList.add(String.valueOf(limit));
+        selectionArgList.add(String.valueOf(offset));
+        String[] selectionArgs = selectionArgList.toArray(new String[selectionArgList.size()]);
 
         return BrokerManager.getBroker(Book.class).rawSelect(getReadableDatabase(), sql, selectionArgs);
     }
@@ -406,6 +478,99 @@ public class BookRepositoryImpl extends AbstractRepository implements BookReposi
         return BrokerManager.getBroker(Book.class).rawSelect(getReadableDatabase(), sql, selectionArgs);
     }
 
+    @Override
+    public List<Book> getBooksByAuthor(long authorId, int limit, PageKey after) {
+        String from = Book.NAME + " boo JOIN " + BookAuthor.NAME + " bka ON bka." + BookAuthor.Cols.BOO_ID + " = boo." + Book.Cols.BOO_ID;
+        String condition = "bka." + BookAuthor.Cols.AUT_ID + " = ?";
+        return getBookPage(from, condition, new String[]{String.valueOf(authorId)}, limit, after);
+    }
+
+    @Override
+    public List<Book> getBooksByBookLocation(long bookLocationId, int limit, PageKey after) {
+        String condition = "boo." + Book.Cols.BKL_ID + " = ?";
+        return getBookPage(Book.NAME + " boo", condition, new String[]{String.valueOf(bookLocationId)}, limit, after);
+    }
+
+    @Override
+    public List<Book> getBooksByCategory(long categoryId, int limit, PageKey after) {
+        String from = Book.NAME + " boo JOIN " + BookCategory.NAME + " bca ON bca." + BookCategory.Cols.BOO_ID + " = boo." + Book.Cols.BOO_ID;
+        String condition = "bca." + BookCategory.Cols.CAT_ID + " = ?";
+        return getBookPage(from, condition, new String[]{String.valueOf(categoryId)}, limit, after);
+    }
+
+    @Override
+    public List<Book> getBooksByFirstLetter(String firstLetter, int limit, PageKey after) {
+        String condition = buildFirstLetterCondition("boo." + Book.Cols.BOO_TITLE);
+        return getBookPage(Book.NAME + " boo", condition, getFirstLetterSelectionArgs(firstLetter), limit, after);
+    }
+
+    @Override
+    public List<Book> getBooksByLanguage(String languageCode, int limit, PageKey after) {
+        String condition = "boo." + Book.Cols.BOO_LANGUAGE_CODE + " = ? COLLATE NOCASE";
+        return getBookPage(Book.NAME + " boo", condition, new String[]{languageCode}, limit, after);
+    }
+
+    @Override
+    public List<Book> getBooksByLoanedTo(String loanedTo, int limit, PageKey after) {
+        String condition = "boo." + Book.Cols.BOO_LOANED_TO + " = ?";
+        return getBookPage(Book.NAME + " boo", condition, new String[]{loanedTo}, limit, after);
+    }
+
+    @Override
+    public List<Book> getBooksBySeries(long seriesId, int limit, PageKey after) {
+        String condition = "boo." + Book.Cols.SER_ID + " = ?";
+        return getBookPage(Book.NAME + " boo", condition, new String[]{String.valueOf(seriesId)}, limit, after);
+    }
+
+    @Override
+    public List<Book> getFavouriteBooks(int limit, PageKey after) {
+        String condition = "boo." + Book.Cols.BOO_IS_FAVOURITE + " = 1";
+        return getBookPage(Book.NAME + " boo", condition, new String[0], limit, after);
+    }
+
+    @Override
+    public List<Book> getBookInfoListToRead(int limit, PageKey after) {
+        String condition = "boo." + Book.Cols.BOO_IS_READ + " = 0";
+        return getBookPage(Book.NAME + " boo", condition, new String[0], limit, after);
+    }
+
+    /**
+     * Select a page of a list of books sorted by title. The page starts after
+     * a given key rather than at an offset, so that the rows of the previous
+     * pages do not have to be read again.
+     *
+     * @param from          The FROM clause, in which the book table is aliased "boo".
+     * @param condition     The condition selecting the books of the list.
+     * @param selectionArgs The arguments of the condition.
+     * @param limit         The max number of books to return.
+     * @param after         The key of the last book of the previous page, null to get the
+     *                      first page.
+     * @return List of Book.
+     */
+    private List<Book> getBookPage(String from, String condition, String[] selectionArgs, int limit, PageKey after) {
+        String[] selectedColumnList = new String[]{
+                "boo." + Book.Cols.BOO_ID,
+                "boo." + Book.Cols.BOO_TITLE,
+                "boo." + Book.Cols.BOO_IS_READ,
+                "boo." + Book.Cols.BOO_IS_FAVOURITE,
+                "boo." + Book.Cols.BOO_LOANED_TO
+        };
+
+        List<String> selectionArgList = new ArrayList<>(Arrays.asList(selectionArgs));
+        String where = condition;
+        if (after != null) {
+            where += " AND " + buildPageCondition("boo." + Book.Cols.BOO_TITLE, "boo." + Book.Cols.BOO_ID);
+            selectionArgList.addAll(Arrays.asList(getPageSelectionArgs(after)));
+        }
+        selectionArgList.add(String.valueOf(limit));
+
+        String selectedColumns = StringUtils.join(selectedColumnList, ", ");
+        String sql = "SELECT " + selectedColumns + " FROM " + from + " WHERE " + where + " ORDER BY boo." + Book.Cols.BOO_TITLE + " COLLATE NOCASE, boo." + Book.Cols.BOO_ID + " LIMIT ?;";
+
+        String[] args = selectionArgList.toArray(new String[selectionArgList.size()]);
+        return BrokerManager.getBroker(Book.class).rawSelect(getReadableDatabase(), sql, args);
+    }
+
     @Override
     public List<Book> getBooksByIsbn10(String isbn) {
         String[] selectedColumns = new String[]{
@@ -435,25 +600,121 @@ public class BookRepositoryImpl extends AbstractRepository implements BookReposi
     }
 
     /**
-     * Execute a SQL query that returns an integer.
+     * Build the condition selecting the books whose title starts with a given
+     * letter, the letter being the first character of the upper case title.
+     * The title is also compared to a range containing all the titles starting
+     * with the letter in upper or lower case, so that the index on the title
+     * can be used.
+     *
+     * @param titleColumn The title column.
+     * @return Condition, to be used with {@link #getFirstLetterSelectionArgs(String)}.
+     */
+    private static String buildFirstLetterCondition(String titleColumn) {
+        return titleColumn + " >= ? COLLATE NOCASE AND " + titleColumn + " < ? COLLATE NOCASE AND SUBSTR(UPPER(" + titleColumn + "), 1, 1) = ?";
+    }
+
+    /**
+     * Get the arguments of the condition built by
+     * {@link #buildFirstLetterCondition(String)}.
+     *
+     * @param firstLetter The first letter of the titles.
+     * @return Selection arguments.
+     */
+    private static String[] getFirstLetterSelectionArgs(String firstLetter) {
+        if (firstLetter.isEmpty()) {
+            return new String[]{"", "\u0001", firstLetter};
+        }
+        // NOCASE compares the strings as if their ASCII upper case letters were
+        // in lower case.
+        int letter = toNoCase(firstLetter.codePointAt(0));
+        int lowerCaseLetter = toNoCase(firstLetter.toLowerCase(Locale.ROOT).codePointAt(0));
+
+        int from = Math.min(letter, lowerCaseLetter);
+        int to = Math.max(letter, lowerCaseLetter) + 1;
+        if (to >= 'A' && to <= 'Z') {
+            to = 'Z' + 1;
+        }
+        return new String[]{
+                new String(Character.toChars(from)),
+                new String(Character.toChars(to)),
+                firstLetter
+        };
+    }
+
+    private static int toNoCase(int codePoint) {
+        if (codePoint >= 'A' && codePoint <= 'Z') {
+            return codePoint + ('a' - 'A');
+        }
+        return codePoint;
+    }
+
+    /**
+     * Execute a SQL query that returns an integer. The result is kept in the
+     * query cache until the table is written.
      *
      * @param sql           SQL query.
      * @param selectionArgs Selection arguments.
+     * @param table         The table read by the query.
      * @return Integer value.
      */
-    private int queryInt(String sql, String[] selectionArgs) {
-        Cursor cursor = getReadableDatabase().rawQuery(sql, selectionArgs);
-        cursor.moveToNext();
-        int result = cursor.getInt(0);
-        cursor.close();
-        return result;
-    }
-
-    private int queryInt(String sql) {
-        Cursor cursor = getReadableDatabase().rawQuery(sql, null);
-        cursor.moveToNext();
-        int result = cursor.getInt(0);
-        cursor.close();
-        return result;
+    private int queryInt(String sql, String[] selectionArgs, String table) {
+        return queryCached(sql, selectionArgs, new String[]{table}, INT_READER);
+    }
+
+    /**
+     * Store the thumbnails of a book in the covers and set the references of
+     * the book to them. Nothing is done when the thumbnails of an existing book
+     * have not been loaded, its references are then left unchanged.
+     *
+     * @param db   SQLiteDatabase.
+     * @param book Book.
+     */
+    private static void saveCovers(SQLiteDatabase db, Book book) {
+        if (book.id == null || book.coversLoaded) {
+            book.smallThumbnailCoverId = saveCover(db, book.smallThumbnail);
+            book.thumbnailCoverId = saveCover(db, book.thumbnail);
+            book.coversLoaded = true;
+        }
+    }
+
+    /**
+     * Get the cover holding an image, inserting it if there is none.
+     *
+     * @param db    SQLiteDatabase.
+     * @param image The image, can be null.
+     * @return The id of the cover, null if the image is null or empty.
+     */
+    private static Long saveCover(SQLiteDatabase db, byte[] image) {
+        if (image == null || image.length == 0) {
+            return null;
+        }
+        String hash = HashUtils.sha1(image);
+
+        Broker<Cover> coverBroker = BrokerManager.getBroker(Cover.class);
+        String sql = "SELECT " + Cover.Cols.COV_ID + " FROM " + Cover.NAME + " WHERE " + Cover.Cols.COV_HASH + " = ?;";
+        List<Cover> coverList = coverBroker.rawSelect(db, sql, new String[]{hash});
+        if (!coverList.isEmpty()) {
+            return coverList.get(0).id;
+        }
+
+        Cover cover = new Cover();
+        cover.hash = hash;
+        cover.image = image;
+        return coverBroker.save(db, cover);
+    }
+
+    /**
+     * Get the image of a cover.
+     *
+     * @param db      SQLiteDatabase.
+     * @param coverId Id of the cover, can be null.
+     * @return The image, null if there is no such cover.
+     */
+    private static byte[] getCoverImage(SQLiteDatabase db, Long coverId) {
+        if (coverId == null) {
+            return null;
+        }
+        Cover cover = BrokerManager.getBroker(Cover.class).get(db, coverId);
+        return cover == null ? null : cover.image;
     }
 }
@@ -1,6 +1,7 @@
 package com.blackbooks.repositories;
 
 import com.blackbooks.model.persistent.Category;
+import com.blackbooks.utils.collections.LongArrayList;
 
 import java.util.List;
 
@@ -15,9 +16,17 @@ public interface CategoryRepository {
 
     Category getCategoryByCriteria(Category criteria);
 
+    List<Category> getCategoryListByNames(List<String> names);
+
     List<Category> getCategoryListByText(String text);
 
     void updateCategory(long categoryId, String newName);
 
     int getCategoryCount();
+
+    List<Category> getCategoriesByIds(LongArrayList categoryIdList);
+
+    Long getCategoryIdByName(String name);
+
+    void deleteCategoriesWithoutBooks(LongArrayList categoryIdList);
 }
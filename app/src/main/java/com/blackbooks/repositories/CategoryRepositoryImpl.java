@@ -8,6 +8,7 @@ import com.blackbooks.database.SQLiteHelper;
 import com.blackbooks.model.persistent.BookCategory;
 import com.blackbooks.model.persistent.Category;
 import com.blackbooks.sql.BrokerManager;
+import com.blackbooks.utils.collections.LongArrayList;
 
 import java.util.List;
 
@@ -19,6 +20,7 @@ public class CategoryRepositoryImpl extends AbstractRepository implements Catego
     @Override
     public void deleteCategory(Long categoryId) {
         BrokerManager.getBroker(Category.class).delete(getWritableDatabase(), categoryId);
+        nameRemoved(Category.NAME, categoryId);
     }
 
     public void deleteCategoriesWithoutBooks() {
@@ -27,6 +29,8 @@ public class CategoryRepositoryImpl extends AbstractRepository implements Catego
                 + BookCategory.Cols.CAT_ID + " = cat." + Category.Cols.CAT_ID + " WHERE bca." + BookCategory.Cols.BCA_ID
                 + " IS NULL)";
         getWritableDatabase().execSQL(sql);
+        invalidateQueryCache(Category.NAME);
+        invalidateNameCache(Category.NAME);
     }
 
     @Override
@@ -36,7 +40,14 @@ public class CategoryRepositoryImpl extends AbstractRepository implements Catego
 
     @Override
     public long saveCategory(Category category) {
-        return BrokerManager.getBroker(Category.class).save(getWritableDatabase(), category);
+        boolean isCreation = category.id == null;
+        long categoryId = BrokerManager.getBroker(Category.class).save(getWritableDatabase(), category);
+        if (isCreation) {
+            nameInserted(Category.NAME);
+        } else {
+            nameRemoved(Category.NAME, categoryId);
+        }
+        return categoryId;
     }
 
     @Override
@@ -44,6 +55,11 @@ public class CategoryRepositoryImpl extends AbstractRepository implements Catego
         return BrokerManager.getBroker(Category.class).getByCriteria(getReadableDatabase(), criteria);
     }
 
+    @Override
+    public List<Category> getCategoryListByNames(List<String> names) {
+        return BrokerManager.getBroker(Category.class).getAllWhereIn(getReadableDatabase(), Category.Cols.CAT_NAME, names);
+    }
+
     @Override
     public List<Category> getCategoryListByText(String text) {
         String sql = "SELECT * FROM " + Category.NAME + " WHERE LOWER(" + Category.Cols.CAT_NAME
@@ -59,6 +75,8 @@ public class CategoryRepositoryImpl extends AbstractRepository implements Catego
         String whereClause = Category.Cols.CAT_ID + " = ?";
         String[] whereArgs = new String[]{String.valueOf(categoryId)};
         getWritableDatabase().updateWithOnConflict(Category.NAME, values, whereClause, whereArgs, SQLiteDatabase.CONFLICT_ROLLBACK);
+        invalidateQueryCache(Category.NAME);
+        nameRemoved(Category.NAME, categoryId);
     }
 
     @Override
@@ -74,4 +92,21 @@ public class CategoryRepositoryImpl extends AbstractRepository implements Catego
         cursor.close();
         return result;
     }
+
+    @Override
+    public List<Category> getCategoriesByIds(LongArrayList categoryIdList) {
+        return BrokerManager.getBroker(Category.class).getAllWhereIn(getReadableDatabase(), Category.Cols.CAT_ID, categoryIdList);
+    }
+
+    @Override
+    public Long getCategoryIdByName(String name) {
+        return getIdByName(Category.NAME, Category.Cols.CAT_ID, Category.Cols.CAT_NAME, name);
+    }
+
+    @Override
+    public void deleteCategoriesWithoutBooks(LongArrayList categoryIdList) {
+        String orphanCondition = "NOT EXISTS (SELECT 1 FROM " + BookCategory.NAME + " WHERE " + BookCategory.NAME + "." + BookCategory.Cols.CAT_ID
+                + " = " + Category.NAME + "." + Category.Cols.CAT_ID + ")";
+        deleteOrphans(Category.NAME, Category.Cols.CAT_ID, orphanCondition, categoryIdList);
+    }
 }
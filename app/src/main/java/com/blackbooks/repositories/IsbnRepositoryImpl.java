@@ -20,6 +20,7 @@ public class IsbnRepositoryImpl extends AbstractRepository implements IsbnReposi
         String whereClause = Isbn.Cols.ISB_LOOKED_UP + " = ?";
         String[] whereArgs = new String[]{String.valueOf(1L)};
         getWritableDatabase().delete(Isbn.NAME, whereClause, whereArgs);
+        invalidateQueryCache(Isbn.NAME);
     }
 
     @Override
@@ -34,9 +35,10 @@ public class IsbnRepositoryImpl extends AbstractRepository implements IsbnReposi
             String whereClause = Isbn.Cols.ISB_ID + " = ?";
             String[] whereArgs = new String[]{String.valueOf(isbnId)};
             db.update(Isbn.NAME, contentValues, whereClause, whereArgs);
+            invalidateQueryCache(Isbn.NAME);
             db.setTransactionSuccessful();
         } finally {
-            db.endTransaction();
+            endTransaction();
         }
     }
 
@@ -82,8 +84,8 @@ public class IsbnRepositoryImpl extends AbstractRepository implements IsbnReposi
 
     @Override
     public void deleteAllPendingIsbns() {
-        String whereClause = Isbn.Cols.ISB_LOOKED_UP + " = ?";
-        String[] whereArgs = new String[]{String.valueOf(0L)};
-        getWritableDatabase().delete(Isbn.NAME, whereClause, whereArgs);
+        String whereClause = Isbn.Cols.ISB_LOOKED_UP + " = 0";
+        getWritableDatabase().delete(Isbn.NAME, whereClause, null);
+        invalidateQueryCache(Isbn.NAME);
     }
 }
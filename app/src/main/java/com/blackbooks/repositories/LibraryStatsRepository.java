@@ -0,0 +1,13 @@
+package com.blackbooks.repositories;
+
+import com.blackbooks.model.persistent.LibraryStats;
+
+import java.util.List;
+
+public interface LibraryStatsRepository {
+    LibraryStats getLibraryStats();
+
+    void rebuildLibraryStats();
+
+    List<String> checkLibraryStats();
+}
@@ -0,0 +1,34 @@
+package com.blackbooks.repositories;
+
+import com.blackbooks.database.LibraryStatistics;
+import com.blackbooks.database.SQLiteHelper;
+import com.blackbooks.model.persistent.Author;
+import com.blackbooks.model.persistent.BookLocation;
+import com.blackbooks.model.persistent.Category;
+import com.blackbooks.model.persistent.LibraryStats;
+import com.blackbooks.model.persistent.Series;
+import com.blackbooks.sql.BrokerManager;
+
+import java.util.List;
+
+public class LibraryStatsRepositoryImpl extends AbstractRepository implements LibraryStatsRepository {
+    public LibraryStatsRepositoryImpl(SQLiteHelper sqLiteHelper) {
+        super(sqLiteHelper);
+    }
+
+    @Override
+    public LibraryStats getLibraryStats() {
+        return BrokerManager.getBroker(LibraryStats.class).get(getReadableDatabase(), LibraryStats.ID);
+    }
+
+    @Override
+    public void rebuildLibraryStats() {
+        LibraryStatistics.rebuild(getWritableDatabase());
+        invalidateQueryCache(LibraryStats.NAME, Author.NAME, Category.NAME, Series.NAME, BookLocation.NAME);
+    }
+
+    @Override
+    public List<String> checkLibraryStats() {
+        return LibraryStatistics.check(getReadableDatabase());
+    }
+}
@@ -1,6 +1,7 @@
 package com.blackbooks.repositories;
 
 import com.blackbooks.model.persistent.Publisher;
+import com.blackbooks.utils.collections.LongArrayList;
 
 import java.util.List;
 
@@ -11,9 +12,17 @@ public interface PublisherRepository {
 
     Publisher getPublisherByCriteria(Publisher criteria);
 
+    List<Publisher> getPublisherListByNames(List<String> names);
+
     List<Publisher> getPublisherListByText(String text);
 
     long savePublisher(Publisher publisher);
 
     void deletePublishersWithoutBooks();
+
+    List<Publisher> getPublishersByIds(LongArrayList publisherIdList);
+
+    Long getPublisherIdByName(String name);
+
+    void deletePublishersWithoutBooks(LongArrayList publisherIdList);
 }
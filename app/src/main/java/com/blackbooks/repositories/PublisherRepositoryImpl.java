@@ -4,6 +4,7 @@ import com.blackbooks.database.SQLiteHelper;
 import com.blackbooks.model.persistent.Book;
 import com.blackbooks.model.persistent.Publisher;
 import com.blackbooks.sql.BrokerManager;
+import com.blackbooks.utils.collections.LongArrayList;
 
 import java.util.List;
 
@@ -19,6 +20,8 @@ public class PublisherRepositoryImpl extends AbstractRepository implements Publi
                 + Book.Cols.PUB_ID + " = pub." + Publisher.Cols.PUB_ID + " WHERE boo." + Book.Cols.BOO_ID + " IS NULL)";
 
         getWritableDatabase().execSQL(sql);
+        invalidateQueryCache(Publisher.NAME);
+        invalidateNameCache(Publisher.NAME);
     }
 
     @Override
@@ -31,6 +34,11 @@ public class PublisherRepositoryImpl extends AbstractRepository implements Publi
         return BrokerManager.getBroker(Publisher.class).getByCriteria(getReadableDatabase(), criteria);
     }
 
+    @Override
+    public List<Publisher> getPublisherListByNames(List<String> names) {
+        return BrokerManager.getBroker(Publisher.class).getAllWhereIn(getReadableDatabase(), Publisher.Cols.PUB_NAME, names);
+    }
+
     @Override
     public List<Publisher> getPublisherListByText(String text) {
         String sql = "SELECT * FROM " + Publisher.NAME + " WHERE LOWER(" + Publisher.Cols.PUB_NAME
@@ -41,7 +49,14 @@ public class PublisherRepositoryImpl extends AbstractRepository implements Publi
 
     @Override
     public long savePublisher(Publisher publisher) {
-        return BrokerManager.getBroker(Publisher.class).save(getWritableDatabase(), publisher);
+        boolean isCreation = publisher.id == null;
+        long publisherId = BrokerManager.getBroker(Publisher.class).save(getWritableDatabase(), publisher);
+        if (isCreation) {
+            nameInserted(Publisher.NAME);
+        } else {
+            nameRemoved(Publisher.NAME, publisherId);
+        }
+        return publisherId;
     }
 
     @Override
@@ -51,5 +66,24 @@ public class PublisherRepositoryImpl extends AbstractRepository implements Publi
                 + Book.Cols.PUB_ID + " = pub." + Publisher.Cols.PUB_ID + " WHERE boo." + Book.Cols.BOO_ID + " IS NULL)";
 
         getWritableDatabase().execSQL(sql);
+        invalidateQueryCache(Publisher.NAME);
+        invalidateNameCache(Publisher.NAME);
+    }
+
+    @Override
+    public List<Publisher> getPublishersByIds(LongArrayList publisherIdList) {
+        return BrokerManager.getBroker(Publisher.class).getAllWhereIn(getReadableDatabase(), Publisher.Cols.PUB_ID, publisherIdList);
+    }
+
+    @Override
+    public Long getPublisherIdByName(String name) {
+        return getIdByName(Publisher.NAME, Publisher.Cols.PUB_ID, Publisher.Cols.PUB_NAME, name);
+    }
+
+    @Override
+    public void deletePublishersWithoutBooks(LongArrayList publisherIdList) {
+        String orphanCondition = "NOT EXISTS (SELECT 1 FROM " + Book.NAME + " WHERE " + Book.NAME + "." + Book.Cols.PUB_ID
+                + " = " + Publisher.NAME + "." + Publisher.Cols.PUB_ID + ")";
+        deleteOrphans(Publisher.NAME, Publisher.Cols.PUB_ID, orphanCondition, publisherIdList);
     }
 }
@@ -1,6 +1,7 @@
 package com.blackbooks.repositories;
 
 import com.blackbooks.model.persistent.Series;
+import com.blackbooks.utils.collections.LongArrayList;
 
 import java.util.List;
 
@@ -11,6 +12,8 @@ public interface SeriesRepository {
 
     Series getSeriesByCriteria(Series criteria);
 
+    List<Series> getSeriesListByNames(List<String> names);
+
     List<Series> getSeriesListByText(String text);
 
     long saveSeries(Series series);
@@ -20,4 +23,10 @@ public interface SeriesRepository {
     void updateSeries(long seriesId, String newName);
 
     int getSeriesCount();
+
+    List<Series> getSeriesByIds(LongArrayList seriesIdList);
+
+    Long getSeriesIdByName(String name);
+
+    void deleteSeriesWithoutBooks(LongArrayList seriesIdList);
 }
@@ -8,6 +8,7 @@ import com.blackbooks.database.SQLiteHelper;
 import com.blackbooks.model.persistent.Book;
 import com.blackbooks.model.persistent.Series;
 import com.blackbooks.sql.BrokerManager;
+import com.blackbooks.utils.collections.LongArrayList;
 
 import java.util.List;
 
@@ -26,11 +27,13 @@ public class SeriesRepositoryImpl extends AbstractRepository implements SeriesRe
             String whereClause = Book.Cols.SER_ID + " = ?";
             String[] whereArgs = new String[]{String.valueOf(seriesId)};
             db.updateWithOnConflict(Book.NAME, values, whereClause, whereArgs, SQLiteDatabase.CONFLICT_ROLLBACK);
+            invalidateQueryCache(Book.NAME);
 
             BrokerManager.getBroker(Series.class).delete(db, seriesId);
+            nameRemoved(Series.NAME, seriesId);
             db.setTransactionSuccessful();
         } finally {
-            db.endTransaction();
+            endTransaction();
         }
     }
 
@@ -41,6 +44,8 @@ public class SeriesRepositoryImpl extends AbstractRepository implements SeriesRe
                 + Series.Cols.SER_ID + " WHERE boo." + Book.Cols.BOO_ID + " IS NULL)";
 
         getWritableDatabase().execSQL(sql);
+        invalidateQueryCache(Series.NAME);
+        invalidateNameCache(Series.NAME);
     }
 
     @Override
@@ -48,6 +53,11 @@ public class SeriesRepositoryImpl extends AbstractRepository implements SeriesRe
         return BrokerManager.getBroker(Series.class).getByCriteria(getReadableDatabase(), criteria);
     }
 
+    @Override
+    public List<Series> getSeriesListByNames(List<String> names) {
+        return BrokerManager.getBroker(Series.class).getAllWhereIn(getReadableDatabase(), Series.Cols.SER_NAME, names);
+    }
+
     @Override
     public List<Series> getSeriesListByText(String text) {
         String sql = "SELECT * FROM " + Series.NAME + " WHERE LOWER(" + Series.Cols.SER_NAME
@@ -58,7 +68,14 @@ public class SeriesRepositoryImpl extends AbstractRepository implements SeriesRe
 
     @Override
     public long saveSeries(Series series) {
-        return BrokerManager.getBroker(Series.class).save(getWritableDatabase(), series);
+        boolean isCreation = series.id == null;
+        long seriesId = BrokerManager.getBroker(Series.class).save(getWritableDatabase(), series);
+        if (isCreation) {
+            nameInserted(Series.NAME);
+        } else {
+            nameRemoved(Series.NAME, seriesId);
+        }
+        return seriesId;
     }
 
     @Override
@@ -73,6 +90,8 @@ public class SeriesRepositoryImpl extends AbstractRepository implements SeriesRe
         String whereClause = Series.Cols.SER_ID + " = ?";
         String[] whereArgs = new String[]{String.valueOf(seriesId)};
         getWritableDatabase().updateWithOnConflict(Series.NAME, values, whereClause, whereArgs, SQLiteDatabase.CONFLICT_ROLLBACK);
+        invalidateQueryCache(Series.NAME);
+        nameRemoved(Series.NAME, seriesId);
     }
 
     @Override
@@ -88,4 +107,21 @@ public class SeriesRepositoryImpl extends AbstractRepository implements SeriesRe
         cursor.close();
         return result;
     }
+
+    @Override
+    public List<Series> getSeriesByIds(LongArrayList seriesIdList) {
+        return BrokerManager.getBroker(Series.class).getAllWhereIn(getReadableDatabase(), Series.Cols.SER_ID, seriesIdList);
+    }
+
+    @Override
+    public Long getSeriesIdByName(String name) {
+        return getIdByName(Series.NAME, Series.Cols.SER_ID, Series.Cols.SER_NAME, name);
+    }
+
+    @Override
+    public void deleteSeriesWithoutBooks(LongArrayList seriesIdList) {
+        String orphanCondition = "NOT EXISTS (SELECT 1 FROM " + Book.NAME + " WHERE " + Book.NAME + "." + Book.Cols.SER_ID
+                + " = " + Series.NAME + "." + Series.Cols.SER_ID + ")";
+        deleteOrphans(Series.NAME, Series.Cols.SER_ID, orphanCondition, seriesIdList);
+    }
 }
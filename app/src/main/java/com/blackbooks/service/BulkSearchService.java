@@ -14,12 +14,16 @@ import android.util.Log;
 import com.blackbooks.R;
 import com.blackbooks.activities.BulkAddActivity;
 import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.persistent.Author;
+import com.blackbooks.model.persistent.Category;
 import com.blackbooks.model.persistent.Isbn;
 import com.blackbooks.services.IsbnService;
 import com.blackbooks.services.search.BookOnlineSearchService;
 import com.blackbooks.utils.LogUtils;
 import com.blackbooks.utils.VariableUtils;
+import com.blackbooks.utils.collections.LongArrayList;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.inject.Inject;
@@ -35,6 +39,8 @@ public final class BulkSearchService extends IntentService {
 
     private static final int MAX_CONSECUTIVE_ERRORS = 5;
 
+    private static final int SAVE_BATCH_SIZE = 10;
+
     private boolean mStop;
 
     @Inject
@@ -84,6 +90,9 @@ public final class BulkSearchService extends IntentService {
         notificationManager.notify(NOTIFICATION_ID, builder.build());
         builder.setTicker(null);
 
+        final List<BookInfo> foundBookInfoList = new ArrayList<BookInfo>();
+        final LongArrayList foundIsbnIdList = new LongArrayList();
+
         int consecutiveErrors = 0;
         for (int i = 0; i < isbnCount; i++) {
             if (mStop) {
@@ -103,8 +112,11 @@ public final class BulkSearchService extends IntentService {
                     isbnService.markIsbnLookedUp(isbn.id, null);
                 } else {
                     Log.i(LogUtils.TAG, String.format("Result: %s", bookInfo.title));
-                    isbnService.saveBookInfo(bookInfo, isbn.id);
-                    VariableUtils.getInstance().setReloadBookList(true);
+                    foundBookInfoList.add(bookInfo);
+                    foundIsbnIdList.add(isbn.id);
+                    if (foundBookInfoList.size() >= SAVE_BATCH_SIZE) {
+                        saveFoundBooks(foundBookInfoList, foundIsbnIdList);
+                    }
                 }
 
                 consecutiveErrors = 0;
@@ -122,6 +134,8 @@ public final class BulkSearchService extends IntentService {
             notificationManager.notify(NOTIFICATION_ID, notification);
         }
 
+        saveFoundBooks(foundBookInfoList, foundIsbnIdList);
+
         builder.setContentTitle(getString(R.string.notification_bulk_search_finished_title));
         builder.setContentText(getString(R.string.notification_bulk_search_finished_text));
         builder.setProgress(0, 0, false);
@@ -132,6 +146,55 @@ public final class BulkSearchService extends IntentService {
         VariableUtils.getInstance().setBulkSearchRunning(false);
     }
 
+    /**
+     * Save the books found since the last call in a single batch, then clear
+     * the lists. If the batch fails, the books are saved one by one so that a
+     * single invalid book does not prevent the others from being saved.
+     *
+     * @param bookInfoList The books that have been found.
+     * @param isbnIdList   The ids of the corresponding ISBNs.
+     */
+    private void saveFoundBooks(List<BookInfo> bookInfoList, LongArrayList isbnIdList) {
+        if (bookInfoList.isEmpty()) {
+            return;
+        }
+        try {
+            isbnService.saveBookInfoBatch(bookInfoList, isbnIdList);
+        } catch (Exception e) {
+            Log.e(LogUtils.TAG, "The books could not be saved as a batch.", e);
+            for (int i = 0; i < bookInfoList.size(); i++) {
+                BookInfo bookInfo = bookInfoList.get(i);
+                try {
+                    resetIds(bookInfo);
+                    isbnService.saveBookInfo(bookInfo, isbnIdList.get(i));
+                } catch (Exception ex) {
+                    Log.e(LogUtils.TAG, String.format("The book %s could not be saved.", bookInfo.title), ex);
+                }
+            }
+        }
+        bookInfoList.clear();
+        isbnIdList.clear();
+    }
+
+    /**
+     * Clear the ids that a failed batch may have set on a book found online,
+     * as its changes have been rolled back.
+     *
+     * @param bookInfo BookInfo.
+     */
+    private static void resetIds(BookInfo bookInfo) {
+        bookInfo.id = null;
+        bookInfo.publisher.id = null;
+        bookInfo.bookLocation.id = null;
+        bookInfo.series.id = null;
+        for (Author author : bookInfo.authors) {
+            author.id = null;
+        }
+        for (Category category : bookInfo.categories) {
+            category.id = null;
+        }
+    }
+
     @Override
     public void onDestroy() {
         super.onDestroy();
@@ -1,5 +1,7 @@
 package com.blackbooks.services;
 
+import com.blackbooks.changes.Change;
+import com.blackbooks.changes.ChangeBus;
 import com.blackbooks.model.persistent.Author;
 import com.blackbooks.repositories.AuthorRepository;
 
@@ -11,13 +13,16 @@ import java.util.List;
 public final class AuthorServiceImpl implements AuthorService {
 
     private final AuthorRepository authorRepository;
+    private final ChangeBus changeBus;
 
-    public AuthorServiceImpl(AuthorRepository authorRepository) {
+    public AuthorServiceImpl(AuthorRepository authorRepository, ChangeBus changeBus) {
         this.authorRepository = authorRepository;
+        this.changeBus = changeBus;
     }
 
     public void deleteAuthor(long authorId) {
         authorRepository.deleteAuthor(authorId);
+        changeBus.post(Change.deleted(Author.NAME, authorId));
     }
 
     public Author getAuthor(long id) {
@@ -34,5 +39,6 @@ public final class AuthorServiceImpl implements AuthorService {
 
     public void updateAuthor(long authorId, String newName) {
         authorRepository.updateAuthor(authorId, newName);
+        changeBus.post(Change.updated(Author.NAME, authorId));
     }
 }
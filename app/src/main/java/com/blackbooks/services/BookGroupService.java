@@ -1,21 +1,34 @@
 package com.blackbooks.services;
 
 import com.blackbooks.model.nonpersistent.BookGroup;
+import com.blackbooks.model.nonpersistent.PageKey;
 
 import java.util.List;
 
 public interface BookGroupService {
     List<BookGroup> getBookGroupListAuthor(int limit, int offset);
 
+    List<BookGroup> getBookGroupListAuthor(int limit, PageKey after);
+
     List<BookGroup> getBookGroupListBookLocation(int limit, int offset);
 
+    List<BookGroup> getBookGroupListBookLocation(int limit, PageKey after);
+
     List<BookGroup> getBookGroupListCategory(int limit, int offset);
 
+    List<BookGroup> getBookGroupListCategory(int limit, PageKey after);
+
     List<BookGroup> getBookGroupListFirstLetter(int limit, int offset);
 
+    List<BookGroup> getBookGroupListFirstLetter(int limit, PageKey after);
+
     List<BookGroup> getBookGroupListLanguage();
 
     List<BookGroup> getBookGroupListLoan(int limit, int offset);
 
+    List<BookGroup> getBookGroupListLoan(int limit, PageKey after);
+
     List<BookGroup> getBookGroupListSeries(int limit, int offset);
+
+    List<BookGroup> getBookGroupListSeries(int limit, PageKey after);
 }
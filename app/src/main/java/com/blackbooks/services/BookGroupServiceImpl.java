@@ -4,10 +4,9 @@ import android.database.Cursor;
 
 import com.blackbooks.database.SQLiteHelper;
 import com.blackbooks.model.nonpersistent.BookGroup;
+import com.blackbooks.model.nonpersistent.PageKey;
 import com.blackbooks.model.persistent.Author;
 import com.blackbooks.model.persistent.Book;
-import com.blackbooks.model.persistent.BookAuthor;
-import com.blackbooks.model.persistent.BookCategory;
 import com.blackbooks.model.persistent.BookLocation;
 import com.blackbooks.model.persistent.Category;
 import com.blackbooks.model.persistent.Series;
@@ -17,6 +16,7 @@ import com.blackbooks.utils.StringUtils;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.TreeMap;
 
@@ -25,6 +25,39 @@ import java.util.TreeMap;
  */
 public final class BookGroupServiceImpl extends AbstractRepository implements BookGroupService {
 
+    /**
+     * Reads a list of BookGroup from the id, name and count columns of a cursor.
+     */
+    private static final CursorReader<List<BookGroup>> BOOK_GROUP_LIST_READER = new CursorReader<List<BookGroup>>() {
+
+        @Override
+        public List<BookGroup> read(Cursor cursor) {
+            List<BookGroup> bookGroupList = new ArrayList<>();
+            Integer idType = null;
+            while (cursor.moveToNext()) {
+                if (idType == null) {
+                    idType = cursor.getType(0);
+                }
+                Serializable id;
+                if (idType == Cursor.FIELD_TYPE_INTEGER) {
+                    id = cursor.getLong(0);
+                } else {
+                    id = cursor.getString(0);
+                }
+                String name = cursor.getString(1);
+                Long count = cursor.getLong(2);
+
+                BookGroup bookGroup = new BookGroup();
+                bookGroup.id = id;
+                bookGroup.name = name;
+                bookGroup.count = count.intValue();
+
+                bookGroupList.add(bookGroup);
+            }
+            return bookGroupList;
+        }
+    };
+
     public BookGroupServiceImpl(SQLiteHelper sqLiteHelper) {
         super(sqLiteHelper);
     }
@@ -40,13 +73,10 @@ public final class BookGroupServiceImpl extends AbstractRepository implements Bo
         String sql = "SELECT" + "\n" +
                 "aut." + Author.Cols.AUT_ID + "," + "\n" +
                 "aut." + Author.Cols.AUT_NAME + "," + "\n" +
-                "COUNT(*)" + "\n" +
+                "aut." + Author.Cols.AUT_BOOK_COUNT + "\n" +
                 "FROM" + "\n" +
                 Author.NAME + " aut" + "\n" +
-                "JOIN " + BookAuthor.NAME + " bka ON bka." + BookAuthor.Cols.AUT_ID + " = aut." + Author.Cols.AUT_ID + "\n" +
-                "GROUP BY" + "\n" +
-                "aut." + Author.Cols.AUT_ID + "," + "\n" +
-                "aut." + Author.Cols.AUT_NAME + "\n" +
+                "WHERE aut." + Author.Cols.AUT_BOOK_COUNT + " > 0" + "\n" +
                 "ORDER BY" + "\n" +
                 "aut." + Author.Cols.AUT_NAME + " COLLATE NOCASE" + "\n" +
                 "LIMIT ?" + "\n" +
@@ -56,7 +86,7 @@ public final class BookGroupServiceImpl extends AbstractRepository implements Bo
                 String.valueOf(limit),
                 String.valueOf(offset)
         };
-        return queryBookGroupList(sql, selectionArgs);
+        return queryBookGroupList(sql, selectionArgs, Author.NAME);
     }
 
     /**
@@ -70,13 +100,10 @@ public final class BookGroupServiceImpl extends AbstractRepository implements Bo
         String sql = "SELECT" + "\n" +
                 "bkl." + BookLocation.Cols.BKL_ID + "," + "\n" +
                 "bkl." + BookLocation.Cols.BKL_NAME + "," + "\n" +
-                "COUNT(*)" + "\n" +
+                "bkl." + BookLocation.Cols.BKL_BOOK_COUNT + "\n" +
                 "FROM" + "\n" +
                 BookLocation.NAME + " bkl" + "\n" +
-                "JOIN " + Book.NAME + " boo ON boo." + Book.Cols.BKL_ID + " = bkl." + BookLocation.Cols.BKL_ID + "\n" +
-                "GROUP BY" + "\n" +
-                "bkl." + BookLocation.Cols.BKL_ID + "," + "\n" +
-                "bkl." + BookLocation.Cols.BKL_NAME + "\n" +
+                "WHERE bkl." + BookLocation.Cols.BKL_BOOK_COUNT + " > 0" + "\n" +
                 "ORDER BY" + "\n" +
                 "bkl." + BookLocation.Cols.BKL_NAME + " COLLATE NOCASE" + "\n" +
                 "LIMIT ?" + "\n" +
@@ -86,7 +113,7 @@ public final class BookGroupServiceImpl extends AbstractRepository implements Bo
                 String.valueOf(limit),
                 String.valueOf(offset)
         };
-        return queryBookGroupList(sql, selectionArgs);
+        return queryBookGroupList(sql, selectionArgs, BookLocation.NAME);
     }
 
     /**
@@ -100,13 +127,10 @@ public final class BookGroupServiceImpl extends AbstractRepository implements Bo
         String sql = "SELECT" + "\n" +
                 "cat." + Category.Cols.CAT_ID + "," + "\n" +
                 "cat." + Category.Cols.CAT_NAME + "," + "\n" +
-                "COUNT(*)" + "\n" +
+                "cat." + Category.Cols.CAT_BOOK_COUNT + "\n" +
                 "FROM" + "\n" +
                 Category.NAME + " cat" + "\n" +
-                "JOIN " + BookCategory.NAME + " bca ON bca." + BookCategory.Cols.CAT_ID + " = cat." + Category.Cols.CAT_ID + "\n" +
-                "GROUP BY" + "\n" +
-                "cat." + Category.Cols.CAT_ID + "," + "\n" +
-                "cat." + Category.Cols.CAT_NAME + "\n" +
+                "WHERE cat." + Category.Cols.CAT_BOOK_COUNT + " > 0" + "\n" +
                 "ORDER BY" + "\n" +
                 "cat." + Category.Cols.CAT_NAME + " COLLATE NOCASE" + "\n" +
                 "LIMIT ?" + "\n" +
@@ -116,7 +140,7 @@ public final class BookGroupServiceImpl extends AbstractRepository implements Bo
                 String.valueOf(limit),
                 String.valueOf(offset)
         };
-        return queryBookGroupList(sql, selectionArgs);
+        return queryBookGroupList(sql, selectionArgs, Category.NAME);
     }
 
     /**
@@ -144,7 +168,7 @@ public final class BookGroupServiceImpl extends AbstractRepository implements Bo
                 String.valueOf(limit),
                 String.valueOf(offset)
         };
-        return queryBookGroupList(sql, selectionArgs);
+        return queryBookGroupList(sql, selectionArgs, Book.NAME);
     }
 
     /**
@@ -165,7 +189,7 @@ public final class BookGroupServiceImpl extends AbstractRepository implements Bo
 
 
         TreeMap<String, BookGroup> bookGroupMap = new TreeMap<>();
-        for (BookGroup bookGroup : queryBookGroupList(sql, null)) {
+        for (BookGroup bookGroup : queryBookGroupList(sql, null, Book.NAME)) {
             if (bookGroup.id != null) {
                 bookGroup.name = StringUtils.capitalize(LanguageUtils.getDisplayLanguage((String) bookGroup.id));
             }
@@ -200,7 +224,7 @@ public final class BookGroupServiceImpl extends AbstractRepository implements Bo
                 String.valueOf(limit),
                 String.valueOf(offset)
         };
-        return queryBookGroupList(sql, selectionArgs);
+        return queryBookGroupList(sql, selectionArgs, Book.NAME);
     }
 
     /**
@@ -214,13 +238,10 @@ public final class BookGroupServiceImpl extends AbstractRepository implements Bo
         String sql = "SELECT" + "\n" +
                 "ser." + Series.Cols.SER_ID + "," + "\n" +
                 "ser." + Series.Cols.SER_NAME + "," + "\n" +
-                "COUNT(*)" + "\n" +
+                "ser." + Series.Cols.SER_BOOK_COUNT + "\n" +
                 "FROM" + "\n" +
                 Series.NAME + " ser" + "\n" +
-                "JOIN " + Book.NAME + " boo ON boo." + Book.Cols.SER_ID + " = ser." + Series.Cols.SER_ID + "\n" +
-                "GROUP BY" + "\n" +
-                "ser." + Series.Cols.SER_ID + "," + "\n" +
-                "ser." + Series.Cols.SER_NAME + "\n" +
+                "WHERE ser." + Series.Cols.SER_BOOK_COUNT + " > 0" + "\n" +
                 "ORDER BY" + "\n" +
                 "ser." + Series.Cols.SER_NAME + " COLLATE NOCASE" + "\n" +
                 "LIMIT ?" + "\n" +
@@ -230,41 +251,172 @@ public final class BookGroupServiceImpl extends AbstractRepository implements Bo
                 String.valueOf(limit),
                 String.valueOf(offset)
         };
-        return queryBookGroupList(sql, selectionArgs);
+        return queryBookGroupList(sql, selectionArgs, Series.NAME);
+    }
+
+    /**
+     * Load a page of the list of authors.
+     *
+     * @param limit Limit.
+     * @param after The key of the last group of the previous page, null to get the first page.
+     * @return List of BookGroup.
+     */
+    public List<BookGroup> getBookGroupListAuthor(int limit, PageKey after) {
+        return queryBookGroupPage(Author.NAME, Author.Cols.AUT_ID, Author.Cols.AUT_NAME, Author.Cols.AUT_BOOK_COUNT, limit, after);
+    }
+
+    /**
+     * Load a page of the list of book locations.
+     *
+     * @param limit Limit.
+     * @param after The key of the last group of the previous page, null to get the first page.
+     * @return List of BookGroup.
+     */
+    public List<BookGroup> getBookGroupListBookLocation(int limit, PageKey after) {
+        return queryBookGroupPage(BookLocation.NAME, BookLocation.Cols.BKL_ID, BookLocation.Cols.BKL_NAME, BookLocation.Cols.BKL_BOOK_COUNT, limit, after);
     }
 
     /**
-     * Executes a query and returns a list of BookGroup.
+     * Load a page of the list of categories.
+     *
+     * @param limit Limit.
+     * @param after The key of the last group of the previous page, null to get the first page.
+     * @return List of BookGroup.
+     */
+    public List<BookGroup> getBookGroupListCategory(int limit, PageKey after) {
+        return queryBookGroupPage(Category.NAME, Category.Cols.CAT_ID, Category.Cols.CAT_NAME, Category.Cols.CAT_BOOK_COUNT, limit, after);
+    }
+
+    /**
+     * Load a page of the list of first characters of book titles.
+     *
+     * @param limit Limit.
+     * @param after The key of the last group of the previous page, null to get the first page.
+     * @return List of BookGroup.
+     */
+    public List<BookGroup> getBookGroupListFirstLetter(int limit, PageKey after) {
+        String firstLetter = "SUBSTR(UPPER(" + Book.Cols.BOO_TITLE + "), 1, 1)";
+        String sql = "SELECT" + "\n" +
+                firstLetter + "," + "\n" +
+                firstLetter + "," + "\n" +
+                "COUNT(*)" + "\n" +
+                "FROM" + "\n" +
+                Book.NAME + "\n";
+
+        List<String> selectionArgList = new ArrayList<>();
+        if (after != null) {
+            sql += "WHERE " + firstLetter + " > ?" + "\n";
+            selectionArgList.add(after.sortKey);
+        }
+        sql += "GROUP BY" + "\n" +
+                "1" + "\n" +
+                "ORDER BY" + "\n" +
+                "1" + "\n" +
+                "LIMIT ?" + ";";
+        selectionArgList.add(String.valueOf(limit));
+
+        return queryBookGroupList(sql, selectionArgList.toArray(new String[selectionArgList.size()]), Book.NAME);
+    }
+
+    /**
+     * Load a page of the list of persons who are loaned a book.
+     *
+     * @param limit Limit.
+     * @param after The key of the last group of the previous page, null to get the first page.
+     * @return List of BookGroup.
+     */
+    public List<BookGroup> getBookGroupListLoan(int limit, PageKey after) {
+        String sql = "SELECT" + "\n" +
+                Book.Cols.BOO_LOANED_TO + "," + "\n" +
+                Book.Cols.BOO_LOANED_TO + "," + "\n" +
+                "COUNT(*)" + "\n" +
+                "FROM" + "\n" +
+                Book.NAME + "\n" +
+                "WHERE " + Book.Cols.BOO_LOANED_TO + " IS NOT NULL" + "\n";
+
+        List<String> selectionArgList = new ArrayList<>();
+        if (after != null) {
+            sql += "AND " + Book.Cols.BOO_LOANED_TO + " > ?" + "\n";
+            selectionArgList.add(after.sortKey);
+        }
+        sql += "GROUP BY" + "\n" +
+                "1" + "\n" +
+                "ORDER BY" + "\n" +
+                "1" + "\n" +
+                "LIMIT ?" + ";";
+        selectionArgList.add(String.valueOf(limit));
+
+        return queryBookGroupList(sql, selectionArgList.toArray(new String[selectionArgList.size()]), Book.NAME);
+    }
+
+    /**
+     * Load a page of the list of series.
+     *
+     * @param limit Limit.
+     * @param after The key of the last group of the previous page, null to get the first page.
+     * @return List of BookGroup.
+     */
+    public List<BookGroup> getBookGroupListSeries(int limit, PageKey after) {
+        return queryBookGroupPage(Series.NAME, Series.Cols.SER_ID, Series.Cols.SER_NAME, Series.Cols.SER_BOOK_COUNT, limit, after);
+    }
+
+    /**
+     * Load a page of a list of groups that have an id, a name and a book
+     * count, sorted by name. The groups without books are left out. The page
+     * starts after a given key rather than at an offset.
+     *
+     * @param table       The table of the groups.
+     * @param idColumn    The id column of the group.
+     * @param nameColumn  The name column of the group.
+     * @param countColumn The book count column of the group.
+     * @param limit       Limit.
+     * @param after       The key of the last group of the previous page, null to get the first page.
+     * @return List of BookGroup.
+     */
+    private List<BookGroup> queryBookGroupPage(String table, String idColumn, String nameColumn, String countColumn, int limit, PageKey after) {
+        String sql = "SELECT" + "\n" +
+                idColumn + "," + "\n" +
+                nameColumn + "," + "\n" +
+                countColumn + "\n" +
+                "FROM" + "\n" +
+                table + "\n" +
+                "WHERE " + countColumn + " > 0" + "\n";
+
+        List<String> selectionArgList = new ArrayList<>();
+        if (after != null) {
+            sql += "AND " + buildPageCondition(nameColumn, idColumn) + "\n";
+            selectionArgList.addAll(Arrays.asList(getPageSelectionArgs(after)));
+        }
+        sql += "ORDER BY" + "\n" +
+                nameColumn + " COLLATE NOCASE," + "\n" +
+                idColumn + "\n" +
+                "LIMIT ?" + ";";
+        selectionArgList.add(String.valueOf(limit));
+
+        return queryBookGroupList(sql, selectionArgList.toArray(new String[selectionArgList.size()]), table);
+    }
+
+    /**
+     * Executes a query and returns a list of BookGroup. The result is kept in
+     * the query cache until the table is written.
      *
      * @param sql           SQL query.
      * @param selectionArgs Selection arguments.
+     * @param table         The table read by the query.
      * @return List of BookGroup.
      */
-    private List<BookGroup> queryBookGroupList(String sql, String[] selectionArgs) {
-        Cursor cursor = getReadableDatabase().rawQuery(sql, selectionArgs);
-        List<BookGroup> bookGroupList = new ArrayList<>();
-        Integer idType = null;
-        while (cursor.moveToNext()) {
-            if (idType == null) {
-                idType = cursor.getType(0);
-            }
-            Serializable id;
-            if (idType == Cursor.FIELD_TYPE_INTEGER) {
-                id = cursor.getLong(0);
-            } else {
-                id = cursor.getString(0);
-            }
-            String name = cursor.getString(1);
-            Long count = cursor.getLong(2);
+    private List<BookGroup> queryBookGroupList(String sql, String[] selectionArgs, String table) {
+        List<BookGroup> cachedList = queryCached(sql, selectionArgs, new String[]{table}, BOOK_GROUP_LIST_READER);
 
+        // The cached groups are copied, the callers may modify them.
+        List<BookGroup> bookGroupList = new ArrayList<>(cachedList.size());
+        for (BookGroup cachedBookGroup : cachedList) {
             BookGroup bookGroup = new BookGroup();
-            bookGroup.id = id;
-            bookGroup.name = name;
-            bookGroup.count = count.intValue();
-
+            bookGroup.id = cachedBookGroup.id;
+            bookGroup.name = cachedBookGroup.name;
+            bookGroup.count = cachedBookGroup.count;
             bookGroupList.add(bookGroup);
         }
-        cursor.close();
         return bookGroupList;
     }
 }
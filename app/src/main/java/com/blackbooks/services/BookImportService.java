@@ -0,0 +1,34 @@
+package com.blackbooks.services;
+
+import com.blackbooks.model.nonpersistent.CsvColumn;
+
+import java.io.File;
+import java.util.List;
+
+public interface BookImportService {
+
+    int importCsvFile(File file, char columnSeparator, char textQualifier, boolean firstRowContainsHeader,
+                      List<CsvColumn> csvColumns, ImportListener listener) throws InterruptedException;
+
+    /**
+     * Follows an import and tells whether it has to stop.
+     */
+    interface ImportListener {
+
+        /**
+         * Called after each batch of books has been committed.
+         *
+         * @param bookCount      The number of books saved so far.
+         * @param booksPerSecond The number of books saved per second so far.
+         */
+        void onProgress(int bookCount, int booksPerSecond);
+
+        /**
+         * Indicates whether the import has to stop. It is checked between
+         * two batches: the batches already committed are kept.
+         *
+         * @return True to stop the import.
+         */
+        boolean isCancelled();
+    }
+}
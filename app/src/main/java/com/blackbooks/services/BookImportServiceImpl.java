@@ -0,0 +1,185 @@
+package com.blackbooks.services;
+
+import android.util.Log;
+
+import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.nonpersistent.CsvColumn;
+import com.blackbooks.model.persistent.Book;
+import com.blackbooks.utils.CsvUtils;
+import com.blackbooks.utils.LogUtils;
+import com.blackbooks.utils.collections.LongArrayList;
+import com.blackbooks.utils.collections.LongHashSet;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Imports the books of a CSV file in three stages. The file is parsed on a
+ * separate thread into a bounded queue. The books are taken from the queue
+ * and committed by batches of {@link #BATCH_SIZE}. The full-text index is
+ * rebuilt and the rows left without books are deleted once at the end. The
+ * memory taken does not depend on the size of the file.
+ */
+public final class BookImportServiceImpl implements BookImportService {
+
+    /**
+     * The number of books committed in each transaction.
+     */
+    static final int BATCH_SIZE = 500;
+
+    private static final int QUEUE_CAPACITY = 2 * BATCH_SIZE;
+
+    /**
+     * Put in the queue once the whole file has been parsed.
+     */
+    private static final BookInfo END_OF_FILE = new BookInfo();
+
+    private final BookService bookService;
+    private final FullTextSearchService fullTextSearchService;
+
+    public BookImportServiceImpl(BookService bookService, FullTextSearchService fullTextSearchService) {
+        this.bookService = bookService;
+        this.fullTextSearchService = fullTextSearchService;
+    }
+
+    /**
+     * Import the books of a CSV file. The batches committed before the import
+     * is cancelled, interrupted or fails are kept, and are indexed before this
+     * method returns. The books are not indexed as they are saved: the index
+     * is rebuilt in a single pass at the end.
+     *
+     * @param file                   The CSV file.
+     * @param columnSeparator        The column separator.
+     * @param textQualifier          The text qualifier.
+     * @param firstRowContainsHeader A boolean indicating whether the first row of the file contains a header or not.
+     * @param csvColumns             The CSV column mapping settings.
+     * @param listener               Follows the import.
+     * @return The number of books saved.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    @Override
+    public int importCsvFile(final File file, final char columnSeparator, final char textQualifier,
+                             final boolean firstRowContainsHeader, final List<CsvColumn> csvColumns,
+                             ImportListener listener) throws InterruptedException {
+        final BlockingQueue<BookInfo> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        final AtomicReference<RuntimeException> parsingError = new AtomicReference<>();
+
+        Thread parsingThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    try {
+                        CsvUtils.parseCsvFile(file, columnSeparator, textQualifier, firstRowContainsHeader, csvColumns,
+                                new CsvUtils.BookInfoHandler() {
+                                    @Override
+                                    public void onBookInfo(BookInfo bookInfo) throws InterruptedException {
+                                        queue.put(bookInfo);
+                                    }
+                                });
+                    } catch (RuntimeException e) {
+                        parsingError.set(e);
+                    }
+                    queue.put(END_OF_FILE);
+                } catch (InterruptedException e) {
+                    // The import has stopped, the queue is not read any more.
+                }
+            }
+        }, "BookImportParser");
+        parsingThread.start();
+
+        fullTextSearchService.suspendIndex();
+        DeferredBookMaintenance maintenance = new DeferredBookMaintenance();
+        List<BookInfo> batch = new ArrayList<>(BATCH_SIZE);
+        long startTime = System.nanoTime();
+        int bookCount = 0;
+        try {
+            boolean isEndOfFile = false;
+            while (!isEndOfFile) {
+                BookInfo bookInfo = queue.take();
+                isEndOfFile = bookInfo == END_OF_FILE;
+                if (!isEndOfFile) {
+                    batch.add(bookInfo);
+                }
+
+                if (batch.size() >= BATCH_SIZE || (isEndOfFile && !batch.isEmpty())) {
+                    bookCount += saveBatch(batch, maintenance);
+                    batch.clear();
+                    listener.onProgress(bookCount, getBooksPerSecond(bookCount, startTime));
+
+                    if (!isEndOfFile && listener.isCancelled()) {
+                        Log.i(LogUtils.TAG, String.format("Book import cancelled, %d books saved.", bookCount));
+                        return bookCount;
+                    }
+                }
+            }
+        } finally {
+            parsingThread.interrupt();
+            try {
+                bookService.runDeferredMaintenance(maintenance);
+            } finally {
+                fullTextSearchService.rebuildIndex();
+            }
+        }
+
+        RuntimeException error = parsingError.get();
+        if (error != null) {
+            throw error;
+        }
+        Log.i(LogUtils.TAG, String.format("Book import finished, %d books saved (%d books per second).",
+                bookCount, getBooksPerSecond(bookCount, startTime)));
+        return bookCount;
+    }
+
+    /**
+     * Save a batch of books, leaving out the books to update that do not
+     * exist any more.
+     *
+     * @param batch       The books.
+     * @param maintenance The maintenance of the batches saved so far.
+     * @return The number of books saved.
+     */
+    private int saveBatch(List<BookInfo> batch, DeferredBookMaintenance maintenance) {
+        LongArrayList bookIdList = new LongArrayList();
+        for (BookInfo bookInfo : batch) {
+            if (bookInfo.id != null) {
+                bookIdList.add(bookInfo.id);
+            }
+        }
+        if (!bookIdList.isEmpty()) {
+            LongHashSet existingBookIds = new LongHashSet();
+            for (Book book : bookService.getBooksByIds(bookIdList)) {
+                existingBookIds.add(book.id);
+            }
+            Iterator<BookInfo> iterator = batch.iterator();
+            while (iterator.hasNext()) {
+                BookInfo bookInfo = iterator.next();
+                if (bookInfo.id != null && !existingBookIds.contains(bookInfo.id)) {
+                    String msg = String.format(
+                            "Book %s cannot be updated because there is no row in table %s with the id %d.",
+                            bookInfo.title, Book.NAME, bookInfo.id);
+                    Log.w(LogUtils.TAG, msg);
+                    iterator.remove();
+                }
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            bookService.saveBookInfoBatch(batch, maintenance);
+        }
+        return batch.size();
+    }
+
+    private static int getBooksPerSecond(int bookCount, long startTime) {
+        long elapsedTime = System.nanoTime() - startTime;
+        if (elapsedTime <= 0) {
+            return 0;
+        }
+        return (int) (bookCount * TimeUnit.SECONDS.toNanos(1) / elapsedTime);
+    }
+}
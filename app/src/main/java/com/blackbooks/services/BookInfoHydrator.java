@@ -0,0 +1,189 @@
+package com.blackbooks.services;
+
+import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.persistent.Author;
+import com.blackbooks.model.persistent.Book;
+import com.blackbooks.model.persistent.BookAuthor;
+import com.blackbooks.model.persistent.BookCategory;
+import com.blackbooks.model.persistent.BookLocation;
+import com.blackbooks.model.persistent.Category;
+import com.blackbooks.model.persistent.Publisher;
+import com.blackbooks.model.persistent.Series;
+import com.blackbooks.repositories.AuthorRepository;
+import com.blackbooks.repositories.BookAuthorRepository;
+import com.blackbooks.repositories.BookCategoryRepository;
+import com.blackbooks.repositories.BookLocationRepository;
+import com.blackbooks.repositories.CategoryRepository;
+import com.blackbooks.repositories.PublisherRepository;
+import com.blackbooks.repositories.SeriesRepository;
+import com.blackbooks.utils.collections.LongArrayList;
+import com.blackbooks.utils.collections.LongHashSet;
+import com.blackbooks.utils.collections.LongObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the {@link BookInfo} of a list of books with all their related rows.
+ * Each kind of related row is loaded for all the books at once, in a single
+ * query whatever the number of ids (see Broker.getAllWhereIn), so that a list
+ * of books costs at most {@link #MAX_QUERY_COUNT} queries whatever its size.
+ */
+final class BookInfoHydrator {
+
+    /**
+     * The maximum number of queries run by {@link #hydrate(List)}.
+     */
+    static final int MAX_QUERY_COUNT = 7;
+
+    private final AuthorRepository authorRepository;
+    private final BookAuthorRepository bookAuthorRepository;
+    private final BookCategoryRepository bookCategoryRepository;
+    private final BookLocationRepository bookLocationRepository;
+    private final CategoryRepository categoryRepository;
+    private final PublisherRepository publisherRepository;
+    private final SeriesRepository seriesRepository;
+
+    BookInfoHydrator(AuthorRepository authorRepository,
+                     BookAuthorRepository bookAuthorRepository,
+                     BookCategoryRepository bookCategoryRepository,
+                     BookLocationRepository bookLocationRepository,
+                     CategoryRepository categoryRepository,
+                     PublisherRepository publisherRepository,
+                     SeriesRepository seriesRepository) {
+        this.authorRepository = authorRepository;
+        this.bookAuthorRepository = bookAuthorRepository;
+        this.bookCategoryRepository = bookCategoryRepository;
+        this.bookLocationRepository = bookLocationRepository;
+        this.categoryRepository = categoryRepository;
+        this.publisherRepository = publisherRepository;
+        this.seriesRepository = seriesRepository;
+    }
+
+    /**
+     * Build the BookInfo of a list of books.
+     *
+     * @param bookList List of books.
+     * @return List of BookInfo, in the order of the books.
+     */
+    List<BookInfo> hydrate(List<Book> bookList) {
+        List<BookInfo> bookInfoList = new ArrayList<>();
+        if (bookList.isEmpty()) {
+            return bookInfoList;
+        }
+
+        // The ids are kept in the order they are met, so that the same page always runs the same queries.
+        LongArrayList bookIdList = new LongArrayList(bookList.size());
+        IdList publisherIds = new IdList();
+        IdList bookLocationIds = new IdList();
+        IdList seriesIds = new IdList();
+        for (Book book : bookList) {
+            bookIdList.add(book.id);
+            publisherIds.add(book.publisherId);
+            bookLocationIds.add(book.bookLocationId);
+            seriesIds.add(book.seriesId);
+        }
+
+        List<BookAuthor> bookAuthorList = bookAuthorRepository.getBookAuthorListByBooks(bookIdList);
+        IdList authorIds = new IdList();
+        for (BookAuthor bookAuthor : bookAuthorList) {
+            authorIds.add(bookAuthor.authorId);
+        }
+        LongObjectHashMap<Author> authorMap = new LongObjectHashMap<>(authorIds.size());
+        if (!authorIds.isEmpty()) {
+            for (Author author : authorRepository.getAuthorsByIds(authorIds.list)) {
+                authorMap.put(author.id, author);
+            }
+        }
+
+        List<BookCategory> bookCategoryList = bookCategoryRepository.getBookCategoryListByBooks(bookIdList);
+        IdList categoryIds = new IdList();
+        for (BookCategory bookCategory : bookCategoryList) {
+            categoryIds.add(bookCategory.categoryId);
+        }
+        LongObjectHashMap<Category> categoryMap = new LongObjectHashMap<>(categoryIds.size());
+        if (!categoryIds.isEmpty()) {
+            for (Category category : categoryRepository.getCategoriesByIds(categoryIds.list)) {
+                categoryMap.put(category.id, category);
+            }
+        }
+
+        LongObjectHashMap<Publisher> publisherMap = new LongObjectHashMap<>(publisherIds.size());
+        if (!publisherIds.isEmpty()) {
+            for (Publisher publisher : publisherRepository.getPublishersByIds(publisherIds.list)) {
+                publisherMap.put(publisher.id, publisher);
+            }
+        }
+        LongObjectHashMap<BookLocation> bookLocationMap = new LongObjectHashMap<>(bookLocationIds.size());
+        if (!bookLocationIds.isEmpty()) {
+            for (BookLocation bookLocation : bookLocationRepository.getBookLocationsByIds(bookLocationIds.list)) {
+                bookLocationMap.put(bookLocation.id, bookLocation);
+            }
+        }
+        LongObjectHashMap<Series> seriesMap = new LongObjectHashMap<>(seriesIds.size());
+        if (!seriesIds.isEmpty()) {
+            for (Series series : seriesRepository.getSeriesByIds(seriesIds.list)) {
+                seriesMap.put(series.id, series);
+            }
+        }
+
+        LongObjectHashMap<BookInfo> bookInfoMap = new LongObjectHashMap<>(bookList.size());
+        for (Book book : bookList) {
+            BookInfo bookInfo = new BookInfo(book);
+            if (book.publisherId != null && publisherMap.containsKey(book.publisherId)) {
+                bookInfo.publisher = publisherMap.get(book.publisherId);
+            }
+            if (book.bookLocationId != null && bookLocationMap.containsKey(book.bookLocationId)) {
+                bookInfo.bookLocation = bookLocationMap.get(book.bookLocationId);
+            }
+            if (book.seriesId != null && seriesMap.containsKey(book.seriesId)) {
+                bookInfo.series = seriesMap.get(book.seriesId);
+            }
+            bookInfoList.add(bookInfo);
+            bookInfoMap.put(book.id, bookInfo);
+        }
+
+        // The links are read in the order they were saved, which is the order of the authors and categories.
+        for (BookAuthor bookAuthor : bookAuthorList) {
+            Author author = authorMap.get(bookAuthor.authorId);
+            if (author != null) {
+                bookInfoMap.get(bookAuthor.bookId).authors.add(author);
+            }
+        }
+        for (BookCategory bookCategory : bookCategoryList) {
+            Category category = categoryMap.get(bookCategory.categoryId);
+            if (category != null) {
+                bookInfoMap.get(bookCategory.bookId).categories.add(category);
+            }
+        }
+        return bookInfoList;
+    }
+
+    /**
+     * The distinct ids of the rows referenced by a list of books.
+     */
+    private static final class IdList {
+
+        private final LongHashSet set = new LongHashSet();
+        private final LongArrayList list = new LongArrayList();
+
+        /**
+         * Add an id if it has not been added yet.
+         *
+         * @param id The id, can be null.
+         */
+        void add(Long id) {
+            if (id != null && set.add(id)) {
+                list.add(id);
+            }
+        }
+
+        int size() {
+            return list.size();
+        }
+
+        boolean isEmpty() {
+            return list.isEmpty();
+        }
+    }
+}
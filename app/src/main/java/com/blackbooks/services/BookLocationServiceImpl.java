@@ -1,5 +1,7 @@
 package com.blackbooks.services;
 
+import com.blackbooks.changes.Change;
+import com.blackbooks.changes.ChangeBus;
 import com.blackbooks.model.persistent.BookLocation;
 import com.blackbooks.repositories.BookLocationRepository;
 
@@ -11,9 +13,11 @@ import java.util.List;
 public final class BookLocationServiceImpl implements BookLocationService {
 
     private final BookLocationRepository bookLocationRepository;
+    private final ChangeBus changeBus;
 
-    public BookLocationServiceImpl(BookLocationRepository bookLocationRepository) {
+    public BookLocationServiceImpl(BookLocationRepository bookLocationRepository, ChangeBus changeBus) {
         this.bookLocationRepository = bookLocationRepository;
+        this.changeBus = changeBus;
     }
 
     /**
@@ -23,6 +27,7 @@ public final class BookLocationServiceImpl implements BookLocationService {
      */
     public void deleteBookLocation(long bookLocationId) {
         bookLocationRepository.deleteBookLocation(bookLocationId);
+        changeBus.post(Change.deleted(BookLocation.NAME, bookLocationId));
     }
 
     /**
@@ -64,5 +69,6 @@ public final class BookLocationServiceImpl implements BookLocationService {
      */
     public void updateBookLocation(long bookLocationId, String newName) {
         bookLocationRepository.updateBookLocation(bookLocationId, newName);
+        changeBus.post(Change.updated(BookLocation.NAME, bookLocationId));
     }
 }
@@ -1,17 +1,29 @@
 package com.blackbooks.services;
 
 import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.nonpersistent.PageKey;
 import com.blackbooks.model.persistent.Book;
+import com.blackbooks.utils.collections.LongArrayList;
 
 import java.util.List;
 
 public interface BookService {
     Book getBook(long bookId);
 
+    List<Book> getBooksByIds(LongArrayList bookIdList);
+
     BookInfo getBookInfo(long bookId);
 
+    void loadBookThumbnails(Book book);
+
     void saveBookInfo(BookInfo bookInfo);
 
+    void saveBookInfoBatch(List<BookInfo> bookInfoList);
+
+    void saveBookInfoBatch(List<BookInfo> bookInfoList, DeferredBookMaintenance maintenance);
+
+    void runDeferredMaintenance(DeferredBookMaintenance maintenance);
+
     void deleteBook(long id);
 
     void returnBook(long id);
@@ -28,33 +40,51 @@ public interface BookService {
 
     List<BookInfo> getBookInfoListByAuthor(long authorId, int limit, int offset);
 
+    List<BookInfo> getBookInfoListByAuthor(long authorId, int limit, PageKey after);
+
     int getBookCountByBookLocation(Long bookLocationId);
 
     List<BookInfo> getBookInfoListByBookLocation(long bookLocationId, int limit, int offset);
 
+    List<BookInfo> getBookInfoListByBookLocation(long bookLocationId, int limit, PageKey after);
+
     int getBookCountByCategory(Long categoryId);
 
     List<BookInfo> getBookInfoListByCategory(long categoryId, int limit, int offset);
 
+    List<BookInfo> getBookInfoListByCategory(long categoryId, int limit, PageKey after);
+
     int getBookCountByFirstLetter(String firstLetter);
 
     List<BookInfo> getBookInfoListByFirstLetter(String firstLetter, int limit, int offset);
 
+    List<BookInfo> getBookInfoListByFirstLetter(String firstLetter, int limit, PageKey after);
+
     int getBookCountByLanguage(String languageCode);
 
     List<BookInfo> getBookInfoListByLanguage(String languageCode, int limit, int offset);
 
+    List<BookInfo> getBookInfoListByLanguage(String languageCode, int limit, PageKey after);
+
     int getBookCountByLoanedTo(String loanedTo);
 
     List<BookInfo> getBookInfoListByLoanedTo(String loanedTo, int limit, int offset);
 
+    List<BookInfo> getBookInfoListByLoanedTo(String loanedTo, int limit, PageKey after);
+
     int getBookCountBySeries(Long seriesId);
 
     List<BookInfo> getBookInfoListBySeries(long seriesId, int limit, int offset);
 
+    List<BookInfo> getBookInfoListBySeries(long seriesId, int limit, PageKey after);
+
     List<BookInfo> getBookInfoListFavourite(int limit, int offset);
 
+    List<BookInfo> getBookInfoListFavourite(int limit, PageKey after);
+
     List<BookInfo> getBookInfoListToRead(int limit, int offset);
 
+    List<BookInfo> getBookInfoListToRead(int limit, PageKey after);
+
     List<BookInfo> getBookInfoListFromBookList(List<Book> bookList);
 }
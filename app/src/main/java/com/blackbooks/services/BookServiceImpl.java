@@ -1,10 +1,11 @@
 package com.blackbooks.services;
 
-import android.support.v4.util.LongSparseArray;
-
 import com.blackbooks.cache.ThumbnailManager;
+import com.blackbooks.changes.Change;
+import com.blackbooks.changes.ChangeBus;
 import com.blackbooks.database.TransactionManager;
 import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.nonpersistent.PageKey;
 import com.blackbooks.model.persistent.Author;
 import com.blackbooks.model.persistent.Book;
 import com.blackbooks.model.persistent.BookAuthor;
@@ -13,21 +14,25 @@ import com.blackbooks.model.persistent.BookLocation;
 import com.blackbooks.model.persistent.Category;
 import com.blackbooks.model.persistent.Publisher;
 import com.blackbooks.model.persistent.Series;
-import com.blackbooks.model.persistent.fts.BookFTS;
 import com.blackbooks.repositories.AuthorRepository;
 import com.blackbooks.repositories.BookAuthorRepository;
 import com.blackbooks.repositories.BookCategoryRepository;
-import com.blackbooks.repositories.BookFTSRepository;
 import com.blackbooks.repositories.BookLocationRepository;
 import com.blackbooks.repositories.BookRepository;
 import com.blackbooks.repositories.CategoryRepository;
 import com.blackbooks.repositories.PublisherRepository;
 import com.blackbooks.repositories.SeriesRepository;
 import com.blackbooks.utils.IsbnUtils;
+import com.blackbooks.utils.collections.LongArrayList;
+import com.blackbooks.utils.collections.LongHashSet;
 
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Book services.
@@ -37,7 +42,6 @@ public final class BookServiceImpl implements BookService {
     private final AuthorRepository authorRepository;
     private final BookAuthorRepository bookAuthorRepository;
     private final BookCategoryRepository bookCategoryRepository;
-    private final BookFTSRepository bookFTSRepository;
     private final BookLocationRepository bookLocationRepository;
     private final BookRepository bookRepository;
     private final CategoryRepository categoryRepository;
@@ -45,22 +49,24 @@ public final class BookServiceImpl implements BookService {
     private final SeriesRepository seriesRepository;
     private final ThumbnailManager thumbnailManager;
     private final TransactionManager transactionManager;
+    private final ChangeBus changeBus;
+    private final BookInfoHydrator bookInfoHydrator;
 
     public BookServiceImpl(
             AuthorRepository authorRepository,
             BookAuthorRepository bookAuthorRepository,
             BookCategoryRepository bookCategoryRepository,
-            BookFTSRepository bookFTSRepository,
             BookLocationRepository bookLocationRepository,
             BookRepository bookRepository,
             CategoryRepository categoryRepository,
             PublisherRepository publisherRepository,
             SeriesRepository seriesRepository,
-            ThumbnailManager thumbnailManager, TransactionManager transactionManager) {
+            ThumbnailManager thumbnailManager,
+            TransactionManager transactionManager,
+            ChangeBus changeBus) {
         this.authorRepository = authorRepository;
         this.bookAuthorRepository = bookAuthorRepository;
         this.bookCategoryRepository = bookCategoryRepository;
-        this.bookFTSRepository = bookFTSRepository;
         this.bookLocationRepository = bookLocationRepository;
         this.bookRepository = bookRepository;
         this.categoryRepository = categoryRepository;
@@ -68,78 +74,51 @@ public final class BookServiceImpl implements BookService {
         this.seriesRepository = seriesRepository;
         this.thumbnailManager = thumbnailManager;
         this.transactionManager = transactionManager;
+        this.changeBus = changeBus;
+        this.bookInfoHydrator = new BookInfoHydrator(authorRepository, bookAuthorRepository, bookCategoryRepository,
+                bookLocationRepository, categoryRepository, publisherRepository, seriesRepository);
     }
 
     public void deleteBook(long bookId) {
         transactionManager.beginTransaction();
         try {
+            Book book = bookRepository.getBook(bookId);
             List<BookAuthor> bookAuthorsByBook = bookAuthorRepository.getBookAuthorListByBook(bookId);
             List<BookCategory> bookCategoriesByBook = bookCategoryRepository.getBookCategoryListByBook(bookId);
             bookRepository.deleteBook(bookId);
 
-            for (BookAuthor bookAuthor : bookAuthorsByBook) {
-                List<BookAuthor> baListByAuthor = bookAuthorRepository.getBookAuthorListByAuthor(bookAuthor.authorId);
-
-                if (baListByAuthor.isEmpty()) {
-                    authorRepository.deleteAuthor(bookAuthor.authorId);
-                }
-            }
-
-            for (BookCategory bookCategory : bookCategoriesByBook) {
-                List<BookCategory> bcListByCategory = bookCategoryRepository.getBookCategoryListByCategory(bookCategory.categoryId);
+            authorRepository.deleteAuthorsWithoutBooks(getAuthorIdList(bookAuthorsByBook));
+            categoryRepository.deleteCategoriesWithoutBooks(getCategoryIdList(bookCategoriesByBook));
 
-                if (bcListByCategory.isEmpty()) {
-                    categoryRepository.deleteCategory(bookCategory.categoryId);
-                }
+            if (book != null) {
+                deleteReferencesWithoutBooks(Collections.singletonList(book));
+                bookRepository.deleteCoversWithoutBooks(getCoverIdList(book.smallThumbnailCoverId, book.thumbnailCoverId));
             }
 
-            bookFTSRepository.deleteBook(bookId);
-
-            publisherRepository.deletePublishersWithoutBooks();
-            seriesRepository.deleteSeriesWithoutBooks();
-            bookLocationRepository.deleteBookLocationsWithoutBooks();
-
             thumbnailManager.removeThumbnails(bookId);
 
             transactionManager.setTransactionSuccessful();
         } finally {
             transactionManager.endTransaction();
         }
+        changeBus.post(Change.deleted(Book.NAME, bookId));
     }
 
     public Book getBook(long bookId) {
         return bookRepository.getBook(bookId);
     }
 
+    public List<Book> getBooksByIds(LongArrayList bookIdList) {
+        return bookRepository.getBooksByIds(bookIdList);
+    }
+
     public BookInfo getBookInfo(long bookId) {
         Book book = bookRepository.getBook(bookId);
-        BookInfo bookInfo = new BookInfo(book);
-
-        List<BookAuthor> bookAuthorList = bookAuthorRepository.getBookAuthorListByBook(book.id);
-        for (BookAuthor bookAuthor : bookAuthorList) {
-            Author author = authorRepository.getAuthor(bookAuthor.authorId);
-            bookInfo.authors.add(author);
-        }
-
-        if (book.publisherId != null) {
-            bookInfo.publisher = publisherRepository.getPublisher(book.publisherId);
-        }
-
-        if (book.bookLocationId != null) {
-            bookInfo.bookLocation = bookLocationRepository.getBookLocation(book.bookLocationId);
-        }
-
-        if (book.seriesId != null) {
-            bookInfo.series = seriesRepository.getSeries(book.seriesId);
-        }
-
-        List<BookCategory> bookCategoryList = bookCategoryRepository.getBookCategoryListByBook(book.id);
-        for (BookCategory bookCategory : bookCategoryList) {
-            Category category = categoryRepository.getCategory(bookCategory.categoryId);
-            bookInfo.categories.add(category);
-        }
+        return bookInfoHydrator.hydrate(Collections.singletonList(book)).get(0);
+    }
 
-        return bookInfo;
+    public void loadBookThumbnails(Book book) {
+        bookRepository.loadThumbnails(book);
     }
 
     public int getBookCountByAuthor(long authorId) {
@@ -185,94 +164,93 @@ public final class BookServiceImpl implements BookService {
         return getBookInfoListFromBookList(bookList);
     }
 
+    public List<BookInfo> getBookInfoListByAuthor(long authorId, int limit, PageKey after) {
+        List<Book> bookList = bookRepository.getBooksByAuthor(authorId, limit, after);
+        return getBookInfoListFromBookList(bookList);
+    }
+
     public List<BookInfo> getBookInfoListByBookLocation(long bookLocationId, int limit, int offset) {
         List<Book> bookList = bookRepository.getBooksByBookLocation(bookLocationId, limit, offset);
         return getBookInfoListFromBookList(bookList);
     }
 
+    public List<BookInfo> getBookInfoListByBookLocation(long bookLocationId, int limit, PageKey after) {
+        List<Book> bookList = bookRepository.getBooksByBookLocation(bookLocationId, limit, after);
+        return getBookInfoListFromBookList(bookList);
+    }
+
     public List<BookInfo> getBookInfoListByCategory(long categoryId, int limit, int offset) {
         List<Book> bookList = bookRepository.getBooksByCategory(categoryId, limit, offset);
         return getBookInfoListFromBookList(bookList);
     }
 
+    public List<BookInfo> getBookInfoListByCategory(long categoryId, int limit, PageKey after) {
+        List<Book> bookList = bookRepository.getBooksByCategory(categoryId, limit, after);
+        return getBookInfoListFromBookList(bookList);
+    }
+
     public List<BookInfo> getBookInfoListByFirstLetter(String firstLetter, int limit, int offset) {
         List<Book> bookList = bookRepository.getBooksByFirstLetter(firstLetter, limit, offset);
         return getBookInfoListFromBookList(bookList);
     }
 
+    public List<BookInfo> getBookInfoListByFirstLetter(String firstLetter, int limit, PageKey after) {
+        List<Book> bookList = bookRepository.getBooksByFirstLetter(firstLetter, limit, after);
+        return getBookInfoListFromBookList(bookList);
+    }
+
     public List<BookInfo> getBookInfoListByLanguage(String languageCode, int limit, int offset) {
         List<Book> bookList = bookRepository.getBooksByLanguage(languageCode, limit, offset);
         return getBookInfoListFromBookList(bookList);
     }
 
+    public List<BookInfo> getBookInfoListByLanguage(String languageCode, int limit, PageKey after) {
+        List<Book> bookList = bookRepository.getBooksByLanguage(languageCode, limit, after);
+        return getBookInfoListFromBookList(bookList);
+    }
+
     public List<BookInfo> getBookInfoListByLoanedTo(String loanedTo, int limit, int offset) {
         List<Book> bookList = bookRepository.getBooksByLoanedTo(loanedTo, limit, offset);
         return getBookInfoListFromBookList(bookList);
     }
 
+    public List<BookInfo> getBookInfoListByLoanedTo(String loanedTo, int limit, PageKey after) {
+        List<Book> bookList = bookRepository.getBooksByLoanedTo(loanedTo, limit, after);
+        return getBookInfoListFromBookList(bookList);
+    }
+
     public List<BookInfo> getBookInfoListBySeries(long seriesId, int limit, int offset) {
         List<Book> bookList = bookRepository.getBooksBySeries(seriesId, limit, offset);
         return getBookInfoListFromBookList(bookList);
     }
 
+    public List<BookInfo> getBookInfoListBySeries(long seriesId, int limit, PageKey after) {
+        List<Book> bookList = bookRepository.getBooksBySeries(seriesId, limit, after);
+        return getBookInfoListFromBookList(bookList);
+    }
+
     public List<BookInfo> getBookInfoListFavourite(int limit, int offset) {
         List<Book> bookList = bookRepository.getFavouriteBooks(limit, offset);
         return getBookInfoListFromBookList(bookList);
     }
 
+    public List<BookInfo> getBookInfoListFavourite(int limit, PageKey after) {
+        List<Book> bookList = bookRepository.getFavouriteBooks(limit, after);
+        return getBookInfoListFromBookList(bookList);
+    }
+
     public List<BookInfo> getBookInfoListToRead(int limit, int offset) {
         List<Book> bookList = bookRepository.getBookInfoListToRead(limit, offset);
         return getBookInfoListFromBookList(bookList);
     }
 
-    public List<BookInfo> getBookInfoListFromBookList(List<Book> bookList) {
-        List<BookInfo> bookInfoList = new ArrayList<>();
-
-        if (!bookList.isEmpty()) {
-            List<Long> bookIdList = new ArrayList<>();
-            for (Book book : bookList) {
-                bookIdList.add(book.id);
-            }
-
-            List<BookAuthor> bookAuthorList = bookAuthorRepository.getBookAuthorListByBooks(bookIdList);
-
-            List<Long> authorIdList = new ArrayList<>();
-            for (BookAuthor bookAuthor : bookAuthorList) {
-                if (!authorIdList.contains(bookAuthor.authorId)) {
-                    authorIdList.add(bookAuthor.authorId);
-                }
-            }
-
-            List<Author> authorList = authorRepository.getAuthorsByIds(authorIdList);
-
-            LongSparseArray<List<BookAuthor>> bookAuthorMap = new LongSparseArray<>();
-            LongSparseArray<Author> authorMap = new LongSparseArray<>();
-            for (BookAuthor bookAuthor : bookAuthorList) {
-                if (bookAuthorMap.get(bookAuthor.bookId) == null) {
-                    bookAuthorMap.put(bookAuthor.bookId, new ArrayList<BookAuthor>());
-                }
-                List<BookAuthor> baList = bookAuthorMap.get(bookAuthor.bookId);
-                baList.add(bookAuthor);
-            }
-            for (Author author : authorList) {
-                authorMap.put(author.id, author);
-            }
-
-            for (Book book : bookList) {
-                BookInfo bookInfo = new BookInfo(book);
-
-                List<BookAuthor> baList = bookAuthorMap.get(book.id);
-                if (baList != null) {
-                    for (BookAuthor bookAuthor : baList) {
-                        Author author = authorMap.get(bookAuthor.authorId);
-                        bookInfo.authors.add(author);
-                    }
-                }
+    public List<BookInfo> getBookInfoListToRead(int limit, PageKey after) {
+        List<Book> bookList = bookRepository.getBookInfoListToRead(limit, after);
+        return getBookInfoListFromBookList(bookList);
+    }
 
-                bookInfoList.add(bookInfo);
-            }
-        }
-        return bookInfoList;
+    public List<BookInfo> getBookInfoListFromBookList(List<Book> bookList) {
+        return bookInfoHydrator.hydrate(bookList);
     }
 
     public byte[] getBookSmallThumbnail(long bookId) {
@@ -281,21 +259,23 @@ public final class BookServiceImpl implements BookService {
 
     public void markBookAsFavourite(long bookId) {
         bookRepository.markBookAsFavourite(bookId);
+        changeBus.post(Change.updated(Book.NAME, bookId));
     }
 
     public void markBookAsRead(long bookId) {
         bookRepository.markBookAsRead(bookId);
+        changeBus.post(Change.updated(Book.NAME, bookId));
     }
 
     public void returnBook(long bookId) {
         bookRepository.returnBook(bookId);
+        changeBus.post(Change.updated(Book.NAME, bookId));
     }
 
     public void saveBookInfo(BookInfo bookInfo) {
+        boolean isCreation = bookInfo.id == null;
         transactionManager.beginTransaction();
         try {
-            boolean isCreation = bookInfo.id == null;
-
             Publisher publisher = bookInfo.publisher;
             if (publisher.name != null) {
                 bookInfo.publisherId = savePublisherIfNotExists(publisher);
@@ -325,81 +305,444 @@ public final class BookServiceImpl implements BookService {
                 throw new InvalidParameterException("Invalid ISBN-13.");
             }
 
+            boolean isReferenceModified = !isCreation && bookRepository.isModified(bookInfo, Book.Cols.PUB_ID, Book.Cols.SER_ID, Book.Cols.BKL_ID);
+            boolean isAuthorListModified = isCreation || isBookAuthorListModified(bookInfo);
+            boolean isCategoryListModified = isCreation || isBookCategoryListModified(bookInfo);
+
+            // The references to the covers are only known once the thumbnails
+            // have been stored by the repository. The previous ones are the
+            // covers that may have no book left.
+            Long smallThumbnailCoverId = bookInfo.smallThumbnailCoverId;
+            Long thumbnailCoverId = bookInfo.thumbnailCoverId;
+
+            // The previous references are read before the book is saved, to
+            // know which publisher, series and location may have no book left.
+            Book previousBook = isReferenceModified ? bookRepository.getBook(bookInfo.id) : null;
+
             bookInfo.id = bookRepository.save(bookInfo);
 
-            BookFTS bookFts = new BookFTS(bookInfo);
-            if (isCreation) {
-                bookFTSRepository.insert(bookFts);
-            } else {
-                bookFTSRepository.update(bookFts);
+            boolean isThumbnailModified = !isCreation && (!areEqual(smallThumbnailCoverId, bookInfo.smallThumbnailCoverId)
+                    || !areEqual(thumbnailCoverId, bookInfo.thumbnailCoverId));
 
-                publisherRepository.deletePublishersWithoutBooks();
-                seriesRepository.deleteSeriesWithoutBooks();
-                bookLocationRepository.deleteBookLocationsWithoutBooks();
+            if (previousBook != null) {
+                deleteReferencesWithoutBooks(Collections.singletonList(previousBook));
+            }
 
+            if (isThumbnailModified) {
+                bookRepository.deleteCoversWithoutBooks(getCoverIdList(smallThumbnailCoverId, thumbnailCoverId));
                 thumbnailManager.removeThumbnails(bookInfo.id);
             }
 
-            updateBookAuthorList(bookInfo);
-            updateBookCategoryList(bookInfo);
+            if (isAuthorListModified) {
+                updateBookAuthorList(bookInfo);
+            }
+            if (isCategoryListModified) {
+                updateBookCategoryList(bookInfo);
+            }
 
             transactionManager.setTransactionSuccessful();
         } finally {
             transactionManager.endTransaction();
         }
+
+        if (isCreation) {
+            changeBus.post(Change.inserted(Book.NAME, bookInfo.id));
+        } else {
+            changeBus.post(Change.updated(Book.NAME, bookInfo.id));
+        }
     }
 
-    private long saveSeriesIfNotExists(Series series) {
-        Series criteria = new Series();
-        criteria.name = series.name;
+    public void saveBookInfoBatch(List<BookInfo> bookInfoList) {
+        checkIsbns(bookInfoList);
 
-        Series seriesDb = seriesRepository.getSeriesByCriteria(criteria);
+        DeferredBookMaintenance maintenance = new DeferredBookMaintenance();
+        LongArrayList insertedBookIdList = new LongArrayList(bookInfoList.size());
+        LongArrayList updatedBookIdList = new LongArrayList();
+        transactionManager.beginTransaction();
+        try {
+            writeBookInfoBatch(bookInfoList, insertedBookIdList, updatedBookIdList, maintenance);
+            deleteRowsWithoutBooks(maintenance);
 
-        long seriesId;
-        if (seriesDb != null) {
-            seriesId = seriesDb.id;
-        } else {
+            transactionManager.setTransactionSuccessful();
+        } finally {
+            transactionManager.endTransaction();
+        }
+        postBatchChanges(insertedBookIdList, updatedBookIdList);
+    }
+
+    /**
+     * Save a batch of books in its own transaction, without deleting the rows
+     * left without books: this work is recorded in a DeferredBookMaintenance,
+     * to be done once for several batches by
+     * {@link #runDeferredMaintenance(DeferredBookMaintenance)}.
+     *
+     * @param bookInfoList List of BookInfo.
+     * @param maintenance  The maintenance of the batches saved so far.
+     */
+    public void saveBookInfoBatch(List<BookInfo> bookInfoList, DeferredBookMaintenance maintenance) {
+        checkIsbns(bookInfoList);
+
+        LongArrayList insertedBookIdList = new LongArrayList(bookInfoList.size());
+        LongArrayList updatedBookIdList = new LongArrayList();
+        transactionManager.beginTransaction();
+        try {
+            writeBookInfoBatch(bookInfoList, insertedBookIdList, updatedBookIdList, maintenance);
+
+            transactionManager.setTransactionSuccessful();
+        } finally {
+            transactionManager.endTransaction();
+        }
+        postBatchChanges(insertedBookIdList, updatedBookIdList);
+    }
+
+    /**
+     * Delete the rows left without books by the books saved by
+     * {@link #saveBookInfoBatch(List, DeferredBookMaintenance)}, in one
+     * transaction.
+     *
+     * @param maintenance The maintenance of the saved batches.
+     */
+    public void runDeferredMaintenance(DeferredBookMaintenance maintenance) {
+        if (maintenance.isEmpty()) {
+            return;
+        }
+        transactionManager.beginTransaction();
+        try {
+            deleteRowsWithoutBooks(maintenance);
+
+            transactionManager.setTransactionSuccessful();
+        } finally {
+            transactionManager.endTransaction();
+        }
+    }
+
+    /**
+     * Check the ISBNs of a list of books before saving them.
+     *
+     * @param bookInfoList List of BookInfo.
+     */
+    private static void checkIsbns(List<BookInfo> bookInfoList) {
+        for (BookInfo bookInfo : bookInfoList) {
+            if (bookInfo.isbn10 != null && !IsbnUtils.isValidIsbn10(bookInfo.isbn10)) {
+                throw new InvalidParameterException("Invalid ISBN-10.");
+            }
+
+            if (bookInfo.isbn13 != null && !IsbnUtils.isValidIsbn13(bookInfo.isbn13)) {
+                throw new InvalidParameterException("Invalid ISBN-13.");
+            }
+        }
+    }
+
+    /**
+     * Save a list of books with their references and relationships. Must be
+     * called in a transaction.
+     *
+     * @param bookInfoList       List of BookInfo.
+     * @param insertedBookIdList Receives the ids of the inserted books.
+     * @param updatedBookIdList  Receives the ids of the updated books.
+     * @param maintenance        Receives the work left to do.
+     */
+    private void writeBookInfoBatch(List<BookInfo> bookInfoList, LongArrayList insertedBookIdList,
+                                    LongArrayList updatedBookIdList, DeferredBookMaintenance maintenance) {
+        Map<String, Long> publisherIdMap = savePublishersIfNotExist(bookInfoList);
+        Map<String, Long> bookLocationIdMap = saveBookLocationsIfNotExist(bookInfoList);
+        Map<String, Long> seriesIdMap = saveSeriesListIfNotExist(bookInfoList);
+        Map<String, Long> authorIdMap = saveAuthorsIfNotExist(bookInfoList);
+        Map<String, Long> categoryIdMap = saveCategoriesIfNotExist(bookInfoList);
+
+        boolean[] isCreation = new boolean[bookInfoList.size()];
+        for (int i = 0; i < bookInfoList.size(); i++) {
+            BookInfo bookInfo = bookInfoList.get(i);
+            isCreation[i] = bookInfo.id == null;
+            bookInfo.publisherId = bookInfo.publisher.name != null ? publisherIdMap.get(bookInfo.publisher.name) : null;
+            bookInfo.bookLocationId = bookInfo.bookLocation.name != null ? bookLocationIdMap.get(bookInfo.bookLocation.name) : null;
+            bookInfo.seriesId = bookInfo.series.name != null ? seriesIdMap.get(bookInfo.series.name) : null;
+            if (!isCreation[i]) {
+                updatedBookIdList.add(bookInfo.id);
+            }
+        }
+
+        // The previous references and relationships of the updated books are
+        // read before they are overwritten, to know which rows may have no
+        // book left.
+        if (!updatedBookIdList.isEmpty()) {
+            for (Book previousBook : bookRepository.getBooksByIds(updatedBookIdList)) {
+                maintenance.addPreviousReferences(previousBook);
+            }
+            maintenance.addPreviousAuthors(bookAuthorRepository.getBookAuthorListByBooks(updatedBookIdList));
+            maintenance.addPreviousCategories(bookCategoryRepository.getBookCategoryListByBooks(updatedBookIdList));
+        }
+
+        bookRepository.saveAll(bookInfoList);
+
+        List<BookAuthor> bookAuthorList = new ArrayList<>();
+        List<BookCategory> bookCategoryList = new ArrayList<>();
+        for (int i = 0; i < bookInfoList.size(); i++) {
+            BookInfo bookInfo = bookInfoList.get(i);
+            if (isCreation[i]) {
+                insertedBookIdList.add(bookInfo.id);
+            } else {
+                bookAuthorRepository.deleteBookAuthorListByBook(bookInfo.id);
+                bookCategoryRepository.deleteBookCategoryListByBook(bookInfo.id);
+            }
+
+            for (Author author : bookInfo.authors) {
+                author.id = authorIdMap.get(author.name);
+
+                BookAuthor bookAuthor = new BookAuthor();
+                bookAuthor.authorId = author.id;
+                bookAuthor.bookId = bookInfo.id;
+                bookAuthorList.add(bookAuthor);
+            }
+
+            for (Category category : bookInfo.categories) {
+                category.id = categoryIdMap.get(category.name);
+
+                BookCategory bookCategory = new BookCategory();
+                bookCategory.bookId = bookInfo.id;
+                bookCategory.categoryId = category.id;
+                bookCategoryList.add(bookCategory);
+            }
+        }
+
+        bookAuthorRepository.saveBookAuthors(bookAuthorList);
+        bookCategoryRepository.saveBookCategories(bookCategoryList);
+
+        maintenance.insertedBookIdList.addAll(insertedBookIdList);
+        maintenance.updatedBookIdList.addAll(updatedBookIdList);
+    }
+
+    /**
+     * Delete the rows left without books by the updated books, and the
+     * thumbnails of these books. Inserted books cannot leave rows without
+     * books. Must be called in a transaction.
+     *
+     * @param maintenance The maintenance of the saved books.
+     */
+    private void deleteRowsWithoutBooks(DeferredBookMaintenance maintenance) {
+        LongArrayList updatedBookIdList = maintenance.updatedBookIdList;
+        if (updatedBookIdList.isEmpty()) {
+            return;
+        }
+        publisherRepository.deletePublishersWithoutBooks(maintenance.publisherIdList);
+        seriesRepository.deleteSeriesWithoutBooks(maintenance.seriesIdList);
+        bookLocationRepository.deleteBookLocationsWithoutBooks(maintenance.bookLocationIdList);
+        authorRepository.deleteAuthorsWithoutBooks(maintenance.authorIdList);
+        categoryRepository.deleteCategoriesWithoutBooks(maintenance.categoryIdList);
+        bookRepository.deleteCoversWithoutBooks(maintenance.coverIdList);
+
+        for (int i = 0; i < updatedBookIdList.size(); i++) {
+            thumbnailManager.removeThumbnails(updatedBookIdList.get(i));
+        }
+    }
+
+    /**
+     * Post the changes of a saved batch of books.
+     *
+     * @param insertedBookIdList The ids of the inserted books.
+     * @param updatedBookIdList  The ids of the updated books.
+     */
+    private void postBatchChanges(LongArrayList insertedBookIdList, LongArrayList updatedBookIdList) {
+        if (!insertedBookIdList.isEmpty()) {
+            changeBus.post(Change.inserted(Book.NAME, insertedBookIdList.toArray()));
+        }
+        if (!updatedBookIdList.isEmpty()) {
+            changeBus.post(Change.updated(Book.NAME, updatedBookIdList.toArray()));
+        }
+    }
+
+    private long saveSeriesIfNotExists(Series series) {
+        Long seriesId = seriesRepository.getSeriesIdByName(series.name);
+        if (seriesId == null) {
             seriesRepository.saveSeries(series);
             seriesId = series.id;
         }
-
         return seriesId;
     }
 
     private long saveBookLocationIfNotExists(BookLocation bookLocation) {
-        BookLocation criteria = new BookLocation();
-        criteria.name = bookLocation.name;
-
-        BookLocation bookLocationDb = bookLocationRepository.getBookLocationByCriteria(criteria);
-
-        long bookLocationId;
-        if (bookLocationDb != null) {
-            bookLocationId = bookLocationDb.id;
-        } else {
+        Long bookLocationId = bookLocationRepository.getBookLocationIdByName(bookLocation.name);
+        if (bookLocationId == null) {
             bookLocationRepository.saveBookLocation(bookLocation);
             bookLocationId = bookLocation.id;
         }
-
         return bookLocationId;
     }
 
     private long savePublisherIfNotExists(Publisher publisher) {
-        Publisher criteria = new Publisher();
-        criteria.name = publisher.name;
-
-        Publisher publisherDb = publisherRepository.getPublisherByCriteria(criteria);
-
-        long publisherId;
-        if (publisherDb != null) {
-            publisherId = publisherDb.id;
-        } else {
+        Long publisherId = publisherRepository.getPublisherIdByName(publisher.name);
+        if (publisherId == null) {
             publisherRepository.savePublisher(publisher);
             publisherId = publisher.id;
         }
-
         return publisherId;
     }
 
+    /**
+     * Get the ids of the publishers of a list of books, saving the ones that
+     * do not exist yet. The existing publishers are selected with a single
+     * query.
+     *
+     * @param bookInfoList List of BookInfo.
+     * @return The ids of the publishers, by name.
+     */
+    private Map<String, Long> savePublishersIfNotExist(List<BookInfo> bookInfoList) {
+        Map<String, Publisher> publisherMap = new LinkedHashMap<>();
+        for (BookInfo bookInfo : bookInfoList) {
+            Publisher publisher = bookInfo.publisher;
+            if (publisher.name != null && !publisherMap.containsKey(publisher.name)) {
+                publisherMap.put(publisher.name, publisher);
+            }
+        }
+
+        Map<String, Long> publisherIdMap = new HashMap<>();
+        if (!publisherMap.isEmpty()) {
+            List<Publisher> publisherDbList = publisherRepository.getPublisherListByNames(new ArrayList<>(publisherMap.keySet()));
+            for (Publisher publisherDb : publisherDbList) {
+                publisherIdMap.put(publisherDb.name, publisherDb.id);
+            }
+            for (Publisher publisher : publisherMap.values()) {
+                if (!publisherIdMap.containsKey(publisher.name)) {
+                    publisherRepository.savePublisher(publisher);
+                    publisherIdMap.put(publisher.name, publisher.id);
+                }
+            }
+        }
+        return publisherIdMap;
+    }
+
+    /**
+     * Get the ids of the book locations of a list of books, saving the ones
+     * that do not exist yet. The existing book locations are selected with a
+     * single query.
+     *
+     * @param bookInfoList List of BookInfo.
+     * @return The ids of the book locations, by name.
+     */
+    private Map<String, Long> saveBookLocationsIfNotExist(List<BookInfo> bookInfoList) {
+        Map<String, BookLocation> bookLocationMap = new LinkedHashMap<>();
+        for (BookInfo bookInfo : bookInfoList) {
+            BookLocation bookLocation = bookInfo.bookLocation;
+            if (bookLocation.name != null && !bookLocationMap.containsKey(bookLocation.name)) {
+                bookLocationMap.put(bookLocation.name, bookLocation);
+            }
+        }
+
+        Map<String, Long> bookLocationIdMap = new HashMap<>();
+        if (!bookLocationMap.isEmpty()) {
+            List<BookLocation> bookLocationDbList = bookLocationRepository.getBookLocationListByNames(new ArrayList<>(bookLocationMap.keySet()));
+            for (BookLocation bookLocationDb : bookLocationDbList) {
+                bookLocationIdMap.put(bookLocationDb.name, bookLocationDb.id);
+            }
+            for (BookLocation bookLocation : bookLocationMap.values()) {
+                if (!bookLocationIdMap.containsKey(bookLocation.name)) {
+                    bookLocationRepository.saveBookLocation(bookLocation);
+                    bookLocationIdMap.put(bookLocation.name, bookLocation.id);
+                }
+            }
+        }
+        return bookLocationIdMap;
+    }
+
+    /**
+     * Get the ids of the series of a list of books, saving the ones that do
+     * not exist yet. The existing series are selected with a single query.
+     *
+     * @param bookInfoList List of BookInfo.
+     * @return The ids of the series, by name.
+     */
+    private Map<String, Long> saveSeriesListIfNotExist(List<BookInfo> bookInfoList) {
+        Map<String, Series> seriesMap = new LinkedHashMap<>();
+        for (BookInfo bookInfo : bookInfoList) {
+            Series series = bookInfo.series;
+            if (series.name != null && !seriesMap.containsKey(series.name)) {
+                seriesMap.put(series.name, series);
+            }
+        }
+
+        Map<String, Long> seriesIdMap = new HashMap<>();
+        if (!seriesMap.isEmpty()) {
+            List<Series> seriesDbList = seriesRepository.getSeriesListByNames(new ArrayList<>(seriesMap.keySet()));
+            for (Series seriesDb : seriesDbList) {
+                seriesIdMap.put(seriesDb.name, seriesDb.id);
+            }
+            for (Series series : seriesMap.values()) {
+                if (!seriesIdMap.containsKey(series.name)) {
+                    seriesRepository.saveSeries(series);
+                    seriesIdMap.put(series.name, series.id);
+                }
+            }
+        }
+        return seriesIdMap;
+    }
+
+    /**
+     * Get the ids of the authors of a list of books, saving the ones that do
+     * not exist yet. The existing authors are selected with a single query.
+     *
+     * @param bookInfoList List of BookInfo.
+     * @return The ids of the authors, by name.
+     */
+    private Map<String, Long> saveAuthorsIfNotExist(List<BookInfo> bookInfoList) {
+        Map<String, Author> authorMap = new LinkedHashMap<>();
+        for (BookInfo bookInfo : bookInfoList) {
+            for (Author author : bookInfo.authors) {
+                if (!authorMap.containsKey(author.name)) {
+                    authorMap.put(author.name, author);
+                }
+            }
+        }
+
+        Map<String, Long> authorIdMap = new HashMap<>();
+        if (!authorMap.isEmpty()) {
+            List<Author> authorDbList = authorRepository.getAuthorListByNames(new ArrayList<>(authorMap.keySet()));
+            for (Author authorDb : authorDbList) {
+                authorIdMap.put(authorDb.name, authorDb.id);
+            }
+            for (Author author : authorMap.values()) {
+                if (!authorIdMap.containsKey(author.name)) {
+                    authorRepository.saveAuthor(author);
+                    authorIdMap.put(author.name, author.id);
+                }
+            }
+        }
+        return authorIdMap;
+    }
+
+    /**
+     * Get the ids of the categories of a list of books, saving the ones that
+     * do not exist yet. The existing categories are selected with a single
+     * query.
+     *
+     * @param bookInfoList List of BookInfo.
+     * @return The ids of the categories, by name.
+     */
+    private Map<String, Long> saveCategoriesIfNotExist(List<BookInfo> bookInfoList) {
+        Map<String, Category> categoryMap = new LinkedHashMap<>();
+        for (BookInfo bookInfo : bookInfoList) {
+            for (Category category : bookInfo.categories) {
+                if (!categoryMap.containsKey(category.name)) {
+                    categoryMap.put(category.name, category);
+                }
+            }
+        }
+
+        Map<String, Long> categoryIdMap = new HashMap<>();
+        if (!categoryMap.isEmpty()) {
+            List<Category> categoryDbList = categoryRepository.getCategoryListByNames(new ArrayList<>(categoryMap.keySet()));
+            for (Category categoryDb : categoryDbList) {
+                categoryIdMap.put(categoryDb.name, categoryDb.id);
+            }
+            for (Category category : categoryMap.values()) {
+                if (!categoryIdMap.containsKey(category.name)) {
+                    categoryRepository.saveCategory(category);
+                    categoryIdMap.put(category.name, category.id);
+                }
+            }
+        }
+        return categoryIdMap;
+    }
+
     /**
      * Delete the previous BookAuthor relationships of a book and create the new
      * ones.
@@ -407,17 +750,11 @@ public final class BookServiceImpl implements BookService {
      * @param bookInfo BookInfo.
      */
     private void updateBookAuthorList(BookInfo bookInfo) {
+        List<BookAuthor> previousBookAuthorList = bookAuthorRepository.getBookAuthorListByBook(bookInfo.id);
         bookAuthorRepository.deleteBookAuthorListByBook(bookInfo.id);
         for (Author author : bookInfo.authors) {
-            Author criteria = new Author();
-            criteria.name = author.name;
-
-            Author authorDb = authorRepository.getAuthorByCriteria(criteria);
-
-            long authorId;
-            if (authorDb != null) {
-                authorId = authorDb.id;
-            } else {
+            Long authorId = authorRepository.getAuthorIdByName(author.name);
+            if (authorId == null) {
                 authorRepository.saveAuthor(author);
                 authorId = author.id;
             }
@@ -429,7 +766,74 @@ public final class BookServiceImpl implements BookService {
             bookAuthorRepository.saveBookAuthor(bookAuthor);
         }
 
-        authorRepository.deleteAuthorsWithoutBooks();
+        authorRepository.deleteAuthorsWithoutBooks(getAuthorIdList(previousBookAuthorList));
+    }
+
+    /**
+     * Indicates whether the authors of a book differ from its BookAuthor
+     * relationships. The ids are compared as sets, the relationships being
+     * read in no particular order. The authors that have not been saved yet
+     * are always considered new.
+     *
+     * @param bookInfo BookInfo.
+     * @return True if the relationships have to be rewritten.
+     */
+    private boolean isBookAuthorListModified(BookInfo bookInfo) {
+        List<BookAuthor> bookAuthorList = bookAuthorRepository.getBookAuthorListByBook(bookInfo.id);
+        if (bookAuthorList.size() != bookInfo.authors.size()) {
+            return true;
+        }
+        LongHashSet authorIds = new LongHashSet(bookAuthorList.size());
+        for (BookAuthor bookAuthor : bookAuthorList) {
+            authorIds.add(bookAuthor.authorId);
+        }
+        LongHashSet editedAuthorIds = new LongHashSet(bookInfo.authors.size());
+        for (Author author : bookInfo.authors) {
+            if (author.id == null || !authorIds.contains(author.id)) {
+                return true;
+            }
+            editedAuthorIds.add(author.id);
+        }
+        return editedAuthorIds.size() != authorIds.size();
+    }
+
+    /**
+     * Compare two ids, which can be null.
+     *
+     * @param left  Id.
+     * @param right Id.
+     * @return True if both are null or equal.
+     */
+    private static boolean areEqual(Long left, Long right) {
+        return left == null ? right == null : left.equals(right);
+    }
+
+    /**
+     * Indicates whether the categories of a book differ from its BookCategory
+     * relationships. The ids are compared as sets, the relationships being
+     * read in no particular order. The categories that have not been saved
+     * yet are always considered new.
+     *
+     * @param bookInfo BookInfo.
+     * @return True if the relationships have to be rewritten.
+     */
+    private boolean isBookCategoryListModified(BookInfo bookInfo) {
+        List<BookCategory> bookCategoryList = bookCategoryRepository.getBookCategoryListByBook(bookInfo.id);
+        if (bookCategoryList.size() != bookInfo.categories.size()) {
+            return true;
+        }
+        LongHashSet categoryIds = new LongHashSet(bookCategoryList.size());
+        for (BookCategory bookCategory : bookCategoryList) {
+            categoryIds.add(bookCategory.categoryId);
+        }
+        LongHashSet editedCategoryIds = new LongHashSet(bookInfo.categories.size());
+        for (Category category : bookInfo.categories) {
+            if (category.id == null || !categoryIds.contains(category.id)) {
+                return true;
+            }
+            editedCategoryIds.add(category.id);
+        }
+        return editedCategoryIds.size() != categoryIds.size();
     }
 
     /**
@@ -439,18 +843,11 @@ public final class BookServiceImpl implements BookService {
      * @param bookInfo BookInfo.
      */
     private void updateBookCategoryList(BookInfo bookInfo) {
+        List<BookCategory> previousBookCategoryList = bookCategoryRepository.getBookCategoryListByBook(bookInfo.id);
         bookCategoryRepository.deleteBookCategoryListByBook(bookInfo.id);
         for (Category category : bookInfo.categories) {
-
-            Category criteria = new Category();
-            criteria.name = category.name;
-
-            Category categoryDb = categoryRepository.getCategoryByCriteria(criteria);
-
-            long categoryId;
-            if (categoryDb != null) {
-                categoryId = categoryDb.id;
-            } else {
+            Long categoryId = categoryRepository.getCategoryIdByName(category.name);
+            if (categoryId == null) {
                 categoryRepository.saveCategory(category);
                 categoryId = category.id;
             }
@@ -462,6 +859,81 @@ public final class BookServiceImpl implements BookService {
             bookCategoryRepository.saveBookCategory(bookCategory);
         }
 
-        categoryRepository.deleteCategoriesWithoutBooks();
+        categoryRepository.deleteCategoriesWithoutBooks(getCategoryIdList(previousBookCategoryList));
+    }
+
+    /**
+     * Delete the publishers, series and book locations that were referenced
+     * by some books before they were modified or deleted, and that are not
+     * referenced by any book any more.
+     *
+     * @param previousBookList The books, as they were before being modified or deleted.
+     */
+    private void deleteReferencesWithoutBooks(List<Book> previousBookList) {
+        LongArrayList publisherIdList = new LongArrayList();
+        LongArrayList seriesIdList = new LongArrayList();
+        LongArrayList bookLocationIdList = new LongArrayList();
+        for (Book book : previousBookList) {
+            addId(publisherIdList, book.publisherId);
+            addId(seriesIdList, book.seriesId);
+            addId(bookLocationIdList, book.bookLocationId);
+        }
+        publisherRepository.deletePublishersWithoutBooks(publisherIdList);
+        seriesRepository.deleteSeriesWithoutBooks(seriesIdList);
+        bookLocationRepository.deleteBookLocationsWithoutBooks(bookLocationIdList);
+    }
+
+    /**
+     * Get the ids of the covers a book referenced.
+     *
+     * @param smallThumbnailCoverId The id of the cover of the small thumbnail, can be null.
+     * @param thumbnailCoverId      The id of the cover of the thumbnail, can be null.
+     * @return List of cover ids.
+     */
+    private static LongArrayList getCoverIdList(Long smallThumbnailCoverId, Long thumbnailCoverId) {
+        LongArrayList coverIdList = new LongArrayList(2);
+        addId(coverIdList, smallThumbnailCoverId);
+        addId(coverIdList, thumbnailCoverId);
+        return coverIdList;
+    }
+
+    /**
+     * Get the ids of the authors of a list of BookAuthor relationships.
+     *
+     * @param bookAuthorList List of BookAuthor.
+     * @return List of author ids.
+     */
+    private static LongArrayList getAuthorIdList(List<BookAuthor> bookAuthorList) {
+        LongArrayList authorIdList = new LongArrayList(bookAuthorList.size());
+        for (BookAuthor bookAuthor : bookAuthorList) {
+            addId(authorIdList, bookAuthor.authorId);
+        }
+        return authorIdList;
+    }
+
+    /**
+     * Get the ids of the categories of a list of BookCategory relationships.
+     *
+     * @param bookCategoryList List of BookCategory.
+     * @return List of category ids.
+     */
+    private static LongArrayList getCategoryIdList(List<BookCategory> bookCategoryList) {
+        LongArrayList categoryIdList = new LongArrayList(bookCategoryList.size());
+        for (BookCategory bookCategory : bookCategoryList) {
+            addId(categoryIdList, bookCategory.categoryId);
+        }
+        return categoryIdList;
+    }
+
+    /**
+     * Add an id to a list if it is not null.
+     *
+     * @param idList List of ids.
+     * @param id     The id, can be null.
+     */
+    private static void addId(LongArrayList idList, Long id) {
+        if (id != null) {
+            idList.add(id);
+        }
     }
 }
@@ -5,9 +5,13 @@ import com.blackbooks.model.persistent.Category;
 import java.util.List;
 
 public interface CategoryService {
+    void deleteCategory(long categoryId);
+
     Category getCategoryByCriteria(Category criteria);
 
     List<Category> getCategoryListByText(String text);
 
     Category getCategory(long categoryId);
+
+    void updateCategory(long categoryId, String newName);
 }
@@ -1,5 +1,7 @@
 package com.blackbooks.services;
 
+import com.blackbooks.changes.Change;
+import com.blackbooks.changes.ChangeBus;
 import com.blackbooks.model.persistent.Category;
 import com.blackbooks.repositories.CategoryRepository;
 
@@ -11,9 +13,16 @@ import java.util.List;
 public final class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ChangeBus changeBus;
 
-    public CategoryServiceImpl(CategoryRepository categoryRepository) {
+    public CategoryServiceImpl(CategoryRepository categoryRepository, ChangeBus changeBus) {
         this.categoryRepository = categoryRepository;
+        this.changeBus = changeBus;
+    }
+
+    public void deleteCategory(long categoryId) {
+        categoryRepository.deleteCategory(categoryId);
+        changeBus.post(Change.deleted(Category.NAME, categoryId));
     }
 
     public Category getCategory(long catId) {
@@ -27,4 +36,9 @@ public final class CategoryServiceImpl implements CategoryService {
     public List<Category> getCategoryListByText(String text) {
         return categoryRepository.getCategoryListByText(text);
     }
+
+    public void updateCategory(long categoryId, String newName) {
+        categoryRepository.updateCategory(categoryId, newName);
+        changeBus.post(Change.updated(Category.NAME, categoryId));
+    }
 }
@@ -0,0 +1,87 @@
+package com.blackbooks.services;
+
+import com.blackbooks.model.persistent.Book;
+import com.blackbooks.model.persistent.BookAuthor;
+import com.blackbooks.model.persistent.BookCategory;
+import com.blackbooks.utils.collections.LongArrayList;
+
+import java.util.List;
+
+/**
+ * The work left after saving several batches of books with
+ * {@link BookService#saveBookInfoBatch(List, DeferredBookMaintenance)}: the
+ * deletion of the rows the books referenced before and that may have no book
+ * left. Only ids are kept, so that the memory taken does not depend on the
+ * size of the books.
+ */
+public final class DeferredBookMaintenance {
+
+    final LongArrayList insertedBookIdList = new LongArrayList();
+    final LongArrayList updatedBookIdList = new LongArrayList();
+    final LongArrayList publisherIdList = new LongArrayList();
+    final LongArrayList seriesIdList = new LongArrayList();
+    final LongArrayList bookLocationIdList = new LongArrayList();
+    final LongArrayList authorIdList = new LongArrayList();
+    final LongArrayList categoryIdList = new LongArrayList();
+    final LongArrayList coverIdList = new LongArrayList();
+
+    /**
+     * Get the number of books saved.
+     *
+     * @return Book count.
+     */
+    public int getBookCount() {
+        return insertedBookIdList.size() + updatedBookIdList.size();
+    }
+
+    /**
+     * Indicates whether no book has been saved.
+     *
+     * @return True if there is nothing to do.
+     */
+    public boolean isEmpty() {
+        return insertedBookIdList.isEmpty() && updatedBookIdList.isEmpty();
+    }
+
+    /**
+     * Record the references of a book before it is updated, including its
+     * covers.
+     *
+     * @param book The book, as it was before being updated.
+     */
+    void addPreviousReferences(Book book) {
+        addId(publisherIdList, book.publisherId);
+        addId(seriesIdList, book.seriesId);
+        addId(bookLocationIdList, book.bookLocationId);
+        addId(coverIdList, book.smallThumbnailCoverId);
+        addId(coverIdList, book.thumbnailCoverId);
+    }
+
+    /**
+     * Record the authors of books before they are updated.
+     *
+     * @param bookAuthorList The BookAuthor relationships of the books.
+     */
+    void addPreviousAuthors(List<BookAuthor> bookAuthorList) {
+        for (BookAuthor bookAuthor : bookAuthorList) {
+            addId(authorIdList, bookAuthor.authorId);
+        }
+    }
+
+    /**
+     * Record the categories of books before they are updated.
+     *
+     * @param bookCategoryList The BookCategory relationships of the books.
+     */
+    void addPreviousCategories(List<BookCategory> bookCategoryList) {
+        for (BookCategory bookCategory : bookCategoryList) {
+            addId(categoryIdList, bookCategory.categoryId);
+        }
+    }
+
+    private static void addId(LongArrayList idList, Long id) {
+        if (id != null) {
+            idList.add(id);
+        }
+    }
+}
@@ -2,10 +2,38 @@ package com.blackbooks.services;
 
 import com.blackbooks.model.nonpersistent.BookExport;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
 
 public interface ExportService {
     List<BookExport> getBookExportList(Integer limit);
 
+    int getBookExportCount();
+
+    int exportBooks(Writer writer, char textQualifier, char columnSeparator, boolean firstRowContainsHeaders,
+                    ExportListener listener) throws IOException;
+
     String previewBookExport(char textQualifier, char columnSeparator, boolean firstRowContainsHeaders);
+
+    /**
+     * Follows an export and tells whether it has to stop.
+     */
+    interface ExportListener {
+
+        /**
+         * Called regularly while the books are written, and once at the end.
+         *
+         * @param rowCount The number of books written so far.
+         */
+        void onProgress(int rowCount);
+
+        /**
+         * Indicates whether the export has to stop. It is checked before each
+         * book is written.
+         *
+         * @return True to stop the export.
+         */
+        boolean isCancelled();
+    }
 }
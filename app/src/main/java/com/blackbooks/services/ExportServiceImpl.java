@@ -1,6 +1,8 @@
 package com.blackbooks.services;
 
+import android.database.CharArrayBuffer;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
 
 import com.blackbooks.database.SQLiteHelper;
@@ -12,7 +14,11 @@ import com.blackbooks.model.persistent.BookCategory;
 import com.blackbooks.model.persistent.Category;
 import com.blackbooks.model.persistent.Publisher;
 import com.blackbooks.model.persistent.Series;
+import com.blackbooks.utils.CsvWriter;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -21,6 +27,26 @@ import java.util.List;
  */
 public final class ExportServiceImpl implements ExportService {
 
+    /**
+     * The number of rows written between two progress reports.
+     */
+    private static final int PROGRESS_INTERVAL = 100;
+
+    private static final String ID = "Id";
+    private static final String TITLE = "Title";
+    private static final String SUBTITLE = "Subtitle";
+    private static final String AUTHORS = "Authors";
+    private static final String CATEGORIES = "Categories";
+    private static final String SERIES = "Series";
+    private static final String NUMBER = "Number";
+    private static final String PAGE_COUNT = "PageCount";
+    private static final String LANGUAGE_CODE = "LanguageCode";
+    private static final String DESCRIPTION = "Description";
+    private static final String PUBLISHER = "Publisher";
+    private static final String PUBLISHED_DATE = "PublishedDate";
+    private static final String ISBN_10 = "Isbn10";
+    private static final String ISBN_13 = "Isbn13";
+
     private final SQLiteHelper sqLiteHelper;
 
     public ExportServiceImpl(SQLiteHelper sqLiteHelper) {
@@ -39,8 +65,40 @@ public final class ExportServiceImpl implements ExportService {
     public String previewBookExport(char textQualifier, char columnSeparator,
                                     boolean firstRowContainsHeaders) {
 
-        List<BookExport> bookExportList = getBookExportList(5);
-        return preview(bookExportList, textQualifier, columnSeparator, firstRowContainsHeaders);
+        StringWriter writer = new StringWriter();
+        try {
+            writeBookExport(writer, textQualifier, columnSeparator, firstRowContainsHeaders, 5, null);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Get the number of books to export.
+     *
+     * @return Book count.
+     */
+    public int getBookExportCount() {
+        SQLiteDatabase db = sqLiteHelper.getReadableDatabase();
+        return (int) DatabaseUtils.longForQuery(db, "SELECT COUNT(*) FROM " + Book.NAME + ";", null);
+    }
+
+    /**
+     * Write the books as a CSV file. The rows are written as the cursor is
+     * read, so that the memory taken does not depend on the number of books.
+     *
+     * @param writer                  The writer of the CSV file. It is flushed, but not closed.
+     * @param textQualifier           Text qualifier.
+     * @param columnSeparator         Column separator.
+     * @param firstRowContainsHeaders True if the first row should contain the column headers.
+     * @param listener                Follows the export.
+     * @return The number of books written.
+     * @throws IOException if the file cannot be written.
+     */
+    public int exportBooks(Writer writer, char textQualifier, char columnSeparator, boolean firstRowContainsHeaders,
+                           ExportListener listener) throws IOException {
+        return writeBookExport(writer, textQualifier, columnSeparator, firstRowContainsHeaders, null, listener);
     }
 
     /**
@@ -50,38 +108,139 @@ public final class ExportServiceImpl implements ExportService {
      * @return List of BookExport.
      */
     public List<BookExport> getBookExportList(Integer limit) {
-        StringBuilder sb = new StringBuilder();
+        SQLiteDatabase db = sqLiteHelper.getReadableDatabase();
+        Cursor cursor = db.rawQuery(getBookExportQuery(limit), null);
+
+        List<BookExport> bookExportList = new ArrayList<>();
+        try {
+            int idxId = cursor.getColumnIndex(ID);
+            int idxTitle = cursor.getColumnIndex(TITLE);
+            int idxSubTitle = cursor.getColumnIndex(SUBTITLE);
+            int idxAuthors = cursor.getColumnIndex(AUTHORS);
+            int idxCategories = cursor.getColumnIndex(CATEGORIES);
+            int idxSeries = cursor.getColumnIndex(SERIES);
+            int idxNumber = cursor.getColumnIndex(NUMBER);
+            int idxPageCount = cursor.getColumnIndex(PAGE_COUNT);
+            int idxLanguageCode = cursor.getColumnIndex(LANGUAGE_CODE);
+            int idxDescription = cursor.getColumnIndex(DESCRIPTION);
+            int idxPublisher = cursor.getColumnIndex(PUBLISHER);
+            int idxPublishedDate = cursor.getColumnIndex(PUBLISHED_DATE);
+            int idxIsbn10 = cursor.getColumnIndex(ISBN_10);
+            int idxIsbn13 = cursor.getColumnIndex(ISBN_13);
+
+            while (cursor.moveToNext()) {
+                BookExport bookExport = new BookExport();
+                bookExport.id = cursor.getLong(idxId);
+                bookExport.title = cursor.getString(idxTitle);
+                bookExport.subtitle = getString(cursor, idxSubTitle);
+                bookExport.authors = getString(cursor, idxAuthors);
+                bookExport.categories = getString(cursor, idxCategories);
+                bookExport.series = getString(cursor, idxSeries);
+                bookExport.number = getLong(cursor, idxNumber);
+                bookExport.pageCount = getLong(cursor, idxPageCount);
+                bookExport.languageCode = getString(cursor, idxLanguageCode);
+                bookExport.description = getString(cursor, idxDescription);
+                bookExport.publisher = getString(cursor, idxPublisher);
+                bookExport.publishedDate = getString(cursor, idxPublishedDate);
+                bookExport.isbn10 = getString(cursor, idxIsbn10);
+                bookExport.isbn13 = getString(cursor, idxIsbn13);
+
+                bookExportList.add(bookExport);
+            }
+        } finally {
+            cursor.close();
+        }
+
+        return bookExportList;
+    }
+
+    /**
+     * Write the books as a CSV file, in the format of
+     * {@link BookExport#toCsv(char, char)}. Each value is copied from the
+     * cursor into the same buffer and qualified while being written.
+     *
+     * @param writer                  The writer of the CSV file.
+     * @param textQualifier           Text qualifier.
+     * @param columnSeparator         Column separator.
+     * @param firstRowContainsHeaders True if the first row should contain the column headers.
+     * @param limit                   The number of books to export. Null to export all books.
+     * @param listener                Follows the export. May be null.
+     * @return The number of books written.
+     * @throws IOException if the file cannot be written.
+     */
+    private int writeBookExport(Writer writer, char textQualifier, char columnSeparator,
+                                boolean firstRowContainsHeaders, Integer limit, ExportListener listener)
+            throws IOException {
 
-        String id = "Id";
-        String title = "Title";
-        String subtitle = "Subtitle";
-        String authors = "Authors";
-        String categories = "Categories";
-        String series = "Series";
-        String number = "Number";
-        String pageCount = "PageCount";
-        String languageCode = "LanguageCode";
-        String description = "Description";
-        String publisher = "Publisher";
-        String publishedDate = "PublishedDate";
-        String isbn10 = "Isbn10";
-        String isbn13 = "Isbn13";
+        if (firstRowContainsHeaders) {
+            writer.write(BookExport.getCsvHeader(textQualifier, columnSeparator));
+            writer.write('\n');
+        }
+
+        CsvWriter csvWriter = new CsvWriter(writer, columnSeparator, textQualifier);
+        CharArrayBuffer buffer = new CharArrayBuffer(256);
+        int rowCount = 0;
+
+        SQLiteDatabase db = sqLiteHelper.getReadableDatabase();
+        Cursor cursor = db.rawQuery(getBookExportQuery(limit), null);
+        try {
+            int columnCount = cursor.getColumnCount();
+            while (cursor.moveToNext()) {
+                if (listener != null && listener.isCancelled()) {
+                    break;
+                }
+
+                for (int i = 0; i < columnCount; i++) {
+                    if (cursor.isNull(i)) {
+                        csvWriter.writeNull();
+                    } else {
+                        cursor.copyStringToBuffer(i, buffer);
+                        csvWriter.writeField(buffer.data, buffer.sizeCopied);
+                    }
+                }
+                csvWriter.endRow();
+
+                rowCount++;
+                if (listener != null && rowCount % PROGRESS_INTERVAL == 0) {
+                    listener.onProgress(rowCount);
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+
+        csvWriter.flush();
+        if (listener != null) {
+            listener.onProgress(rowCount);
+        }
+        return rowCount;
+    }
+
+    /**
+     * Build the query of the books to export. Its columns are in the order of
+     * the columns of the CSV file.
+     *
+     * @param limit The number of books to export. Null to export all books.
+     * @return SQL query.
+     */
+    private static String getBookExportQuery(Integer limit) {
+        StringBuilder sb = new StringBuilder();
 
         sb.append("SELECT\n");
-        sb.append("boo." + Book.Cols.BOO_ID + " AS " + id + ",\n");
-        sb.append("boo." + Book.Cols.BOO_TITLE + " AS " + title + ",\n");
-        sb.append("boo." + Book.Cols.BOO_SUBTITLE + " AS " + subtitle + ",\n");
-        sb.append("aut.Authors AS " + authors + ",\n");
-        sb.append("cat.Categories AS " + categories + ",\n");
-        sb.append("ser." + Series.Cols.SER_NAME + " AS " + series + ",\n");
-        sb.append("boo." + Book.Cols.BOO_NUMBER + " AS " + number + ",\n");
-        sb.append("boo." + Book.Cols.BOO_PAGE_COUNT + " AS " + pageCount + ",\n");
-        sb.append("boo." + Book.Cols.BOO_LANGUAGE_CODE + " AS " + languageCode + ",\n");
-        sb.append("boo." + Book.Cols.BOO_DESCRIPTION + " AS " + description + ",\n");
-        sb.append("pub." + Publisher.Cols.PUB_NAME + " AS " + publisher + ",\n");
-        sb.append("strftime(\"%d/%m/%Y\", boo." + Book.Cols.BOO_PUBLISHED_DATE + " / 1000, \'unixepoch\', \'localtime\') AS " + publishedDate + ",\n");
-        sb.append("boo." + Book.Cols.BOO_ISBN_10 + " AS " + isbn10 + ",\n");
-        sb.append("boo." + Book.Cols.BOO_ISBN_13 + " AS " + isbn13 + "\n");
+        sb.append("boo." + Book.Cols.BOO_ID + " AS " + ID + ",\n");
+        sb.append("boo." + Book.Cols.BOO_TITLE + " AS " + TITLE + ",\n");
+        sb.append("boo." + Book.Cols.BOO_SUBTITLE + " AS " + SUBTITLE + ",\n");
+        sb.append("aut.Authors AS " + AUTHORS + ",\n");
+        sb.append("cat.Categories AS " + CATEGORIES + ",\n");
+        sb.append("ser." + Series.Cols.SER_NAME + " AS " + SERIES + ",\n");
+        sb.append("boo." + Book.Cols.BOO_NUMBER + " AS " + NUMBER + ",\n");
+        sb.append("boo." + Book.Cols.BOO_PAGE_COUNT + " AS " + PAGE_COUNT + ",\n");
+        sb.append("boo." + Book.Cols.BOO_LANGUAGE_CODE + " AS " + LANGUAGE_CODE + ",\n");
+        sb.append("boo." + Book.Cols.BOO_DESCRIPTION + " AS " + DESCRIPTION + ",\n");
+        sb.append("pub." + Publisher.Cols.PUB_NAME + " AS " + PUBLISHER + ",\n");
+        sb.append("strftime(\"%d/%m/%Y\", boo." + Book.Cols.BOO_PUBLISHED_DATE + " / 1000, \'unixepoch\', \'localtime\') AS " + PUBLISHED_DATE + ",\n");
+        sb.append("boo." + Book.Cols.BOO_ISBN_10 + " AS " + ISBN_10 + ",\n");
+        sb.append("boo." + Book.Cols.BOO_ISBN_13 + " AS " + ISBN_13 + "\n");
         sb.append("FROM\n");
         sb.append(Book.NAME + " boo\n");
         sb.append("LEFT JOIN (\n");
@@ -117,48 +276,7 @@ public final class ExportServiceImpl implements ExportService {
 
         sb.append(";");
 
-        String sql = sb.toString();
-
-        SQLiteDatabase db = sqLiteHelper.getReadableDatabase();
-        Cursor cursor = db.rawQuery(sql, null);
-
-        int idxId = cursor.getColumnIndex(id);
-        int idxTitle = cursor.getColumnIndex(title);
-        int idxSubTitle = cursor.getColumnIndex(subtitle);
-        int idxAuthors = cursor.getColumnIndex(authors);
-        int idxCategories = cursor.getColumnIndex(categories);
-        int idxSeries = cursor.getColumnIndex(series);
-        int idxNumber = cursor.getColumnIndex(number);
-        int idxPageCount = cursor.getColumnIndex(pageCount);
-        int idxLanguageCode = cursor.getColumnIndex(languageCode);
-        int idxDescription = cursor.getColumnIndex(description);
-        int idxPublisher = cursor.getColumnIndex(publisher);
-        int idxPublishedDate = cursor.getColumnIndex(publishedDate);
-        int idxIsbn10 = cursor.getColumnIndex(isbn10);
-        int idxIsbn13 = cursor.getColumnIndex(isbn13);
-
-        List<BookExport> bookExportList = new ArrayList<>();
-        while (cursor.moveToNext()) {
-            BookExport bookExport = new BookExport();
-            bookExport.id = cursor.getLong(idxId);
-            bookExport.title = cursor.getString(idxTitle);
-            bookExport.subtitle = getString(cursor, idxSubTitle);
-            bookExport.authors = getString(cursor, idxAuthors);
-            bookExport.categories = getString(cursor, idxCategories);
-            bookExport.series = getString(cursor, idxSeries);
-            bookExport.number = getLong(cursor, idxNumber);
-            bookExport.pageCount = getLong(cursor, idxPageCount);
-            bookExport.languageCode = getString(cursor, idxLanguageCode);
-            bookExport.description = getString(cursor, idxDescription);
-            bookExport.publisher = getString(cursor, idxPublisher);
-            bookExport.publishedDate = getString(cursor, idxPublishedDate);
-            bookExport.isbn10 = getString(cursor, idxIsbn10);
-            bookExport.isbn13 = getString(cursor, idxIsbn13);
-
-            bookExportList.add(bookExport);
-        }
-
-        return bookExportList;
+        return sb.toString();
     }
 
     /**
@@ -182,29 +300,4 @@ public final class ExportServiceImpl implements ExportService {
     private String getString(Cursor cursor, int index) {
         return cursor.isNull(index) ? null : cursor.getString(index);
     }
-
-    /**
-     * Build the preview string of the CSV export.
-     *
-     * @param bookExportList         List of BookExport.
-     * @param qualifier              The text qualifier.
-     * @param separator              The column separator.
-     * @param firstRowContainsHeader True if the first row should contain the column headers.
-     * @return Preview of the CSV export.
-     */
-    private String preview(List<BookExport> bookExportList, char qualifier, char separator, boolean firstRowContainsHeader) {
-        StringBuilder sb = new StringBuilder();
-
-        if (firstRowContainsHeader) {
-            sb.append(BookExport.getCsvHeader(qualifier, separator));
-            sb.append('\n');
-        }
-
-        for (BookExport bookExport : bookExportList) {
-            sb.append(bookExport.toCsv(qualifier, separator));
-            sb.append('\n');
-        }
-
-        return sb.toString();
-    }
 }
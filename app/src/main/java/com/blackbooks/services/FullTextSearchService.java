@@ -1,11 +1,17 @@
 package com.blackbooks.services;
 
-import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.nonpersistent.BookSearchResult;
 
 import java.util.List;
 
 public interface FullTextSearchService {
-    List<BookInfo> searchBooks(String query, int limit, int offset);
+    List<BookSearchResult> searchBooks(String query, int limit, int offset);
 
     int getSearchResultCount(String query);
+
+    void suspendIndex();
+
+    void rebuildIndex();
+
+    List<String> checkIndex();
 }
@@ -1,9 +1,11 @@
 package com.blackbooks.services;
 
 import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.nonpersistent.BookSearchResult;
 import com.blackbooks.model.persistent.Book;
 import com.blackbooks.repositories.BookFTSRepository;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -23,10 +25,50 @@ public final class FullTextSearchServiceImpl implements FullTextSearchService {
         return bookFTSRepository.getSearchResultCount(query);
     }
 
-    public List<BookInfo> searchBooks(String query, int limit, int offset) {
+    /**
+     * Search books, the most relevant first. The ranking does not follow the
+     * order of any column, so the pages are selected by their offset.
+     *
+     * @param query  The full-text query.
+     * @param limit  Limit.
+     * @param offset Offset.
+     * @return The books of the page, with a snippet of their description.
+     */
+    public List<BookSearchResult> searchBooks(String query, int limit, int offset) {
+        List<BookSearchResult> resultList = bookFTSRepository.searchBooks(query, limit, offset);
+        List<BookInfo> bookInfoList = bookService.getBookInfoListFromBookList(new ArrayList<Book>(resultList));
 
-        List<Book> bookList = bookFTSRepository.searchBooks(query, limit, offset);
-        return bookService.getBookInfoListFromBookList(bookList);
+        List<BookSearchResult> hydratedResultList = new ArrayList<>(resultList.size());
+        for (int i = 0; i < resultList.size(); i++) {
+            BookSearchResult hydratedResult = new BookSearchResult(bookInfoList.get(i));
+            hydratedResult.descriptionSnippet = resultList.get(i).descriptionSnippet;
+            hydratedResultList.add(hydratedResult);
+        }
+        return hydratedResultList;
     }
 
+    /**
+     * Stop indexing the books as they are written, until
+     * {@link #rebuildIndex()} indexes them all at once. Meant for the writes of
+     * many books.
+     */
+    public void suspendIndex() {
+        bookFTSRepository.suspendIndex();
+    }
+
+    /**
+     * Index all the books again and resume indexing them as they are written.
+     */
+    public void rebuildIndex() {
+        bookFTSRepository.rebuildIndex();
+    }
+
+    /**
+     * Compare the full-text index with the books.
+     *
+     * @return The description of each error, empty if the index is right.
+     */
+    public List<String> checkIndex() {
+        return bookFTSRepository.checkIndex();
+    }
 }
@@ -2,13 +2,20 @@ package com.blackbooks.services;
 
 import com.blackbooks.model.nonpersistent.BookInfo;
 import com.blackbooks.model.persistent.Isbn;
+import com.blackbooks.utils.collections.LongArrayList;
 
 import java.util.List;
 
 public interface IsbnService {
 
+    void deleteAllLookedUpIsbns();
+
     void deleteAllPendingIsbns();
 
+    List<Isbn> getIsbnListLookedUp(int limit, int offset);
+
+    int getIsbnListLookedUpCount();
+
     List<Isbn> getIsbnListToLookUp(int limit, int offset);
 
     int getIsbnListToLookUpCount();
@@ -17,5 +24,7 @@ public interface IsbnService {
 
     void saveBookInfo(BookInfo bookInfo, long isbnId);
 
+    void saveBookInfoBatch(List<BookInfo> bookInfoList, LongArrayList isbnIdList);
+
     void markIsbnLookedUp(long isbnId, Long bookId);
 }
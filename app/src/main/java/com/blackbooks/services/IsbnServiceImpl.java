@@ -2,6 +2,8 @@ package com.blackbooks.services;
 
 import android.database.sqlite.SQLiteDatabase;
 
+import com.blackbooks.changes.Change;
+import com.blackbooks.changes.ChangeBus;
 import com.blackbooks.database.SQLiteHelper;
 import com.blackbooks.model.nonpersistent.BookInfo;
 import com.blackbooks.model.persistent.Isbn;
@@ -9,6 +11,7 @@ import com.blackbooks.repositories.AbstractRepository;
 import com.blackbooks.repositories.IsbnRepository;
 import com.blackbooks.sql.Broker;
 import com.blackbooks.sql.BrokerManager;
+import com.blackbooks.utils.collections.LongArrayList;
 
 import java.util.Date;
 import java.util.List;
@@ -20,11 +23,21 @@ public final class IsbnServiceImpl extends AbstractRepository implements IsbnSer
 
     private final BookService bookService;
     private final IsbnRepository isbnRepository;
+    private final ChangeBus changeBus;
 
-    public IsbnServiceImpl(BookService bookService, IsbnRepository isbnRepository, SQLiteHelper sqLiteHelper) {
-        super(sqLiteHelper);
+    public IsbnServiceImpl(BookService bookService, IsbnRepository isbnRepository, SQLiteHelper sqLiteHelper, ChangeBus changeBus) {
+        super(sqLiteHelper, changeBus);
         this.bookService = bookService;
         this.isbnRepository = isbnRepository;
+        this.changeBus = changeBus;
+    }
+
+    /**
+     * Delete all the ISBNs that have been looked up.
+     */
+    public void deleteAllLookedUpIsbns() {
+        isbnRepository.deleteAllLookedUpIsbns();
+        changeBus.post(Change.tableChanged(Isbn.NAME));
     }
 
     /**
@@ -32,6 +45,27 @@ public final class IsbnServiceImpl extends AbstractRepository implements IsbnSer
      */
     public void deleteAllPendingIsbns() {
         isbnRepository.deleteAllPendingIsbns();
+        changeBus.post(Change.tableChanged(Isbn.NAME));
+    }
+
+    /**
+     * Get the list of the ISBNs that have been looked up.
+     *
+     * @param limit  Limit.
+     * @param offset Offset.
+     * @return List of ISBNs.
+     */
+    public List<Isbn> getIsbnListLookedUp(int limit, int offset) {
+        return isbnRepository.getIsbnListLookedUp(limit, offset);
+    }
+
+    /**
+     * Get the number of ISBNs that have been looked up.
+     *
+     * @return Looked up ISBN count.
+     */
+    public int getIsbnListLookedUpCount() {
+        return isbnRepository.getIsbnListLookedUpCount();
     }
 
     /**
@@ -59,6 +93,8 @@ public final class IsbnServiceImpl extends AbstractRepository implements IsbnSer
      */
     public void saveIsbn(String number) {
         SQLiteDatabase db = getWritableDatabase();
+        Isbn isbn;
+        boolean isCreation;
         db.beginTransaction();
         try {
             Broker<Isbn> broker = BrokerManager.getBroker(Isbn.class);
@@ -66,9 +102,10 @@ public final class IsbnServiceImpl extends AbstractRepository implements IsbnSer
             Isbn criteria = new Isbn();
             criteria.number = number;
             criteria.lookedUp = null;
-            Isbn isbn = broker.getByCriteria(db, criteria);
+            isbn = broker.getByCriteria(db, criteria);
 
-            if (isbn == null) {
+            isCreation = isbn == null;
+            if (isCreation) {
                 isbn = new Isbn();
                 isbn.number = number;
             }
@@ -80,7 +117,13 @@ public final class IsbnServiceImpl extends AbstractRepository implements IsbnSer
 
             db.setTransactionSuccessful();
         } finally {
-            db.endTransaction();
+            endTransaction();
+        }
+
+        if (isCreation) {
+            changeBus.post(Change.inserted(Isbn.NAME, isbn.id));
+        } else {
+            changeBus.post(Change.updated(Isbn.NAME, isbn.id));
         }
     }
 
@@ -89,11 +132,38 @@ public final class IsbnServiceImpl extends AbstractRepository implements IsbnSer
         db.beginTransaction();
         try {
             bookService.saveBookInfo(bookInfo);
-            markIsbnLookedUp(isbnId, bookInfo.id);
+            isbnRepository.markIsbnLookedUp(isbnId, bookInfo.id);
             db.setTransactionSuccessful();
         } finally {
-            db.endTransaction();
+            endTransaction();
         }
+
+        // The book service has held back its changes until the end of the transaction.
+        changeBus.post(Change.updated(Isbn.NAME, isbnId));
+    }
+
+    /**
+     * Save the books found for a list of ISBNs and mark the ISBNs as looked up,
+     * in a single transaction.
+     *
+     * @param bookInfoList The books that have been found.
+     * @param isbnIdList   The ids of the corresponding ISBNs, in the same order.
+     */
+    public void saveBookInfoBatch(List<BookInfo> bookInfoList, LongArrayList isbnIdList) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            bookService.saveBookInfoBatch(bookInfoList);
+            for (int i = 0; i < bookInfoList.size(); i++) {
+                isbnRepository.markIsbnLookedUp(isbnIdList.get(i), bookInfoList.get(i).id);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            endTransaction();
+        }
+
+        // The book service has held back its changes until the end of the transaction.
+        changeBus.post(Change.updated(Isbn.NAME, isbnIdList.toArray()));
     }
 
     /**
@@ -104,5 +174,6 @@ public final class IsbnServiceImpl extends AbstractRepository implements IsbnSer
      */
     public void markIsbnLookedUp(long isbnId, Long bookId) {
         isbnRepository.markIsbnLookedUp(isbnId, bookId);
+        changeBus.post(Change.updated(Isbn.NAME, isbnId));
     }
 }
@@ -1,5 +1,7 @@
 package com.blackbooks.services;
 
+import com.blackbooks.changes.Change;
+import com.blackbooks.changes.ChangeBus;
 import com.blackbooks.model.persistent.Series;
 import com.blackbooks.repositories.SeriesRepository;
 
@@ -11,9 +13,11 @@ import java.util.List;
 public final class SeriesServiceImpl implements SeriesService {
 
     private final SeriesRepository seriesRepository;
+    private final ChangeBus changeBus;
 
-    public SeriesServiceImpl(SeriesRepository seriesRepository) {
+    public SeriesServiceImpl(SeriesRepository seriesRepository, ChangeBus changeBus) {
         this.seriesRepository = seriesRepository;
+        this.changeBus = changeBus;
     }
 
     /**
@@ -23,6 +27,7 @@ public final class SeriesServiceImpl implements SeriesService {
      */
     public void deleteSeries(long seriesId) {
         seriesRepository.deleteSeries(seriesId);
+        changeBus.post(Change.deleted(Series.NAME, seriesId));
     }
 
     /**
@@ -30,6 +35,7 @@ public final class SeriesServiceImpl implements SeriesService {
      */
     public void deleteSeriesWithoutBooks() {
         seriesRepository.deleteSeriesWithoutBooks();
+        changeBus.post(Change.tableChanged(Series.NAME));
     }
 
     /**
@@ -60,7 +66,14 @@ public final class SeriesServiceImpl implements SeriesService {
      * @return Id of the saved Series.
      */
     public long saveSeries(Series series) {
-        return seriesRepository.saveSeries(series);
+        boolean isCreation = series.id == null;
+        long seriesId = seriesRepository.saveSeries(series);
+        if (isCreation) {
+            changeBus.post(Change.inserted(Series.NAME, seriesId));
+        } else {
+            changeBus.post(Change.updated(Series.NAME, seriesId));
+        }
+        return seriesId;
     }
 
     /**
@@ -81,5 +94,6 @@ public final class SeriesServiceImpl implements SeriesService {
      */
     public void updateSeries(long seriesId, String newName) {
         seriesRepository.updateSeries(seriesId, newName);
+        changeBus.post(Change.updated(Series.NAME, seriesId));
     }
 }
@@ -0,0 +1,12 @@
+package com.blackbooks.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface SnapshotService {
+
+    int writeSnapshot(OutputStream outputStream, boolean compress) throws IOException;
+
+    int readSnapshot(InputStream inputStream) throws IOException;
+}
@@ -0,0 +1,120 @@
+package com.blackbooks.services;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.blackbooks.cache.ThumbnailManager;
+import com.blackbooks.changes.Change;
+import com.blackbooks.changes.ChangeBus;
+import com.blackbooks.database.FullTextIndex;
+import com.blackbooks.database.SQLiteHelper;
+import com.blackbooks.database.Snapshot;
+import com.blackbooks.model.persistent.Book;
+import com.blackbooks.sql.NameCache;
+import com.blackbooks.sql.NameCacheManager;
+import com.blackbooks.sql.QueryCache;
+import com.blackbooks.sql.QueryCacheManager;
+import com.blackbooks.utils.collections.LongArrayList;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes the library to a snapshot and replaces it by the content of a
+ * snapshot. See {@link Snapshot} for the format.
+ */
+public final class SnapshotServiceImpl implements SnapshotService {
+
+    private final SQLiteHelper sqLiteHelper;
+    private final ThumbnailManager thumbnailManager;
+    private final ChangeBus changeBus;
+
+    public SnapshotServiceImpl(SQLiteHelper sqLiteHelper, ThumbnailManager thumbnailManager, ChangeBus changeBus) {
+        this.sqLiteHelper = sqLiteHelper;
+        this.thumbnailManager = thumbnailManager;
+        this.changeBus = changeBus;
+    }
+
+    /**
+     * Write a snapshot of the library. The tables are read in a single
+     * transaction, so that the snapshot is consistent.
+     *
+     * @param outputStream The stream of the snapshot. It is not closed.
+     * @param compress     True to compress the snapshot with deflate.
+     * @return The number of books written.
+     * @throws IOException if the stream cannot be written.
+     */
+    @Override
+    public int writeSnapshot(OutputStream outputStream, boolean compress) throws IOException {
+        SQLiteDatabase db = sqLiteHelper.getWritableDatabase();
+        db.beginTransactionNonExclusive();
+        try {
+            int bookCount = Snapshot.write(db, outputStream, compress);
+            db.setTransactionSuccessful();
+            return bookCount;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Replace the library by the content of a snapshot, in a single
+     * transaction: the library is left as it was if the snapshot cannot be
+     * read. The triggers of the full-text index are dropped while the books
+     * are replaced, and the index is rebuilt once they have all been inserted.
+     *
+     * @param inputStream The stream of the snapshot. It is not closed.
+     * @return The number of books read.
+     * @throws IOException if the stream cannot be read or is not a valid snapshot.
+     */
+    @Override
+    public int readSnapshot(InputStream inputStream) throws IOException {
+        SQLiteDatabase db = sqLiteHelper.getWritableDatabase();
+        LongArrayList previousBookIdList = getBookIdList(db);
+        List<String> tables = Snapshot.getTables();
+
+        int bookCount;
+        db.beginTransaction();
+        try {
+            FullTextIndex.dropTriggers(db);
+            Snapshot.clear(db);
+            bookCount = Snapshot.read(db, inputStream);
+            FullTextIndex.rebuild(db);
+
+            QueryCache queryCache = QueryCacheManager.getCache(db);
+            NameCache nameCache = NameCacheManager.getCache(db);
+            for (String table : tables) {
+                queryCache.invalidate(db, table);
+                nameCache.invalidate(db, table);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            QueryCacheManager.getCache(db).endTransaction(db);
+            NameCacheManager.getCache(db).endTransaction(db);
+        }
+
+        for (int i = 0; i < previousBookIdList.size(); i++) {
+            thumbnailManager.removeThumbnails(previousBookIdList.get(i));
+        }
+        for (String table : tables) {
+            changeBus.post(Change.tableChanged(table));
+        }
+        return bookCount;
+    }
+
+    private static LongArrayList getBookIdList(SQLiteDatabase db) {
+        LongArrayList bookIdList = new LongArrayList();
+        Cursor cursor = db.rawQuery("SELECT " + Book.Cols.BOO_ID + " FROM " + Book.NAME, null);
+        try {
+            while (cursor.moveToNext()) {
+                bookIdList.add(cursor.getLong(0));
+            }
+        } finally {
+            cursor.close();
+        }
+        return bookIdList;
+    }
+}
@@ -1,48 +1,38 @@
 package com.blackbooks.services;
 
 import com.blackbooks.model.nonpersistent.Summary;
-import com.blackbooks.repositories.AuthorRepository;
-import com.blackbooks.repositories.BookLocationRepository;
+import com.blackbooks.model.persistent.LibraryStats;
 import com.blackbooks.repositories.BookRepository;
-import com.blackbooks.repositories.CategoryRepository;
-import com.blackbooks.repositories.SeriesRepository;
+import com.blackbooks.repositories.LibraryStatsRepository;
 
 /**
  * Summary services.
  */
 public final class SummaryServiceImpl implements SummaryService {
 
-    private final AuthorRepository authorRepository;
-    private final BookLocationRepository bookLocationRepository;
     private final BookRepository bookRepository;
-    private final CategoryRepository categoryRepository;
-    private final SeriesRepository seriesRepository;
+    private final LibraryStatsRepository libraryStatsRepository;
 
     public SummaryServiceImpl(
-            AuthorRepository authorRepository,
-            BookLocationRepository bookLocationRepository,
             BookRepository bookRepository,
-            CategoryRepository categoryRepository,
-            SeriesRepository seriesRepository) {
-        this.authorRepository = authorRepository;
-        this.bookLocationRepository = bookLocationRepository;
+            LibraryStatsRepository libraryStatsRepository) {
         this.bookRepository = bookRepository;
-        this.categoryRepository = categoryRepository;
-        this.seriesRepository = seriesRepository;
+        this.libraryStatsRepository = libraryStatsRepository;
     }
 
     public Summary getSummary() {
+        LibraryStats libraryStats = libraryStatsRepository.getLibraryStats();
         Summary summary = new Summary();
 
-        summary.books = bookRepository.getBookCount();
-        summary.authors = authorRepository.getAuthorCount();
-        summary.categories = categoryRepository.getCategoryCount();
-        summary.languages = bookRepository.getLanguageCount();
-        summary.series = seriesRepository.getSeriesCount();
-        summary.bookLocations = bookLocationRepository.getBookLocationCount();
-        summary.toRead = bookRepository.getBookToReadCount();
-        summary.loans = bookRepository.getBookLoanCount();
-        summary.favourites = bookRepository.getFavouriteBooks();
+        summary.books = libraryStats.books.intValue();
+        summary.authors = libraryStats.authors.intValue();
+        summary.categories = libraryStats.categories.intValue();
+        summary.languages = libraryStats.languages.intValue();
+        summary.series = libraryStats.series.intValue();
+        summary.bookLocations = libraryStats.bookLocations.intValue();
+        summary.toRead = libraryStats.toRead.intValue();
+        summary.loans = libraryStats.loans.intValue();
+        summary.favourites = libraryStats.favourites.intValue();
 
         return summary;
     }
@@ -0,0 +1,105 @@
+package com.blackbooks.sql;
+
+import android.database.Cursor;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the rows of a query, mapping them to beans one at a time instead of building a
+ * list of all the results.
+ * <p/>
+ * The underlying cursor is closed as soon as the last row has been read. It must be closed with
+ * {@link #close()} when the iteration is stopped early. A BeanCursor can be iterated only once.
+ *
+ * @param <T> Type of the persistent object.
+ */
+public final class BeanCursor<T> implements Iterator<T>, Iterable<T>, Closeable {
+
+    private final Broker<T> mBroker;
+    private final Cursor mCursor;
+    private final CursorColumns mCursorColumns;
+    private final T mReusedBean;
+    private final int mCount;
+
+    private boolean mHasNext;
+    private boolean mClosed;
+
+    /**
+     * Constructor.
+     *
+     * @param broker    The broker of the table.
+     * @param cursor    The cursor to iterate over.
+     * @param reuseBean True to fill the same instance of T for all the rows, false to create a
+     *                  new instance per row.
+     */
+    BeanCursor(Broker<T> broker, Cursor cursor, boolean reuseBean) {
+        mBroker = broker;
+        mCursor = cursor;
+        mCursorColumns = broker.getCursorColumns(cursor);
+        mReusedBean = reuseBean ? broker.newBean() : null;
+        mCount = cursor.getCount();
+        mHasNext = cursor.moveToNext();
+        if (!mHasNext) {
+            close();
+        }
+    }
+
+    /**
+     * Get the number of rows of the query.
+     *
+     * @return Row count.
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return mHasNext;
+    }
+
+    /**
+     * Return the next row. When the bean is reused, the returned instance is overwritten by the
+     * following call.
+     *
+     * @return T.
+     */
+    @Override
+    public T next() {
+        if (!mHasNext) {
+            throw new NoSuchElementException();
+        }
+        T bean = mReusedBean != null ? mReusedBean : mBroker.newBean();
+        mBroker.readBean(mCursor, mCursorColumns, bean);
+
+        mHasNext = mCursor.moveToNext();
+        if (!mHasNext) {
+            close();
+        }
+        return bean;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return this;
+    }
+
+    /**
+     * Close the underlying cursor. Calling this method more than once has no effect.
+     */
+    @Override
+    public void close() {
+        if (!mClosed) {
+            mClosed = true;
+            mHasNext = false;
+            mCursor.close();
+        }
+    }
+}
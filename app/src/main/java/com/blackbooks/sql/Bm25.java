@@ -0,0 +1,83 @@
+package com.blackbooks.sql;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Computes the Okapi BM25 relevance of a row of a FTS4 table, the ranking
+ * the bm25() function of FTS5 computes, from the result of
+ * matchinfo(table, '{@value #MATCHINFO_FORMAT}'). The SQLite of the
+ * platform has no FTS5 nor custom SQL functions, so the score is computed
+ * in Java.
+ * <p>
+ * As in FTS5, the hits of a phrase in a row are the hits in each column
+ * multiplied by the weight of the column, and the length of the row is its
+ * total number of tokens. FTS4 only tells the number of rows having a phrase
+ * in each column: the number of rows having it in any column is taken as the
+ * largest of these numbers.
+ */
+public final class Bm25 {
+
+    /**
+     * The format of matchinfo() read by {@link #score(byte[], double[])}.
+     */
+    public static final String MATCHINFO_FORMAT = "pcnalx";
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /**
+     * The smallest inverse document frequency, given to the phrases found in
+     * more than half of the rows. It keeps them from lowering the score.
+     */
+    private static final double MIN_IDF = 1e-6;
+
+    private Bm25() {
+    }
+
+    /**
+     * Compute the relevance of a row.
+     *
+     * @param matchinfo The result of matchinfo() for the row, in the {@link #MATCHINFO_FORMAT} format.
+     * @param weights   The weight of each column of the table, in the order of the columns.
+     * @return The score of the row, higher when the row is more relevant.
+     */
+    public static double score(byte[] matchinfo, double[] weights) {
+        // matchinfo() returns 32-bit unsigned integers in the byte order of
+        // the machine.
+        IntBuffer values = ByteBuffer.wrap(matchinfo).order(ByteOrder.nativeOrder()).asIntBuffer();
+        int phraseCount = values.get(0);
+        int columnCount = values.get(1);
+        long rowCount = values.get(2) & 0xFFFFFFFFL;
+        int averageLengths = 3;
+        int lengths = averageLengths + columnCount;
+        int hits = lengths + columnCount;
+
+        double averageRowLength = 0;
+        double rowLength = 0;
+        for (int c = 0; c < columnCount; c++) {
+            averageRowLength += values.get(averageLengths + c) & 0xFFFFFFFFL;
+            rowLength += values.get(lengths + c) & 0xFFFFFFFFL;
+        }
+        double lengthNorm = K1 * (1 - B + B * (averageRowLength > 0 ? rowLength / averageRowLength : 1));
+
+        double score = 0;
+        for (int p = 0; p < phraseCount; p++) {
+            double frequency = 0;
+            long rowsWithPhrase = 0;
+            for (int c = 0; c < columnCount; c++) {
+                int index = hits + 3 * (p * columnCount + c);
+                double weight = c < weights.length ? weights[c] : 1;
+                frequency += weight * (values.get(index) & 0xFFFFFFFFL);
+                rowsWithPhrase = Math.max(rowsWithPhrase, values.get(index + 2) & 0xFFFFFFFFL);
+            }
+            double idf = Math.log((rowCount - rowsWithPhrase + 0.5) / (rowsWithPhrase + 0.5));
+            if (idf <= 0) {
+                idf = MIN_IDF;
+            }
+            score += idf * frequency * (K1 + 1) / (frequency + lengthNorm);
+        }
+        return score;
+    }
+}
@@ -1,19 +1,29 @@
 package com.blackbooks.sql;
 
-import android.content.ContentValues;
 import android.database.Cursor;
+import android.database.sqlite.SQLiteCursor;
+import android.database.sqlite.SQLiteCursorDriver;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteQuery;
+import android.database.sqlite.SQLiteStatement;
 
 import com.blackbooks.model.metadata.Column;
 import com.blackbooks.model.metadata.Table;
+import com.blackbooks.model.metadata.Trackable;
 import com.blackbooks.utils.ReflectionUtils;
 import com.blackbooks.utils.StringUtils;
+import com.blackbooks.utils.collections.LongArrayList;
 
 import java.lang.reflect.Field;
+import java.nio.charset.Charset;
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class allows to perform all basic operations on a SQLite table.
@@ -24,15 +34,57 @@ public final class Broker<T> {
 
     private static final int MAX_SQL_PARAMETERS = 250;
 
+    /**
+     * The maximum number of UPDATE statements kept per broker, one per
+     * combination of modified columns, the least recently used being
+     * dropped.
+     */
+    private static final int MAX_SQL_UPDATE_COUNT = 16;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int WHERE_IN_LENGTH_DIGITS = 6;
+    private static final int MAX_WHERE_IN_VALUE_LENGTH = 999999;
+
+    /**
+     * Split the blob of ?1 into the rows of WHERE_IN_VALUES, see
+     * {@link #getAllWhereInValues(SQLiteDatabase, String, String[])}.
+     */
+    private static final String SQL_WHERE_IN_VALUES = "WITH RECURSIVE WHERE_IN_VALUES(POSITION, VALUE) AS (SELECT 1, NULL UNION ALL "
+            + "SELECT POSITION + " + WHERE_IN_LENGTH_DIGITS + " + CAST(substr(?1, POSITION, " + WHERE_IN_LENGTH_DIGITS + ") AS INTEGER), "
+            + "CAST(substr(?1, POSITION + " + WHERE_IN_LENGTH_DIGITS + ", CAST(substr(?1, POSITION, " + WHERE_IN_LENGTH_DIGITS + ") AS INTEGER)) AS TEXT) "
+            + "FROM WHERE_IN_VALUES WHERE POSITION <= length(?1)) ";
+
+    /**
+     * Original value of the columns that were not part of the cursor a bean
+     * was read from.
+     */
+    private static final Object NOT_LOADED = new Object();
+
     private final Class<T> mType;
     private final Table mTable;
     private final Field mPrimaryKeyField;
     private final Column mPrimaryKeyColumn;
     private final HashMap<Field, Column> mColumnMap = new HashMap<Field, Column>();
+    private final List<Field> mFields = new ArrayList<Field>();
+    private final RowBinder<T> mRowBinder;
+    private final String[] mValueColumnNames;
+    private final boolean mTrackable;
 
     private final String mSqlCreateTable;
     private final List<String> mSqlCreateIndexes;
 
+    private final String mSqlSelectById;
+    private final String mSqlInsert;
+    private final String mSqlUpdate;
+    private final String mSqlDelete;
+    private final HashMap<Long, FilterShape> mFilterShapeMap = new HashMap<Long, FilterShape>();
+    private final LinkedHashMap<Long, String> mSqlUpdateMap = new LinkedHashMap<Long, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+            return size() > MAX_SQL_UPDATE_COUNT;
+        }
+    };
+
     /**
      * Constructor.
      *
@@ -57,6 +109,7 @@ public final class Broker<T> {
             if (column != null) {
                 columns.add(column);
                 mColumnMap.put(field, column);
+                mFields.add(field);
 
                 if (column.primaryKey()) {
                     if (primaryKeyField != null) {
@@ -77,6 +130,64 @@ public final class Broker<T> {
 
         mSqlCreateTable = SqlBuilder.buildSqlCreateTable(mTable, columns);
         mSqlCreateIndexes = SqlBuilder.buildSqlCreateIndexes(mTable, columns);
+
+        mRowBinder = findRowBinder(type);
+
+        String[] valueColumnNames = getValueColumnNames();
+
+        mValueColumnNames = valueColumnNames;
+        mTrackable = Trackable.class.isAssignableFrom(type);
+        if (mTrackable && valueColumnNames.length > Long.SIZE) {
+            throw new IllegalArgumentException("Table " + mTable.name() + " has too many columns to be tracked.");
+        }
+
+        String primaryKeyCondition = mPrimaryKeyColumn.name() + " = ?";
+        mSqlSelectById = SqlBuilder.buildSqlSelect(mTable.name(), null, primaryKeyCondition);
+        mSqlInsert = SqlBuilder.buildSqlInsert(mTable.name(), valueColumnNames);
+        mSqlUpdate = SqlBuilder.buildSqlUpdate(mTable.name(), valueColumnNames, mPrimaryKeyColumn.name());
+        mSqlDelete = SqlBuilder.buildSqlDelete(mTable.name(), primaryKeyCondition);
+    }
+
+    /**
+     * Get the names of the columns, except the primary key, in the order in
+     * which their values are bound by {@link #bindValues(SQLiteStatement, Object)}.
+     *
+     * @return Column names.
+     */
+    private String[] getValueColumnNames() {
+        if (mRowBinder != null) {
+            return mRowBinder.getValueColumnNames();
+        }
+        List<String> valueColumnNameList = new ArrayList<String>();
+        for (Field field : mFields) {
+            Column column = mColumnMap.get(field);
+            if (field != mPrimaryKeyField && !column.readOnly()) {
+                valueColumnNameList.add(column.name());
+            }
+        }
+        return valueColumnNameList.toArray(new String[valueColumnNameList.size()]);
+    }
+
+    /**
+     * Look for the RowBinder generated for a type.
+     *
+     * @param type The type representing the table.
+     * @return The generated RowBinder or null if the type does not have one.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> RowBinder<T> findRowBinder(Class<T> type) {
+        RowBinder<T> rowBinder;
+        try {
+            Class<?> binderType = Class.forName(type.getName() + RowBinder.SUFFIX, true, type.getClassLoader());
+            rowBinder = (RowBinder<T>) binderType.newInstance();
+        } catch (ClassNotFoundException e) {
+            rowBinder = null;
+        } catch (InstantiationException e) {
+            throw new RuntimeException(e);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+        return rowBinder;
     }
 
     /**
@@ -98,9 +209,17 @@ public final class Broker<T> {
      * @param id Id of the row to delete.
      */
     public void delete(SQLiteDatabase db, long id) {
-        String whereClause = mPrimaryKeyColumn.name() + " = ?";
-        String whereArgs[] = new String[]{String.valueOf(id)};
-        db.delete(mTable.name(), whereClause, whereArgs);
+        SQLiteStatement statement = StatementCacheManager.getCache(db).getStatement(mSqlDelete);
+        try {
+            synchronized (statement) {
+                statement.clearBindings();
+                statement.bindLong(1, id);
+                statement.executeUpdateDelete();
+            }
+        } finally {
+            statement.releaseReference();
+        }
+        invalidateQueryCache(db);
     }
 
     /**
@@ -115,10 +234,19 @@ public final class Broker<T> {
     public void deleteAllByCriteria(SQLiteDatabase db, T criteria) {
         Filter filter = buildFilter(criteria);
 
-        String whereClause = filter.condition;
-        String[] whereArgs = filter.values;
-
-        db.delete(mTable.name(), whereClause, whereArgs);
+        SQLiteStatement statement = StatementCacheManager.getCache(db).getStatement(filter.shape.sqlDelete);
+        try {
+            synchronized (statement) {
+                statement.clearBindings();
+                for (int i = 0; i < filter.values.length; i++) {
+                    StatementCache.bindValue(statement, i + 1, filter.values[i]);
+                }
+                statement.executeUpdateDelete();
+            }
+        } finally {
+            statement.releaseReference();
+        }
+        invalidateQueryCache(db);
     }
 
     /**
@@ -129,12 +257,11 @@ public final class Broker<T> {
      * @return Object representing the selected row.
      */
     public T get(SQLiteDatabase db, long id) {
-        String selection = mPrimaryKeyColumn.name() + " = ?";
         String[] selectionArgs = new String[]{String.valueOf(id)};
-        Cursor cursor = query(db, null, selection, selectionArgs, null);
+        Cursor cursor = db.rawQuery(mSqlSelectById, selectionArgs);
         T bean = null;
         if (cursor.moveToFirst()) {
-            bean = cursorToBean(cursor);
+            bean = cursorToBean(cursor, getCursorColumns(cursor));
         }
         cursor.close();
         return bean;
@@ -178,16 +305,19 @@ public final class Broker<T> {
      */
     public List<T> getAllByCriteria(SQLiteDatabase db, T criteria) {
         Filter filter = buildFilter(criteria);
-
-        String selection = filter.condition;
-        String[] selectionArgs = filter.values;
-
-        Cursor cursor = query(db, null, selection, selectionArgs, null);
+        Cursor cursor = db.rawQuery(filter.shape.sqlSelect, filter.getSelectionArgs());
         return cursorToBeanList(cursor);
     }
 
     /**
-     * Return the rows where a given column matches one of the given values..
+     * Return the rows where a given column matches one of the given values.
+     * <p/>
+     * Up to {@link #MAX_SQL_PARAMETERS} values, they are passed as the
+     * arguments of an "IN (?, ?, ...)" query. Beyond that, they are all passed
+     * in a single blob argument, split into rows by a common table expression
+     * (see {@link #getAllWhereInValues(SQLiteDatabase, String, String[])}).
+     * Either way, it is a single query that only reads, so that it never
+     * waits for a writer of the database.
      *
      * @param db     SQLiteDatabase.
      * @param column The column used to filter the rows.
@@ -195,59 +325,109 @@ public final class Broker<T> {
      * @return List of rows corresponding to the values.
      */
     public List<T> getAllWhereIn(SQLiteDatabase db, String column, List<?> values) {
+        String[] selectionArgs = new String[values.size()];
+        for (int i = 0; i < values.size(); i++) {
+            selectionArgs[i] = values.get(i).toString();
+        }
+        return getAllWhereIn(db, column, selectionArgs);
+    }
 
-        int valueCount = values.size();
+    /**
+     * Return the rows where a given integer column, usually an id, matches one
+     * of the given values. Same as {@link #getAllWhereIn(SQLiteDatabase, String, List)},
+     * without boxing the values.
+     *
+     * @param db     SQLiteDatabase.
+     * @param column The column used to filter the rows.
+     * @param values List of values.
+     * @return List of rows corresponding to the values.
+     */
+    public List<T> getAllWhereIn(SQLiteDatabase db, String column, LongArrayList values) {
+        String[] selectionArgs = new String[values.size()];
+        for (int i = 0; i < values.size(); i++) {
+            selectionArgs[i] = Long.toString(values.get(i));
+        }
+        return getAllWhereIn(db, column, selectionArgs);
+    }
 
-        List<T> results = new ArrayList<T>();
-        int startIndex = 0;
-        int endIndex;
-        if (valueCount <= MAX_SQL_PARAMETERS) {
-            endIndex = valueCount;
+    private List<T> getAllWhereIn(SQLiteDatabase db, String column, String[] values) {
+        List<T> results;
+        if (values.length == 0) {
+            results = new ArrayList<T>();
+        } else if (values.length <= MAX_SQL_PARAMETERS) {
+            results = getAllWhereInParameters(db, column, values);
         } else {
-            endIndex = MAX_SQL_PARAMETERS;
+            results = getAllWhereInValues(db, column, values);
         }
+        return results;
+    }
 
+    /**
+     * Return the rows where a given column matches one of the given values,
+     * passed as the arguments of the query.
+     *
+     * @param db            SQLiteDatabase.
+     * @param column        The column used to filter the rows.
+     * @param selectionArgs The values, no more than {@link #MAX_SQL_PARAMETERS}.
+     * @return List of rows corresponding to the values.
+     */
+    private List<T> getAllWhereInParameters(SQLiteDatabase db, String column, String[] selectionArgs) {
         StringBuilder sb = new StringBuilder();
-        sb.append("SELECT * FROM");
-        sb.append(' ');
-        sb.append(mTable.name());
-        sb.append(' ');
-        sb.append("WHERE");
-        sb.append(' ');
-        sb.append(column);
-        sb.append(' ');
-        sb.append("IN (%s);");
-        String sqlFormat = sb.toString();
-
-        boolean goOn = true;
-        while (goOn) {
-            List<?> valuesSubList = values.subList(startIndex, endIndex);
-            if (valuesSubList.isEmpty()) {
-                goOn = false;
-            } else {
-                StringBuilder sbSelectionArgs = new StringBuilder();
-                String selectionArgs[] = new String[valuesSubList.size()];
-                for (int i = 0; i < valuesSubList.size(); i++) {
-                    sbSelectionArgs.append('?');
-                    if (i < valuesSubList.size() - 1) {
-                        sbSelectionArgs.append(", ");
-                    }
-
-                    selectionArgs[i] = valuesSubList.get(i).toString();
-                }
-                String sql = String.format(sqlFormat, sbSelectionArgs.toString());
-
-                results.addAll(rawSelect(db, sql, selectionArgs));
+        for (int i = 0; i < selectionArgs.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('?');
+        }
+        String condition = column + " IN (" + sb.toString() + ")";
+        String sql = SqlBuilder.buildSqlSelect(mTable.name(), null, condition);
+        return rawSelect(db, sql, selectionArgs);
+    }
 
-                startIndex = endIndex;
-                endIndex = endIndex + MAX_SQL_PARAMETERS;
-                if (endIndex > valueCount) {
-                    endIndex = valueCount;
-                }
+    /**
+     * Return the rows where a given column matches one of the given values,
+     * passed in a single blob argument: each value in UTF-8, preceded by its
+     * length on {@link #WHERE_IN_LENGTH_DIGITS} digits. The recursive common
+     * table expression WHERE_IN_VALUES splits the blob into a row per value.
+     * substr() reads a blob at a byte offset, where it would walk a text from
+     * its start, so the cost grows linearly with the number of values.
+     *
+     * @param db     SQLiteDatabase.
+     * @param column The column used to filter the rows.
+     * @param values The values.
+     * @return List of rows corresponding to the values.
+     */
+    private List<T> getAllWhereInValues(SQLiteDatabase db, String column, String[] values) {
+        byte[][] encodedValues = new byte[values.length][];
+        int length = 0;
+        for (int i = 0; i < values.length; i++) {
+            encodedValues[i] = values[i].getBytes(UTF_8);
+            if (encodedValues[i].length > MAX_WHERE_IN_VALUE_LENGTH) {
+                throw new InvalidParameterException("Value too long: " + values[i]);
+            }
+            length += WHERE_IN_LENGTH_DIGITS + encodedValues[i].length;
+        }
+        final byte[] blob = new byte[length];
+        int position = 0;
+        for (byte[] encodedValue : encodedValues) {
+            for (int i = WHERE_IN_LENGTH_DIGITS - 1, n = encodedValue.length; i >= 0; i--, n /= 10) {
+                blob[position + i] = (byte) ('0' + n % 10);
             }
+            position += WHERE_IN_LENGTH_DIGITS;
+            System.arraycopy(encodedValue, 0, blob, position, encodedValue.length);
+            position += encodedValue.length;
         }
 
-        return results;
+        String condition = column + " IN (SELECT VALUE FROM WHERE_IN_VALUES WHERE VALUE IS NOT NULL)";
+        String sql = SQL_WHERE_IN_VALUES + SqlBuilder.buildSqlSelect(mTable.name(), null, condition);
+        Cursor cursor = db.rawQueryWithFactory(new SQLiteDatabase.CursorFactory() {
+            @Override
+            public Cursor newCursor(SQLiteDatabase database, SQLiteCursorDriver masterQuery, String editTable, SQLiteQuery query) {
+                query.bindBlob(1, blob);
+                return new SQLiteCursor(masterQuery, editTable, query);
+            }
+        }, sql, null, null);
+        return cursorToBeanList(cursor);
     }
 
     /**
@@ -259,12 +439,91 @@ public final class Broker<T> {
      * @return An instance of T.
      */
     public T getByCriteria(SQLiteDatabase db, T criteria) {
-        List<T> list = getAllByCriteria(db, criteria);
-        T result = null;
-        if (list.size() == 1) {
-            result = list.get(0);
+        BeanCursor<T> beanCursor = iterateByCriteria(db, criteria, false);
+        try {
+            T result = null;
+            if (beanCursor.hasNext()) {
+                result = beanCursor.next();
+                if (beanCursor.hasNext()) {
+                    result = null;
+                }
+            }
+            return result;
+        } finally {
+            beanCursor.close();
+        }
+    }
+
+    /**
+     * Iterate over all the rows of the table, one at a time.
+     *
+     * @param db             SQLiteDatabase.
+     * @param sortingColumns The name of the columns used to sort the results.
+     * @param reuseBean      True to fill the same instance of T for all the rows.
+     * @return BeanCursor.
+     */
+    public BeanCursor<T> iterateAll(SQLiteDatabase db, String[] sortingColumns, boolean reuseBean) {
+        String orderBy = StringUtils.join(sortingColumns, ",");
+        Cursor cursor = query(db, null, null, null, orderBy);
+        return new BeanCursor<T>(this, cursor, reuseBean);
+    }
+
+    /**
+     * Iterate over the rows corresponding to criteria represented by the
+     * instance of T, one at a time.
+     *
+     * @param db        SQLiteDatabase.
+     * @param criteria  T.
+     * @param reuseBean True to fill the same instance of T for all the rows.
+     * @return BeanCursor.
+     */
+    public BeanCursor<T> iterateByCriteria(SQLiteDatabase db, T criteria, boolean reuseBean) {
+        Filter filter = buildFilter(criteria);
+        Cursor cursor = db.rawQuery(filter.shape.sqlSelect, filter.getSelectionArgs());
+        return new BeanCursor<T>(this, cursor, reuseBean);
+    }
+
+    /**
+     * Executes an SQL statement and iterate over the result, one row at a
+     * time.
+     *
+     * @param db            SQLiteDatabase.
+     * @param sql           The SQL statement to execute.
+     * @param selectionArgs You may include ?s in where clause in the query, which will be
+     *                      replaced by the values from selectionArgs. The values will be
+     *                      bound as Strings.
+     * @param reuseBean     True to fill the same instance of T for all the rows.
+     * @return BeanCursor.
+     */
+    public BeanCursor<T> rawIterate(SQLiteDatabase db, String sql, String[] selectionArgs, boolean reuseBean) {
+        Cursor cursor = db.rawQuery(sql, selectionArgs);
+        return new BeanCursor<T>(this, cursor, reuseBean);
+    }
+
+    /**
+     * Executes an SQL statement and pass each row of the result to a visitor.
+     * The cursor is always closed, even if the visitor stops early or throws
+     * an exception.
+     *
+     * @param db            SQLiteDatabase.
+     * @param sql           The SQL statement to execute.
+     * @param selectionArgs You may include ?s in where clause in the query, which will be
+     *                      replaced by the values from selectionArgs. The values will be
+     *                      bound as Strings.
+     * @param reuseBean     True to fill the same instance of T for all the rows.
+     * @param visitor       RowVisitor.
+     */
+    public void rawVisit(SQLiteDatabase db, String sql, String[] selectionArgs, boolean reuseBean, RowVisitor<T> visitor) {
+        BeanCursor<T> beanCursor = rawIterate(db, sql, selectionArgs, reuseBean);
+        try {
+            while (beanCursor.hasNext()) {
+                if (!visitor.visit(beanCursor.next())) {
+                    break;
+                }
+            }
+        } finally {
+            beanCursor.close();
         }
-        return result;
     }
 
     /**
@@ -282,21 +541,59 @@ public final class Broker<T> {
         return cursorToBeanList(cursor);
     }
 
+    /**
+     * Indicates whether some columns of a bean have been modified since it was
+     * read or last saved. A bean whose type is not {@link Trackable}, or that
+     * has not been read through the broker, is always considered modified.
+     *
+     * @param bean        T.
+     * @param columnNames The columns to check, none to check all the columns.
+     * @return True if at least one of the columns has been modified.
+     */
+    public boolean isModified(T bean, String... columnNames) {
+        Object[] originalValues = getOriginalValues(bean);
+        if (originalValues == null) {
+            return true;
+        }
+        long mask = getModifiedMask(originalValues, getValues(bean));
+        if (columnNames.length == 0) {
+            return mask != 0;
+        }
+        for (String columnName : columnNames) {
+            int index = Arrays.asList(mValueColumnNames).indexOf(columnName);
+            if (index == -1) {
+                throw new IllegalArgumentException("Column " + columnName + " is not a value column of table " + mTable.name() + ".");
+            }
+            if ((mask & (1L << index)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Save a bean in the database. If the primary key of the bean is null, a
      * corresponding row is inserted. If the primary key of the bean is NOT
-     * null, the corresponding row is updated.
+     * null, the corresponding row is updated. When the type of the bean is
+     * {@link Trackable}, only the modified columns are updated.
      *
      * @param db   SQLiteDatabase.
      * @param bean T.
      * @return Id of the inserted or updated row.
      */
     public long save(SQLiteDatabase db, T bean) {
-        Long id = (Long) ReflectionUtils.getFieldValue(mPrimaryKeyField, bean);
+        Long id = getPrimaryKey(bean);
 
         if (id == null) {
             id = insert(db, bean);
-            ReflectionUtils.setFieldValue(mPrimaryKeyField, bean, id);
+            if (mRowBinder != null) {
+                mRowBinder.setPrimaryKey(bean, id);
+            } else {
+                ReflectionUtils.setFieldValue(mPrimaryKeyField, bean, id);
+            }
+            if (mTrackable) {
+                ((Trackable) bean).setOriginalValues(getValues(bean));
+            }
         } else {
             update(db, bean);
         }
@@ -305,52 +602,72 @@ public final class Broker<T> {
     }
 
     /**
-     * Creates a new instance of ContentValues and fills it with the content of
-     * a bean.
+     * Save a list of beans in the database, in a single transaction. Each bean
+     * is inserted or updated as in {@link #save(SQLiteDatabase, Object)}, the
+     * same compiled statements being reused for all the beans.
      *
-     * @param bean Bean.
-     * @return ContentValues.
+     * @param db    SQLiteDatabase.
+     * @param beans List of T.
      */
-    private ContentValues buildContentValues(T bean) {
+    public void saveAll(SQLiteDatabase db, List<? extends T> beans) {
+        db.beginTransaction();
+        try {
+            for (T bean : beans) {
+                save(db, bean);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            QueryCacheManager.getCache(db).endTransaction(db);
+            NameCacheManager.getCache(db).endTransaction(db);
+        }
+    }
+
+    /**
+     * Bind the values of all the columns of a bean, except its primary key, to
+     * the arguments of a statement, starting at index 1.
+     *
+     * @param statement SQLiteStatement.
+     * @param bean      Bean.
+     */
+    private void bindValues(SQLiteStatement statement, T bean) {
         if (!mType.isAssignableFrom(bean.getClass())) {
             throw new IllegalArgumentException("Type mismatch.");
         }
 
-        ContentValues values = new ContentValues();
-        for (Field field : mColumnMap.keySet()) {
-            if (field == mPrimaryKeyField) {
+        if (mRowBinder != null) {
+            mRowBinder.bindValues(bean, statement);
+            return;
+        }
+
+        int index = 1;
+        for (Field field : mFields) {
+            Column column = mColumnMap.get(field);
+            if (field == mPrimaryKeyField || column.readOnly()) {
                 continue;
             }
-            Column column = mColumnMap.get(field);
 
-            String columnName = column.name();
+            Object value = ReflectionUtils.getFieldValue(field, bean);
             switch (column.type()) {
                 case BLOB:
-                    byte[] byteArrayValue = (byte[]) ReflectionUtils.getFieldValue(field, bean);
+                    byte[] byteArrayValue = (byte[]) value;
                     if (byteArrayValue != null && byteArrayValue.length == 0) {
-                        byteArrayValue = null;
+                        value = null;
                     }
-                    values.put(columnName, byteArrayValue);
-                    break;
-
-                case INTEGER:
-                    Long intValue = (Long) ReflectionUtils.getFieldValue(field, bean);
-                    values.put(columnName, intValue);
                     break;
 
                 case TEXT:
-                    String stringValue = (String) ReflectionUtils.getFieldValue(field, bean);
-                    if (stringValue != null) {
-                        stringValue = stringValue.trim();
+                    if (value != null) {
+                        value = ((String) value).trim();
                     }
-                    values.put(columnName, stringValue);
                     break;
 
                 default:
                     break;
             }
+            StatementCache.bindValue(statement, index, value);
+            index++;
         }
-        return values;
     }
 
     /**
@@ -361,95 +678,319 @@ public final class Broker<T> {
      * @return Filter.
      */
     private Filter buildFilter(T criteria) {
-        List<String> columns = new ArrayList<String>();
-        List<String> filedValues = new ArrayList<String>();
+        long mask = 0;
+        List<Object> fieldValues = new ArrayList<Object>();
 
-        for (Field field : mColumnMap.keySet()) {
-            Object fieldValue;
-            fieldValue = ReflectionUtils.getFieldValue(field, criteria);
+        for (int i = 0; i < mFields.size(); i++) {
+            Object fieldValue = ReflectionUtils.getFieldValue(mFields.get(i), criteria);
             if (fieldValue != null) {
-                Column column = mColumnMap.get(field);
+                mask |= 1L << i;
+                fieldValues.add(fieldValue);
+            }
+        }
+
+        Filter filter = new Filter();
+        filter.shape = getFilterShape(mask);
+        filter.values = fieldValues.toArray();
+        return filter;
+    }
+
+    /**
+     * Get the statements corresponding to a combination of filtered columns.
+     * They are built only once per combination.
+     *
+     * @param mask The bit i is set if the i-th field is part of the filter.
+     * @return FilterShape.
+     */
+    private FilterShape getFilterShape(long mask) {
+        synchronized (mFilterShapeMap) {
+            FilterShape shape = mFilterShapeMap.get(mask);
+            if (shape == null) {
+                StringBuilder sb = new StringBuilder();
+                for (int i = 0; i < mFields.size(); i++) {
+                    if ((mask & (1L << i)) != 0) {
+                        if (sb.length() > 0) {
+                            sb.append("AND");
+                            sb.append(' ');
+                        }
+                        sb.append(mColumnMap.get(mFields.get(i)).name());
+                        sb.append(" = ?");
+                        sb.append("\n");
+                    }
+                }
+                String condition = sb.toString();
 
-                columns.add(column.name());
-                filedValues.add(fieldValue.toString());
+                shape = new FilterShape();
+                shape.sqlSelect = SqlBuilder.buildSqlSelect(mTable.name(), null, condition);
+                shape.sqlDelete = SqlBuilder.buildSqlDelete(mTable.name(), condition);
+                mFilterShapeMap.put(mask, shape);
             }
+            return shape;
         }
+    }
 
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < columns.size(); i++) {
-            String column = columns.get(i);
-            if (i > 0) {
-                sb.append("AND");
-                sb.append(' ');
+    /**
+     * Get the UPDATE statement corresponding to a combination of modified
+     * columns. The statements of the most recent combinations are kept.
+     *
+     * @param mask The bit i is set if the i-th value column is modified.
+     * @return SQL statement.
+     */
+    private String getSqlUpdate(long mask) {
+        synchronized (mSqlUpdateMap) {
+            String sql = mSqlUpdateMap.get(mask);
+            if (sql == null) {
+                List<String> columnNameList = new ArrayList<String>();
+                for (int i = 0; i < mValueColumnNames.length; i++) {
+                    if ((mask & (1L << i)) != 0) {
+                        columnNameList.add(mValueColumnNames[i]);
+                    }
+                }
+                String[] columnNames = columnNameList.toArray(new String[columnNameList.size()]);
+                sql = SqlBuilder.buildSqlUpdate(mTable.name(), columnNames, mPrimaryKeyColumn.name());
+                mSqlUpdateMap.put(mask, sql);
             }
+            return sql;
+        }
+    }
 
-            sb.append(column);
-            sb.append(" = ?");
-            sb.append("\n");
+    /**
+     * Compare the values of the columns of a bean with its original values.
+     * The columns that were not loaded are never considered modified.
+     *
+     * @param originalValues The original values.
+     * @param values         The current values.
+     * @return The bit i is set if the i-th value column is modified.
+     */
+    private static long getModifiedMask(Object[] originalValues, Object[] values) {
+        long mask = 0;
+        for (int i = 0; i < values.length; i++) {
+            Object originalValue = originalValues[i];
+            Object value = values[i];
+            if (originalValue == NOT_LOADED) {
+                continue;
+            }
+            boolean equal;
+            if (originalValue == null || value == null) {
+                equal = originalValue == value;
+            } else if (originalValue instanceof byte[] && value instanceof byte[]) {
+                equal = Arrays.equals((byte[]) originalValue, (byte[]) value);
+            } else {
+                equal = originalValue.equals(value);
+            }
+            if (!equal) {
+                mask |= 1L << i;
+            }
         }
+        return mask;
+    }
 
-        String condition = sb.toString();
-        String[] values = filedValues.toArray(new String[filedValues.size()]);
+    /**
+     * Get the original values of a bean.
+     *
+     * @param bean Bean.
+     * @return The original values, or null if the bean is not tracked.
+     */
+    private Object[] getOriginalValues(T bean) {
+        Object[] originalValues = null;
+        if (mTrackable) {
+            originalValues = ((Trackable) bean).getOriginalValues();
+        }
+        return originalValues;
+    }
 
-        Filter filter = new Filter();
-        filter.condition = condition;
-        filter.values = values;
-        return filter;
+    /**
+     * Get the values of all the columns of a bean, except its primary key, in
+     * the order of {@link #getValueColumnNames()}. The values are
+     * normalized as they are written in the table: the strings are trimmed,
+     * the empty byte arrays are null and the dates are converted to
+     * milliseconds.
+     *
+     * @param bean Bean.
+     * @return The values.
+     */
+    private Object[] getValues(T bean) {
+        Object[] values = new Object[mValueColumnNames.length];
+        if (mRowBinder != null) {
+            mRowBinder.getValues(bean, values);
+        } else {
+            int index = 0;
+            for (Field field : mFields) {
+                if (field != mPrimaryKeyField && !mColumnMap.get(field).readOnly()) {
+                    values[index] = ReflectionUtils.getFieldValue(field, bean);
+                    index++;
+                }
+            }
+        }
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value instanceof String) {
+                values[i] = ((String) value).trim();
+            } else if (value instanceof byte[] && ((byte[]) value).length == 0) {
+                values[i] = null;
+            } else if (value instanceof Date) {
+                values[i] = ((Date) value).getTime();
+            }
+        }
+        return values;
     }
 
     /**
-     * Creates a new instance of a bean and fill it using the cursor's current
-     * result.
+     * Resolve the positions of the columns of the table in a cursor.
      *
      * @param cursor Cursor.
-     * @return New instance of T filled with the content of the cursor's current
-     * result.
+     * @return CursorColumns.
+     */
+    CursorColumns getCursorColumns(Cursor cursor) {
+        CursorColumns cursorColumns = new CursorColumns();
+        if (mRowBinder != null) {
+            cursorColumns.binderIndexes = mRowBinder.getColumnIndexes(cursor);
+        }
+        if (mTrackable) {
+            cursorColumns.valueIndexes = new int[mValueColumnNames.length];
+            for (int i = 0; i < mValueColumnNames.length; i++) {
+                cursorColumns.valueIndexes[i] = cursor.getColumnIndex(mValueColumnNames[i]);
+            }
+        }
+        return cursorColumns;
+    }
+
+    /**
+     * Get the primary key of a bean.
+     *
+     * @param bean Bean.
+     * @return Primary key.
+     */
+    private Long getPrimaryKey(T bean) {
+        Long primaryKey;
+        if (mRowBinder != null) {
+            primaryKey = mRowBinder.getPrimaryKey(bean);
+        } else {
+            primaryKey = (Long) ReflectionUtils.getFieldValue(mPrimaryKeyField, bean);
+        }
+        return primaryKey;
+    }
+
+    /**
+     * Creates a new, empty instance of T.
+     *
+     * @return New instance of T.
+     */
+    T newBean() {
+        T bean;
+        if (mRowBinder != null) {
+            bean = mRowBinder.newInstance();
+        } else {
+            bean = ReflectionUtils.getNewInstance(mType);
+        }
+        return bean;
+    }
+
+    /**
+     * Fill a bean using the cursor's current result. The fields whose column
+     * is NULL are set to null, so that a bean can be reused from one row to
+     * the next. The original values of a {@link Trackable} bean are set to the
+     * values read.
+     *
+     * @param cursor        Cursor.
+     * @param cursorColumns The positions returned by
+     *                      {@link #getCursorColumns(Cursor)}.
+     * @param bean          The bean to fill.
+     */
+    void readBean(Cursor cursor, CursorColumns cursorColumns, T bean) {
+        if (mRowBinder != null) {
+            mRowBinder.readRow(cursor, cursorColumns.binderIndexes, bean);
+        } else {
+            readFields(cursor, bean);
+        }
+
+        if (mTrackable) {
+            Object[] originalValues = getValues(bean);
+            for (int i = 0; i < originalValues.length; i++) {
+                if (cursorColumns.valueIndexes[i] == -1) {
+                    originalValues[i] = NOT_LOADED;
+                }
+            }
+            ((Trackable) bean).setOriginalValues(originalValues);
+        }
+    }
+
+    /**
+     * Fill a bean using the cursor's current result, through reflection.
+     *
+     * @param cursor Cursor.
+     * @param bean   The bean to fill.
      */
-    private T cursorToBean(Cursor cursor) {
-        T bean = ReflectionUtils.getNewInstance(mType);
+    private void readFields(Cursor cursor, T bean) {
 
-        for (Field field : mColumnMap.keySet()) {
+        for (Field field : mFields) {
             Column column = mColumnMap.get(field);
             int index = cursor.getColumnIndex(column.name());
 
-            if (index != -1 && !cursor.isNull(index)) {
-                switch (column.type()) {
-                    case BLOB:
-                        byte[] byteArrayValue = cursor.getBlob(index);
-                        ReflectionUtils.setFieldValue(field, bean, byteArrayValue);
-                        break;
-
-                    case INTEGER:
-                        Long intValue = cursor.getLong(index);
-                        ReflectionUtils.setFieldValue(field, bean, intValue);
-                        break;
-
-                    case TEXT:
-                        String stringValue = cursor.getString(index);
-                        ReflectionUtils.setFieldValue(field, bean, stringValue);
-                        break;
-
-                    default:
-                        break;
-                }
+            if (index == -1) {
+                continue;
+            }
+            if (cursor.isNull(index)) {
+                ReflectionUtils.setFieldValue(field, bean, null);
+                continue;
+            }
+            switch (column.type()) {
+                case BLOB:
+                    byte[] byteArrayValue = cursor.getBlob(index);
+                    ReflectionUtils.setFieldValue(field, bean, byteArrayValue);
+                    break;
+
+                case INTEGER:
+                    Long intValue = cursor.getLong(index);
+                    ReflectionUtils.setFieldValue(field, bean, intValue);
+                    break;
+
+                case TEXT:
+                    String stringValue = cursor.getString(index);
+                    ReflectionUtils.setFieldValue(field, bean, stringValue);
+                    break;
+
+                default:
+                    break;
             }
         }
+    }
+
+    /**
+     * Creates a new instance of a bean and fill it using the cursor's current
+     * result.
+     *
+     * @param cursor        Cursor.
+     * @param cursorColumns The positions returned by
+     *                      {@link #getCursorColumns(Cursor)}.
+     * @return New instance of T filled with the content of the cursor's current
+     * result.
+     */
+    private T cursorToBean(Cursor cursor, CursorColumns cursorColumns) {
+        T bean = newBean();
+        readBean(cursor, cursorColumns, bean);
         return bean;
     }
 
     /**
-     * Create an instance of T for each result in the given cursor.
+     * Create an instance of T for each result in the given cursor, then close
+     * the cursor.
      *
      * @param cursor Cursor.
      * @return List of T.
      */
     private List<T> cursorToBeanList(Cursor cursor) {
-        List<T> result = new ArrayList<T>();
-        while (cursor.moveToNext()) {
-            T bean = cursorToBean(cursor);
-            result.add(bean);
+        try {
+            List<T> result = new ArrayList<T>(cursor.getCount());
+            CursorColumns cursorColumns = getCursorColumns(cursor);
+            while (cursor.moveToNext()) {
+                T bean = cursorToBean(cursor, cursorColumns);
+                result.add(bean);
+            }
+            return result;
+        } finally {
+            cursor.close();
         }
-        return result;
     }
 
     /**
@@ -460,8 +1001,28 @@ public final class Broker<T> {
      * @return Id of the inserted row.
      */
     private long insert(SQLiteDatabase db, T bean) {
-        ContentValues values = buildContentValues(bean);
-        return db.insertOrThrow(mTable.name(), null, values);
+        SQLiteStatement statement = StatementCacheManager.getCache(db).getStatement(mSqlInsert);
+        long id;
+        try {
+            synchronized (statement) {
+                statement.clearBindings();
+                bindValues(statement, bean);
+                id = statement.executeInsert();
+            }
+        } finally {
+            statement.releaseReference();
+        }
+        invalidateQueryCache(db);
+        return id;
+    }
+
+    /**
+     * Evict the cached query results read from the table, after a write.
+     *
+     * @param db SQLiteDatabase.
+     */
+    private void invalidateQueryCache(SQLiteDatabase db) {
+        QueryCacheManager.getCache(db).invalidate(db, mTable.name());
     }
 
     /**
@@ -486,30 +1047,116 @@ public final class Broker<T> {
     }
 
     /**
-     * Update the row corresponding to a bean.
+     * Update the row corresponding to a bean. If the bean has original values,
+     * only the modified columns are updated, and nothing is written if none of
+     * them has been modified.
      *
      * @param db   SQLiteDatabase.
      * @param bean Bean.
      */
     private void update(SQLiteDatabase db, T bean) {
-        ContentValues values = buildContentValues(bean);
-        String whereClause = mPrimaryKeyColumn.name() + " = ?";
-        Object primaryKey = ReflectionUtils.getFieldValue(mPrimaryKeyField, bean);
-        String[] whereArgs = new String[]{primaryKey.toString()};
-        db.updateWithOnConflict(mTable.name(), values, whereClause, whereArgs, SQLiteDatabase.CONFLICT_ROLLBACK);
+        Object[] originalValues = getOriginalValues(bean);
+        if (originalValues != null) {
+            updateModifiedColumns(db, bean, originalValues);
+            return;
+        }
+
+        Long primaryKey = getPrimaryKey(bean);
+        SQLiteStatement statement = StatementCacheManager.getCache(db).getStatement(mSqlUpdate);
+        try {
+            synchronized (statement) {
+                statement.clearBindings();
+                bindValues(statement, bean);
+                statement.bindLong(mValueColumnNames.length + 1, primaryKey);
+                statement.executeUpdateDelete();
+            }
+        } finally {
+            statement.releaseReference();
+        }
+        invalidateQueryCache(db);
+
+        if (mTrackable) {
+            ((Trackable) bean).setOriginalValues(getValues(bean));
+        }
+    }
+
+    /**
+     * Update only the columns of a bean that differ from its original values.
+     *
+     * @param db             SQLiteDatabase.
+     * @param bean           Bean.
+     * @param originalValues The original values of the bean.
+     */
+    private void updateModifiedColumns(SQLiteDatabase db, T bean, Object[] originalValues) {
+        if (!mType.isAssignableFrom(bean.getClass())) {
+            throw new IllegalArgumentException("Type mismatch.");
+        }
+
+        Object[] values = getValues(bean);
+        long mask = getModifiedMask(originalValues, values);
+        if (mask == 0) {
+            return;
+        }
+
+        SQLiteStatement statement = StatementCacheManager.getCache(db).getStatement(getSqlUpdate(mask));
+        try {
+            synchronized (statement) {
+                statement.clearBindings();
+                int index = 1;
+                for (int i = 0; i < values.length; i++) {
+                    if ((mask & (1L << i)) != 0) {
+                        StatementCache.bindValue(statement, index, values[i]);
+                        index++;
+                    }
+                }
+                statement.bindLong(index, getPrimaryKey(bean));
+                statement.executeUpdateDelete();
+            }
+        } finally {
+            statement.releaseReference();
+        }
+        invalidateQueryCache(db);
+
+        for (int i = 0; i < values.length; i++) {
+            if (originalValues[i] == NOT_LOADED) {
+                values[i] = NOT_LOADED;
+            }
+        }
+        ((Trackable) bean).setOriginalValues(values);
     }
 
     /**
      * A filter consists in:<br />
      * <br />
-     * A condition (a WHERE clause).<br />
-     * Example : "COLUMN_1 = ? AND COLUMN_2 = ? OR COLUMN_3 = ?"<br />
+     * A shape, holding the statements built from the condition (a WHERE clause).<br />
+     * Example : "COLUMN_1 = ? AND COLUMN_2 = ? AND COLUMN_3 = ?"<br />
      * <br />
      * Values to be used in the condition.<br />
-     * Example : ["TEST", "3", "TEST3"].
+     * Example : ["TEST", 3L, "TEST3"].
      */
     private final class Filter {
-        private String condition;
-        private String values[];
+        private FilterShape shape;
+        private Object values[];
+
+        /**
+         * Get the values of the filter as selection arguments.
+         *
+         * @return The values converted to strings.
+         */
+        private String[] getSelectionArgs() {
+            String[] selectionArgs = new String[values.length];
+            for (int i = 0; i < values.length; i++) {
+                selectionArgs[i] = values[i].toString();
+            }
+            return selectionArgs;
+        }
+    }
+
+    /**
+     * The SQL statements corresponding to a combination of filtered columns.
+     */
+    private final class FilterShape {
+        private String sqlSelect;
+        private String sqlDelete;
     }
 }
@@ -0,0 +1,20 @@
+package com.blackbooks.sql;
+
+/**
+ * The positions of the columns of a table in a cursor, resolved once per cursor
+ * by {@link Broker} and reused for each of its rows.
+ */
+final class CursorColumns {
+
+    /**
+     * The indexes expected by the RowBinder, null if the broker uses
+     * reflection.
+     */
+    int[] binderIndexes;
+
+    /**
+     * The index of each value column in the cursor, -1 if it has not been
+     * selected. Null if the type is not tracked.
+     */
+    int[] valueIndexes;
+}
@@ -1,7 +1,7 @@
 package com.blackbooks.sql;
 
-import android.content.ContentValues;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 
 import com.blackbooks.model.metadata.FTSColumn;
 import com.blackbooks.model.metadata.FTSTable;
@@ -27,10 +27,14 @@ public final class FTSBroker<T> {
     private final FTSTable mTable;
     private List<FTSColumn> mColumns;
     private HashMap<Field, FTSColumn> mColumnMap;
+    private List<Field> mFields;
     private Field mPrimaryKeyField;
     private FTSColumn mPrimaryKeyColumn;
 
     private String mSqlCreateTable;
+    private String mSqlInsert;
+    private String mSqlUpdate;
+    private String mSqlDelete;
 
     /**
      * Constructor.
@@ -49,11 +53,13 @@ public final class FTSBroker<T> {
 
         mColumns = new ArrayList<>();
         mColumnMap = new HashMap<>();
+        mFields = new ArrayList<>();
         for (Field field : fields) {
             FTSColumn column = field.getAnnotation(FTSColumn.class);
             if (column != null) {
                 mColumns.add(column);
                 mColumnMap.put(field, column);
+                mFields.add(field);
 
                 if (column.primaryKey() && column.name().compareToIgnoreCase(DOCID) == 0) {
                     mPrimaryKeyColumn = column;
@@ -67,6 +73,24 @@ public final class FTSBroker<T> {
         }
 
         mSqlCreateTable = SqlBuilder.buildSqlCreateFTSTable(mTable, mColumns);
+
+        // The primary key is bound last so that the same arguments can be used
+        // to insert and to update a row.
+        String[] columnNames = new String[mFields.size()];
+        String[] valueColumnNames = new String[mFields.size() - 1];
+        int index = 0;
+        for (Field field : mFields) {
+            if (field != mPrimaryKeyField) {
+                valueColumnNames[index] = mColumnMap.get(field).name();
+                columnNames[index] = valueColumnNames[index];
+                index++;
+            }
+        }
+        columnNames[index] = mPrimaryKeyColumn.name();
+
+        mSqlInsert = SqlBuilder.buildSqlInsert(mTable.name(), columnNames);
+        mSqlUpdate = SqlBuilder.buildSqlUpdate(mTable.name(), valueColumnNames, mPrimaryKeyColumn.name());
+        mSqlDelete = SqlBuilder.buildSqlDelete(mTable.name(), mPrimaryKeyColumn.name() + " = ?");
     }
 
     /**
@@ -88,8 +112,19 @@ public final class FTSBroker<T> {
      * key).
      */
     public long insert(SQLiteDatabase db, T bean) {
-        ContentValues values = buildContentValues(bean);
-        return db.insertOrThrow(mTable.name(), null, values);
+        SQLiteStatement statement = StatementCacheManager.getCache(db).getStatement(mSqlInsert);
+        long id;
+        try {
+            synchronized (statement) {
+                statement.clearBindings();
+                bindValues(statement, bean);
+                id = statement.executeInsert();
+            }
+        } finally {
+            statement.releaseReference();
+        }
+        invalidateQueryCache(db);
+        return id;
     }
 
     /**
@@ -99,12 +134,17 @@ public final class FTSBroker<T> {
      * @param bean Bean.
      */
     public void update(SQLiteDatabase db, T bean) {
-        ContentValues values = buildContentValues(bean);
-        String whereClause = mPrimaryKeyColumn.name() + " = ?";
-        Object primaryKey = ReflectionUtils.getFieldValue(mPrimaryKeyField, bean);
-        String[] whereArgs = new String[]{primaryKey.toString()};
-        db.updateWithOnConflict(mTable.name(), values, whereClause, whereArgs, SQLiteDatabase.CONFLICT_ROLLBACK);
-
+        SQLiteStatement statement = StatementCacheManager.getCache(db).getStatement(mSqlUpdate);
+        try {
+            synchronized (statement) {
+                statement.clearBindings();
+                bindValues(statement, bean);
+                statement.executeUpdateDelete();
+            }
+        } finally {
+            statement.releaseReference();
+        }
+        invalidateQueryCache(db);
     }
 
     /**
@@ -114,40 +154,53 @@ public final class FTSBroker<T> {
      * @param id Id of the row to delete.
      */
     public void delete(SQLiteDatabase db, long id) {
-        String whereClause = mPrimaryKeyColumn.name() + " = ?";
-        String whereArgs[] = new String[]{String.valueOf(id)};
-        db.delete(mTable.name(), whereClause, whereArgs);
+        SQLiteStatement statement = StatementCacheManager.getCache(db).getStatement(mSqlDelete);
+        try {
+            synchronized (statement) {
+                statement.clearBindings();
+                statement.bindLong(1, id);
+                statement.executeUpdateDelete();
+            }
+        } finally {
+            statement.releaseReference();
+        }
+        invalidateQueryCache(db);
     }
 
     /**
-     * Creates a new instance of ContentValues and fills it with the content of
-     * a bean.
+     * Evict the cached query results read from the FTS table, after a write.
      *
-     * @param bean Bean.
-     * @return ContentValues.
+     * @param db SQLiteDatabase.
+     */
+    private void invalidateQueryCache(SQLiteDatabase db) {
+        QueryCacheManager.getCache(db).invalidate(db, mTable.name());
+    }
+
+    /**
+     * Bind the content of a bean to the arguments of a statement: the text
+     * columns first, then the primary key.
+     *
+     * @param statement SQLiteStatement.
+     * @param bean      Bean.
      */
-    private ContentValues buildContentValues(T bean) {
+    private void bindValues(SQLiteStatement statement, T bean) {
         if (!mType.isAssignableFrom(bean.getClass())) {
             throw new IllegalArgumentException("Type mismatch.");
         }
 
-        ContentValues values = new ContentValues();
-        for (Field field : mColumnMap.keySet()) {
-            FTSColumn column = mColumnMap.get(field);
-            String columnName = column.name();
-
-            if (column.primaryKey()) {
-                Long intValue = (Long) ReflectionUtils.getFieldValue(field, bean);
-                values.put(columnName, intValue);
-            } else {
-                String stringValue = (String) ReflectionUtils.getFieldValue(field, bean);
-                if (stringValue != null) {
-                    stringValue = stringValue.trim();
-                }
-                values.put(columnName, stringValue);
+        int index = 1;
+        for (Field field : mFields) {
+            if (field == mPrimaryKeyField) {
+                continue;
             }
+            String stringValue = (String) ReflectionUtils.getFieldValue(field, bean);
+            if (stringValue != null) {
+                stringValue = stringValue.trim();
+            }
+            StatementCache.bindValue(statement, index, stringValue);
+            index++;
         }
-        return values;
+        Long primaryKey = (Long) ReflectionUtils.getFieldValue(mPrimaryKeyField, bean);
+        StatementCache.bindValue(statement, index, primaryKey);
     }
-
 }
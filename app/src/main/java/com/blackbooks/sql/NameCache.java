@@ -0,0 +1,233 @@
+package com.blackbooks.sql;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import com.blackbooks.utils.collections.LongArrayList;
+import com.blackbooks.utils.collections.LongObjectHashMap;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Cache of the ids of the rows of the tables whose rows are identified by a
+ * unique name, such as the authors or the categories, keyed by their name.
+ * <p/>
+ * Inserting rows does not change the id of the existing names, so it does not
+ * evict anything. A row that is deleted or renamed is evicted as soon as it is
+ * written.
+ * <p/>
+ * A table written inside a transaction is kept out of the cache until
+ * {@link #endTransaction(SQLiteDatabase)} is called once the transaction is
+ * over: the rows it has inserted would not exist if it was rolled back. The
+ * rows deleted or renamed by the transaction are then evicted again, in case
+ * another thread has read them from the committed rows meanwhile.
+ */
+public final class NameCache {
+
+    /**
+     * The maximum number of names cached for a table.
+     */
+    private static final int MAX_ENTRY_COUNT = 5000;
+
+    private final HashMap<String, TableEntries> mTableMap = new HashMap<String, TableEntries>();
+    private final HashSet<String> mPendingTables = new HashSet<String>();
+    private final HashMap<String, LongArrayList> mPendingRemovedIds = new HashMap<String, LongArrayList>();
+    private final HashSet<String> mPendingInvalidatedTables = new HashSet<String>();
+
+    private long mSequence;
+
+    /**
+     * Constructor.
+     */
+    NameCache() {
+    }
+
+    /**
+     * Get the cached id of a name.
+     *
+     * @param table Table name.
+     * @param name  The name of the row.
+     * @return The id, null if it is not cached.
+     */
+    public synchronized Long get(String table, String name) {
+        TableEntries entries = mTableMap.get(table);
+        return entries == null ? null : entries.idByName.get(name);
+    }
+
+    /**
+     * Get the number of evictions so far. It is read before selecting an id,
+     * and passed to {@link #put(String, String, long, long)} so that the id is
+     * not cached if a row has been deleted or renamed meanwhile.
+     *
+     * @return Sequence.
+     */
+    public synchronized long getSequence() {
+        return mSequence;
+    }
+
+    /**
+     * Cache the id of a name. The id is not cached if a row has been evicted
+     * since it was selected, or if the table is being written in a
+     * transaction.
+     *
+     * @param table    Table name.
+     * @param name     The name of the row.
+     * @param id       The id of the row.
+     * @param sequence The value of {@link #getSequence()} before the id was selected.
+     * @return True if the id has been cached.
+     */
+    public synchronized boolean put(String table, String name, long id, long sequence) {
+        if (sequence != mSequence || mPendingTables.contains(table)) {
+            return false;
+        }
+        TableEntries entries = mTableMap.get(table);
+        if (entries == null) {
+            entries = new TableEntries();
+            mTableMap.put(table, entries);
+        } else if (entries.idByName.size() >= MAX_ENTRY_COUNT) {
+            entries.clear();
+        }
+        String previousName = entries.nameById.put(id, name);
+        if (previousName != null) {
+            entries.idByName.remove(previousName);
+        }
+        entries.idByName.put(name, id);
+        return true;
+    }
+
+    /**
+     * Let the cache know that rows have been inserted in a table.
+     *
+     * @param db    The database in which the table has been written.
+     * @param table Table name.
+     */
+    public synchronized void inserted(SQLiteDatabase db, String table) {
+        if (db.inTransaction()) {
+            mPendingTables.add(table);
+        }
+    }
+
+    /**
+     * Evict a row that has been deleted or renamed.
+     *
+     * @param db    The database in which the table has been written.
+     * @param table Table name.
+     * @param id    The id of the row.
+     */
+    public synchronized void removed(SQLiteDatabase db, String table, long id) {
+        if (db.inTransaction()) {
+            mPendingTables.add(table);
+            LongArrayList removedIds = mPendingRemovedIds.get(table);
+            if (removedIds == null) {
+                removedIds = new LongArrayList();
+                mPendingRemovedIds.put(table, removedIds);
+            }
+            removedIds.add(id);
+        }
+        evict(table, id);
+    }
+
+    /**
+     * Evict all the rows of a table, after any of them may have been deleted
+     * or renamed.
+     *
+     * @param db    The database in which the table has been written.
+     * @param table Table name.
+     */
+    public synchronized void invalidate(SQLiteDatabase db, String table) {
+        if (db.inTransaction()) {
+            mPendingTables.add(table);
+            mPendingInvalidatedTables.add(table);
+        }
+        evict(table);
+    }
+
+    /**
+     * Evict again the rows deleted or renamed in the transaction that has just
+     * ended, and let the tables it has written be cached again. Nothing is
+     * done while the database is still in a transaction.
+     *
+     * @param db SQLiteDatabase.
+     */
+    public synchronized void endTransaction(SQLiteDatabase db) {
+        if (db.inTransaction() || mPendingTables.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, LongArrayList> entry : mPendingRemovedIds.entrySet()) {
+            LongArrayList removedIds = entry.getValue();
+            for (int i = 0; i < removedIds.size(); i++) {
+                evict(entry.getKey(), removedIds.get(i));
+            }
+        }
+        for (String table : mPendingInvalidatedTables) {
+            evict(table);
+        }
+        mPendingTables.clear();
+        mPendingRemovedIds.clear();
+        mPendingInvalidatedTables.clear();
+    }
+
+    /**
+     * Evict all the ids.
+     */
+    public synchronized void clear() {
+        mTableMap.clear();
+        mSequence++;
+    }
+
+    /**
+     * Get the number of names cached for a table.
+     *
+     * @param table Table name.
+     * @return Number of names.
+     */
+    public synchronized int size(String table) {
+        TableEntries entries = mTableMap.get(table);
+        return entries == null ? 0 : entries.idByName.size();
+    }
+
+    /**
+     * Evict a row of a table.
+     *
+     * @param table Table name.
+     * @param id    The id of the row.
+     */
+    private void evict(String table, long id) {
+        mSequence++;
+        TableEntries entries = mTableMap.get(table);
+        if (entries != null) {
+            String name = entries.nameById.remove(id);
+            if (name != null) {
+                entries.idByName.remove(name);
+            }
+        }
+    }
+
+    /**
+     * Evict all the rows of a table.
+     *
+     * @param table Table name.
+     */
+    private void evict(String table) {
+        mSequence++;
+        mTableMap.remove(table);
+    }
+
+    /**
+     * The cached names of a table, indexed both ways.
+     */
+    private static final class TableEntries {
+
+        private final HashMap<String, Long> idByName = new HashMap<String, Long>();
+        private final LongObjectHashMap<String> nameById = new LongObjectHashMap<String>();
+
+        /**
+         * Evict all the names.
+         */
+        private void clear() {
+            idByName.clear();
+            nameById.clear();
+        }
+    }
+}
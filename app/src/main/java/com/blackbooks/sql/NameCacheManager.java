@@ -0,0 +1,49 @@
+package com.blackbooks.sql;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Class to manage the name caches, one per database.
+ */
+public final class NameCacheManager {
+
+    private final static HashMap<SQLiteDatabase, NameCache> mCacheMap = new HashMap<SQLiteDatabase, NameCache>();
+
+    /**
+     * Private constructor.
+     */
+    private NameCacheManager() {
+    }
+
+    /**
+     * Get the name cache of a database.
+     *
+     * @param db SQLiteDatabase.
+     * @return NameCache.
+     */
+    public static synchronized NameCache getCache(SQLiteDatabase db) {
+        NameCache cache = mCacheMap.get(db);
+        if (cache == null) {
+            releaseClosedDatabases();
+            cache = new NameCache();
+            mCacheMap.put(db, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Forget the caches of the databases that have been closed.
+     */
+    private static void releaseClosedDatabases() {
+        Iterator<Map.Entry<SQLiteDatabase, NameCache>> iterator = mCacheMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (!iterator.next().getKey().isOpen()) {
+                iterator.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,430 @@
+package com.blackbooks.sql;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.blackbooks.model.metadata.Column;
+import com.blackbooks.model.metadata.Table;
+
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cache of the results of queries on a database, keyed by their SQL and their
+ * arguments. Each result is tagged with the tables it was read from, and is
+ * evicted as soon as one of these tables is written. The least recently used
+ * results are evicted when the cache holds too many results, or results too
+ * large in total.
+ * <p/>
+ * A table written inside a transaction is also kept out of the cache until
+ * {@link #endTransaction(SQLiteDatabase)} is called once the transaction is
+ * over, so that the results read by the other threads in the meantime, that
+ * do not see the uncommitted changes yet, are not cached. The transactions
+ * being per thread, the tables are kept pending for the thread that wrote
+ * them: the end of a transaction on one thread does not release the tables
+ * written by another.
+ * <p/>
+ * The cached results are shared by all the callers: they must not be
+ * modified.
+ */
+public final class QueryCache {
+
+    private static final char KEY_SEPARATOR = '\u0000';
+    private static final char KEY_NULL = '\u0001';
+
+    private final LinkedHashMap<String, Entry> mEntryMap = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    private final HashMap<String, Set<String>> mDependentTableMap = new HashMap<String, Set<String>>();
+    private final HashMap<String, Integer> mPendingTableCounts = new HashMap<String, Integer>();
+    private final ThreadLocal<Set<String>> mPendingTables = new ThreadLocal<Set<String>>() {
+        @Override
+        protected Set<String> initialValue() {
+            return new HashSet<String>();
+        }
+    };
+
+    private int mMaxEntryCount;
+    private long mMaxByteCount;
+    private long mByteCount;
+    private long mSequence;
+
+    private int mHitCount;
+    private int mMissCount;
+    private int mEvictionCount;
+    private int mInvalidationCount;
+
+    /**
+     * Constructor. The cache is disabled until its limits are set.
+     */
+    QueryCache() {
+    }
+
+    /**
+     * Build the key of the result of a query.
+     *
+     * @param sql           SQL query.
+     * @param selectionArgs Selection arguments, can be null.
+     * @return Key.
+     */
+    public static String buildKey(String sql, String[] selectionArgs) {
+        StringBuilder sb = new StringBuilder(sql);
+        if (selectionArgs != null) {
+            for (String selectionArg : selectionArgs) {
+                sb.append(KEY_SEPARATOR);
+                if (selectionArg == null) {
+                    sb.append(KEY_NULL);
+                } else {
+                    sb.append(selectionArg);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Estimate the memory taken by the values of a cursor once read. The
+     * cursor is moved back before its first row.
+     *
+     * @param cursor Cursor.
+     * @return Number of bytes.
+     */
+    public static long estimateByteCount(Cursor cursor) {
+        long byteCount = 0;
+        int columnCount = cursor.getColumnCount();
+        cursor.moveToPosition(-1);
+        while (cursor.moveToNext()) {
+            byteCount += 16;
+            for (int i = 0; i < columnCount; i++) {
+                switch (cursor.getType(i)) {
+                    case Cursor.FIELD_TYPE_STRING:
+                        byteCount += 40 + 2 * cursor.getString(i).length();
+                        break;
+
+                    case Cursor.FIELD_TYPE_BLOB:
+                        byteCount += 16 + cursor.getBlob(i).length;
+                        break;
+
+                    default:
+                        byteCount += 16;
+                        break;
+                }
+            }
+        }
+        cursor.moveToPosition(-1);
+        return byteCount;
+    }
+
+    /**
+     * Set the limits of the cache, evicting the results that exceed them. A
+     * limit of 0 disables the cache.
+     *
+     * @param maxEntryCount The maximum number of results.
+     * @param maxByteCount  The maximum memory taken by the results, in bytes.
+     */
+    public synchronized void setLimits(int maxEntryCount, long maxByteCount) {
+        mMaxEntryCount = maxEntryCount;
+        mMaxByteCount = maxByteCount;
+        trim();
+    }
+
+    /**
+     * Declare the tables whose content can change when a table is written,
+     * through foreign keys or triggers. Writing the table then also evicts
+     * the results read from these tables.
+     *
+     * @param table           Table name.
+     * @param dependentTables The names of the tables that can change with it.
+     */
+    public synchronized void addDependentTables(String table, String... dependentTables) {
+        Set<String> dependentTableSet = mDependentTableMap.get(table);
+        if (dependentTableSet == null) {
+            dependentTableSet = new HashSet<String>();
+            mDependentTableMap.put(table, dependentTableSet);
+        }
+        Collections.addAll(dependentTableSet, dependentTables);
+    }
+
+    /**
+     * Declare the foreign keys of a table that delete its rows when the
+     * referenced row is deleted: deleting from the referenced table then also
+     * evicts the results read from the table.
+     *
+     * @param type A class with a {@link Table} annotation.
+     */
+    public void addCascadingForeignKeys(Class<?> type) {
+        Table table = type.getAnnotation(Table.class);
+        for (Field field : type.getFields()) {
+            Column column = field.getAnnotation(Column.class);
+            if (column != null && column.onDeleteCascade() && column.referencedType() != void.class) {
+                Table referencedTable = (Table) column.referencedType().getAnnotation(Table.class);
+                addDependentTables(referencedTable.name(), table.name());
+            }
+        }
+    }
+
+    /**
+     * Get the cached result of a query.
+     *
+     * @param key The key of the query, see {@link #buildKey(String, String[])}.
+     * @return The result, null if it is not cached.
+     */
+    public synchronized Object get(String key) {
+        Entry entry = mEntryMap.get(key);
+        if (entry == null) {
+            mMissCount++;
+            return null;
+        }
+        mHitCount++;
+        return entry.value;
+    }
+
+    /**
+     * Get the number of invalidations so far. It is read before running a
+     * query, and passed to {@link #put(String, String[], Object, long, long)}
+     * so that the result is not cached if a table has been written meanwhile.
+     *
+     * @return Sequence.
+     */
+    public synchronized long getSequence() {
+        return mSequence;
+    }
+
+    /**
+     * Cache the result of a query. The result is not cached if the cache is
+     * disabled, if it is larger than the cache, if a table has been written
+     * since the query started, or if one of its tables is being written in a
+     * transaction.
+     *
+     * @param key       The key of the query, see {@link #buildKey(String, String[])}.
+     * @param tables    The tables read by the query.
+     * @param value     The result.
+     * @param byteCount The memory taken by the result, in bytes.
+     * @param sequence  The value of {@link #getSequence()} before the query started.
+     * @return True if the result has been cached.
+     */
+    public synchronized boolean put(String key, String[] tables, Object value, long byteCount, long sequence) {
+        if (mMaxEntryCount <= 0 || byteCount > mMaxByteCount || sequence != mSequence) {
+            return false;
+        }
+        for (String table : tables) {
+            if (mPendingTableCounts.containsKey(table)) {
+                return false;
+            }
+        }
+
+        Entry previous = mEntryMap.put(key, new Entry(tables, value, byteCount));
+        if (previous != null) {
+            mByteCount -= previous.byteCount;
+        }
+        mByteCount += byteCount;
+        trim();
+        return true;
+    }
+
+    /**
+     * Evict the results read from a table, after it has been written. If the
+     * table has been written in a transaction of the current thread, it is
+     * kept out of the cache until the transaction is over.
+     *
+     * @param db    The database in which the table has been written.
+     * @param table Table name.
+     */
+    public synchronized void invalidate(SQLiteDatabase db, String table) {
+        Set<String> tables = getDependentTables(table);
+        if (db.inTransaction()) {
+            Set<String> pendingTables = mPendingTables.get();
+            for (String pendingTable : tables) {
+                if (pendingTables.add(pendingTable)) {
+                    Integer count = mPendingTableCounts.get(pendingTable);
+                    mPendingTableCounts.put(pendingTable, count == null ? 1 : count + 1);
+                }
+            }
+        }
+        evict(tables);
+    }
+
+    /**
+     * Evict the results read from the tables written in the transaction of
+     * the current thread that has just ended, and let them be cached again,
+     * unless another thread is writing them too. Nothing is done while the
+     * current thread is still in a transaction.
+     *
+     * @param db SQLiteDatabase.
+     */
+    public synchronized void endTransaction(SQLiteDatabase db) {
+        Set<String> pendingTables = mPendingTables.get();
+        if (db.inTransaction() || pendingTables.isEmpty()) {
+            return;
+        }
+        evict(pendingTables);
+        for (String pendingTable : pendingTables) {
+            int count = mPendingTableCounts.get(pendingTable);
+            if (count == 1) {
+                mPendingTableCounts.remove(pendingTable);
+            } else {
+                mPendingTableCounts.put(pendingTable, count - 1);
+            }
+        }
+        pendingTables.clear();
+    }
+
+    /**
+     * Evict all the results.
+     */
+    public synchronized void clear() {
+        mEntryMap.clear();
+        mByteCount = 0;
+        mSequence++;
+    }
+
+    /**
+     * Get the number of times a requested result was cached.
+     *
+     * @return Hit count.
+     */
+    public synchronized int getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * Get the number of times a requested result was not cached.
+     *
+     * @return Miss count.
+     */
+    public synchronized int getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Get the ratio of the requested results that were cached.
+     *
+     * @return Hit rate, between 0 and 1.
+     */
+    public synchronized double getHitRate() {
+        int requestCount = mHitCount + mMissCount;
+        return requestCount == 0 ? 0 : (double) mHitCount / requestCount;
+    }
+
+    /**
+     * Get the number of results evicted to respect the limits of the cache.
+     *
+     * @return Eviction count.
+     */
+    public synchronized int getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    /**
+     * Get the number of results evicted because a table they were read from
+     * has been written.
+     *
+     * @return Invalidation count.
+     */
+    public synchronized int getInvalidationCount() {
+        return mInvalidationCount;
+    }
+
+    /**
+     * Get the number of results in the cache.
+     *
+     * @return Size of the cache.
+     */
+    public synchronized int size() {
+        return mEntryMap.size();
+    }
+
+    /**
+     * Get the memory taken by the results in the cache.
+     *
+     * @return Number of bytes.
+     */
+    public synchronized long getByteCount() {
+        return mByteCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "QueryCache[size=" + mEntryMap.size() + ", bytes=" + mByteCount + ", hits=" + mHitCount + ", misses="
+                + mMissCount + ", evictions=" + mEvictionCount + ", invalidations=" + mInvalidationCount + "]";
+    }
+
+    /**
+     * Get a table and all the tables that can change with it.
+     *
+     * @param table Table name.
+     * @return Table names.
+     */
+    private Set<String> getDependentTables(String table) {
+        Set<String> tables = new HashSet<String>();
+        Deque<String> queue = new ArrayDeque<String>();
+        queue.add(table);
+        while (!queue.isEmpty()) {
+            String current = queue.poll();
+            if (tables.add(current)) {
+                Set<String> dependentTables = mDependentTableMap.get(current);
+                if (dependentTables != null) {
+                    queue.addAll(dependentTables);
+                }
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * Evict the results read from some tables.
+     *
+     * @param tables Table names.
+     */
+    private void evict(Set<String> tables) {
+        mSequence++;
+        Iterator<Entry> iterator = mEntryMap.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            for (String table : entry.tables) {
+                if (tables.contains(table)) {
+                    iterator.remove();
+                    mByteCount -= entry.byteCount;
+                    mInvalidationCount++;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Evict the least recently used results until the cache respects its
+     * limits.
+     */
+    private void trim() {
+        Iterator<Map.Entry<String, Entry>> iterator = mEntryMap.entrySet().iterator();
+        while (iterator.hasNext() && (mEntryMap.size() > mMaxEntryCount || mByteCount > mMaxByteCount)) {
+            Entry entry = iterator.next().getValue();
+            iterator.remove();
+            mByteCount -= entry.byteCount;
+            mEvictionCount++;
+        }
+    }
+
+    /**
+     * A cached result.
+     */
+    private static final class Entry {
+
+        private final String[] tables;
+        private final Object value;
+        private final long byteCount;
+
+        private Entry(String[] tables, Object value, long byteCount) {
+            this.tables = tables;
+            this.value = value;
+            this.byteCount = byteCount;
+        }
+    }
+}
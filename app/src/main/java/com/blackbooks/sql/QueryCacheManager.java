@@ -0,0 +1,49 @@
+package com.blackbooks.sql;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Class to manage the query caches, one per database.
+ */
+public final class QueryCacheManager {
+
+    private final static HashMap<SQLiteDatabase, QueryCache> mCacheMap = new HashMap<SQLiteDatabase, QueryCache>();
+
+    /**
+     * Private constructor.
+     */
+    private QueryCacheManager() {
+    }
+
+    /**
+     * Get the query cache of a database.
+     *
+     * @param db SQLiteDatabase.
+     * @return QueryCache.
+     */
+    public static synchronized QueryCache getCache(SQLiteDatabase db) {
+        QueryCache cache = mCacheMap.get(db);
+        if (cache == null) {
+            releaseClosedDatabases();
+            cache = new QueryCache();
+            mCacheMap.put(db, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Forget the caches of the databases that have been closed.
+     */
+    private static void releaseClosedDatabases() {
+        Iterator<Map.Entry<SQLiteDatabase, QueryCache>> iterator = mCacheMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (!iterator.next().getKey().isOpen()) {
+                iterator.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.blackbooks.sql;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteStatement;
+
+/**
+ * Maps the rows of a table to instances of a persistent class without going through reflection.
+ * <p/>
+ * Implementations are generated at compile time from the {@link com.blackbooks.model.metadata.Table}
+ * and {@link com.blackbooks.model.metadata.Column} annotations. The generated class is named after the
+ * persistent class followed by {@link #SUFFIX} and is located in the same package.
+ *
+ * @param <T> Type of the persistent object.
+ */
+public interface RowBinder<T> {
+
+    /**
+     * Suffix appended to the name of a persistent class to get the name of its binder.
+     */
+    String SUFFIX = "_RowBinder";
+
+    /**
+     * Create a new instance of T.
+     *
+     * @return New instance of T.
+     */
+    T newInstance();
+
+    /**
+     * Resolve once the indexes of the columns of the table in a cursor. An index is -1 when the
+     * column has not been selected.
+     *
+     * @param cursor Cursor.
+     * @return The indexes of the columns, to be passed to {@link #readRow(Cursor, int[], Object)}.
+     */
+    int[] getColumnIndexes(Cursor cursor);
+
+    /**
+     * Fill a bean with the cursor's current result.
+     *
+     * @param cursor        Cursor.
+     * @param columnIndexes The indexes returned by {@link #getColumnIndexes(Cursor)} for the same
+     *                      cursor.
+     * @param bean          The bean to fill.
+     */
+    void readRow(Cursor cursor, int[] columnIndexes, T bean);
+
+    /**
+     * Get the names of all the columns, except the primary key, in the order used by
+     * {@link #bindValues(Object, SQLiteStatement)}. The returned array must not be modified.
+     *
+     * @return Column names.
+     */
+    String[] getValueColumnNames();
+
+    /**
+     * Bind the values of all the columns of a bean, except its primary key, to the arguments of a
+     * statement, starting at index 1 and in the order of {@link #getValueColumnNames()}.
+     *
+     * @param bean      Bean.
+     * @param statement SQLiteStatement.
+     */
+    void bindValues(T bean, SQLiteStatement statement);
+
+    /**
+     * Copy the values of all the columns of a bean, except its primary key, in the order of
+     * {@link #getValueColumnNames()}.
+     *
+     * @param bean   Bean.
+     * @param values The array to fill, as long as the column names.
+     */
+    void getValues(T bean, Object[] values);
+
+    /**
+     * Get the value of the primary key of a bean.
+     *
+     * @param bean Bean.
+     * @return Primary key, null if the bean has not been saved yet.
+     */
+    Long getPrimaryKey(T bean);
+
+    /**
+     * Set the value of the primary key of a bean.
+     *
+     * @param bean Bean.
+     * @param id   Primary key.
+     */
+    void setPrimaryKey(T bean, long id);
+}
@@ -0,0 +1,18 @@
+package com.blackbooks.sql;
+
+/**
+ * Callback receiving the rows of a query one at a time.
+ *
+ * @param <T> Type of the persistent object.
+ */
+public interface RowVisitor<T> {
+
+    /**
+     * Called for each row of the result.
+     *
+     * @param bean The bean filled with the current row. When the bean is reused, it is only valid
+     *             until the method returns.
+     * @return True to go on with the next row, false to stop.
+     */
+    boolean visit(T bean);
+}
@@ -3,7 +3,9 @@ package com.blackbooks.sql;
 import com.blackbooks.model.metadata.Column;
 import com.blackbooks.model.metadata.FTSColumn;
 import com.blackbooks.model.metadata.FTSTable;
+import com.blackbooks.model.metadata.Index;
 import com.blackbooks.model.metadata.Table;
+import com.blackbooks.utils.StringUtils;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
@@ -99,6 +101,31 @@ final class SqlBuilder {
             }
         }
 
+        // The options are written as FTS4 expects them: content="BOOK",
+        // tokenize=unicode61 and prefix="2,3".
+        if (!table.content().isEmpty()) {
+            sb.append(",\n\tcontent=\"");
+            sb.append(table.content());
+            sb.append('"');
+        }
+
+        if (!table.tokenize().isEmpty()) {
+            sb.append(",\n\ttokenize=");
+            sb.append(table.tokenize());
+        }
+
+        int[] prefix = table.prefix();
+        if (prefix.length > 0) {
+            sb.append(",\n\tprefix=\"");
+            for (int i = 0; i < prefix.length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(prefix[i]);
+            }
+            sb.append('"');
+        }
+
         sb.append('\n');
         sb.append(')');
         sb.append(';');
@@ -122,9 +149,138 @@ final class SqlBuilder {
                 indexesDeclarations.add(indexDeclarationScript);
             }
         }
+        for (final Index index : table.indexes()) {
+            indexesDeclarations.add(buildSqlCreateIndex(table, index));
+        }
         return indexesDeclarations;
     }
 
+    /**
+     * Builds the SQLite script to select columns of the rows of a table
+     * matching a condition.
+     *
+     * @param tableName   Name of the table.
+     * @param columnNames Names of the columns to select. If null, all the
+     *                    columns are selected.
+     * @param condition   A WHERE clause (excluding the WHERE itself). If empty,
+     *                    all the rows are selected.
+     * @return SQL select statement.
+     */
+    public static String buildSqlSelect(String tableName, String[] columnNames, String condition) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("SELECT");
+        sb.append(' ');
+        if (columnNames == null) {
+            sb.append('*');
+        } else {
+            sb.append(StringUtils.join(columnNames, ", "));
+        }
+        sb.append(' ');
+        sb.append("FROM");
+        sb.append(' ');
+        sb.append(tableName);
+        appendWhere(sb, condition);
+        sb.append(';');
+        return sb.toString();
+    }
+
+    /**
+     * Builds the SQLite script to insert a row in a table. The values are
+     * passed as arguments, in the order of the columns.
+     *
+     * @param tableName   Name of the table.
+     * @param columnNames Names of the columns to insert.
+     * @return SQL insert statement.
+     */
+    public static String buildSqlInsert(String tableName, String[] columnNames) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("INSERT INTO");
+        sb.append(' ');
+        sb.append(tableName);
+        sb.append(" (");
+        for (int i = 0; i < columnNames.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(columnNames[i]);
+        }
+        sb.append(") VALUES (");
+        for (int i = 0; i < columnNames.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('?');
+        }
+        sb.append(");");
+        return sb.toString();
+    }
+
+    /**
+     * Builds the SQLite script to update a row of a table identified by its
+     * primary key. The values are passed as arguments, in the order of the
+     * columns, followed by the primary key. The whole transaction is rolled
+     * back if a constraint is violated.
+     *
+     * @param tableName      Name of the table.
+     * @param columnNames    Names of the columns to update.
+     * @param primaryKeyName Name of the primary key column.
+     * @return SQL update statement.
+     */
+    public static String buildSqlUpdate(String tableName, String[] columnNames, String primaryKeyName) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("UPDATE OR ROLLBACK");
+        sb.append(' ');
+        sb.append(tableName);
+        sb.append(' ');
+        sb.append("SET");
+        sb.append(' ');
+        for (int i = 0; i < columnNames.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(columnNames[i]);
+            sb.append(" = ?");
+        }
+        appendWhere(sb, primaryKeyName + " = ?");
+        sb.append(';');
+        return sb.toString();
+    }
+
+    /**
+     * Builds the SQLite script to delete the rows of a table matching a
+     * condition.
+     *
+     * @param tableName Name of the table.
+     * @param condition A WHERE clause (excluding the WHERE itself). If empty,
+     *                  all the rows are deleted.
+     * @return SQL delete statement.
+     */
+    public static String buildSqlDelete(String tableName, String condition) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("DELETE FROM");
+        sb.append(' ');
+        sb.append(tableName);
+        appendWhere(sb, condition);
+        sb.append(';');
+        return sb.toString();
+    }
+
+    /**
+     * Appends a WHERE clause to an SQL statement, if the condition is not
+     * empty.
+     *
+     * @param sb        StringBuilder containing the statement.
+     * @param condition The condition.
+     */
+    private static void appendWhere(StringBuilder sb, String condition) {
+        if (condition != null && !condition.equals("")) {
+            sb.append(' ');
+            sb.append("WHERE");
+            sb.append(' ');
+            sb.append(condition);
+        }
+    }
+
     /**
      * Returns the SQLite code to create a column.
      *
@@ -145,6 +301,12 @@ final class SqlBuilder {
                 sb.append(' ');
                 sb.append("NOT NULL");
             }
+            if (!column.defaultValue().isEmpty()) {
+                sb.append(' ');
+                sb.append("DEFAULT");
+                sb.append(' ');
+                sb.append(column.defaultValue());
+            }
             if (column.unique()) {
                 sb.append(' ');
                 sb.append("UNIQUE");
@@ -228,4 +390,34 @@ final class SqlBuilder {
 
         return sb.toString();
     }
+
+    /**
+     * Builds the SQLite script to create an index declared on a table.
+     *
+     * @param table The table.
+     * @param index The index.
+     * @return SQL index declaration.
+     */
+    private static String buildSqlCreateIndex(Table table, Index index) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("CREATE INDEX");
+        sb.append(' ');
+        sb.append(index.name());
+        sb.append(' ');
+        sb.append("ON");
+        sb.append(' ');
+        sb.append(table.name());
+        sb.append(' ');
+        sb.append('(');
+        sb.append(StringUtils.join(index.columns(), ", "));
+        sb.append(')');
+        if (!index.where().equals("")) {
+            sb.append(' ');
+            sb.append("WHERE");
+            sb.append(' ');
+            sb.append(index.where());
+        }
+        sb.append(';');
+        return sb.toString();
+    }
 }
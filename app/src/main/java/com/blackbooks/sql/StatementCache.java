@@ -0,0 +1,153 @@
+package com.blackbooks.sql;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of the compiled statements of a database, keyed by their SQL. The least recently used
+ * statements are closed and evicted when the cache holds too many statements.
+ * <p/>
+ * A cached statement is shared by all the threads using the database: callers must synchronize on
+ * the statement between the moment they bind its arguments and the moment they execute it, then
+ * release the reference {@link #getStatement(String)} acquired for them.
+ */
+public final class StatementCache {
+
+    /**
+     * The maximum number of statements kept compiled. A broker compiles a few statements, plus
+     * one UPDATE per combination of modified columns.
+     */
+    private static final int MAX_STATEMENT_COUNT = 100;
+
+    private final SQLiteDatabase mDb;
+    private final LinkedHashMap<String, SQLiteStatement> mStatementMap = new LinkedHashMap<String, SQLiteStatement>(16, 0.75f, true);
+
+    private int mHitCount;
+    private int mMissCount;
+    private int mEvictionCount;
+
+    /**
+     * Constructor.
+     *
+     * @param db The database in which the statements are compiled.
+     */
+    StatementCache(SQLiteDatabase db) {
+        mDb = db;
+    }
+
+    /**
+     * Get the compiled statement corresponding to an SQL string. The statement is compiled the
+     * first time it is requested. A reference to the statement is acquired for the caller, who
+     * must call {@link SQLiteStatement#releaseReference()} once done with it: a statement evicted
+     * meanwhile is only closed then.
+     *
+     * @param sql SQL statement.
+     * @return SQLiteStatement.
+     */
+    public synchronized SQLiteStatement getStatement(String sql) {
+        SQLiteStatement statement = mStatementMap.get(sql);
+        if (statement == null) {
+            mMissCount++;
+            statement = mDb.compileStatement(sql);
+            mStatementMap.put(sql, statement);
+            trim();
+        } else {
+            mHitCount++;
+        }
+        statement.acquireReference();
+        return statement;
+    }
+
+    /**
+     * Get the number of times a requested statement was already compiled.
+     *
+     * @return Hit count.
+     */
+    public synchronized int getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * Get the number of times a requested statement had to be compiled.
+     *
+     * @return Miss count.
+     */
+    public synchronized int getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Get the number of statements closed to respect the limit of the cache.
+     *
+     * @return Eviction count.
+     */
+    public synchronized int getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    /**
+     * Get the number of compiled statements in the cache.
+     *
+     * @return Size of the cache.
+     */
+    public synchronized int size() {
+        return mStatementMap.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "StatementCache[size=" + mStatementMap.size() + ", hits=" + mHitCount + ", misses=" + mMissCount
+                + ", evictions=" + mEvictionCount + "]";
+    }
+
+    /**
+     * Bind a value to a statement according to its Java type. A Date is bound as its time in
+     * milliseconds.
+     *
+     * @param statement SQLiteStatement.
+     * @param index     The 1-based index of the argument.
+     * @param value     Value, possibly null.
+     */
+    static void bindValue(SQLiteStatement statement, int index, Object value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else if (value instanceof Long) {
+            statement.bindLong(index, (Long) value);
+        } else if (value instanceof Date) {
+            statement.bindLong(index, ((Date) value).getTime());
+        } else if (value instanceof byte[]) {
+            statement.bindBlob(index, (byte[]) value);
+        } else {
+            statement.bindString(index, value.toString());
+        }
+    }
+
+    /**
+     * Close the least recently used statements until the cache respects its limit. A statement
+     * still used by a caller is closed when the caller releases it.
+     */
+    private void trim() {
+        Iterator<Map.Entry<String, SQLiteStatement>> iterator = mStatementMap.entrySet().iterator();
+        while (iterator.hasNext() && mStatementMap.size() > MAX_STATEMENT_COUNT) {
+            SQLiteStatement statement = iterator.next().getValue();
+            iterator.remove();
+            statement.close();
+            mEvictionCount++;
+        }
+    }
+
+    /**
+     * Release all the compiled statements.
+     */
+    synchronized void close() {
+        for (SQLiteStatement statement : mStatementMap.values()) {
+            statement.close();
+        }
+        mStatementMap.clear();
+    }
+}
@@ -0,0 +1,51 @@
+package com.blackbooks.sql;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Class to manage the statement caches, one per database.
+ */
+public final class StatementCacheManager {
+
+    private final static HashMap<SQLiteDatabase, StatementCache> mCacheMap = new HashMap<SQLiteDatabase, StatementCache>();
+
+    /**
+     * Private constructor.
+     */
+    private StatementCacheManager() {
+    }
+
+    /**
+     * Get the statement cache of a database.
+     *
+     * @param db SQLiteDatabase.
+     * @return StatementCache.
+     */
+    public static synchronized StatementCache getCache(SQLiteDatabase db) {
+        StatementCache cache = mCacheMap.get(db);
+        if (cache == null) {
+            releaseClosedDatabases();
+            cache = new StatementCache(db);
+            mCacheMap.put(db, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Release the statements of the databases that have been closed.
+     */
+    private static void releaseClosedDatabases() {
+        Iterator<Map.Entry<SQLiteDatabase, StatementCache>> iterator = mCacheMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<SQLiteDatabase, StatementCache> entry = iterator.next();
+            if (!entry.getKey().isOpen()) {
+                entry.getValue().close();
+                iterator.remove();
+            }
+        }
+    }
+}
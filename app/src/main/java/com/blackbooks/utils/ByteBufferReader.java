@@ -0,0 +1,54 @@
+package com.blackbooks.utils;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Decodes the bytes of a buffer, such as a mapped part of a file, straight
+ * into the char arrays passed to {@link #read(char[], int, int)}. The buffer
+ * must not end in the middle of an encoded character.
+ */
+final class ByteBufferReader extends Reader {
+
+    private final ByteBuffer mBytes;
+    private final CharsetDecoder mDecoder;
+    private boolean mIsEnded;
+
+    /**
+     * Constructor.
+     *
+     * @param bytes   The bytes to read, from their position to their limit.
+     * @param charset The charset of the bytes.
+     */
+    ByteBufferReader(ByteBuffer bytes, Charset charset) {
+        mBytes = bytes;
+        mDecoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+        if (mIsEnded) {
+            return -1;
+        }
+        CharBuffer chars = CharBuffer.wrap(cbuf, off, len);
+        CoderResult result = mDecoder.decode(mBytes, chars, true);
+        if (result.isUnderflow()) {
+            mDecoder.flush(chars);
+            mIsEnded = true;
+        }
+        int count = chars.position() - off;
+        return count == 0 && mIsEnded ? -1 : count;
+    }
+
+    @Override
+    public void close() {
+        mIsEnded = true;
+    }
+}
@@ -0,0 +1,265 @@
+package com.blackbooks.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads the rows of a CSV file one at a time, as described by RFC 4180: a
+ * field enclosed in text qualifiers can contain column separators, line
+ * breaks and doubled text qualifiers. Both CRLF and LF end a row, and a
+ * leading byte order mark is skipped. Empty lines are skipped.
+ * <p/>
+ * The characters are read through a fixed buffer, and the fields of the
+ * current row are kept in buffers reused from one row to the next: the
+ * memory taken does not depend on the size of the file.
+ */
+public final class CsvReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final char BOM = '\uFEFF';
+
+    private static final int STATE_FIELD_START = 0;
+    private static final int STATE_UNQUOTED = 1;
+    private static final int STATE_QUOTED = 2;
+    private static final int STATE_QUOTE_IN_QUOTED = 3;
+
+    private final Reader mReader;
+    private final char mColumnSeparator;
+    private final char mTextQualifier;
+
+    private final char[] mBuffer = new char[BUFFER_SIZE];
+    private int mBufferPosition;
+    private int mBufferLength;
+    private boolean mIsStarted;
+
+    private char[] mFieldChars = new char[256];
+    private int mFieldCharCount;
+    private int[] mFieldEnds = new int[16];
+    private int mFieldCount;
+
+    private int mLineNumber;
+    private int mRowLineNumber;
+
+    /**
+     * Constructor.
+     *
+     * @param reader          The reader of the CSV file, which does not need to be buffered.
+     * @param columnSeparator The column separator.
+     * @param textQualifier   The text qualifier.
+     */
+    public CsvReader(Reader reader, char columnSeparator, char textQualifier) {
+        this(reader, columnSeparator, textQualifier, 1);
+    }
+
+    /**
+     * Constructor of a reader of a part of a CSV file, which starts at the
+     * beginning of a row.
+     *
+     * @param reader          The reader of the part of the CSV file, which does not need to be buffered.
+     * @param columnSeparator The column separator.
+     * @param textQualifier   The text qualifier.
+     * @param firstLineNumber The number of the line of the file where the part starts.
+     */
+    public CsvReader(Reader reader, char columnSeparator, char textQualifier, int firstLineNumber) {
+        mReader = reader;
+        mColumnSeparator = columnSeparator;
+        mTextQualifier = textQualifier;
+        mLineNumber = firstLineNumber;
+    }
+
+    /**
+     * Read the next row. Its fields replace the fields of the previous row.
+     *
+     * @return True if a row has been read, false at the end of the file.
+     * @throws IOException if the file cannot be read.
+     */
+    public boolean nextRow() throws IOException {
+        do {
+            if (!readRow()) {
+                return false;
+            }
+        } while (mFieldCount == 1 && mFieldCharCount == 0);
+        return true;
+    }
+
+    /**
+     * Get the number of fields of the current row.
+     *
+     * @return Field count.
+     */
+    public int getFieldCount() {
+        return mFieldCount;
+    }
+
+    /**
+     * Get a field of the current row.
+     *
+     * @param index The index of the field.
+     * @return The value of the field, without its text qualifiers.
+     */
+    public String getField(int index) {
+        if (index < 0 || index >= mFieldCount) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", field count: " + mFieldCount);
+        }
+        int start = index == 0 ? 0 : mFieldEnds[index - 1];
+        return new String(mFieldChars, start, mFieldEnds[index] - start);
+    }
+
+    /**
+     * Get the length of a field of the current row, without creating its
+     * value.
+     *
+     * @param index The index of the field.
+     * @return The number of characters of the field.
+     */
+    public int getFieldLength(int index) {
+        if (index < 0 || index >= mFieldCount) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", field count: " + mFieldCount);
+        }
+        int start = index == 0 ? 0 : mFieldEnds[index - 1];
+        return mFieldEnds[index] - start;
+    }
+
+    /**
+     * Get the number of the line of the file where the current row starts.
+     *
+     * @return Line number, starting at 1.
+     */
+    public int getLineNumber() {
+        return mRowLineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        mReader.close();
+    }
+
+    /**
+     * Read the next row, which may be empty.
+     *
+     * @return True if a row has been read, false at the end of the file.
+     * @throws IOException if the file cannot be read.
+     */
+    private boolean readRow() throws IOException {
+        mFieldCount = 0;
+        mFieldCharCount = 0;
+        mRowLineNumber = mLineNumber;
+
+        int c = read();
+        if (c < 0) {
+            return false;
+        }
+        int state = STATE_FIELD_START;
+        while (c >= 0) {
+            char ch = (char) c;
+            if (state == STATE_FIELD_START) {
+                if (ch == mTextQualifier) {
+                    state = STATE_QUOTED;
+                    c = read();
+                    continue;
+                }
+                state = STATE_UNQUOTED;
+            }
+
+            if (state == STATE_QUOTED) {
+                if (ch == mTextQualifier) {
+                    state = STATE_QUOTE_IN_QUOTED;
+                } else {
+                    if (ch == '\n') {
+                        mLineNumber++;
+                    }
+                    append(ch);
+                }
+            } else if (state == STATE_QUOTE_IN_QUOTED && ch == mTextQualifier) {
+                // A doubled text qualifier stands for the qualifier itself.
+                append(ch);
+                state = STATE_QUOTED;
+            } else if (ch == mColumnSeparator) {
+                endField();
+                state = STATE_FIELD_START;
+            } else if (ch == '\r' || ch == '\n') {
+                endLine(ch);
+                break;
+            } else {
+                // Text after a closing qualifier, or a qualifier inside an
+                // unquoted field, is kept as it is.
+                append(ch);
+                state = STATE_UNQUOTED;
+            }
+            c = read();
+        }
+        endField();
+        return true;
+    }
+
+    /**
+     * Read the next character.
+     *
+     * @return The character, or -1 at the end of the file.
+     * @throws IOException if the file cannot be read.
+     */
+    private int read() throws IOException {
+        if (mBufferPosition == mBufferLength && !fill()) {
+            return -1;
+        }
+        char c = mBuffer[mBufferPosition++];
+        if (!mIsStarted) {
+            mIsStarted = true;
+            if (c == BOM) {
+                return read();
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Read the next characters of the file in the buffer.
+     *
+     * @return False at the end of the file.
+     * @throws IOException if the file cannot be read.
+     */
+    private boolean fill() throws IOException {
+        int length;
+        do {
+            length = mReader.read(mBuffer, 0, mBuffer.length);
+        } while (length == 0);
+        if (length < 0) {
+            return false;
+        }
+        mBufferPosition = 0;
+        mBufferLength = length;
+        return true;
+    }
+
+    /**
+     * Skip the line feed of a CRLF line break.
+     *
+     * @param ch The character ending the line.
+     * @throws IOException if the file cannot be read.
+     */
+    private void endLine(char ch) throws IOException {
+        mLineNumber++;
+        if (ch == '\r' && (mBufferPosition < mBufferLength || fill()) && mBuffer[mBufferPosition] == '\n') {
+            mBufferPosition++;
+        }
+    }
+
+    private void append(char ch) {
+        if (mFieldCharCount == mFieldChars.length) {
+            char[] fieldChars = new char[mFieldChars.length * 2];
+            System.arraycopy(mFieldChars, 0, fieldChars, 0, mFieldCharCount);
+            mFieldChars = fieldChars;
+        }
+        mFieldChars[mFieldCharCount++] = ch;
+    }
+
+    private void endField() {
+        if (mFieldCount == mFieldEnds.length) {
+            int[] fieldEnds = new int[mFieldEnds.length * 2];
+            System.arraycopy(mFieldEnds, 0, fieldEnds, 0, mFieldCount);
+            mFieldEnds = fieldEnds;
+        }
+        mFieldEnds[mFieldCount++] = mFieldCharCount;
+    }
+}
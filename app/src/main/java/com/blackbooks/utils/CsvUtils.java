@@ -8,10 +8,10 @@ import com.blackbooks.model.nonpersistent.CsvColumn;
 import com.blackbooks.model.persistent.Author;
 import com.blackbooks.model.persistent.Category;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -24,6 +24,12 @@ import java.util.Locale;
  */
 public final class CsvUtils {
 
+    /**
+     * The minimum number of bytes of the chunks of a CSV file parsed on
+     * several threads.
+     */
+    private static final int CHUNK_SIZE = 1024 * 1024;
+
     /**
      * Private constructor.
      */
@@ -93,7 +99,7 @@ public final class CsvUtils {
 
     /**
      * Return the list of columns detected in a CSV file, i.e. the columns read in the first row
-     * of the file.
+     * of the file. Only the first row is read.
      *
      * @param file            The CSV file.
      * @param columnSeparator The column separator character.
@@ -102,35 +108,20 @@ public final class CsvUtils {
      */
     public static List<CsvColumn> getCsvFileColumns(File file, char columnSeparator, char textQualifier) {
         List<CsvColumn> result = new ArrayList<CsvColumn>();
-        BufferedReader reader = null;
+        CsvReader reader = null;
         try {
-            reader = new BufferedReader(new FileReader(file));
-            String line = reader.readLine();
-            if (line != null) {
-                if (line.startsWith(FileUtils.UTF8_BOM)) {
-                    line = line.substring(1);
-                }
-                String regex = new String(new char[]{columnSeparator});
-                String textQualifierString = new String(new char[]{textQualifier});
-                String[] columns = line.split(regex);
-                int nbColumns = columns.length;
+            reader = openCsvFile(file, columnSeparator, textQualifier);
+            if (reader.nextRow()) {
+                int nbColumns = reader.getFieldCount();
                 for (int i = 0; i < nbColumns; i++) {
-                    String column = columns[i].trim();
-                    column = column.replace(textQualifierString, "");
-                    CsvColumn csvColumn = new CsvColumn(i, column);
+                    CsvColumn csvColumn = new CsvColumn(i, reader.getField(i).trim());
                     result.add(csvColumn);
                 }
             }
         } catch (IOException e) {
             throw new RuntimeException(e);
         } finally {
-            if (reader != null) {
-                try {
-                    reader.close();
-                } catch (IOException e) {
-                    Log.e(LogUtils.TAG, "Could not close buffered reader.", e);
-                }
-            }
+            close(reader);
         }
         return result;
     }
@@ -151,90 +142,140 @@ public final class CsvUtils {
             boolean firstRowContainsHeader, List<CsvColumn> csvColumns) throws InterruptedException {
 
         final List<BookInfo> books = new ArrayList<BookInfo>();
+        parseCsvFile(file, columnSeparator, textQualifier, firstRowContainsHeader, csvColumns, new BookInfoHandler() {
+            @Override
+            public void onBookInfo(BookInfo bookInfo) {
+                books.add(bookInfo);
+            }
+        });
+        return books;
+    }
+
+    /**
+     * Parse the content of a CSV file, passing each book to a handler in the
+     * order of the rows, so that the books do not have to be kept in memory.
+     * The file is read as UTF-8, and parsed on several threads when there
+     * are several processors and the column separator and the text qualifier
+     * are ASCII characters.
+     *
+     * @param file                   The file to parse.
+     * @param columnSeparator        The column separator.
+     * @param textQualifier          The text qualifier.
+     * @param firstRowContainsHeader A boolean indicating whether the first row of the file contains a header or not.
+     * @param csvColumns             The CSV column mapping settings.
+     * @param handler                The handler of the books read.
+     * @throws InterruptedException if the parsing is interrupted.
+     */
+    public static void parseCsvFile(
+            File file, char columnSeparator, char textQualifier,
+            boolean firstRowContainsHeader, List<CsvColumn> csvColumns, BookInfoHandler handler) throws InterruptedException {
 
-        BufferedReader reader = null;
         try {
-            reader = new BufferedReader(new FileReader(file));
+            if (ParallelCsvParser.isSupported(columnSeparator, textQualifier)) {
+                ParallelCsvParser parser = new ParallelCsvParser(file, columnSeparator, textQualifier, CHUNK_SIZE);
+                parser.parse(firstRowContainsHeader, csvColumns, handler);
+            } else {
+                parseCsvFileSequentially(file, columnSeparator, textQualifier, firstRowContainsHeader, csvColumns, handler);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-            final String textQualifierString = Character.toString(textQualifier);
-            final String regexColumnSeparator = Character.toString(columnSeparator) + "(?=([^" + textQualifierString + "]*" + textQualifierString + "[^" + textQualifierString + "]*" + textQualifierString + ")*[^" + textQualifierString + "]*$)";
+    /**
+     * Parse the content of a CSV file on the current thread.
+     *
+     * @param file                   The file to parse.
+     * @param columnSeparator        The column separator.
+     * @param textQualifier          The text qualifier.
+     * @param firstRowContainsHeader A boolean indicating whether the first row of the file contains a header or not.
+     * @param csvColumns             The CSV column mapping settings.
+     * @param handler                The handler of the books read.
+     * @throws IOException          if the file cannot be read.
+     * @throws InterruptedException if the parsing is interrupted.
+     */
+    private static void parseCsvFileSequentially(
+            File file, char columnSeparator, char textQualifier,
+            boolean firstRowContainsHeader, List<CsvColumn> csvColumns, BookInfoHandler handler)
+            throws IOException, InterruptedException {
 
-            String line;
-            int lineNumber = 0;
-            while ((line = reader.readLine()) != null) {
+        CsvReader reader = null;
+        try {
+            reader = openCsvFile(file, columnSeparator, textQualifier);
+            if (firstRowContainsHeader) {
+                reader.nextRow();
+            }
+            while (reader.nextRow()) {
 
                 if (Thread.interrupted()) {
                     throw new InterruptedException();
                 }
 
-                lineNumber++;
-                if (lineNumber == 1) {
-                    if (firstRowContainsHeader) {
-                        continue;
-                    }
-                    if (line.startsWith(FileUtils.UTF8_BOM)) {
-                        line = line.substring(1);
-                    }
-                }
-
-                BookInfo bookInfo = parseLine(csvColumns, regexColumnSeparator, textQualifierString, line, lineNumber);
+                BookInfo bookInfo = parseRow(csvColumns, reader);
                 if (bookInfo != null) {
-                    books.add(bookInfo);
+                    handler.onBookInfo(bookInfo);
                 }
             }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
         } finally {
-            if (reader != null) {
-                try {
-                    reader.close();
-                } catch (IOException e) {
-                    Log.e(LogUtils.TAG, "Could not close buffered reader.", e);
-                }
-            }
+            close(reader);
         }
-
-        return books;
     }
 
     /**
-     * Parse a row to a new instance of BookInfo.
+     * Open a CSV file, which is read as UTF-8.
      *
-     * @param csvColumns      The CSV column mapping settings for the parsing.
+     * @param file            The CSV file.
      * @param columnSeparator The column separator.
      * @param textQualifier   The text qualifier.
-     * @param line            The line to parse.
-     * @param lineNumber      The line number.
-     * @return A new instance of BookInfo if the line could be parsed, null otherwise.
+     * @return The reader of the rows of the file.
+     * @throws IOException if the file cannot be opened.
      */
-    private static BookInfo parseLine(List<CsvColumn> csvColumns, String columnSeparator, String textQualifier, String line, int lineNumber) {
-        BookInfo bookInfo;
-        final String[] values = line.split(columnSeparator);
+    private static CsvReader openCsvFile(File file, char columnSeparator, char textQualifier) throws IOException {
+        return new CsvReader(new InputStreamReader(new FileInputStream(file), "UTF-8"), columnSeparator, textQualifier);
+    }
 
+    private static void close(CsvReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                Log.e(LogUtils.TAG, "Could not close CSV reader.", e);
+            }
+        }
+    }
+
+    /**
+     * Parse the current row of a CSV file to a new instance of BookInfo. It
+     * may be called on several threads at once.
+     *
+     * @param csvColumns The CSV column mapping settings for the parsing.
+     * @param reader     The reader of the CSV file.
+     * @return A new instance of BookInfo if the row could be parsed, null otherwise.
+     */
+    static BookInfo parseRow(List<CsvColumn> csvColumns, CsvReader reader) {
         final int nbCsvColumns = csvColumns.size();
-        if (values.length <= nbCsvColumns) {
-            bookInfo = new BookInfo();
-            for (int i = 0; i < values.length; i++) {
-                final CsvColumn csvColumn = csvColumns.get(i);
-                final CsvColumn.BookProperty bookProperty = csvColumn.getBookProperty();
+        final int nbValues = reader.getFieldCount();
 
-                if (bookProperty != null && bookProperty != CsvColumn.BookProperty.NONE) {
-                    String value = values[i];
-                    if (value.startsWith(textQualifier)) {
-                        value = value.substring(1);
-                    }
-                    if (value.endsWith(textQualifier)) {
-                        value = value.substring(0, value.length() - 1);
-                    }
-                    parseValue(bookProperty, value, bookInfo);
-                }
+        // Empty fields after the mapped columns, such as a trailing column
+        // separator, are ignored.
+        for (int i = nbCsvColumns; i < nbValues; i++) {
+            if (reader.getFieldLength(i) > 0) {
+                final String msg = String.format("Line %d has %d columns. %d expected.", reader.getLineNumber(), nbValues, nbCsvColumns);
+                Log.w(LogUtils.TAG, msg);
+                return null;
             }
-        } else {
-            bookInfo = null;
-            final String msg = String.format("Line %d has %d columns. %d expected.", lineNumber, values.length, nbCsvColumns);
-            Log.w(LogUtils.TAG, msg);
         }
 
+        BookInfo bookInfo = new BookInfo();
+        final int nbParsedValues = Math.min(nbValues, nbCsvColumns);
+        for (int i = 0; i < nbParsedValues; i++) {
+            final CsvColumn csvColumn = csvColumns.get(i);
+            final CsvColumn.BookProperty bookProperty = csvColumn.getBookProperty();
+
+            if (bookProperty != null && bookProperty != CsvColumn.BookProperty.NONE) {
+                parseValue(bookProperty, reader.getField(i), bookInfo);
+            }
+        }
         return bookInfo;
     }
 
@@ -358,4 +399,18 @@ public final class CsvUtils {
         }
         return strings;
     }
+
+    /**
+     * Receives the books read from a CSV file.
+     */
+    public interface BookInfoHandler {
+
+        /**
+         * Called for each book read, in the order of the rows.
+         *
+         * @param bookInfo The book.
+         * @throws InterruptedException if the parsing has to stop.
+         */
+        void onBookInfo(BookInfo bookInfo) throws InterruptedException;
+    }
 }
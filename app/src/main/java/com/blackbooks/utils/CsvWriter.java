@@ -0,0 +1,125 @@
+package com.blackbooks.utils;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the rows of a CSV file. The fields are qualified straight into a
+ * fixed buffer, which is written to the underlying writer when full: no
+ * string is built for a row or a field.
+ * <p/>
+ * A field is written the way {@link com.blackbooks.model.nonpersistent.BookExport#toCsv(char, char)}
+ * writes it: a null value is left empty, any other value is surrounded with
+ * the text qualifier, its line feeds are removed and its text qualifiers are
+ * doubled. Each field is followed by the column separator, and each row by a
+ * line feed.
+ */
+public final class CsvWriter implements Flushable {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Writer mWriter;
+    private final char mColumnSeparator;
+    private final char mTextQualifier;
+
+    private final char[] mBuffer = new char[BUFFER_SIZE];
+    private int mBufferLength;
+
+    /**
+     * Constructor.
+     *
+     * @param writer          The writer of the CSV file, which does not need to be buffered.
+     * @param columnSeparator The column separator.
+     * @param textQualifier   The text qualifier.
+     */
+    public CsvWriter(Writer writer, char columnSeparator, char textQualifier) {
+        mWriter = writer;
+        mColumnSeparator = columnSeparator;
+        mTextQualifier = textQualifier;
+    }
+
+    /**
+     * Write a field.
+     *
+     * @param value The value of the field, or null.
+     * @throws IOException if the file cannot be written.
+     */
+    public void writeField(String value) throws IOException {
+        if (value == null) {
+            writeNull();
+        } else {
+            int length = value.length();
+            append(mTextQualifier);
+            for (int i = 0; i < length; i++) {
+                appendQualified(value.charAt(i));
+            }
+            append(mTextQualifier);
+            append(mColumnSeparator);
+        }
+    }
+
+    /**
+     * Write a field whose characters are in an array, such as the array of a
+     * buffer reused for each row.
+     *
+     * @param chars  The characters of the value.
+     * @param length The number of characters of the value.
+     * @throws IOException if the file cannot be written.
+     */
+    public void writeField(char[] chars, int length) throws IOException {
+        append(mTextQualifier);
+        for (int i = 0; i < length; i++) {
+            appendQualified(chars[i]);
+        }
+        append(mTextQualifier);
+        append(mColumnSeparator);
+    }
+
+    /**
+     * Write an empty field, for a null value.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    public void writeNull() throws IOException {
+        append(mColumnSeparator);
+    }
+
+    /**
+     * End the current row.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    public void endRow() throws IOException {
+        append('\n');
+    }
+
+    /**
+     * Write the buffered rows to the underlying writer and flush it.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    @Override
+    public void flush() throws IOException {
+        mWriter.write(mBuffer, 0, mBufferLength);
+        mBufferLength = 0;
+        mWriter.flush();
+    }
+
+    private void appendQualified(char c) throws IOException {
+        if (c == mTextQualifier) {
+            append(c);
+            append(c);
+        } else if (c != '\n') {
+            append(c);
+        }
+    }
+
+    private void append(char c) throws IOException {
+        if (mBufferLength == BUFFER_SIZE) {
+            mWriter.write(mBuffer, 0, mBufferLength);
+            mBufferLength = 0;
+        }
+        mBuffer[mBufferLength++] = c;
+    }
+}
@@ -0,0 +1,301 @@
+package com.blackbooks.utils;
+
+import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.nonpersistent.CsvColumn;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parses a UTF-8 CSV file on several threads. The file is memory-mapped and
+ * cut into chunks of whole rows: a single thread scans the bytes to find the
+ * line breaks that are not inside a qualified field, then each chunk is
+ * decoded and parsed on a fork/join pool. The books are passed to the handler
+ * in the order of the rows, and the line numbers in the log are the line
+ * numbers of the file.
+ * <p/>
+ * The scan works on bytes, so the column separator and the text qualifier
+ * must be ASCII characters (see {@link #isSupported(char, char)}): the bytes
+ * of the other characters encoded in UTF-8 never take an ASCII value.
+ */
+final class ParallelCsvParser {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * The size of the parts of the file mapped to find the chunks.
+     */
+    private static final int WINDOW_SIZE = 16 * 1024 * 1024;
+
+    private static final int STATE_FIELD_START = 0;
+    private static final int STATE_UNQUOTED = 1;
+    private static final int STATE_QUOTED = 2;
+    private static final int STATE_QUOTE_IN_QUOTED = 3;
+
+    private final File mFile;
+    private final char mColumnSeparator;
+    private final char mTextQualifier;
+    private final int mChunkSize;
+    private final int mParallelism;
+
+    private FileChannel mChannel;
+    private long mFileSize;
+    private ByteBuffer mWindow;
+    private long mWindowStart;
+
+    private long mPosition;
+    private int mLineCount;
+    private int mState = STATE_FIELD_START;
+    private boolean mIsAfterCr;
+
+    /**
+     * Constructor.
+     *
+     * @param file            The CSV file.
+     * @param columnSeparator The column separator, which must be an ASCII character.
+     * @param textQualifier   The text qualifier, which must be an ASCII character.
+     * @param chunkSize       The minimum number of bytes of a chunk, except the last one.
+     */
+    ParallelCsvParser(File file, char columnSeparator, char textQualifier, int chunkSize) {
+        mFile = file;
+        mColumnSeparator = columnSeparator;
+        mTextQualifier = textQualifier;
+        mChunkSize = chunkSize;
+        mParallelism = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Indicates whether a file using the given separator and qualifier can
+     * be cut into chunks, and whether there are several processors to parse
+     * them.
+     *
+     * @param columnSeparator The column separator.
+     * @param textQualifier   The text qualifier.
+     * @return True if both characters are ASCII characters and there are several processors.
+     */
+    static boolean isSupported(char columnSeparator, char textQualifier) {
+        return columnSeparator < 0x80 && textQualifier < 0x80 && Runtime.getRuntime().availableProcessors() > 1;
+    }
+
+    /**
+     * Parse the file. At most two chunks per thread are parsed ahead of the
+     * handler, so that the memory taken does not depend on the size of the
+     * file.
+     *
+     * @param firstRowContainsHeader A boolean indicating whether the first row of the file contains a header or not.
+     * @param csvColumns             The CSV column mapping settings.
+     * @param handler                The handler of the books read.
+     * @throws IOException          if the file cannot be read.
+     * @throws InterruptedException if the parsing is interrupted.
+     */
+    void parse(boolean firstRowContainsHeader, List<CsvColumn> csvColumns, CsvUtils.BookInfoHandler handler)
+            throws IOException, InterruptedException {
+
+        FileInputStream stream = new FileInputStream(mFile);
+        ForkJoinPool pool = new ForkJoinPool(mParallelism);
+        try {
+            mChannel = stream.getChannel();
+            mFileSize = mChannel.size();
+            skipByteOrderMark();
+
+            Deque<ForkJoinTask<List<BookInfo>>> pendingChunks = new ArrayDeque<>();
+            boolean isFirstChunk = true;
+            while (mPosition < mFileSize) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+
+                long chunkStart = mPosition;
+                int firstLineNumber = mLineCount + 1;
+                long chunkEnd = findChunkEnd();
+                ParseChunkTask task = new ParseChunkTask(chunkStart, chunkEnd - chunkStart, firstLineNumber,
+                        isFirstChunk && firstRowContainsHeader, csvColumns);
+                isFirstChunk = false;
+
+                if (pendingChunks.size() >= 2 * mParallelism) {
+                    handleChunk(pendingChunks.removeFirst(), handler);
+                }
+                pendingChunks.addLast(pool.submit(task));
+            }
+            while (!pendingChunks.isEmpty()) {
+                handleChunk(pendingChunks.removeFirst(), handler);
+            }
+        } finally {
+            pool.shutdownNow();
+            stream.close();
+        }
+    }
+
+    /**
+     * Wait for a chunk to be parsed and pass its books to the handler.
+     *
+     * @param chunk   The task parsing the chunk.
+     * @param handler The handler of the books read.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    private static void handleChunk(ForkJoinTask<List<BookInfo>> chunk, CsvUtils.BookInfoHandler handler)
+            throws InterruptedException {
+        List<BookInfo> bookInfoList;
+        try {
+            bookInfoList = chunk.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+        for (BookInfo bookInfo : bookInfoList) {
+            handler.onBookInfo(bookInfo);
+        }
+    }
+
+    private void skipByteOrderMark() throws IOException {
+        if (mFileSize >= 3) {
+            map(0);
+            if (mWindow.get(0) == (byte) 0xEF && mWindow.get(1) == (byte) 0xBB && mWindow.get(2) == (byte) 0xBF) {
+                mPosition = 3;
+            }
+        }
+    }
+
+    /**
+     * Scan the bytes from the current position until the end of the first
+     * row ending after at least {@link #mChunkSize} bytes. The line breaks
+     * are counted the way {@link CsvReader} counts them.
+     *
+     * @return The position following the chunk, which is the position of the next chunk.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private long findChunkEnd() throws IOException {
+        long minChunkEnd = mPosition + mChunkSize;
+        while (mPosition < mFileSize) {
+            if (mWindow == null || mPosition >= mWindowStart + mWindow.limit()) {
+                map(mPosition);
+            }
+            ByteBuffer window = mWindow;
+            int index = (int) (mPosition - mWindowStart);
+            int limit = window.limit();
+            int minEndIndex = (int) Math.max(0, Math.min(limit, minChunkEnd - mWindowStart));
+            int state = mState;
+            int lineCount = mLineCount;
+            boolean isAfterCr = mIsAfterCr;
+            boolean isChunkEnd = false;
+
+            while (index < limit && !isChunkEnd) {
+                char c = (char) (window.get(index++) & 0xFF);
+
+                if (isAfterCr) {
+                    isAfterCr = false;
+                    if (c == '\n') {
+                        isChunkEnd = index >= minEndIndex;
+                        continue;
+                    }
+                }
+
+                if (state == STATE_FIELD_START) {
+                    if (c == mTextQualifier) {
+                        state = STATE_QUOTED;
+                        continue;
+                    }
+                    state = STATE_UNQUOTED;
+                }
+
+                if (state == STATE_QUOTED) {
+                    if (c == mTextQualifier) {
+                        state = STATE_QUOTE_IN_QUOTED;
+                    } else if (c == '\n') {
+                        lineCount++;
+                    }
+                } else if (state == STATE_QUOTE_IN_QUOTED && c == mTextQualifier) {
+                    state = STATE_QUOTED;
+                } else if (c == mColumnSeparator) {
+                    state = STATE_FIELD_START;
+                } else if (c == '\r' || c == '\n') {
+                    // A chunk does not end after a CR, which may be followed
+                    // by the LF of a CRLF line break.
+                    lineCount++;
+                    state = STATE_FIELD_START;
+                    isAfterCr = c == '\r';
+                    isChunkEnd = c == '\n' && index >= minEndIndex;
+                } else {
+                    state = STATE_UNQUOTED;
+                }
+            }
+
+            mPosition = mWindowStart + index;
+            mState = state;
+            mLineCount = lineCount;
+            mIsAfterCr = isAfterCr;
+            if (isChunkEnd) {
+                return mPosition;
+            }
+        }
+        return mFileSize;
+    }
+
+    /**
+     * Map the part of the file starting at the given position.
+     *
+     * @param position The position of the first byte to map.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private void map(long position) throws IOException {
+        mWindowStart = position;
+        mWindow = mChannel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, mFileSize - position));
+    }
+
+    /**
+     * Decodes and parses a chunk of the file.
+     */
+    private final class ParseChunkTask extends RecursiveTask<List<BookInfo>> {
+
+        private final long mStart;
+        private final long mLength;
+        private final int mFirstLineNumber;
+        private final boolean mSkipFirstRow;
+        private final List<CsvColumn> mCsvColumns;
+
+        ParseChunkTask(long start, long length, int firstLineNumber, boolean skipFirstRow, List<CsvColumn> csvColumns) {
+            mStart = start;
+            mLength = length;
+            mFirstLineNumber = firstLineNumber;
+            mSkipFirstRow = skipFirstRow;
+            mCsvColumns = csvColumns;
+        }
+
+        @Override
+        protected List<BookInfo> compute() {
+            List<BookInfo> bookInfoList = new ArrayList<>();
+            try {
+                ByteBuffer bytes = mChannel.map(FileChannel.MapMode.READ_ONLY, mStart, mLength);
+                CsvReader reader = new CsvReader(new ByteBufferReader(bytes, UTF_8), mColumnSeparator, mTextQualifier,
+                        mFirstLineNumber);
+                if (mSkipFirstRow) {
+                    reader.nextRow();
+                }
+                while (reader.nextRow()) {
+                    BookInfo bookInfo = CsvUtils.parseRow(mCsvColumns, reader);
+                    if (bookInfo != null) {
+                        bookInfoList.add(bookInfo);
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            return bookInfoList;
+        }
+    }
+}
@@ -62,6 +62,40 @@ public final class StringUtils {
         return isInteger;
     }
 
+    /**
+     * Compare two strings the way the NOCASE collation of SQLite does: by code
+     * point, only the ASCII letters being compared regardless of their case.
+     * Null values come first.
+     *
+     * @param value1 First value.
+     * @param value2 Second value.
+     * @return A negative value, zero or a positive value if the first value is
+     * less than, equal to or greater than the second one.
+     */
+    public static int compareNoCase(String value1, String value2) {
+        if (value1 == null || value2 == null) {
+            return value1 == null ? (value2 == null ? 0 : -1) : 1;
+        }
+        int i1 = 0;
+        int i2 = 0;
+        while (i1 < value1.length() && i2 < value2.length()) {
+            int c1 = value1.codePointAt(i1);
+            int c2 = value2.codePointAt(i2);
+            if (c1 >= 'A' && c1 <= 'Z') {
+                c1 += 'a' - 'A';
+            }
+            if (c2 >= 'A' && c2 <= 'Z') {
+                c2 += 'a' - 'A';
+            }
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+            i1 += Character.charCount(c1);
+            i2 += Character.charCount(c2);
+        }
+        return (value1.length() - i1) - (value2.length() - i2);
+    }
+
     /**
      * Join several string values and separate them using a specified separator.
      *
@@ -0,0 +1,163 @@
+package com.blackbooks.utils.collections;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive longs, to hold ids without boxing them.
+ */
+public final class LongArrayList {
+
+    private static final int DEFAULT_CAPACITY = 10;
+
+    private long[] mValues;
+    private int mSize;
+
+    /**
+     * Constructor.
+     */
+    public LongArrayList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param capacity The number of values the list can hold before it grows.
+     */
+    public LongArrayList(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Negative capacity: " + capacity);
+        }
+        mValues = new long[capacity];
+    }
+
+    /**
+     * Create a list holding some values.
+     *
+     * @param values The values.
+     * @return LongArrayList.
+     */
+    public static LongArrayList of(long... values) {
+        LongArrayList list = new LongArrayList(values.length);
+        System.arraycopy(values, 0, list.mValues, 0, values.length);
+        list.mSize = values.length;
+        return list;
+    }
+
+    /**
+     * Append a value to the list.
+     *
+     * @param value The value.
+     */
+    public void add(long value) {
+        if (mSize == mValues.length) {
+            grow(mSize + 1);
+        }
+        mValues[mSize++] = value;
+    }
+
+    /**
+     * Append the values of another list to the list.
+     *
+     * @param list LongArrayList.
+     */
+    public void addAll(LongArrayList list) {
+        if (mSize + list.mSize > mValues.length) {
+            grow(mSize + list.mSize);
+        }
+        System.arraycopy(list.mValues, 0, mValues, mSize, list.mSize);
+        mSize += list.mSize;
+    }
+
+    /**
+     * Get a value of the list.
+     *
+     * @param index The index of the value.
+     * @return The value.
+     */
+    public long get(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + mSize);
+        }
+        return mValues[index];
+    }
+
+    /**
+     * Get the number of values in the list.
+     *
+     * @return Size of the list.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Tell whether the list is empty.
+     *
+     * @return True if the list holds no values.
+     */
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Remove all the values of the list. The capacity is kept.
+     */
+    public void clear() {
+        mSize = 0;
+    }
+
+    /**
+     * Copy the values of the list to an array.
+     *
+     * @return Array of values.
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(mValues, mSize);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LongArrayList)) {
+            return false;
+        }
+        LongArrayList other = (LongArrayList) o;
+        if (mSize != other.mSize) {
+            return false;
+        }
+        for (int i = 0; i < mSize; i++) {
+            if (mValues[i] != other.mValues[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = 1;
+        for (int i = 0; i < mSize; i++) {
+            long value = mValues[i];
+            hashCode = 31 * hashCode + (int) (value ^ (value >>> 32));
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    /**
+     * Grow the array of values so that it holds at least a number of values.
+     *
+     * @param minCapacity The number of values.
+     */
+    private void grow(int minCapacity) {
+        int capacity = mValues.length + (mValues.length >> 1) + 1;
+        mValues = Arrays.copyOf(mValues, Math.max(capacity, minCapacity));
+    }
+}
@@ -0,0 +1,157 @@
+package com.blackbooks.utils.collections;
+
+import java.util.Arrays;
+
+/**
+ * A set of primitive longs, to collect distinct ids without boxing them. The
+ * values are kept in an open addressing table probed linearly, in which 0
+ * marks a free slot: the value 0 itself is tracked apart.
+ */
+public final class LongHashSet {
+
+    private long[] mKeys;
+    private int mMask;
+    private int mMaxSize;
+    private int mAssigned;
+    private boolean mHasZero;
+
+    /**
+     * Constructor.
+     */
+    public LongHashSet() {
+        this(LongHashing.MIN_CAPACITY / 2);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param expectedSize The number of values the set can hold before it grows.
+     */
+    public LongHashSet(int expectedSize) {
+        allocate(LongHashing.capacityFor(expectedSize));
+    }
+
+    /**
+     * Add a value to the set.
+     *
+     * @param value The value.
+     * @return True if the value was not in the set yet.
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            boolean added = !mHasZero;
+            mHasZero = true;
+            return added;
+        }
+        int slot = LongHashing.slot(value, mMask);
+        long key;
+        while ((key = mKeys[slot]) != 0) {
+            if (key == value) {
+                return false;
+            }
+            slot = (slot + 1) & mMask;
+        }
+        mKeys[slot] = value;
+        if (++mAssigned > mMaxSize) {
+            rehash(mKeys.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * Tell whether a value is in the set.
+     *
+     * @param value The value.
+     * @return True if the set contains the value.
+     */
+    public boolean contains(long value) {
+        if (value == 0) {
+            return mHasZero;
+        }
+        int slot = LongHashing.slot(value, mMask);
+        long key;
+        while ((key = mKeys[slot]) != 0) {
+            if (key == value) {
+                return true;
+            }
+            slot = (slot + 1) & mMask;
+        }
+        return false;
+    }
+
+    /**
+     * Get the number of values in the set.
+     *
+     * @return Size of the set.
+     */
+    public int size() {
+        return mAssigned + (mHasZero ? 1 : 0);
+    }
+
+    /**
+     * Tell whether the set is empty.
+     *
+     * @return True if the set holds no values.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Remove all the values of the set. The capacity is kept.
+     */
+    public void clear() {
+        Arrays.fill(mKeys, 0);
+        mAssigned = 0;
+        mHasZero = false;
+    }
+
+    /**
+     * Copy the values of the set to an array, in no particular order.
+     *
+     * @return Array of values.
+     */
+    public long[] toArray() {
+        long[] values = new long[size()];
+        int i = 0;
+        if (mHasZero) {
+            values[i++] = 0;
+        }
+        for (long key : mKeys) {
+            if (key != 0) {
+                values[i++] = key;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Allocate an empty table.
+     *
+     * @param capacity The capacity of the table, a power of two.
+     */
+    private void allocate(int capacity) {
+        mKeys = new long[capacity];
+        mMask = capacity - 1;
+        mMaxSize = LongHashing.maxSize(capacity);
+    }
+
+    /**
+     * Move the values to a new table.
+     *
+     * @param capacity The capacity of the new table, a power of two.
+     */
+    private void rehash(int capacity) {
+        long[] keys = mKeys;
+        allocate(capacity);
+        for (long key : keys) {
+            if (key != 0) {
+                int slot = LongHashing.slot(key, mMask);
+                while (mKeys[slot] != 0) {
+                    slot = (slot + 1) & mMask;
+                }
+                mKeys[slot] = key;
+            }
+        }
+    }
+}
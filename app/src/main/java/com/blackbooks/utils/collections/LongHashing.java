@@ -0,0 +1,67 @@
+package com.blackbooks.utils.collections;
+
+/**
+ * Hashing of the keys of the open addressing tables of {@link LongHashSet} and
+ * {@link LongObjectHashMap}. The tables have a power of two capacity and are
+ * probed linearly.
+ */
+final class LongHashing {
+
+    /**
+     * The smallest capacity of a table.
+     */
+    static final int MIN_CAPACITY = 8;
+
+    /**
+     * The largest capacity of a table.
+     */
+    static final int MAX_CAPACITY = 1 << 30;
+
+    /**
+     * Private constructor.
+     */
+    private LongHashing() {
+    }
+
+    /**
+     * Get the slot where the probing of a key starts. The bits of the key are
+     * mixed so that consecutive ids do not end up in consecutive slots.
+     *
+     * @param key  The key.
+     * @param mask The capacity of the table minus one.
+     * @return The index of the slot.
+     */
+    static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * Get the capacity of a table that holds a number of keys without being
+     * filled above three quarters.
+     *
+     * @param expectedSize The number of keys.
+     * @return Capacity, a power of two.
+     */
+    static int capacityFor(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Negative size: " + expectedSize);
+        }
+        long minCapacity = (long) expectedSize * 4 / 3 + 1;
+        int capacity = MIN_CAPACITY;
+        while (capacity < minCapacity && capacity < MAX_CAPACITY) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Get the number of keys above which a table must grow.
+     *
+     * @param capacity The capacity of the table.
+     * @return The max number of keys.
+     */
+    static int maxSize(int capacity) {
+        return capacity == MAX_CAPACITY ? capacity - 1 : capacity / 4 * 3;
+    }
+}
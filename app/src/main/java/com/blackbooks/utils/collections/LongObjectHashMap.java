@@ -0,0 +1,238 @@
+package com.blackbooks.utils.collections;
+
+import java.util.Arrays;
+
+/**
+ * A map from primitive longs to objects, to index rows by id without boxing
+ * the ids. The entries are kept in an open addressing table probed linearly,
+ * in which the key 0 marks a free slot: the entry of the key 0 itself is kept
+ * apart.
+ *
+ * @param <V> Type of the values.
+ */
+public final class LongObjectHashMap<V> {
+
+    private long[] mKeys;
+    private Object[] mValues;
+    private int mMask;
+    private int mMaxSize;
+    private int mAssigned;
+    private boolean mHasZeroKey;
+    private V mZeroValue;
+
+    /**
+     * Constructor.
+     */
+    public LongObjectHashMap() {
+        this(LongHashing.MIN_CAPACITY / 2);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param expectedSize The number of entries the map can hold before it grows.
+     */
+    public LongObjectHashMap(int expectedSize) {
+        allocate(LongHashing.capacityFor(expectedSize));
+    }
+
+    /**
+     * Associate a value with a key.
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return The value previously associated with the key, null if there was none.
+     */
+    public V put(long key, V value) {
+        if (key == 0) {
+            V previous = mZeroValue;
+            mHasZeroKey = true;
+            mZeroValue = value;
+            return previous;
+        }
+        int slot = LongHashing.slot(key, mMask);
+        long existing;
+        while ((existing = mKeys[slot]) != 0) {
+            if (existing == key) {
+                V previous = valueAt(slot);
+                mValues[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mMask;
+        }
+        mKeys[slot] = key;
+        mValues[slot] = value;
+        if (++mAssigned > mMaxSize) {
+            rehash(mKeys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Get the value associated with a key.
+     *
+     * @param key The key.
+     * @return The value, null if there is none.
+     */
+    public V get(long key) {
+        if (key == 0) {
+            return mZeroValue;
+        }
+        int slot = LongHashing.slot(key, mMask);
+        long existing;
+        while ((existing = mKeys[slot]) != 0) {
+            if (existing == key) {
+                return valueAt(slot);
+            }
+            slot = (slot + 1) & mMask;
+        }
+        return null;
+    }
+
+    /**
+     * Tell whether a value is associated with a key.
+     *
+     * @param key The key.
+     * @return True if the map contains the key.
+     */
+    public boolean containsKey(long key) {
+        if (key == 0) {
+            return mHasZeroKey;
+        }
+        int slot = LongHashing.slot(key, mMask);
+        long existing;
+        while ((existing = mKeys[slot]) != 0) {
+            if (existing == key) {
+                return true;
+            }
+            slot = (slot + 1) & mMask;
+        }
+        return false;
+    }
+
+    /**
+     * Remove the value associated with a key.
+     *
+     * @param key The key.
+     * @return The value that was associated with the key, null if there was none.
+     */
+    public V remove(long key) {
+        if (key == 0) {
+            V previous = mZeroValue;
+            mHasZeroKey = false;
+            mZeroValue = null;
+            return previous;
+        }
+        int slot = LongHashing.slot(key, mMask);
+        long existing;
+        while ((existing = mKeys[slot]) != 0) {
+            if (existing == key) {
+                V previous = valueAt(slot);
+                shiftConflictingKeys(slot);
+                mAssigned--;
+                return previous;
+            }
+            slot = (slot + 1) & mMask;
+        }
+        return null;
+    }
+
+    /**
+     * Get the number of entries in the map.
+     *
+     * @return Size of the map.
+     */
+    public int size() {
+        return mAssigned + (mHasZeroKey ? 1 : 0);
+    }
+
+    /**
+     * Tell whether the map is empty.
+     *
+     * @return True if the map holds no entries.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Remove all the entries of the map. The capacity is kept.
+     */
+    public void clear() {
+        Arrays.fill(mKeys, 0);
+        Arrays.fill(mValues, null);
+        mAssigned = 0;
+        mHasZeroKey = false;
+        mZeroValue = null;
+    }
+
+    /**
+     * Get the value of a slot of the table.
+     *
+     * @param slot The index of the slot.
+     * @return The value.
+     */
+    @SuppressWarnings("unchecked")
+    private V valueAt(int slot) {
+        return (V) mValues[slot];
+    }
+
+    /**
+     * Fill the slot of a removed entry with the entries after it that would
+     * no longer be found, so that the probing of every key still reaches it.
+     *
+     * @param gap The slot of the removed entry.
+     */
+    private void shiftConflictingKeys(int gap) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mMask;
+            long key = mKeys[slot];
+            if (key == 0) {
+                break;
+            }
+            int ideal = LongHashing.slot(key, mMask);
+            if (((slot - ideal) & mMask) >= ((slot - gap) & mMask)) {
+                mKeys[gap] = key;
+                mValues[gap] = mValues[slot];
+                gap = slot;
+            }
+        }
+        mKeys[gap] = 0;
+        mValues[gap] = null;
+    }
+
+    /**
+     * Allocate an empty table.
+     *
+     * @param capacity The capacity of the table, a power of two.
+     */
+    private void allocate(int capacity) {
+        mKeys = new long[capacity];
+        mValues = new Object[capacity];
+        mMask = capacity - 1;
+        mMaxSize = LongHashing.maxSize(capacity);
+    }
+
+    /**
+     * Move the entries to a new table.
+     *
+     * @param capacity The capacity of the new table, a power of two.
+     */
+    private void rehash(int capacity) {
+        long[] keys = mKeys;
+        Object[] values = mValues;
+        allocate(capacity);
+        for (int i = 0; i < keys.length; i++) {
+            long key = keys[i];
+            if (key != 0) {
+                int slot = LongHashing.slot(key, mMask);
+                while (mKeys[slot] != 0) {
+                    slot = (slot + 1) & mMask;
+                }
+                mKeys[slot] = key;
+                mValues[slot] = values[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.blackbooks.test.queryplan;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import com.blackbooks.BuildConfig;
+import com.blackbooks.cache.ThumbnailManager;
+import com.blackbooks.changes.ChangeBus;
+import com.blackbooks.database.SQLiteHelper;
+import com.blackbooks.database.TransactionManager;
+import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.persistent.Author;
+import com.blackbooks.model.persistent.Book;
+import com.blackbooks.model.persistent.BookAuthor;
+import com.blackbooks.model.persistent.BookCategory;
+import com.blackbooks.model.persistent.BookLocation;
+import com.blackbooks.model.persistent.Category;
+import com.blackbooks.model.persistent.Publisher;
+import com.blackbooks.model.persistent.Series;
+import com.blackbooks.repositories.AuthorRepositoryImpl;
+import com.blackbooks.repositories.BookAuthorRepositoryImpl;
+import com.blackbooks.repositories.BookCategoryRepositoryImpl;
+import com.blackbooks.repositories.BookLocationRepositoryImpl;
+import com.blackbooks.repositories.BookRepositoryImpl;
+import com.blackbooks.repositories.CategoryRepositoryImpl;
+import com.blackbooks.repositories.PublisherRepositoryImpl;
+import com.blackbooks.repositories.SeriesRepositoryImpl;
+import com.blackbooks.services.BookServiceImpl;
+import com.blackbooks.sql.BrokerManager;
+import com.blackbooks.sql.QueryCacheManager;
+import com.blackbooks.test.data.Authors;
+import com.blackbooks.test.data.BookLocations;
+import com.blackbooks.test.data.Categories;
+import com.blackbooks.test.data.Publishers;
+import com.blackbooks.test.data.Seriez;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Checks that the related rows of the books are loaded in a number of queries
+ * that does not depend on the number of books.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, shadows = ShadowRecordingSQLiteDatabase.class)
+public class BookInfoQueryCountTest {
+
+    /**
+     * The query of the books, and one query per kind of related row.
+     */
+    private static final int MAX_QUERY_COUNT = 8;
+
+    private static final int BOOK_COUNT = 50;
+
+    /**
+     * More books than the values bound in an "IN (?, ?, ...)" query.
+     */
+    private static final int LARGE_BOOK_COUNT = 300;
+
+    private SQLiteHelper sqLiteHelper;
+
+    private SQLiteDatabase db;
+
+    private BookServiceImpl bookService;
+
+    private Author author1;
+
+    private Author author2;
+
+    private Category category1;
+
+    private Category category2;
+
+    private Publisher publisher;
+
+    private BookLocation bookLocation;
+
+    private Series series;
+
+    @Before
+    public void setUp() {
+        SQLiteHelper.initialize(RuntimeEnvironment.application);
+        sqLiteHelper = SQLiteHelper.getInstance();
+        db = sqLiteHelper.getWritableDatabase();
+
+        bookService = new BookServiceImpl(
+                new AuthorRepositoryImpl(sqLiteHelper),
+                new BookAuthorRepositoryImpl(sqLiteHelper),
+                new BookCategoryRepositoryImpl(sqLiteHelper),
+                new BookLocationRepositoryImpl(sqLiteHelper),
+                new BookRepositoryImpl(sqLiteHelper),
+                new CategoryRepositoryImpl(sqLiteHelper),
+                new PublisherRepositoryImpl(sqLiteHelper),
+                new SeriesRepositoryImpl(sqLiteHelper),
+                mock(ThumbnailManager.class),
+                mock(TransactionManager.class),
+                mock(ChangeBus.class));
+
+        author1 = new Author();
+        author1.name = Authors.ALBERT_UDERZO;
+        BrokerManager.getBroker(Author.class).save(db, author1);
+
+        author2 = new Author();
+        author2.name = Authors.RENE_GOSCINNY;
+        BrokerManager.getBroker(Author.class).save(db, author2);
+
+        category1 = new Category();
+        category1.name = Categories.FRENCH_COMICS;
+        BrokerManager.getBroker(Category.class).save(db, category1);
+
+        category2 = new Category();
+        category2.name = Categories.HUMOR;
+        BrokerManager.getBroker(Category.class).save(db, category2);
+
+        publisher = new Publisher();
+        publisher.name = Publishers.LE_LOMBARD;
+        BrokerManager.getBroker(Publisher.class).save(db, publisher);
+
+        bookLocation = new BookLocation();
+        bookLocation.name = BookLocations.LIVING_ROOM;
+        BrokerManager.getBroker(BookLocation.class).save(db, bookLocation);
+
+        series = new Series();
+        series.name = Seriez.ASTERIX;
+        BrokerManager.getBroker(Series.class).save(db, series);
+
+        for (int i = 1; i <= BOOK_COUNT; i++) {
+            saveBook(String.format(Locale.US, "%s %02d", Seriez.ASTERIX, i));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        sqLiteHelper.close();
+    }
+
+    @Test
+    public void getBookInfo_should_load_the_book_in_a_fixed_number_of_queries() {
+        long bookId = bookService.getBookInfoListBySeries(series.id, 1, 0).get(0).id;
+
+        QueryCacheManager.getCache(db).clear();
+        ShadowRecordingSQLiteDatabase.startRecording();
+        BookInfo bookInfo = bookService.getBookInfo(bookId);
+        List<String> statements = ShadowRecordingSQLiteDatabase.stopRecording();
+
+        assertTrue(statements.toString(), statements.size() <= MAX_QUERY_COUNT);
+        assertEquals(2, bookInfo.authors.size());
+        assertEquals(author1.name, bookInfo.authors.get(0).name);
+        assertEquals(author2.name, bookInfo.authors.get(1).name);
+        assertEquals(2, bookInfo.categories.size());
+        assertEquals(category1.name, bookInfo.categories.get(0).name);
+        assertEquals(category2.name, bookInfo.categories.get(1).name);
+        assertEquals(publisher.name, bookInfo.publisher.name);
+        assertEquals(bookLocation.name, bookInfo.bookLocation.name);
+        assertEquals(series.name, bookInfo.series.name);
+    }
+
+    @Test
+    public void getBookInfoList_should_not_run_more_queries_for_more_books() {
+        int singleBookCount = countStatements(1);
+        int allBooksCount = countStatements(BOOK_COUNT);
+
+        assertTrue(allBooksCount <= MAX_QUERY_COUNT);
+        assertEquals(singleBookCount, allBooksCount);
+    }
+
+    @Test
+    public void getBookInfoList_should_not_run_more_queries_for_more_books_than_the_bound_values() {
+        for (int i = BOOK_COUNT + 1; i <= LARGE_BOOK_COUNT; i++) {
+            saveBook(String.format(Locale.US, "%s %02d", Seriez.ASTERIX, i));
+        }
+
+        int singleBookCount = countStatements(1);
+        int allBooksCount = countStatements(LARGE_BOOK_COUNT);
+
+        assertTrue(allBooksCount <= MAX_QUERY_COUNT);
+        assertEquals(singleBookCount, allBooksCount);
+        BookInfo lastBookInfo = bookService.getBookInfoListBySeries(series.id, LARGE_BOOK_COUNT, 0).get(LARGE_BOOK_COUNT - 1);
+        assertEquals(2, lastBookInfo.authors.size());
+        assertEquals(2, lastBookInfo.categories.size());
+        assertEquals(publisher.name, lastBookInfo.publisher.name);
+    }
+
+    @Test
+    public void getBookInfoList_should_return_the_relationships_of_every_book() {
+        List<BookInfo> bookInfoList = bookService.getBookInfoListBySeries(series.id, BOOK_COUNT, 0);
+
+        assertEquals(BOOK_COUNT, bookInfoList.size());
+        for (BookInfo bookInfo : bookInfoList) {
+            assertEquals(2, bookInfo.authors.size());
+            assertEquals(author1.id, bookInfo.authors.get(0).id);
+            assertEquals(author2.id, bookInfo.authors.get(1).id);
+            assertEquals(2, bookInfo.categories.size());
+            assertEquals(category1.id, bookInfo.categories.get(0).id);
+            assertEquals(category2.id, bookInfo.categories.get(1).id);
+        }
+    }
+
+    private int countStatements(int limit) {
+        QueryCacheManager.getCache(db).clear();
+        ShadowRecordingSQLiteDatabase.startRecording();
+        List<BookInfo> bookInfoList = bookService.getBookInfoListBySeries(series.id, limit, 0);
+        List<String> statements = ShadowRecordingSQLiteDatabase.stopRecording();
+
+        assertEquals(limit, bookInfoList.size());
+        return statements.size();
+    }
+
+    private void saveBook(String title) {
+        Book book = new Book();
+        book.title = title;
+        book.publisherId = publisher.id;
+        book.bookLocationId = bookLocation.id;
+        book.seriesId = series.id;
+        BrokerManager.getBroker(Book.class).save(db, book);
+
+        BookAuthor bookAuthor1 = new BookAuthor();
+        bookAuthor1.bookId = book.id;
+        bookAuthor1.authorId = author1.id;
+        BrokerManager.getBroker(BookAuthor.class).save(db, bookAuthor1);
+
+        BookAuthor bookAuthor2 = new BookAuthor();
+        bookAuthor2.bookId = book.id;
+        bookAuthor2.authorId = author2.id;
+        BrokerManager.getBroker(BookAuthor.class).save(db, bookAuthor2);
+
+        BookCategory bookCategory1 = new BookCategory();
+        bookCategory1.bookId = book.id;
+        bookCategory1.categoryId = category1.id;
+        BrokerManager.getBroker(BookCategory.class).save(db, bookCategory1);
+
+        BookCategory bookCategory2 = new BookCategory();
+        bookCategory2.bookId = book.id;
+        bookCategory2.categoryId = category2.id;
+        BrokerManager.getBroker(BookCategory.class).save(db, bookCategory2);
+    }
+}
@@ -0,0 +1,764 @@
+package com.blackbooks.test.queryplan;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.blackbooks.BuildConfig;
+import com.blackbooks.database.SQLiteHelper;
+import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.nonpersistent.PageKey;
+import com.blackbooks.model.persistent.Author;
+import com.blackbooks.model.persistent.Book;
+import com.blackbooks.model.persistent.BookAuthor;
+import com.blackbooks.model.persistent.BookCategory;
+import com.blackbooks.model.persistent.BookLocation;
+import com.blackbooks.model.persistent.Category;
+import com.blackbooks.model.persistent.Cover;
+import com.blackbooks.model.persistent.Isbn;
+import com.blackbooks.model.persistent.Publisher;
+import com.blackbooks.model.persistent.Series;
+import com.blackbooks.repositories.AuthorRepositoryImpl;
+import com.blackbooks.repositories.BookLocationRepositoryImpl;
+import com.blackbooks.repositories.BookRepositoryImpl;
+import com.blackbooks.repositories.CategoryRepositoryImpl;
+import com.blackbooks.repositories.IsbnRepositoryImpl;
+import com.blackbooks.repositories.PublisherRepositoryImpl;
+import com.blackbooks.repositories.SeriesRepositoryImpl;
+import com.blackbooks.services.BookGroupServiceImpl;
+import com.blackbooks.services.ExportServiceImpl;
+import com.blackbooks.sql.BrokerManager;
+import com.blackbooks.sql.QueryCacheManager;
+import com.blackbooks.utils.HashUtils;
+import com.blackbooks.utils.collections.LongArrayList;
+import com.blackbooks.test.data.Authors;
+import com.blackbooks.test.data.BookLocations;
+import com.blackbooks.test.data.Books;
+import com.blackbooks.test.data.Categories;
+import com.blackbooks.test.data.Isbn10s;
+import com.blackbooks.test.data.Isbn13s;
+import com.blackbooks.test.data.Languages;
+import com.blackbooks.test.data.People;
+import com.blackbooks.test.data.Publishers;
+import com.blackbooks.test.data.Seriez;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs EXPLAIN QUERY PLAN on every statement issued by the hand-written
+ * queries of the repositories and services, and fails when one of them reads
+ * the whole of a large table while no index could be used. Scanning a partial
+ * index does not count as a full scan.
+ * <p/>
+ * A full scan that cannot be avoided, or that is waiting for an index, has to
+ * be declared in {@link #ALLOWED_SCANS} with the reason why it is accepted.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, shadows = ShadowRecordingSQLiteDatabase.class)
+public class QueryPlanTest {
+
+    /**
+     * The tables that must not be scanned.
+     */
+    private static final List<String> CHECKED_TABLES = Arrays.asList(Book.NAME, BookAuthor.NAME, BookCategory.NAME);
+
+    /**
+     * The full scans accepted for now, by "case:table", with the reason why.
+     */
+    private static final Map<String, String> ALLOWED_SCANS = new HashMap<>();
+
+    private static final Pattern SCAN_PATTERN = Pattern.compile("^SCAN (?:TABLE )?(\\w+)");
+
+    private static final Pattern INDEX_PATTERN = Pattern.compile("USING (?:COVERING )?INDEX (\\w+)");
+
+    private static final Pattern TABLE_ALIAS_PATTERN = Pattern.compile("\\b(" + BookAuthor.NAME + "|" + BookCategory.NAME
+            + "|" + Book.NAME + ")\\s+(?:AS\\s+)?(\\w+)");
+
+    private static final List<String> KEYWORDS = Arrays.asList("AS", "ON", "JOIN", "LEFT", "INNER", "CROSS",
+            "WHERE", "GROUP", "ORDER", "LIMIT", "SET", "USING", "INDEXED", "NOT");
+
+    static {
+        allow("getBookCount", Book.NAME, "Counts every book.");
+        allow("getFirstLetterCount", Book.NAME, "Reads the title of every book.");
+        allow("getLanguageCount", Book.NAME, "Reads the language of every book.");
+        allow("getBookLoanCount", Book.NAME, "Reads every loaned book.");
+        allow("getBookGroupListFirstLetter", Book.NAME, "Groups every book.");
+        allow("getBookGroupListLanguage", Book.NAME, "Groups every book.");
+        allow("getBookGroupListLoan", Book.NAME, "Groups every loaned book.");
+        allow("getBookExportList", Book.NAME, "Exports every book.");
+        allow("getBookExportList", BookAuthor.NAME, "Exports every book.");
+        allow("getBookExportList", BookCategory.NAME, "Exports every book.");
+    }
+
+    private SQLiteHelper sqLiteHelper;
+
+    private SQLiteDatabase db;
+
+    private BookRepositoryImpl bookRepository;
+
+    private BookGroupServiceImpl bookGroupService;
+
+    private ExportServiceImpl exportService;
+
+    private IsbnRepositoryImpl isbnRepository;
+
+    private AuthorRepositoryImpl authorRepository;
+
+    private BookLocationRepositoryImpl bookLocationRepository;
+
+    private CategoryRepositoryImpl categoryRepository;
+
+    private PublisherRepositoryImpl publisherRepository;
+
+    private SeriesRepositoryImpl seriesRepository;
+
+    private Book book;
+
+    private Author author;
+
+    private Category category;
+
+    private Isbn isbn;
+
+    @Before
+    public void setUp() {
+        SQLiteHelper.initialize(RuntimeEnvironment.application);
+        sqLiteHelper = SQLiteHelper.getInstance();
+        db = sqLiteHelper.getWritableDatabase();
+
+        bookRepository = new BookRepositoryImpl(sqLiteHelper);
+        bookGroupService = new BookGroupServiceImpl(sqLiteHelper);
+        exportService = new ExportServiceImpl(sqLiteHelper);
+        isbnRepository = new IsbnRepositoryImpl(sqLiteHelper);
+        authorRepository = new AuthorRepositoryImpl(sqLiteHelper);
+        bookLocationRepository = new BookLocationRepositoryImpl(sqLiteHelper);
+        categoryRepository = new CategoryRepositoryImpl(sqLiteHelper);
+        publisherRepository = new PublisherRepositoryImpl(sqLiteHelper);
+        seriesRepository = new SeriesRepositoryImpl(sqLiteHelper);
+
+        seed();
+    }
+
+    @After
+    public void tearDown() {
+        sqLiteHelper.close();
+    }
+
+    @Test
+    public void queries_should_not_scan_the_book_tables() {
+        List<QueryCase> queryCases = getQueryCases();
+        List<String> partialIndexes = getPartialIndexes();
+
+        List<String> violations = new ArrayList<>();
+        for (QueryCase queryCase : queryCases) {
+            // A cached result would not run the query.
+            QueryCacheManager.getCache(db).clear();
+            ShadowRecordingSQLiteDatabase.startRecording();
+            queryCase.run();
+            List<String> statements = ShadowRecordingSQLiteDatabase.stopRecording();
+
+            int explainedCount = 0;
+            for (String sql : statements) {
+                if (isExplainable(sql)) {
+                    violations.addAll(checkQueryPlan(queryCase.name, sql, partialIndexes));
+                    explainedCount++;
+                }
+            }
+            Assert.assertTrue("No statement was recorded for " + queryCase.name + ".", explainedCount > 0);
+        }
+
+        if (!violations.isEmpty()) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(violations.size()).append(" full scan(s) without an allow-list entry:");
+            for (String violation : violations) {
+                sb.append("\n").append(violation);
+            }
+            Assert.fail(sb.toString());
+        }
+    }
+
+    /**
+     * Get the queries to check. A case is named after the method it calls so
+     * that it can be referenced in {@link #ALLOWED_SCANS}.
+     *
+     * @return List of QueryCase.
+     */
+    private List<QueryCase> getQueryCases() {
+        final PageKey bookPageKey = new PageKey(book.title, book.id);
+
+        List<QueryCase> queryCases = new ArrayList<>();
+        queryCases.add(new QueryCase("getBook") {
+            @Override
+            void run() {
+                bookRepository.getBook(book.id);
+            }
+        });
+        queryCases.add(new QueryCase("loadThumbnails") {
+            @Override
+            void run() {
+                bookRepository.loadThumbnails(bookRepository.getBook(book.id));
+            }
+        });
+        queryCases.add(new QueryCase("save") {
+            @Override
+            void run() {
+                BookInfo bookInfo = new BookInfo(bookRepository.getBook(book.id));
+                bookInfo.subtitle = Books.LA_MAGICIENNE_TRAHIE;
+                bookRepository.save(bookInfo);
+            }
+        });
+        queryCases.add(new QueryCase("getBooksBySeries") {
+            @Override
+            void run() {
+                bookRepository.getBooksBySeries(book.seriesId, 10, 0);
+                bookRepository.getBooksBySeries(book.seriesId, 10, null);
+                bookRepository.getBooksBySeries(book.seriesId, 10, bookPageKey);
+            }
+        });
+        queryCases.add(new QueryCase("getFavouriteBooks") {
+            @Override
+            void run() {
+                bookRepository.getFavouriteBooks();
+                bookRepository.getFavouriteBooks(10, 0);
+                bookRepository.getFavouriteBooks(10, null);
+                bookRepository.getFavouriteBooks(10, bookPageKey);
+            }
+        });
+        queryCases.add(new QueryCase("getBookInfoListToRead") {
+            @Override
+            void run() {
+                bookRepository.getBookInfoListToRead(10, 0);
+                bookRepository.getBookInfoListToRead(10, null);
+                bookRepository.getBookInfoListToRead(10, bookPageKey);
+            }
+        });
+        queryCases.add(new QueryCase("getBookCountByAuthor") {
+            @Override
+            void run() {
+                bookRepository.getBookCountByAuthor(author.id);
+            }
+        });
+        queryCases.add(new QueryCase("getBookCountByBookLocation") {
+            @Override
+            void run() {
+                bookRepository.getBookCountByBookLocation(book.bookLocationId);
+                bookRepository.getBookCountByBookLocation(null);
+            }
+        });
+        queryCases.add(new QueryCase("getBookCountByCategory") {
+            @Override
+            void run() {
+                bookRepository.getBookCountByCategory(category.id);
+                bookRepository.getBookCountByCategory(null);
+            }
+        });
+        queryCases.add(new QueryCase("getBookCountByFirstLetter") {
+            @Override
+            void run() {
+                bookRepository.getBookCountByFirstLetter("L");
+            }
+        });
+        queryCases.add(new QueryCase("getBookCountByLanguage") {
+            @Override
+            void run() {
+                bookRepository.getBookCountByLanguage(Languages.FRENCH);
+                bookRepository.getBookCountByLanguage(null);
+            }
+        });
+        queryCases.add(new QueryCase("getBookCountByLoanedTo") {
+            @Override
+            void run() {
+                bookRepository.getBookCountByLoanedTo(People.JOHN_DOE);
+                bookRepository.getBookCountByLoanedTo(null);
+            }
+        });
+        queryCases.add(new QueryCase("getBookCountBySeries") {
+            @Override
+            void run() {
+                bookRepository.getBookCountBySeries(book.seriesId);
+                bookRepository.getBookCountBySeries(null);
+            }
+        });
+        queryCases.add(new QueryCase("getBookCount") {
+            @Override
+            void run() {
+                bookRepository.getBookCount();
+            }
+        });
+        queryCases.add(new QueryCase("getBookToReadCount") {
+            @Override
+            void run() {
+                bookRepository.getBookToReadCount();
+            }
+        });
+        queryCases.add(new QueryCase("getBookLoanCount") {
+            @Override
+            void run() {
+                bookRepository.getBookLoanCount();
+            }
+        });
+        queryCases.add(new QueryCase("getLanguageCount") {
+            @Override
+            void run() {
+                bookRepository.getLanguageCount();
+            }
+        });
+        queryCases.add(new QueryCase("getFirstLetterCount") {
+            @Override
+            void run() {
+                bookRepository.getFirstLetterCount();
+            }
+        });
+        queryCases.add(new QueryCase("getBooksByLoanedTo") {
+            @Override
+            void run() {
+                bookRepository.getBooksByLoanedTo(People.JOHN_DOE, 10, 0);
+                bookRepository.getBooksByLoanedTo(People.JOHN_DOE, 10, null);
+                bookRepository.getBooksByLoanedTo(People.JOHN_DOE, 10, bookPageKey);
+            }
+        });
+        queryCases.add(new QueryCase("getBooksByLanguage") {
+            @Override
+            void run() {
+                bookRepository.getBooksByLanguage(Languages.FRENCH, 10, 0);
+                bookRepository.getBooksByLanguage(Languages.FRENCH, 10, null);
+                bookRepository.getBooksByLanguage(Languages.FRENCH, 10, bookPageKey);
+            }
+        });
+        queryCases.add(new QueryCase("getBookSmallThumbnail") {
+            @Override
+            void run() {
+                bookRepository.getBookSmallThumbnail(book.id);
+                bookRepository.getBookSmallThumbnailCoverId(book.id);
+            }
+        });
+        queryCases.add(new QueryCase("markBookAsFavourite") {
+            @Override
+            void run() {
+                bookRepository.markBookAsFavourite(book.id);
+            }
+        });
+        queryCases.add(new QueryCase("markBookAsRead") {
+            @Override
+            void run() {
+                bookRepository.markBookAsRead(book.id);
+            }
+        });
+        queryCases.add(new QueryCase("returnBook") {
+            @Override
+            void run() {
+                bookRepository.returnBook(book.id);
+            }
+        });
+        queryCases.add(new QueryCase("getBooksByFirstLetter") {
+            @Override
+            void run() {
+                bookRepository.getBooksByFirstLetter("L", 10, 0);
+                bookRepository.getBooksByFirstLetter("L", 10, null);
+                bookRepository.getBooksByFirstLetter("L", 10, bookPageKey);
+            }
+        });
+        queryCases.add(new QueryCase("getBooksByCategory") {
+            @Override
+            void run() {
+                bookRepository.getBooksByCategory(category.id, 10, 0);
+                bookRepository.getBooksByCategory(category.id, 10, null);
+                bookRepository.getBooksByCategory(category.id, 10, bookPageKey);
+            }
+        });
+        queryCases.add(new QueryCase("getBooksByBookLocation") {
+            @Override
+            void run() {
+                bookRepository.getBooksByBookLocation(book.bookLocationId, 10, 0);
+                bookRepository.getBooksByBookLocation(book.bookLocationId, 10, null);
+                bookRepository.getBooksByBookLocation(book.bookLocationId, 10, bookPageKey);
+            }
+        });
+        queryCases.add(new QueryCase("getBooksByAuthor") {
+            @Override
+            void run() {
+                bookRepository.getBooksByAuthor(author.id, 10, 0);
+                bookRepository.getBooksByAuthor(author.id, 10, null);
+                bookRepository.getBooksByAuthor(author.id, 10, bookPageKey);
+            }
+        });
+        queryCases.add(new QueryCase("getBooksByIsbn10") {
+            @Override
+            void run() {
+                bookRepository.getBooksByIsbn10(book.isbn10);
+            }
+        });
+        queryCases.add(new QueryCase("getBooksByIsbn13") {
+            @Override
+            void run() {
+                bookRepository.getBooksByIsbn13(book.isbn13);
+            }
+        });
+        queryCases.add(new QueryCase("getBookGroupListAuthor") {
+            @Override
+            void run() {
+                bookGroupService.getBookGroupListAuthor(10, 0);
+                bookGroupService.getBookGroupListAuthor(10, null);
+                bookGroupService.getBookGroupListAuthor(10, new PageKey(author.name, author.id));
+            }
+        });
+        queryCases.add(new QueryCase("getBookGroupListBookLocation") {
+            @Override
+            void run() {
+                bookGroupService.getBookGroupListBookLocation(10, 0);
+                bookGroupService.getBookGroupListBookLocation(10, null);
+                bookGroupService.getBookGroupListBookLocation(10, new PageKey(BookLocations.LIVING_ROOM, book.bookLocationId));
+            }
+        });
+        queryCases.add(new QueryCase("getBookGroupListCategory") {
+            @Override
+            void run() {
+                bookGroupService.getBookGroupListCategory(10, 0);
+                bookGroupService.getBookGroupListCategory(10, null);
+                bookGroupService.getBookGroupListCategory(10, new PageKey(category.name, category.id));
+            }
+        });
+        queryCases.add(new QueryCase("getBookGroupListFirstLetter") {
+            @Override
+            void run() {
+                bookGroupService.getBookGroupListFirstLetter(10, 0);
+                bookGroupService.getBookGroupListFirstLetter(10, null);
+                bookGroupService.getBookGroupListFirstLetter(10, new PageKey("L", "L"));
+            }
+        });
+        queryCases.add(new QueryCase("getBookGroupListLanguage") {
+            @Override
+            void run() {
+                bookGroupService.getBookGroupListLanguage();
+            }
+        });
+        queryCases.add(new QueryCase("getBookGroupListLoan") {
+            @Override
+            void run() {
+                bookGroupService.getBookGroupListLoan(10, 0);
+                bookGroupService.getBookGroupListLoan(10, null);
+                bookGroupService.getBookGroupListLoan(10, new PageKey(People.JOHN_DOE, People.JOHN_DOE));
+            }
+        });
+        queryCases.add(new QueryCase("getBookGroupListSeries") {
+            @Override
+            void run() {
+                bookGroupService.getBookGroupListSeries(10, 0);
+                bookGroupService.getBookGroupListSeries(10, null);
+                bookGroupService.getBookGroupListSeries(10, new PageKey(Seriez.THORGAL, book.seriesId));
+            }
+        });
+        queryCases.add(new QueryCase("getBookExportList") {
+            @Override
+            void run() {
+                exportService.getBookExportList(null);
+            }
+        });
+        queryCases.add(new QueryCase("getIsbnListToLookUp") {
+            @Override
+            void run() {
+                isbnRepository.getIsbnListToLookUpCount();
+                isbnRepository.getIsbnListToLookUp(10, 0);
+            }
+        });
+        queryCases.add(new QueryCase("getIsbnListLookedUp") {
+            @Override
+            void run() {
+                isbnRepository.getIsbnListLookedUpCount();
+                isbnRepository.getIsbnListLookedUp(10, 0);
+            }
+        });
+        queryCases.add(new QueryCase("markIsbnLookedUp") {
+            @Override
+            void run() {
+                isbnRepository.markIsbnLookedUp(isbn.id, book.id);
+            }
+        });
+        queryCases.add(new QueryCase("deleteAllLookedUpIsbns") {
+            @Override
+            void run() {
+                isbnRepository.deleteAllLookedUpIsbns();
+            }
+        });
+        queryCases.add(new QueryCase("deleteAllPendingIsbns") {
+            @Override
+            void run() {
+                isbnRepository.deleteAllPendingIsbns();
+            }
+        });
+        queryCases.add(new QueryCase("deleteAuthorsWithoutBooks") {
+            @Override
+            void run() {
+                authorRepository.deleteAuthorsWithoutBooks();
+            }
+        });
+        queryCases.add(new QueryCase("deleteBookLocationsWithoutBooks") {
+            @Override
+            void run() {
+                bookLocationRepository.deleteBookLocationsWithoutBooks();
+            }
+        });
+        queryCases.add(new QueryCase("deleteCategoriesWithoutBooks") {
+            @Override
+            void run() {
+                categoryRepository.deleteCategoriesWithoutBooks();
+            }
+        });
+        queryCases.add(new QueryCase("deletePublishersWithoutBooks") {
+            @Override
+            void run() {
+                publisherRepository.deletePublisherWithoutBooks();
+                publisherRepository.deletePublishersWithoutBooks();
+            }
+        });
+        queryCases.add(new QueryCase("deleteSeriesWithoutBooks") {
+            @Override
+            void run() {
+                seriesRepository.deleteSeriesWithoutBooks();
+            }
+        });
+        queryCases.add(new QueryCase("deleteWithoutBooksByIds") {
+            @Override
+            void run() {
+                authorRepository.deleteAuthorsWithoutBooks(LongArrayList.of(author.id));
+                bookLocationRepository.deleteBookLocationsWithoutBooks(LongArrayList.of(book.bookLocationId));
+                categoryRepository.deleteCategoriesWithoutBooks(LongArrayList.of(category.id));
+                publisherRepository.deletePublishersWithoutBooks(LongArrayList.of(book.publisherId));
+                seriesRepository.deleteSeriesWithoutBooks(LongArrayList.of(book.seriesId));
+                bookRepository.deleteCoversWithoutBooks(LongArrayList.of(book.smallThumbnailCoverId));
+            }
+        });
+        queryCases.add(new QueryCase("getIdByName") {
+            @Override
+            void run() {
+                authorRepository.getAuthorIdByName(Authors.JEAN_VAN_HAMME);
+                bookLocationRepository.getBookLocationIdByName(BookLocations.LIVING_ROOM);
+                categoryRepository.getCategoryIdByName(Categories.BELGIAN_COMICS);
+                publisherRepository.getPublisherIdByName(Publishers.LE_LOMBARD);
+                seriesRepository.getSeriesIdByName(Seriez.THORGAL);
+            }
+        });
+        return queryCases;
+    }
+
+    /**
+     * Run EXPLAIN QUERY PLAN on a statement and look for the full scans of the
+     * checked tables. Every parameter of the statement is bound to "0", the
+     * plan does not depend on the values.
+     *
+     * @param caseName       The name of the case that issued the statement.
+     * @param sql            The statement.
+     * @param partialIndexes The names of the partial indexes.
+     * @return The scans that are not allowed, as text.
+     */
+    private List<String> checkQueryPlan(String caseName, String sql, List<String> partialIndexes) {
+        String[] selectionArgs = new String[countParameters(sql)];
+        Arrays.fill(selectionArgs, "0");
+
+        Map<String, String> tableAliases = getTableAliases(sql);
+        List<String> violations = new ArrayList<>();
+
+        Cursor cursor = db.rawQuery("EXPLAIN QUERY PLAN " + sql, selectionArgs);
+        try {
+            int detailIndex = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                String detail = cursor.getString(detailIndex);
+                Matcher matcher = SCAN_PATTERN.matcher(detail);
+                if (!matcher.find()) {
+                    continue;
+                }
+                Matcher indexMatcher = INDEX_PATTERN.matcher(detail);
+                if (indexMatcher.find() && partialIndexes.contains(indexMatcher.group(1))) {
+                    continue;
+                }
+                String table = tableAliases.get(matcher.group(1).toUpperCase(Locale.US));
+                if (table != null && !ALLOWED_SCANS.containsKey(caseName + ":" + table)) {
+                    violations.add(caseName + ": " + detail + "\n    " + sql.replace('\n', ' '));
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        return violations;
+    }
+
+    /**
+     * Get the names of the partial indexes of the database.
+     *
+     * @return List of index names.
+     */
+    private List<String> getPartialIndexes() {
+        List<String> partialIndexes = new ArrayList<>();
+        Cursor cursor = db.rawQuery("SELECT name FROM sqlite_master WHERE type = 'index' AND sql LIKE '% WHERE %'", null);
+        try {
+            while (cursor.moveToNext()) {
+                partialIndexes.add(cursor.getString(0));
+            }
+        } finally {
+            cursor.close();
+        }
+        return partialIndexes;
+    }
+
+    /**
+     * Map the names and aliases under which the checked tables appear in a
+     * statement to the name of the table. Older versions of SQLite name the
+     * table in a plan, newer ones its alias.
+     *
+     * @param sql The statement.
+     * @return Map of upper case name or alias to table name.
+     */
+    private static Map<String, String> getTableAliases(String sql) {
+        Map<String, String> tableAliases = new HashMap<>();
+        for (String table : CHECKED_TABLES) {
+            tableAliases.put(table, table);
+        }
+        Matcher matcher = TABLE_ALIAS_PATTERN.matcher(sql);
+        while (matcher.find()) {
+            String table = matcher.group(1);
+            String alias = matcher.group(2).toUpperCase(Locale.US);
+            if (!KEYWORDS.contains(alias)) {
+                tableAliases.put(alias, table);
+            }
+        }
+        return tableAliases;
+    }
+
+    /**
+     * Count the parameters of a statement, leaving out the question marks in
+     * the literals.
+     *
+     * @param sql The statement.
+     * @return Number of parameters.
+     */
+    private static int countParameters(String sql) {
+        int count = 0;
+        char quote = 0;
+        for (char c : sql.toCharArray()) {
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isExplainable(String sql) {
+        String statement = sql.trim().toUpperCase(Locale.US);
+        return statement.startsWith("SELECT")
+                || statement.startsWith("INSERT")
+                || statement.startsWith("UPDATE")
+                || statement.startsWith("DELETE")
+                || statement.startsWith("REPLACE")
+                || statement.startsWith("WITH");
+    }
+
+    private static void allow(String caseName, String table, String reason) {
+        ALLOWED_SCANS.put(caseName + ":" + table, reason);
+    }
+
+    /**
+     * Insert one book with all its references, a looked up ISBN and an ISBN
+     * to look up.
+     */
+    private void seed() {
+        author = new Author();
+        author.name = Authors.JEAN_VAN_HAMME;
+        BrokerManager.getBroker(Author.class).save(db, author);
+
+        category = new Category();
+        category.name = Categories.BELGIAN_COMICS;
+        BrokerManager.getBroker(Category.class).save(db, category);
+
+        BookLocation bookLocation = new BookLocation();
+        bookLocation.name = BookLocations.LIVING_ROOM;
+        BrokerManager.getBroker(BookLocation.class).save(db, bookLocation);
+
+        Publisher publisher = new Publisher();
+        publisher.name = Publishers.LE_LOMBARD;
+        BrokerManager.getBroker(Publisher.class).save(db, publisher);
+
+        Series series = new Series();
+        series.name = Seriez.THORGAL;
+        BrokerManager.getBroker(Series.class).save(db, series);
+
+        Cover cover = new Cover();
+        cover.hash = HashUtils.sha1(new byte[]{0, 1, 2, 3});
+        cover.image = new byte[]{0, 1, 2, 3};
+        BrokerManager.getBroker(Cover.class).save(db, cover);
+
+        book = new Book();
+        book.title = Books.LA_MAGICIENNE_TRAHIE;
+        book.smallThumbnailCoverId = cover.id;
+        book.bookLocationId = bookLocation.id;
+        book.publisherId = publisher.id;
+        book.seriesId = series.id;
+        book.number = 1L;
+        book.languageCode = Languages.FRENCH;
+        book.isbn10 = "2803603586";
+        book.isbn13 = "9782803603589";
+        book.loanedTo = People.JOHN_DOE;
+        book.loanDate = new Date();
+        book.isRead = 0L;
+        book.isFavourite = 1L;
+        BrokerManager.getBroker(Book.class).save(db, book);
+
+        BookAuthor bookAuthor = new BookAuthor();
+        bookAuthor.bookId = book.id;
+        bookAuthor.authorId = author.id;
+        BrokerManager.getBroker(BookAuthor.class).save(db, bookAuthor);
+
+        BookCategory bookCategory = new BookCategory();
+        bookCategory.bookId = book.id;
+        bookCategory.categoryId = category.id;
+        BrokerManager.getBroker(BookCategory.class).save(db, bookCategory);
+
+        Isbn lookedUpIsbn = new Isbn();
+        lookedUpIsbn.number = Isbn13s.BEOWULF;
+        lookedUpIsbn.dateAdded = new Date();
+        lookedUpIsbn.lookedUp = 1L;
+        BrokerManager.getBroker(Isbn.class).save(db, lookedUpIsbn);
+
+        isbn = new Isbn();
+        isbn.number = Isbn10s.LETTRES_DE_MON_MOULIN;
+        isbn.dateAdded = new Date();
+        isbn.lookedUp = 0L;
+        BrokerManager.getBroker(Isbn.class).save(db, isbn);
+    }
+
+    /**
+     * A call to one or several overloads of a method issuing SQL.
+     */
+    private abstract static class QueryCase {
+
+        final String name;
+
+        QueryCase(String name) {
+            this.name = name;
+        }
+
+        abstract void run();
+    }
+}
@@ -0,0 +1,129 @@
+package com.blackbooks.test.queryplan;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.CancellationSignal;
+
+import com.blackbooks.utils.StringUtils;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.annotation.RealObject;
+import org.robolectric.shadow.api.Shadow;
+import org.robolectric.util.ReflectionHelpers.ClassParameter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shadow of {@link SQLiteDatabase} recording the SQL statements that go
+ * through a database while recording is on. The statements are then executed
+ * as usual.
+ * <p/>
+ * The statements built by {@link SQLiteDatabase#delete(String, String, String[])}
+ * and {@link SQLiteDatabase#updateWithOnConflict(String, ContentValues, String, String[], int)}
+ * are rebuilt the way SQLiteDatabase builds them.
+ */
+@Implements(SQLiteDatabase.class)
+public class ShadowRecordingSQLiteDatabase {
+
+    private static final List<String> sStatements = new ArrayList<>();
+
+    private static boolean sRecording;
+
+    @RealObject
+    private SQLiteDatabase mRealDatabase;
+
+    /**
+     * Clear the recorded statements and start recording.
+     */
+    public static void startRecording() {
+        sStatements.clear();
+        sRecording = true;
+    }
+
+    /**
+     * Stop recording.
+     *
+     * @return The statements recorded since the last call to {@link #startRecording()}.
+     */
+    public static List<String> stopRecording() {
+        sRecording = false;
+        return new ArrayList<>(sStatements);
+    }
+
+    @Implementation
+    public Cursor rawQueryWithFactory(SQLiteDatabase.CursorFactory cursorFactory, String sql, String[] selectionArgs,
+                                      String editTable, CancellationSignal cancellationSignal) {
+        record(sql);
+        return Shadow.directlyOn(mRealDatabase, SQLiteDatabase.class, "rawQueryWithFactory",
+                ClassParameter.from(SQLiteDatabase.CursorFactory.class, cursorFactory),
+                ClassParameter.from(String.class, sql),
+                ClassParameter.from(String[].class, selectionArgs),
+                ClassParameter.from(String.class, editTable),
+                ClassParameter.from(CancellationSignal.class, cancellationSignal));
+    }
+
+    @Implementation
+    public SQLiteStatement compileStatement(String sql) {
+        record(sql);
+        return Shadow.directlyOn(mRealDatabase, SQLiteDatabase.class, "compileStatement",
+                ClassParameter.from(String.class, sql));
+    }
+
+    @Implementation
+    public void execSQL(String sql) {
+        record(sql);
+        Shadow.directlyOn(mRealDatabase, SQLiteDatabase.class, "execSQL",
+                ClassParameter.from(String.class, sql));
+    }
+
+    @Implementation
+    public void execSQL(String sql, Object[] bindArgs) {
+        record(sql);
+        Shadow.directlyOn(mRealDatabase, SQLiteDatabase.class, "execSQL",
+                ClassParameter.from(String.class, sql),
+                ClassParameter.from(Object[].class, bindArgs));
+    }
+
+    @Implementation
+    public int delete(String table, String whereClause, String[] whereArgs) {
+        String sql = "DELETE FROM " + table;
+        if (whereClause != null && !whereClause.isEmpty()) {
+            sql += " WHERE " + whereClause;
+        }
+        record(sql);
+        return Shadow.directlyOn(mRealDatabase, SQLiteDatabase.class, "delete",
+                ClassParameter.from(String.class, table),
+                ClassParameter.from(String.class, whereClause),
+                ClassParameter.from(String[].class, whereArgs));
+    }
+
+    @Implementation
+    public int updateWithOnConflict(String table, ContentValues values, String whereClause, String[] whereArgs,
+                                    int conflictAlgorithm) {
+        List<String> assignments = new ArrayList<>();
+        for (String column : values.keySet()) {
+            assignments.add(column + " = ?");
+        }
+        String sql = "UPDATE " + table + " SET " + StringUtils.join(assignments.toArray(new String[assignments.size()]), ", ");
+        if (whereClause != null && !whereClause.isEmpty()) {
+            sql += " WHERE " + whereClause;
+        }
+        record(sql);
+        return Shadow.directlyOn(mRealDatabase, SQLiteDatabase.class, "updateWithOnConflict",
+                ClassParameter.from(String.class, table),
+                ClassParameter.from(ContentValues.class, values),
+                ClassParameter.from(String.class, whereClause),
+                ClassParameter.from(String[].class, whereArgs),
+                ClassParameter.from(int.class, conflictAlgorithm));
+    }
+
+    private static void record(String sql) {
+        if (sRecording) {
+            sStatements.add(sql);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.blackbooks.test.repositories.authorrepository;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import com.blackbooks.BuildConfig;
+import com.blackbooks.database.SQLiteHelper;
+import com.blackbooks.model.persistent.Author;
+import com.blackbooks.model.persistent.Book;
+import com.blackbooks.model.persistent.BookAuthor;
+import com.blackbooks.repositories.AuthorRepositoryImpl;
+import com.blackbooks.sql.BrokerManager;
+import com.blackbooks.test.data.Authors;
+import com.blackbooks.test.data.Books;
+import com.blackbooks.utils.collections.LongArrayList;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class GetAuthorIdByNameTest {
+
+    private SQLiteHelper sqLiteHelper;
+
+    private SQLiteDatabase db;
+
+    private AuthorRepositoryImpl authorRepository;
+
+    @Before
+    public void setUp() {
+        SQLiteHelper.initialize(RuntimeEnvironment.application);
+        sqLiteHelper = SQLiteHelper.getInstance();
+        db = sqLiteHelper.getWritableDatabase();
+        authorRepository = new AuthorRepositoryImpl(sqLiteHelper);
+    }
+
+    @After
+    public void tearDown() {
+        sqLiteHelper.close();
+    }
+
+    @Test
+    public void getAuthorIdByName_should_return_the_id_of_the_author() {
+        long authorId = saveAuthor(Authors.ALBERT_CAMUS);
+
+        Assert.assertEquals(Long.valueOf(authorId), authorRepository.getAuthorIdByName(Authors.ALBERT_CAMUS));
+        Assert.assertEquals(Long.valueOf(authorId), authorRepository.getAuthorIdByName(Authors.ALBERT_CAMUS));
+        Assert.assertNull(authorRepository.getAuthorIdByName(Authors.RENE_GOSCINNY));
+    }
+
+    @Test
+    public void getAuthorIdByName_should_not_return_a_cached_id_once_the_author_has_been_renamed() {
+        long authorId = saveAuthor(Authors.ALBERT_CAMUS);
+        authorRepository.getAuthorIdByName(Authors.ALBERT_CAMUS);
+
+        authorRepository.updateAuthor(authorId, Authors.RENE_GOSCINNY);
+
+        Assert.assertNull(authorRepository.getAuthorIdByName(Authors.ALBERT_CAMUS));
+        Assert.assertEquals(Long.valueOf(authorId), authorRepository.getAuthorIdByName(Authors.RENE_GOSCINNY));
+    }
+
+    @Test
+    public void getAuthorIdByName_should_return_an_author_saved_after_a_missed_lookup() {
+        Assert.assertNull(authorRepository.getAuthorIdByName(Authors.ALBERT_CAMUS));
+
+        long authorId = saveAuthor(Authors.ALBERT_CAMUS);
+
+        Assert.assertEquals(Long.valueOf(authorId), authorRepository.getAuthorIdByName(Authors.ALBERT_CAMUS));
+    }
+
+    @Test
+    public void deleteAuthorsWithoutBooks_should_only_delete_the_given_authors_that_have_no_books() {
+        long linkedAuthorId = saveAuthor(Authors.ALBERT_CAMUS);
+        long orphanAuthorId = saveAuthor(Authors.RENE_GOSCINNY);
+        long otherOrphanAuthorId = saveAuthor(Authors.ALBERT_UDERZO);
+        saveBookAuthor(linkedAuthorId);
+        authorRepository.getAuthorIdByName(Authors.RENE_GOSCINNY);
+
+        authorRepository.deleteAuthorsWithoutBooks(LongArrayList.of(linkedAuthorId, orphanAuthorId));
+
+        Assert.assertNotNull(authorRepository.getAuthor(linkedAuthorId));
+        Assert.assertNull(authorRepository.getAuthor(orphanAuthorId));
+        Assert.assertNotNull(authorRepository.getAuthor(otherOrphanAuthorId));
+        Assert.assertNull(authorRepository.getAuthorIdByName(Authors.RENE_GOSCINNY));
+    }
+
+    private long saveAuthor(String name) {
+        Author author = new Author();
+        author.name = name;
+        return authorRepository.saveAuthor(author);
+    }
+
+    private void saveBookAuthor(long authorId) {
+        Book book = new Book();
+        book.title = Books.LA_PESTE;
+        BrokerManager.getBroker(Book.class).save(db, book);
+
+        BookAuthor bookAuthor = new BookAuthor();
+        bookAuthor.bookId = book.id;
+        bookAuthor.authorId = authorId;
+        BrokerManager.getBroker(BookAuthor.class).save(db, bookAuthor);
+    }
+}
@@ -0,0 +1,121 @@
+package com.blackbooks.test.repositories.authorrepository;
+
+import com.blackbooks.BuildConfig;
+import com.blackbooks.database.SQLiteHelper;
+import com.blackbooks.model.persistent.Author;
+import com.blackbooks.repositories.AuthorRepositoryImpl;
+import com.blackbooks.test.data.Authors;
+import com.blackbooks.utils.collections.LongArrayList;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class GetAuthorsByIdsTest {
+
+    private SQLiteHelper sqLiteHelper;
+
+    private AuthorRepositoryImpl authorRepository;
+
+    @Before
+    public void setUp() {
+        SQLiteHelper.initialize(RuntimeEnvironment.application);
+        sqLiteHelper = SQLiteHelper.getInstance();
+        authorRepository = new AuthorRepositoryImpl(sqLiteHelper);
+    }
+
+    @After
+    public void tearDown() {
+        sqLiteHelper.close();
+    }
+
+    @Test
+    public void getAuthorsByIds_should_return_the_authors_when_the_ids_are_passed_as_parameters() {
+        assertAuthorsByIds(50);
+    }
+
+    @Test
+    public void getAuthorsByIds_should_return_the_authors_when_the_ids_are_passed_in_a_single_blob() {
+        assertAuthorsByIds(1000);
+    }
+
+    @Test
+    public void getAuthorsByIds_should_return_each_author_once_when_an_id_is_repeated() {
+        Author author = new Author();
+        author.name = Authors.ALBERT_CAMUS;
+        authorRepository.saveAuthor(author);
+        LongArrayList authorIdList = new LongArrayList();
+        for (int i = 0; i < 300; i++) {
+            authorIdList.add(author.id);
+        }
+
+        List<Author> authorList = authorRepository.getAuthorsByIds(authorIdList);
+
+        Assert.assertEquals(1, authorList.size());
+        Assert.assertEquals(author.id, authorList.get(0).id);
+    }
+
+    @Test
+    public void getAuthorListByNames_should_return_the_authors_whatever_the_characters_of_their_names() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Author author = new Author();
+            author.name = "\u00c9mile, \"Zola\" \ud83d\udcda " + i;
+            authorRepository.saveAuthor(author);
+            names.add(author.name);
+        }
+        names.add(Authors.ALBERT_CAMUS);
+
+        List<Author> authorList = authorRepository.getAuthorListByNames(names);
+
+        Set<String> actualNames = new HashSet<>();
+        for (Author author : authorList) {
+            actualNames.add(author.name);
+        }
+        Assert.assertEquals(300, authorList.size());
+        Assert.assertEquals(new HashSet<>(names.subList(0, 300)), actualNames);
+    }
+
+    @Test
+    public void getAuthorsByIds_should_return_an_empty_list_when_there_are_no_ids() {
+        Assert.assertTrue(authorRepository.getAuthorsByIds(new LongArrayList()).isEmpty());
+    }
+
+    private void assertAuthorsByIds(int count) {
+        LongArrayList authorIdList = new LongArrayList();
+        for (int i = 0; i < count * 2; i++) {
+            Author author = new Author();
+            author.name = "Author " + i;
+            authorRepository.saveAuthor(author);
+            if (i % 2 == 0) {
+                authorIdList.add(author.id);
+            }
+        }
+
+        List<Author> authorList = authorRepository.getAuthorsByIds(authorIdList);
+
+        Set<Long> expectedIds = new HashSet<>();
+        for (int i = 0; i < authorIdList.size(); i++) {
+            expectedIds.add(authorIdList.get(i));
+        }
+        Set<Long> actualIds = new HashSet<>();
+        for (Author author : authorList) {
+            actualIds.add(author.id);
+        }
+        Assert.assertEquals(count, authorList.size());
+        Assert.assertEquals(expectedIds, actualIds);
+    }
+}
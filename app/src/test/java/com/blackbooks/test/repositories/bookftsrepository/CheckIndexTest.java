@@ -0,0 +1,118 @@
+package com.blackbooks.test.repositories.bookftsrepository;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.blackbooks.BuildConfig;
+import com.blackbooks.database.SQLiteHelper;
+import com.blackbooks.model.nonpersistent.BookSearchResult;
+import com.blackbooks.model.persistent.Book;
+import com.blackbooks.repositories.BookFTSRepositoryImpl;
+import com.blackbooks.repositories.BookRepositoryImpl;
+import com.blackbooks.sql.Broker;
+import com.blackbooks.sql.BrokerManager;
+import com.blackbooks.test.data.Books;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class CheckIndexTest {
+
+    private SQLiteHelper sqLiteHelper;
+
+    private SQLiteDatabase db;
+
+    private BookFTSRepositoryImpl bookFTSRepository;
+
+    @Before
+    public void setUp() {
+        SQLiteHelper.initialize(RuntimeEnvironment.application);
+        sqLiteHelper = SQLiteHelper.getInstance();
+        db = sqLiteHelper.getWritableDatabase();
+        bookFTSRepository = new BookFTSRepositoryImpl(sqLiteHelper);
+    }
+
+    @After
+    public void tearDown() {
+        sqLiteHelper.close();
+    }
+
+    @Test
+    public void checkIndex_should_find_no_error_after_the_books_are_modified() {
+        Broker<Book> bookBroker = BrokerManager.getBroker(Book.class);
+        Book book1 = saveBook(Books.LA_PESTE);
+        Book book2 = saveBook(Books.BEOWULF);
+        saveBook(Books.CASINO_ROYALE);
+
+        book1.title = Books.LE_MYTHE_DE_SISYPHE;
+        bookBroker.save(db, book1);
+        book2.isRead = 1L;
+        bookBroker.save(db, book2);
+        bookBroker.delete(db, book2.id);
+
+        assertTrue(bookFTSRepository.checkIndex().isEmpty());
+        assertEquals(0, bookFTSRepository.getSearchResultCount("peste"));
+        assertEquals(1, bookFTSRepository.getSearchResultCount("sisyphe"));
+        assertEquals(0, bookFTSRepository.getSearchResultCount("beowulf"));
+    }
+
+    @Test
+    public void deleteBook_should_remove_the_book_from_the_index() {
+        Book book = saveBook(Books.LA_PESTE);
+        saveBook(Books.CASINO_ROYALE);
+
+        new BookRepositoryImpl(sqLiteHelper).deleteBook(book.id);
+
+        // BOOK_FTS itself reads its rows from BOOK, the docsize table is written by the index.
+        Cursor cursor = db.rawQuery("SELECT COUNT(*) FROM BOOK_FTS_docsize WHERE DOCID = ?;", new String[]{String.valueOf(book.id)});
+        try {
+            cursor.moveToFirst();
+            assertEquals(0, cursor.getInt(0));
+        } finally {
+            cursor.close();
+        }
+        assertTrue(bookFTSRepository.checkIndex().isEmpty());
+        assertEquals(0, bookFTSRepository.getSearchResultCount("peste"));
+        assertEquals(1, bookFTSRepository.getSearchResultCount("casino"));
+    }
+
+    @Test
+    public void rebuildIndex_should_index_the_books_saved_while_the_index_is_suspended() {
+        saveBook(Books.LA_PESTE);
+        bookFTSRepository.suspendIndex();
+        Book book = saveBook(Books.CASINO_ROYALE);
+
+        List<String> errors = bookFTSRepository.checkIndex();
+        assertFalse(errors.isEmpty());
+        assertTrue(errors.contains("BOOK " + book.id + " is not indexed."));
+
+        bookFTSRepository.rebuildIndex();
+
+        assertTrue(bookFTSRepository.checkIndex().isEmpty());
+        List<BookSearchResult> results = bookFTSRepository.searchBooks("casino", 10, 0);
+        assertEquals(1, results.size());
+        assertEquals(book.id, results.get(0).id);
+    }
+
+    private Book saveBook(String title) {
+        Book book = new Book();
+        book.title = title;
+        book.isRead = 0L;
+        book.isFavourite = 0L;
+        BrokerManager.getBroker(Book.class).save(db, book);
+        return book;
+    }
+}
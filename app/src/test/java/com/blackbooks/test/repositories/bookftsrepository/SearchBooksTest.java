@@ -0,0 +1,112 @@
+package com.blackbooks.test.repositories.bookftsrepository;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import com.blackbooks.BuildConfig;
+import com.blackbooks.database.SQLiteHelper;
+import com.blackbooks.model.nonpersistent.BookSearchResult;
+import com.blackbooks.model.nonpersistent.Snippet;
+import com.blackbooks.model.persistent.Book;
+import com.blackbooks.repositories.BookFTSRepositoryImpl;
+import com.blackbooks.sql.BrokerManager;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class SearchBooksTest {
+
+    private SQLiteHelper sqLiteHelper;
+
+    private SQLiteDatabase db;
+
+    private BookFTSRepositoryImpl bookFTSRepository;
+
+    @Before
+    public void setUp() {
+        SQLiteHelper.initialize(RuntimeEnvironment.application);
+        sqLiteHelper = SQLiteHelper.getInstance();
+        db = sqLiteHelper.getWritableDatabase();
+        bookFTSRepository = new BookFTSRepositoryImpl(sqLiteHelper);
+    }
+
+    @After
+    public void tearDown() {
+        sqLiteHelper.close();
+    }
+
+    @Test
+    public void searchBooks_should_rank_the_title_matches_first() {
+        Book inDescription = saveBook("A book", null, "A story about a dragon.");
+        Book inSubtitle = saveBook("Another book", "The dragon", null);
+        Book inTitle = saveBook("The dragon", null, null);
+        saveBook("Unrelated", null, "Nothing to see.");
+
+        List<BookSearchResult> results = bookFTSRepository.searchBooks("dragon*", 10, 0);
+
+        Assert.assertEquals(3, results.size());
+        Assert.assertEquals(inTitle.id, results.get(0).id);
+        Assert.assertEquals(inSubtitle.id, results.get(1).id);
+        Assert.assertEquals(inDescription.id, results.get(2).id);
+        Assert.assertEquals(3, bookFTSRepository.getSearchResultCount("dragon*"));
+    }
+
+    @Test
+    public void searchBooks_should_return_the_requested_page() {
+        for (int i = 0; i < 5; i++) {
+            saveBook("Dragon " + i, null, null);
+        }
+
+        List<BookSearchResult> firstPage = bookFTSRepository.searchBooks("dragon", 2, 0);
+        List<BookSearchResult> lastPage = bookFTSRepository.searchBooks("dragon", 2, 4);
+        List<BookSearchResult> afterLastPage = bookFTSRepository.searchBooks("dragon", 2, 5);
+
+        Assert.assertEquals(2, firstPage.size());
+        Assert.assertEquals(1, lastPage.size());
+        Assert.assertEquals(0, afterLastPage.size());
+        Assert.assertFalse(firstPage.get(0).id.equals(lastPage.get(0).id));
+    }
+
+    @Test
+    public void searchBooks_should_highlight_the_original_description() {
+        saveBook("L'\u00e9t\u00e9", null, "Un \u00e9t\u00e9 \u00e0 la mer.");
+
+        List<BookSearchResult> results = bookFTSRepository.searchBooks("ete", 10, 0);
+
+        Snippet snippet = results.get(0).descriptionSnippet;
+        Assert.assertEquals("Un \u00e9t\u00e9 \u00e0 la mer.", snippet.text);
+        Assert.assertEquals(2, snippet.highlights.length);
+        Assert.assertEquals("\u00e9t\u00e9", snippet.text.substring(snippet.highlights[0], snippet.highlights[1]));
+    }
+
+    @Test
+    public void searchBooks_should_ignore_the_marks_found_in_the_description() {
+        saveBook("L'\u00e9t\u00e9", null, "Un \u0003 \u00e9t\u00e9 \u00e0 la mer.");
+
+        List<BookSearchResult> results = bookFTSRepository.searchBooks("ete", 10, 0);
+
+        Snippet snippet = results.get(0).descriptionSnippet;
+        Assert.assertEquals("Un  \u00e9t\u00e9 \u00e0 la mer.", snippet.text);
+        Assert.assertEquals(2, snippet.highlights.length);
+        Assert.assertEquals("\u00e9t\u00e9", snippet.text.substring(snippet.highlights[0], snippet.highlights[1]));
+    }
+
+    private Book saveBook(String title, String subtitle, String description) {
+        Book book = new Book();
+        book.title = title;
+        book.subtitle = subtitle;
+        book.description = description;
+        BrokerManager.getBroker(Book.class).save(db, book);
+        return book;
+    }
+}
@@ -0,0 +1,119 @@
+package com.blackbooks.test.repositories.bookrepository;
+
+import com.blackbooks.BuildConfig;
+import com.blackbooks.model.persistent.Author;
+import com.blackbooks.model.persistent.Book;
+import com.blackbooks.model.persistent.BookAuthor;
+import com.blackbooks.sql.Broker;
+import com.blackbooks.sql.BrokerManager;
+import com.blackbooks.sql.QueryCache;
+import com.blackbooks.sql.QueryCacheManager;
+import com.blackbooks.test.data.Authors;
+import com.blackbooks.test.data.Books;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class GetBookCountCachedTest extends AbstractBookRepositoryTest {
+
+    @Test
+    public void getBookCountByAuthor_should_be_cached_until_a_book_is_added() {
+        Author author = new Author();
+        author.name = Authors.ALBERT_CAMUS;
+        BrokerManager.getBroker(Author.class).save(db, author);
+
+        saveBookAuthor(Books.LE_MYTHE_DE_SISYPHE, author.id);
+
+        QueryCache cache = QueryCacheManager.getCache(db);
+        int hitCount = cache.getHitCount();
+
+        assertEquals(1, bookRepository.getBookCountByAuthor(author.id));
+        assertEquals(1, bookRepository.getBookCountByAuthor(author.id));
+        assertEquals(hitCount + 1, cache.getHitCount());
+
+        saveBookAuthor(Books.LA_PESTE, author.id);
+
+        assertEquals(2, bookRepository.getBookCountByAuthor(author.id));
+        assertEquals(hitCount + 1, cache.getHitCount());
+    }
+
+    @Test
+    public void getBookCount_should_not_be_cached_while_the_books_are_written_in_a_transaction() {
+        db.beginTransaction();
+        try {
+            saveBook(Books.LA_PESTE);
+            assertEquals(1, bookRepository.getBookCount());
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        QueryCacheManager.getCache(db).endTransaction(db);
+
+        QueryCache cache = QueryCacheManager.getCache(db);
+        int hitCount = cache.getHitCount();
+
+        assertEquals(1, bookRepository.getBookCount());
+        assertEquals(1, bookRepository.getBookCount());
+        assertEquals(hitCount + 1, cache.getHitCount());
+
+        Book book = saveBook(Books.LE_MYTHE_DE_SISYPHE);
+        assertEquals(2, bookRepository.getBookCount());
+
+        BrokerManager.getBroker(Book.class).delete(db, book.id);
+        assertEquals(1, bookRepository.getBookCount());
+    }
+
+    @Test
+    public void getBookCount_should_not_be_cached_when_another_thread_ends_its_transaction() throws InterruptedException {
+        final QueryCache cache = QueryCacheManager.getCache(db);
+        db.beginTransaction();
+        try {
+            saveBook(Books.LA_PESTE);
+
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    cache.endTransaction(db);
+                }
+            });
+            thread.start();
+            thread.join();
+
+            int hitCount = cache.getHitCount();
+            assertEquals(1, bookRepository.getBookCount());
+            assertEquals(1, bookRepository.getBookCount());
+            assertEquals(hitCount, cache.getHitCount());
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        cache.endTransaction(db);
+
+        int hitCount = cache.getHitCount();
+        assertEquals(1, bookRepository.getBookCount());
+        assertEquals(1, bookRepository.getBookCount());
+        assertEquals(hitCount + 1, cache.getHitCount());
+    }
+
+    private Book saveBook(String title) {
+        Book book = new Book();
+        book.title = title;
+        BrokerManager.getBroker(Book.class).save(db, book);
+        return book;
+    }
+
+    private void saveBookAuthor(String title, long authorId) {
+        Broker<BookAuthor> bookAuthorBroker = BrokerManager.getBroker(BookAuthor.class);
+
+        BookAuthor bookAuthor = new BookAuthor();
+        bookAuthor.bookId = saveBook(title).id;
+        bookAuthor.authorId = authorId;
+        bookAuthorBroker.save(db, bookAuthor);
+    }
+}
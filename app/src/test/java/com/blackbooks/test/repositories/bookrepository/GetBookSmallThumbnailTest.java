@@ -1,9 +1,7 @@
 package com.blackbooks.test.repositories.bookrepository;
 
 import com.blackbooks.BuildConfig;
-import com.blackbooks.model.persistent.Book;
-import com.blackbooks.sql.Broker;
-import com.blackbooks.sql.BrokerManager;
+import com.blackbooks.model.nonpersistent.BookInfo;
 import com.blackbooks.test.data.Books;
 
 import junit.framework.Assert;
@@ -21,16 +19,25 @@ public class GetBookSmallThumbnailTest extends AbstractBookRepositoryTest {
     public void getBookSmallThumbnail_should_return_the_expected_value() {
         byte[] smallThumbnail = new byte[]{0, 1, 2, 3};
 
-        Book book = new Book();
-        book.title = Books.THE_CATCHER_IN_THE_RYE;
-        book.smallThumbnail = smallThumbnail;
+        BookInfo bookInfo = new BookInfo();
+        bookInfo.title = Books.THE_CATCHER_IN_THE_RYE;
+        bookInfo.smallThumbnail = smallThumbnail;
 
-        Broker<Book> bookBroker = BrokerManager.getBroker(Book.class);
-        bookBroker.save(db, book);
+        long bookId = bookRepository.save(bookInfo);
 
-        byte[] smallThumbnailDb = bookRepository.getBookSmallThumbnail(book.id);
+        byte[] smallThumbnailDb = bookRepository.getBookSmallThumbnail(bookId);
 
         Assert.assertNotNull(smallThumbnailDb);
         Assert.assertEquals(smallThumbnail.length, smallThumbnailDb.length);
     }
+
+    @Test
+    public void getBookSmallThumbnail_should_return_null_when_the_book_has_no_thumbnail() {
+        BookInfo bookInfo = new BookInfo();
+        bookInfo.title = Books.THE_CATCHER_IN_THE_RYE;
+
+        long bookId = bookRepository.save(bookInfo);
+
+        Assert.assertNull(bookRepository.getBookSmallThumbnail(bookId));
+    }
 }
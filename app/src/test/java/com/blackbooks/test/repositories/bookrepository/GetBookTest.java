@@ -0,0 +1,158 @@
+package com.blackbooks.test.repositories.bookrepository;
+
+import com.blackbooks.BuildConfig;
+import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.persistent.Book;
+import com.blackbooks.model.persistent.Cover;
+import com.blackbooks.sql.BrokerManager;
+import com.blackbooks.test.data.Books;
+import com.blackbooks.test.data.People;
+import com.blackbooks.utils.collections.LongArrayList;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Date;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class GetBookTest extends AbstractBookRepositoryTest {
+
+    @Test
+    public void getBook_should_return_the_saved_values() {
+        BookInfo bookInfo = new BookInfo();
+        bookInfo.title = "  " + Books.CASINO_ROYALE + "  ";
+        bookInfo.pageCount = 213L;
+        bookInfo.publishedDate = new Date(1000L);
+        bookInfo.smallThumbnail = new byte[]{0, 1, 2, 3};
+        bookInfo.thumbnail = new byte[0];
+        bookInfo.isRead = 1L;
+
+        long bookId = bookRepository.save(bookInfo);
+
+        Book book = bookRepository.getBook(bookId);
+        bookRepository.loadThumbnails(book);
+
+        Assert.assertEquals(bookId, book.id.longValue());
+        Assert.assertEquals(Books.CASINO_ROYALE, book.title);
+        Assert.assertNull(book.subtitle);
+        Assert.assertEquals(213L, book.pageCount.longValue());
+        Assert.assertEquals(1000L, book.publishedDate.getTime());
+        Assert.assertEquals(4, book.smallThumbnail.length);
+        Assert.assertNull(book.thumbnail);
+        Assert.assertEquals(1L, book.isRead.longValue());
+        Assert.assertEquals(0L, book.isFavourite.longValue());
+        Assert.assertNull(book.loanDate);
+    }
+
+    @Test
+    public void getBook_should_not_load_the_thumbnails() {
+        BookInfo bookInfo = new BookInfo();
+        bookInfo.title = Books.CASINO_ROYALE;
+        bookInfo.smallThumbnail = new byte[]{0, 1, 2, 3};
+        bookInfo.thumbnail = new byte[]{4, 5, 6, 7, 8};
+
+        long bookId = bookRepository.save(bookInfo);
+
+        Book book = bookRepository.getBook(bookId);
+
+        Assert.assertFalse(book.coversLoaded);
+        Assert.assertNull(book.smallThumbnail);
+        Assert.assertNull(book.thumbnail);
+    }
+
+    @Test
+    public void save_should_keep_the_thumbnails_that_have_not_been_loaded() {
+        BookInfo bookInfo = new BookInfo();
+        bookInfo.title = Books.CASINO_ROYALE;
+        bookInfo.smallThumbnail = new byte[]{0, 1, 2, 3};
+        bookInfo.thumbnail = new byte[]{4, 5, 6, 7, 8};
+
+        long bookId = bookRepository.save(bookInfo);
+
+        BookInfo bookInfoDb = new BookInfo(bookRepository.getBook(bookId));
+        bookInfoDb.loanedTo = People.JOHN_DOE;
+        bookRepository.save(bookInfoDb);
+
+        Book book = bookRepository.getBook(bookId);
+        bookRepository.loadThumbnails(book);
+
+        Assert.assertEquals(People.JOHN_DOE, book.loanedTo);
+        Assert.assertEquals(4, book.smallThumbnail.length);
+        Assert.assertEquals(5, book.thumbnail.length);
+    }
+
+    @Test
+    public void save_should_remove_the_thumbnails_that_have_been_loaded_and_cleared() {
+        BookInfo bookInfo = new BookInfo();
+        bookInfo.title = Books.CASINO_ROYALE;
+        bookInfo.smallThumbnail = new byte[]{0, 1, 2, 3};
+        bookInfo.thumbnail = new byte[]{4, 5, 6, 7, 8};
+
+        long bookId = bookRepository.save(bookInfo);
+
+        BookInfo bookInfoDb = new BookInfo(bookRepository.getBook(bookId));
+        bookRepository.loadThumbnails(bookInfoDb);
+        bookInfoDb.smallThumbnail = null;
+        bookInfoDb.thumbnail = null;
+        bookRepository.save(bookInfoDb);
+
+        Book book = bookRepository.getBook(bookId);
+        bookRepository.loadThumbnails(book);
+
+        Assert.assertNull(book.smallThumbnail);
+        Assert.assertNull(book.thumbnail);
+    }
+
+    @Test
+    public void save_should_store_an_image_shared_by_several_books_once() {
+        BookInfo bookInfo1 = new BookInfo();
+        bookInfo1.title = Books.CASINO_ROYALE;
+        bookInfo1.smallThumbnail = new byte[]{0, 1, 2, 3};
+        bookInfo1.thumbnail = new byte[]{4, 5, 6, 7, 8};
+
+        BookInfo bookInfo2 = new BookInfo();
+        bookInfo2.title = Books.BEOWULF;
+        bookInfo2.smallThumbnail = new byte[]{0, 1, 2, 3};
+        bookInfo2.thumbnail = new byte[]{4, 5, 6, 7, 8};
+
+        long bookId1 = bookRepository.save(bookInfo1);
+        long bookId2 = bookRepository.save(bookInfo2);
+
+        Book book1 = bookRepository.getBook(bookId1);
+        Book book2 = bookRepository.getBook(bookId2);
+
+        Assert.assertEquals(book1.smallThumbnailCoverId, book2.smallThumbnailCoverId);
+        Assert.assertEquals(book1.thumbnailCoverId, book2.thumbnailCoverId);
+        Assert.assertEquals(2, BrokerManager.getBroker(Cover.class).getAll(db).size());
+    }
+
+    @Test
+    public void deleteCoversWithoutBooks_should_only_delete_the_covers_no_book_references() {
+        BookInfo bookInfo1 = new BookInfo();
+        bookInfo1.title = Books.CASINO_ROYALE;
+        bookInfo1.smallThumbnail = new byte[]{0, 1, 2, 3};
+        bookInfo1.thumbnail = new byte[]{4, 5, 6, 7, 8};
+
+        BookInfo bookInfo2 = new BookInfo();
+        bookInfo2.title = Books.BEOWULF;
+        bookInfo2.smallThumbnail = new byte[]{0, 1, 2, 3};
+
+        long bookId1 = bookRepository.save(bookInfo1);
+        long bookId2 = bookRepository.save(bookInfo2);
+
+        Book book1 = bookRepository.getBook(bookId1);
+        bookRepository.deleteBook(bookId1);
+        bookRepository.deleteCoversWithoutBooks(LongArrayList.of(book1.smallThumbnailCoverId, book1.thumbnailCoverId));
+
+        Book book2 = bookRepository.getBook(bookId2);
+        bookRepository.loadThumbnails(book2);
+
+        Assert.assertEquals(1, BrokerManager.getBroker(Cover.class).getAll(db).size());
+        Assert.assertEquals(4, book2.smallThumbnail.length);
+    }
+}
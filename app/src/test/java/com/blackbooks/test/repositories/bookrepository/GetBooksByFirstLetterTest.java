@@ -40,4 +40,21 @@ public class GetBooksByFirstLetterTest extends AbstractBookRepositoryTest {
         Assert.assertEquals(book1.id.longValue(), bookResult1.id.longValue());
         Assert.assertEquals(book2.id.longValue(), bookResult2.id.longValue());
     }
+
+    @Test
+    public void getBooksByFirstLetter_should_only_return_the_titles_starting_with_the_character() {
+        Broker<Book> bookBroker = BrokerManager.getBroker(Book.class);
+        for (String title : new String[]{"@home", "[brackets]", "Ab", "ab"}) {
+            Book book = new Book();
+            book.title = title;
+            bookBroker.save(db, book);
+        }
+
+        List<Book> books = bookRepository.getBooksByFirstLetter("@", Integer.MAX_VALUE, 0);
+
+        Assert.assertEquals(1, books.size());
+        Assert.assertEquals("@home", books.get(0).title);
+        Assert.assertEquals(1, bookRepository.getBookCountByFirstLetter("@"));
+        Assert.assertEquals(2, bookRepository.getBookCountByFirstLetter("A"));
+    }
 }
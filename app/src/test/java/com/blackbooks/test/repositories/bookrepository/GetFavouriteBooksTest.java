@@ -1,6 +1,7 @@
 package com.blackbooks.test.repositories.bookrepository;
 
 import com.blackbooks.BuildConfig;
+import com.blackbooks.model.nonpersistent.PageKey;
 import com.blackbooks.model.persistent.Book;
 import com.blackbooks.sql.Broker;
 import com.blackbooks.sql.BrokerManager;
@@ -44,4 +45,39 @@ public class GetFavouriteBooksTest extends AbstractBookRepositoryTest {
         Assert.assertEquals(book1.id.longValue(), bookInfoResult1.id.longValue());
         Assert.assertEquals(book2.id.longValue(), bookInfoResult2.id.longValue());
     }
+
+    @Test
+    public void getFavouriteBooks_should_return_the_books_that_follow_the_page_key() {
+        String[] titles = new String[]{
+                Books.HARRY_POTTER_AND_THE_CHAMBER_OF_SECRETS,
+                Books.BEOWULF,
+                Books.HARRY_POTTER_AND_THE_CHAMBER_OF_SECRETS,
+                Books.CASINO_ROYALE,
+                Books.ASTERIX_LE_GAULOIS
+        };
+
+        Broker<Book> bookBroker = BrokerManager.getBroker(Book.class);
+        for (String title : titles) {
+            Book book = new Book();
+            book.title = title;
+            book.isFavourite = 1L;
+            bookBroker.save(db, book);
+        }
+
+        List<Book> firstPage = bookRepository.getFavouriteBooks(2, null);
+        Book lastBook = firstPage.get(firstPage.size() - 1);
+        List<Book> secondPage = bookRepository.getFavouriteBooks(2, new PageKey(lastBook.title, lastBook.id));
+        lastBook = secondPage.get(secondPage.size() - 1);
+        List<Book> thirdPage = bookRepository.getFavouriteBooks(2, new PageKey(lastBook.title, lastBook.id));
+
+        Assert.assertEquals(2, firstPage.size());
+        Assert.assertEquals(Books.ASTERIX_LE_GAULOIS, firstPage.get(0).title);
+        Assert.assertEquals(Books.BEOWULF, firstPage.get(1).title);
+        Assert.assertEquals(2, secondPage.size());
+        Assert.assertEquals(Books.CASINO_ROYALE, secondPage.get(0).title);
+        Assert.assertEquals(Books.HARRY_POTTER_AND_THE_CHAMBER_OF_SECRETS, secondPage.get(1).title);
+        Assert.assertEquals(1, thirdPage.size());
+        Assert.assertEquals(Books.HARRY_POTTER_AND_THE_CHAMBER_OF_SECRETS, thirdPage.get(0).title);
+        Assert.assertTrue(thirdPage.get(0).id > secondPage.get(1).id);
+    }
 }
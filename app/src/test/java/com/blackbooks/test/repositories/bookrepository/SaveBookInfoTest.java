@@ -5,6 +5,11 @@ import android.database.sqlite.SQLiteConstraintException;
 
 import com.blackbooks.BuildConfig;
 import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.persistent.Book;
+import com.blackbooks.test.data.Books;
+import com.blackbooks.test.data.People;
+
+import junit.framework.Assert;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -21,4 +26,53 @@ public class SaveBookInfoTest extends AbstractBookRepositoryTest {
         BookInfo bookInfo = new BookInfo();
         bookRepository.save(bookInfo);
     }
+
+    @Test
+    public void saveBookInfo_should_only_write_the_modified_columns() {
+        BookInfo bookInfo = new BookInfo();
+        bookInfo.title = Books.CASINO_ROYALE;
+        long bookId = bookRepository.save(bookInfo);
+
+        BookInfo bookInfo1 = new BookInfo(bookRepository.getBook(bookId));
+        BookInfo bookInfo2 = new BookInfo(bookRepository.getBook(bookId));
+
+        bookInfo1.title = Books.BEOWULF;
+        bookRepository.save(bookInfo1);
+        bookInfo2.loanedTo = People.JOHN_DOE;
+        bookRepository.save(bookInfo2);
+
+        Book book = bookRepository.getBook(bookId);
+        Assert.assertEquals(Books.BEOWULF, book.title);
+        Assert.assertEquals(People.JOHN_DOE, book.loanedTo);
+    }
+
+    @Test
+    public void isModified_should_only_return_true_when_a_column_has_been_modified() {
+        BookInfo bookInfo = new BookInfo();
+        bookInfo.title = Books.CASINO_ROYALE;
+        long bookId = bookRepository.save(bookInfo);
+
+        BookInfo bookInfoDb = new BookInfo(bookRepository.getBook(bookId));
+        Assert.assertFalse(bookRepository.isModified(bookInfoDb));
+
+        bookInfoDb.title = " " + Books.CASINO_ROYALE + " ";
+        Assert.assertFalse(bookRepository.isModified(bookInfoDb));
+
+        bookInfoDb.loanedTo = People.JOHN_DOE;
+        Assert.assertTrue(bookRepository.isModified(bookInfoDb));
+        Assert.assertTrue(bookRepository.isModified(bookInfoDb, Book.Cols.BOO_LOANED_TO));
+        Assert.assertFalse(bookRepository.isModified(bookInfoDb, Book.Cols.BOO_TITLE));
+
+        bookRepository.save(bookInfoDb);
+        Assert.assertFalse(bookRepository.isModified(bookInfoDb));
+    }
+
+    @Test
+    public void isModified_should_return_true_when_the_book_has_not_been_read_from_the_database() {
+        BookInfo bookInfo = new BookInfo();
+        bookInfo.id = 1L;
+        bookInfo.title = Books.CASINO_ROYALE;
+
+        Assert.assertTrue(bookRepository.isModified(bookInfo, Book.Cols.BOO_TITLE));
+    }
 }
@@ -0,0 +1,191 @@
+package com.blackbooks.test.repositories.librarystatsrepository;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import com.blackbooks.BuildConfig;
+import com.blackbooks.database.SQLiteHelper;
+import com.blackbooks.model.persistent.Author;
+import com.blackbooks.model.persistent.Book;
+import com.blackbooks.model.persistent.BookAuthor;
+import com.blackbooks.model.persistent.BookCategory;
+import com.blackbooks.model.persistent.BookLocation;
+import com.blackbooks.model.persistent.Category;
+import com.blackbooks.model.persistent.LibraryStats;
+import com.blackbooks.model.persistent.Series;
+import com.blackbooks.repositories.BookRepositoryImpl;
+import com.blackbooks.repositories.LibraryStatsRepositoryImpl;
+import com.blackbooks.sql.Broker;
+import com.blackbooks.sql.BrokerManager;
+import com.blackbooks.test.data.Authors;
+import com.blackbooks.test.data.BookLocations;
+import com.blackbooks.test.data.Books;
+import com.blackbooks.test.data.Categories;
+import com.blackbooks.test.data.Languages;
+import com.blackbooks.test.data.People;
+import com.blackbooks.test.data.Seriez;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class CheckLibraryStatsTest {
+
+    private SQLiteHelper sqLiteHelper;
+
+    private SQLiteDatabase db;
+
+    private BookRepositoryImpl bookRepository;
+
+    private LibraryStatsRepositoryImpl libraryStatsRepository;
+
+    @Before
+    public void setUp() {
+        SQLiteHelper.initialize(RuntimeEnvironment.application);
+        sqLiteHelper = SQLiteHelper.getInstance();
+        db = sqLiteHelper.getWritableDatabase();
+        bookRepository = new BookRepositoryImpl(sqLiteHelper);
+        libraryStatsRepository = new LibraryStatsRepositoryImpl(sqLiteHelper);
+    }
+
+    @After
+    public void tearDown() {
+        sqLiteHelper.close();
+    }
+
+    @Test
+    public void checkLibraryStats_should_find_no_error_after_the_books_are_modified() {
+        Author author = new Author();
+        author.name = Authors.ALBERT_CAMUS;
+        BrokerManager.getBroker(Author.class).save(db, author);
+
+        Category category = new Category();
+        category.name = Categories.ADVENTURE;
+        BrokerManager.getBroker(Category.class).save(db, category);
+
+        Series series = new Series();
+        series.name = Seriez.ASTERIX;
+        BrokerManager.getBroker(Series.class).save(db, series);
+
+        BookLocation bookLocation = new BookLocation();
+        bookLocation.name = BookLocations.LIVING_ROOM;
+        BrokerManager.getBroker(BookLocation.class).save(db, bookLocation);
+
+        Broker<Book> bookBroker = BrokerManager.getBroker(Book.class);
+
+        Book book1 = new Book();
+        book1.title = Books.LE_MYTHE_DE_SISYPHE;
+        book1.languageCode = Languages.FRENCH;
+        book1.seriesId = series.id;
+        book1.loanedTo = People.JOHN_DOE;
+        bookBroker.save(db, book1);
+
+        Book book2 = new Book();
+        book2.title = Books.LA_PESTE;
+        book2.languageCode = Languages.FRENCH;
+        book2.bookLocationId = bookLocation.id;
+        book2.loanedTo = People.JOHN_DOE;
+        bookBroker.save(db, book2);
+
+        saveBookAuthor(book1.id, author.id);
+        saveBookAuthor(book2.id, author.id);
+        saveBookCategory(book1.id, category.id);
+
+        assertEquals(2L, libraryStatsRepository.getLibraryStats().books.longValue());
+        assertEquals(1L, libraryStatsRepository.getLibraryStats().languages.longValue());
+        assertEquals(1L, libraryStatsRepository.getLibraryStats().loans.longValue());
+        assertTrue(libraryStatsRepository.checkLibraryStats().isEmpty());
+
+        bookRepository.markBookAsRead(book1.id);
+        bookRepository.markBookAsFavourite(book2.id);
+        bookRepository.returnBook(book1.id);
+
+        book2 = bookBroker.get(db, book2.id);
+        book2.languageCode = Languages.ENGLISH;
+        book2.seriesId = series.id;
+        book2.bookLocationId = null;
+        bookBroker.save(db, book2);
+
+        assertTrue(libraryStatsRepository.checkLibraryStats().isEmpty());
+
+        bookRepository.deleteBook(book1.id);
+
+        LibraryStats libraryStats = libraryStatsRepository.getLibraryStats();
+        assertEquals(1L, libraryStats.books.longValue());
+        assertEquals(1L, libraryStats.toRead.longValue());
+        assertEquals(1L, libraryStats.favourites.longValue());
+        assertEquals(1L, libraryStats.languages.longValue());
+        assertEquals(1L, libraryStats.loans.longValue());
+        assertTrue(libraryStatsRepository.checkLibraryStats().isEmpty());
+    }
+
+    @Test
+    public void rebuildLibraryStats_should_correct_the_wrong_counters() {
+        Author author = new Author();
+        author.name = Authors.ALBERT_CAMUS;
+        BrokerManager.getBroker(Author.class).save(db, author);
+
+        Book book = new Book();
+        book.title = Books.LA_PESTE;
+        BrokerManager.getBroker(Book.class).save(db, book);
+
+        saveBookAuthor(book.id, author.id);
+
+        db.execSQL("UPDATE " + LibraryStats.NAME + " SET " + LibraryStats.Cols.LIS_BOOKS + " = 42;");
+        db.execSQL("UPDATE " + Author.NAME + " SET " + Author.Cols.AUT_BOOK_COUNT + " = 0;");
+
+        List<String> errors = libraryStatsRepository.checkLibraryStats();
+        assertEquals(2, errors.size());
+
+        libraryStatsRepository.rebuildLibraryStats();
+
+        assertTrue(libraryStatsRepository.checkLibraryStats().isEmpty());
+        assertEquals(1L, libraryStatsRepository.getLibraryStats().books.longValue());
+        assertEquals(1L, libraryStatsRepository.getLibraryStats().authors.longValue());
+    }
+
+    @Test
+    public void saveAuthor_should_not_overwrite_the_book_count_of_the_triggers() {
+        Broker<Author> authorBroker = BrokerManager.getBroker(Author.class);
+        Author author = new Author();
+        author.name = Authors.ALBERT_CAMUS;
+        authorBroker.save(db, author);
+        author = authorBroker.get(db, author.id);
+        assertEquals(0L, author.bookCount.longValue());
+
+        Book book = new Book();
+        book.title = Books.LA_PESTE;
+        BrokerManager.getBroker(Book.class).save(db, book);
+        saveBookAuthor(book.id, author.id);
+
+        author.name = Authors.ALBERT_CAMUS.toUpperCase();
+        authorBroker.save(db, author);
+
+        assertEquals(1L, authorBroker.get(db, author.id).bookCount.longValue());
+        assertTrue(libraryStatsRepository.checkLibraryStats().isEmpty());
+    }
+
+    private void saveBookAuthor(long bookId, long authorId) {
+        BookAuthor bookAuthor = new BookAuthor();
+        bookAuthor.bookId = bookId;
+        bookAuthor.authorId = authorId;
+        BrokerManager.getBroker(BookAuthor.class).save(db, bookAuthor);
+    }
+
+    private void saveBookCategory(long bookId, long categoryId) {
+        BookCategory bookCategory = new BookCategory();
+        bookCategory.bookId = bookId;
+        bookCategory.categoryId = categoryId;
+        BrokerManager.getBroker(BookCategory.class).save(db, bookCategory);
+    }
+}
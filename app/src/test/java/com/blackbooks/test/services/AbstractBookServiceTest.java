@@ -1,11 +1,11 @@
 package com.blackbooks.test.services;
 
 import com.blackbooks.cache.ThumbnailManager;
+import com.blackbooks.changes.ChangeBus;
 import com.blackbooks.database.TransactionManager;
 import com.blackbooks.repositories.AuthorRepository;
 import com.blackbooks.repositories.BookAuthorRepository;
 import com.blackbooks.repositories.BookCategoryRepository;
-import com.blackbooks.repositories.BookFTSRepository;
 import com.blackbooks.repositories.BookLocationRepository;
 import com.blackbooks.repositories.BookRepository;
 import com.blackbooks.repositories.CategoryRepository;
@@ -30,9 +30,6 @@ public abstract class AbstractBookServiceTest {
     @Mock
     BookCategoryRepository bookCategoryRepository;
 
-    @Mock
-    BookFTSRepository bookFTSRepository;
-
     @Mock
     BookLocationRepository bookLocationRepository;
 
@@ -54,10 +51,13 @@ public abstract class AbstractBookServiceTest {
     @Mock
     ThumbnailManager thumbnailManager;
 
+    @Mock
+    ChangeBus changeBus;
+
     BookServiceImpl bookService;
 
     @Before
     public void abstractBookServiceTestSetup() {
-        bookService = new BookServiceImpl(authorRepository, bookAuthorRepository, bookCategoryRepository, bookFTSRepository, bookLocationRepository, bookRepository, categoryRepository, publisherRepository, seriesRepository, thumbnailManager, transactionManager);
+        bookService = new BookServiceImpl(authorRepository, bookAuthorRepository, bookCategoryRepository, bookLocationRepository, bookRepository, categoryRepository, publisherRepository, seriesRepository, thumbnailManager, transactionManager, changeBus);
     }
 }
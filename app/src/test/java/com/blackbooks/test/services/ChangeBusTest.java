@@ -0,0 +1,75 @@
+package com.blackbooks.test.services;
+
+import com.blackbooks.BuildConfig;
+import com.blackbooks.changes.Change;
+import com.blackbooks.changes.ChangeBus;
+import com.blackbooks.changes.ChangeBusImpl;
+import com.blackbooks.changes.ChangeListener;
+import com.blackbooks.database.SQLiteHelper;
+import com.blackbooks.database.TransactionManager;
+import com.blackbooks.database.TransactionManagerImpl;
+import com.blackbooks.model.persistent.Book;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class ChangeBusTest {
+
+    private SQLiteHelper sqLiteHelper;
+
+    private ChangeBus changeBus;
+
+    private TransactionManager transactionManager;
+
+    private final List<Change> changes = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        SQLiteHelper.initialize(RuntimeEnvironment.application);
+        sqLiteHelper = SQLiteHelper.getInstance();
+        changeBus = new ChangeBusImpl(sqLiteHelper);
+        transactionManager = new TransactionManagerImpl(sqLiteHelper, changeBus);
+        changeBus.register(new ChangeListener() {
+            @Override
+            public void onChange(Change change) {
+                changes.add(change);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        sqLiteHelper.close();
+    }
+
+    @Test
+    public void post_should_deliver_the_changes_of_a_transaction_when_it_ends() {
+        transactionManager.beginTransaction();
+        try {
+            changeBus.post(Change.inserted(Book.NAME, 1L));
+            ShadowLooper.idleMainLooper();
+            assertTrue(changes.isEmpty());
+            transactionManager.setTransactionSuccessful();
+        } finally {
+            transactionManager.endTransaction();
+        }
+        ShadowLooper.idleMainLooper();
+
+        assertEquals(1, changes.size());
+        assertEquals(Book.NAME, changes.get(0).table);
+    }
+}
@@ -1,12 +1,16 @@
 package com.blackbooks.test.services;
 
+import com.blackbooks.changes.Change;
+import com.blackbooks.model.persistent.Book;
 import com.blackbooks.model.persistent.BookAuthor;
 import com.blackbooks.model.persistent.BookCategory;
+import com.blackbooks.utils.collections.LongArrayList;
 
 import junit.framework.Assert;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.ArrayList;
@@ -30,12 +34,17 @@ public class DeleteBookTest extends AbstractBookServiceTest {
     }
 
     @Test
-    public void delete_should_remove_the_book_from_the_full_text_search_table() {
+    public void delete_should_post_the_deletion_of_the_book() {
         long bookId = 35L;
 
         bookService.deleteBook(bookId);
 
-        verify(bookFTSRepository).deleteBook(bookId);
+        ArgumentCaptor<Change> captor = ArgumentCaptor.forClass(Change.class);
+        verify(changeBus).post(captor.capture());
+        Assert.assertEquals(Change.Type.DELETED, captor.getValue().type);
+        Assert.assertEquals(Book.NAME, captor.getValue().table);
+        Assert.assertEquals(1, captor.getValue().ids.length);
+        Assert.assertEquals(bookId, captor.getValue().ids[0]);
     }
 
     @Test
@@ -56,13 +65,10 @@ public class DeleteBookTest extends AbstractBookServiceTest {
         bookAuthorList.add(bookAuthor2);
 
         when(bookAuthorRepository.getBookAuthorListByBook(bookId)).thenReturn(bookAuthorList);
-        when(bookAuthorRepository.getBookAuthorListByAuthor(author1Id)).thenReturn(new ArrayList<BookAuthor>());
-        when(bookAuthorRepository.getBookAuthorListByAuthor(author2Id)).thenReturn(new ArrayList<BookAuthor>());
 
         bookService.deleteBook(bookId);
 
-        verify(authorRepository).deleteAuthor(author1Id);
-        verify(authorRepository).deleteAuthor(author2Id);
+        verify(authorRepository).deleteAuthorsWithoutBooks(LongArrayList.of(author1Id, author2Id));
     }
 
     @Test
@@ -83,27 +89,36 @@ public class DeleteBookTest extends AbstractBookServiceTest {
         bookCategoryList.add(bookCategory2);
 
         when(bookCategoryRepository.getBookCategoryListByBook(bookId)).thenReturn(bookCategoryList);
-        when(bookCategoryRepository.getBookCategoryListByCategory(category1Id)).thenReturn(new ArrayList<BookCategory>());
-        when(bookCategoryRepository.getBookCategoryListByCategory(category2Id)).thenReturn(new ArrayList<BookCategory>());
 
         bookService.deleteBook(bookId);
 
-        verify(categoryRepository).deleteCategory(category1Id);
-        verify(categoryRepository).deleteCategory(category2Id);
+        verify(categoryRepository).deleteCategoriesWithoutBooks(LongArrayList.of(category1Id, category2Id));
     }
 
     @Test
-    public void delete_should_delete_publishers_without_books() {
-        bookService.deleteBook(3129L);
+    public void delete_should_delete_the_publisher_of_the_book_if_it_has_no_more_books() {
+        long bookId = 3129L;
+        Book book = new Book();
+        book.id = bookId;
+        book.publisherId = 12L;
+        when(bookRepository.getBook(bookId)).thenReturn(book);
 
-        verify(seriesRepository).deleteSeriesWithoutBooks();
+        bookService.deleteBook(bookId);
+
+        verify(publisherRepository).deletePublishersWithoutBooks(LongArrayList.of(12L));
     }
 
     @Test
-    public void delete_should_delete_series_without_books() {
-        bookService.deleteBook(192L);
+    public void delete_should_delete_the_series_of_the_book_if_it_has_no_more_books() {
+        long bookId = 192L;
+        Book book = new Book();
+        book.id = bookId;
+        book.seriesId = 41L;
+        when(bookRepository.getBook(bookId)).thenReturn(book);
+
+        bookService.deleteBook(bookId);
 
-        verify(seriesRepository).deleteSeriesWithoutBooks();
+        verify(seriesRepository).deleteSeriesWithoutBooks(LongArrayList.of(41L));
     }
 
     @Test
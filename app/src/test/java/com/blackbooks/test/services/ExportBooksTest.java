@@ -0,0 +1,118 @@
+package com.blackbooks.test.services;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import com.blackbooks.BuildConfig;
+import com.blackbooks.database.SQLiteHelper;
+import com.blackbooks.model.nonpersistent.BookExport;
+import com.blackbooks.model.persistent.Book;
+import com.blackbooks.services.ExportService;
+import com.blackbooks.services.ExportServiceImpl;
+import com.blackbooks.sql.Broker;
+import com.blackbooks.sql.BrokerManager;
+import com.blackbooks.test.data.Books;
+import com.blackbooks.test.data.Languages;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class ExportBooksTest {
+
+    private SQLiteHelper sqLiteHelper;
+
+    private SQLiteDatabase db;
+
+    private ExportService exportService;
+
+    @Before
+    public void setUp() {
+        SQLiteHelper.initialize(RuntimeEnvironment.application);
+        sqLiteHelper = SQLiteHelper.getInstance();
+        db = sqLiteHelper.getWritableDatabase();
+        exportService = new ExportServiceImpl(sqLiteHelper);
+    }
+
+    @After
+    public void tearDown() {
+        sqLiteHelper.close();
+    }
+
+    @Test
+    public void exportBooks_should_write_the_rows_of_the_book_export_list() throws IOException {
+        saveBook(Books.LA_PESTE, "The \"plague\"\nin Oran", 308L);
+        saveBook(Books.LE_MYTHE_DE_SISYPHE, null, null);
+
+        StringWriter writer = new StringWriter();
+        List<Integer> progressList = new ArrayList<>();
+        int rowCount = exportService.exportBooks(writer, '"', ';', true, new ProgressRecorder(progressList, false));
+
+        StringBuilder expected = new StringBuilder();
+        expected.append(BookExport.getCsvHeader('"', ';')).append('\n');
+        for (BookExport bookExport : exportService.getBookExportList(null)) {
+            expected.append(bookExport.toCsv('"', ';')).append('\n');
+        }
+
+        Assert.assertEquals(2, rowCount);
+        Assert.assertEquals(2, exportService.getBookExportCount());
+        Assert.assertEquals(expected.toString(), writer.toString());
+        Assert.assertTrue(writer.toString().contains("\"The \"\"plague\"\"in Oran\";"));
+        Assert.assertEquals(Integer.valueOf(2), progressList.get(progressList.size() - 1));
+    }
+
+    @Test
+    public void exportBooks_should_stop_when_the_export_is_cancelled() throws IOException {
+        saveBook(Books.LA_PESTE, null, null);
+
+        StringWriter writer = new StringWriter();
+        int rowCount = exportService.exportBooks(writer, '"', ';', false,
+                new ProgressRecorder(new ArrayList<Integer>(), true));
+
+        Assert.assertEquals(0, rowCount);
+        Assert.assertEquals("", writer.toString());
+    }
+
+    private void saveBook(String title, String description, Long pageCount) {
+        Broker<Book> bookBroker = BrokerManager.getBroker(Book.class);
+        Book book = new Book();
+        book.title = title;
+        book.description = description;
+        book.pageCount = pageCount;
+        book.languageCode = Languages.FRENCH;
+        bookBroker.save(db, book);
+    }
+
+    private static final class ProgressRecorder implements ExportService.ExportListener {
+
+        private final List<Integer> mProgressList;
+        private final boolean mIsCancelled;
+
+        ProgressRecorder(List<Integer> progressList, boolean isCancelled) {
+            mProgressList = progressList;
+            mIsCancelled = isCancelled;
+        }
+
+        @Override
+        public void onProgress(int rowCount) {
+            mProgressList.add(rowCount);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return mIsCancelled;
+        }
+    }
+}
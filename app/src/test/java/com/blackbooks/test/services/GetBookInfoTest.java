@@ -16,6 +16,7 @@ import com.blackbooks.test.data.Categories;
 import com.blackbooks.test.data.Languages;
 import com.blackbooks.test.data.Publishers;
 import com.blackbooks.test.data.Seriez;
+import com.blackbooks.utils.collections.LongArrayList;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -23,6 +24,8 @@ import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -86,9 +89,11 @@ public class GetBookInfoTest extends AbstractBookServiceTest {
         author2.name = Authors.RENE_GOSCINNY;
 
         BookAuthor bookAuthor1 = new BookAuthor();
+        bookAuthor1.bookId = book.id;
         bookAuthor1.authorId = author1.id;
 
         BookAuthor bookAuthor2 = new BookAuthor();
+        bookAuthor2.bookId = book.id;
         bookAuthor2.authorId = author2.id;
 
         List<BookAuthor> bookAuthors = new ArrayList<>();
@@ -105,9 +110,11 @@ public class GetBookInfoTest extends AbstractBookServiceTest {
         category2.name = Categories.HUMOR;
 
         BookCategory bookCategory1 = new BookCategory();
+        bookCategory1.bookId = book.id;
         bookCategory1.categoryId = category1.id;
 
         BookCategory bookCategory2 = new BookCategory();
+        bookCategory2.bookId = book.id;
         bookCategory2.categoryId = category2.id;
 
         List<BookCategory> bookCategories = new ArrayList<>();
@@ -115,21 +122,21 @@ public class GetBookInfoTest extends AbstractBookServiceTest {
         bookCategories.add(bookCategory2);
 
         // Mocks.
-        when(publisherRepository.getPublisher(publisher.id)).thenReturn(publisher);
+        LongArrayList bookIds = LongArrayList.of(book.id);
 
-        when(bookLocationRepository.getBookLocation(bookLocation.id)).thenReturn(bookLocation);
+        when(publisherRepository.getPublishersByIds(LongArrayList.of(publisher.id))).thenReturn(Collections.singletonList(publisher));
+
+        when(bookLocationRepository.getBookLocationsByIds(LongArrayList.of(bookLocation.id))).thenReturn(Collections.singletonList(bookLocation));
 
         when(bookRepository.getBook(book.id)).thenReturn(book);
 
-        when(seriesRepository.getSeries(series.id)).thenReturn(series);
+        when(seriesRepository.getSeriesByIds(LongArrayList.of(series.id))).thenReturn(Collections.singletonList(series));
 
-        when(bookAuthorRepository.getBookAuthorListByBook(book.id)).thenReturn(bookAuthors);
-        when(authorRepository.getAuthor(author1.id)).thenReturn(author1);
-        when(authorRepository.getAuthor(author2.id)).thenReturn(author2);
+        when(bookAuthorRepository.getBookAuthorListByBooks(bookIds)).thenReturn(bookAuthors);
+        when(authorRepository.getAuthorsByIds(LongArrayList.of(author1.id, author2.id))).thenReturn(Arrays.asList(author1, author2));
 
-        when(bookCategoryRepository.getBookCategoryListByBook(book.id)).thenReturn(bookCategories);
-        when(categoryRepository.getCategory(category1.id)).thenReturn(category1);
-        when(categoryRepository.getCategory(category2.id)).thenReturn(category2);
+        when(bookCategoryRepository.getBookCategoryListByBooks(bookIds)).thenReturn(bookCategories);
+        when(categoryRepository.getCategoriesByIds(LongArrayList.of(category1.id, category2.id))).thenReturn(Arrays.asList(category1, category2));
     }
 
     @Test
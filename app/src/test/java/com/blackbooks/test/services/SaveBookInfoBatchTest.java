@@ -0,0 +1,163 @@
+package com.blackbooks.test.services;
+
+import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.persistent.Author;
+import com.blackbooks.model.persistent.Book;
+import com.blackbooks.model.persistent.BookAuthor;
+import com.blackbooks.services.DeferredBookMaintenance;
+import com.blackbooks.test.data.Authors;
+import com.blackbooks.utils.collections.LongArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SaveBookInfoBatchTest extends AbstractBookServiceTest {
+
+    private long nextBookId = 100L;
+
+    @Before
+    public void setUp() {
+        // The repository gives their ids to the inserted books.
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                List<BookInfo> bookInfoList = invocation.getArgument(0);
+                for (BookInfo bookInfo : bookInfoList) {
+                    if (bookInfo.id == null) {
+                        bookInfo.id = nextBookId++;
+                    }
+                }
+                return null;
+            }
+        }).when(bookRepository).saveAll(anyList());
+    }
+
+    @Test
+    public void saveBookInfoBatch_should_save_all_the_books_in_one_transaction() {
+        List<BookInfo> bookInfoList = Arrays.asList(new BookInfo(), new BookInfo());
+
+        bookService.saveBookInfoBatch(bookInfoList);
+
+        verify(transactionManager, times(1)).beginTransaction();
+        verify(bookRepository).saveAll(bookInfoList);
+        verify(transactionManager, times(1)).setTransactionSuccessful();
+        verify(transactionManager, times(1)).endTransaction();
+    }
+
+    @Test
+    public void saveBookInfoBatch_should_look_up_each_author_name_once() {
+        BookInfo bookInfo1 = new BookInfo();
+        bookInfo1.authors.add(newAuthor(Authors.IAN_FLEMING));
+        BookInfo bookInfo2 = new BookInfo();
+        bookInfo2.authors.add(newAuthor(Authors.IAN_FLEMING));
+
+        bookService.saveBookInfoBatch(Arrays.asList(bookInfo1, bookInfo2));
+
+        verify(authorRepository, times(1)).getAuthorListByNames(Collections.singletonList(Authors.IAN_FLEMING));
+        verify(authorRepository, times(1)).saveAuthor(any(Author.class));
+    }
+
+    @Test
+    public void saveBookInfoBatch_should_reuse_the_existing_authors() {
+        Author authorDb = newAuthor(Authors.JOSEPH_CONRAD);
+        authorDb.id = 7L;
+        when(authorRepository.getAuthorListByNames(Collections.singletonList(Authors.JOSEPH_CONRAD))).thenReturn(Collections.singletonList(authorDb));
+
+        BookInfo bookInfo = new BookInfo();
+        bookInfo.id = 3L;
+        bookInfo.authors.add(newAuthor(Authors.JOSEPH_CONRAD));
+
+        bookService.saveBookInfoBatch(Collections.singletonList(bookInfo));
+
+        verify(authorRepository, never()).saveAuthor(any(Author.class));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BookAuthor>> captor = ArgumentCaptor.forClass((Class) List.class);
+        verify(bookAuthorRepository).saveBookAuthors(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        assertEquals(7L, captor.getValue().get(0).authorId.longValue());
+        assertEquals(3L, captor.getValue().get(0).bookId.longValue());
+    }
+
+    @Test
+    public void saveBookInfoBatch_should_delete_the_orphans_once_per_batch() {
+        List<BookInfo> bookInfoList = new ArrayList<>();
+        List<Book> previousBookList = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            BookInfo bookInfo = new BookInfo();
+            bookInfo.id = id;
+            bookInfoList.add(bookInfo);
+
+            Book previousBook = new Book();
+            previousBook.id = id;
+            previousBook.publisherId = 10 + id;
+            previousBookList.add(previousBook);
+        }
+        when(bookRepository.getBooksByIds(LongArrayList.of(1L, 2L, 3L))).thenReturn(previousBookList);
+
+        bookService.saveBookInfoBatch(bookInfoList);
+
+        verify(publisherRepository, times(1)).deletePublishersWithoutBooks(LongArrayList.of(11L, 12L, 13L));
+        verify(seriesRepository, times(1)).deleteSeriesWithoutBooks(any(LongArrayList.class));
+        verify(bookLocationRepository, times(1)).deleteBookLocationsWithoutBooks(any(LongArrayList.class));
+        verify(authorRepository, times(1)).deleteAuthorsWithoutBooks(any(LongArrayList.class));
+        verify(categoryRepository, times(1)).deleteCategoriesWithoutBooks(any(LongArrayList.class));
+        verify(thumbnailManager, times(3)).removeThumbnails(anyLong());
+    }
+
+    @Test
+    public void saveBookInfoBatch_should_not_delete_publishers_when_only_inserting() {
+        bookService.saveBookInfoBatch(Arrays.asList(new BookInfo(), new BookInfo()));
+
+        verify(publisherRepository, never()).deletePublishersWithoutBooks(any(LongArrayList.class));
+    }
+
+    @Test
+    public void saveBookInfoBatch_should_record_the_books_when_the_maintenance_is_deferred() {
+        DeferredBookMaintenance maintenance = new DeferredBookMaintenance();
+
+        bookService.saveBookInfoBatch(Arrays.asList(new BookInfo(), new BookInfo()), maintenance);
+
+        verify(transactionManager, times(1)).setTransactionSuccessful();
+        assertEquals(2, maintenance.getBookCount());
+    }
+
+    @Test
+    public void runDeferredMaintenance_should_not_read_back_the_inserted_books() {
+        DeferredBookMaintenance maintenance = new DeferredBookMaintenance();
+        bookService.saveBookInfoBatch(Arrays.asList(new BookInfo(), new BookInfo()), maintenance);
+        bookService.saveBookInfoBatch(Collections.singletonList(new BookInfo()), maintenance);
+
+        bookService.runDeferredMaintenance(maintenance);
+
+        verify(bookRepository, never()).getBooksByIds(any(LongArrayList.class));
+        verify(publisherRepository, never()).deletePublishersWithoutBooks(any(LongArrayList.class));
+    }
+
+    private static Author newAuthor(String name) {
+        Author author = new Author();
+        author.name = name;
+        return author;
+    }
+}
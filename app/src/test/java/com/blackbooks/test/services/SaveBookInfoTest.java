@@ -2,8 +2,8 @@ package com.blackbooks.test.services;
 
 import com.blackbooks.model.nonpersistent.BookInfo;
 import com.blackbooks.model.persistent.Author;
+import com.blackbooks.model.persistent.BookAuthor;
 import com.blackbooks.model.persistent.Publisher;
-import com.blackbooks.model.persistent.fts.BookFTS;
 import com.blackbooks.test.data.Authors;
 import com.blackbooks.test.data.Books;
 import com.blackbooks.test.data.Publishers;
@@ -12,13 +12,15 @@ import junit.framework.Assert;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.security.InvalidParameterException;
+import java.util.Arrays;
 
 import static junit.framework.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -34,6 +36,22 @@ public class SaveBookInfoTest extends AbstractBookServiceTest {
         verify(bookRepository).save(bookInfo);
     }
 
+    @Test
+    public void saveBookInfo_should_not_rewrite_the_authors_read_in_another_order() {
+        final long bookId = 5L;
+
+        BookInfo bookInfo = new BookInfo();
+        bookInfo.id = bookId;
+        bookInfo.authors.add(newAuthor(2L, Authors.ALBERT_UDERZO));
+        bookInfo.authors.add(newAuthor(1L, Authors.RENE_GOSCINNY));
+        when(bookAuthorRepository.getBookAuthorListByBook(bookId)).thenReturn(Arrays.asList(
+                newBookAuthor(bookId, 1L), newBookAuthor(bookId, 2L)));
+
+        bookService.saveBookInfo(bookInfo);
+
+        verify(bookAuthorRepository, never()).deleteBookAuthorListByBook(anyLong());
+    }
+
     @Test
     public void saveBookInfo_should_begin_transaction() {
         bookService.saveBookInfo(new BookInfo());
@@ -95,23 +113,6 @@ public class SaveBookInfoTest extends AbstractBookServiceTest {
         }
     }
 
-    @Test
-    public void saveBookInfo_should_insert_the_book_in_the_full_text_search_table() {
-        final long bookId = 536L;
-
-        BookInfo bookInfo = new BookInfo();
-        when(bookRepository.save(bookInfo)).thenReturn(bookId);
-
-        bookService.saveBookInfo(bookInfo);
-
-        ArgumentCaptor<BookFTS> argument = ArgumentCaptor.forClass(BookFTS.class);
-        verify(bookFTSRepository).insert(argument.capture());
-
-        BookFTS bookFTS = argument.getValue();
-
-        assertEquals(bookId, bookFTS.docid.longValue());
-    }
-
     /**
      * Save a book with an author that already exists in the DB.
      */
@@ -213,4 +214,18 @@ public class SaveBookInfoTest extends AbstractBookServiceTest {
         assertEquals(publisher.id, publisherDb.id);
         assertEquals(Publishers.GALLIMARD, publisherDb.name);
     }
+
+    private static Author newAuthor(long id, String name) {
+        Author author = new Author();
+        author.id = id;
+        author.name = name;
+        return author;
+    }
+
+    private static BookAuthor newBookAuthor(long bookId, long authorId) {
+        BookAuthor bookAuthor = new BookAuthor();
+        bookAuthor.bookId = bookId;
+        bookAuthor.authorId = authorId;
+        return bookAuthor;
+    }
 }
@@ -0,0 +1,241 @@
+package com.blackbooks.test.services;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.blackbooks.BuildConfig;
+import com.blackbooks.cache.ThumbnailManager;
+import com.blackbooks.changes.ChangeBus;
+import com.blackbooks.database.SQLiteHelper;
+import com.blackbooks.database.Snapshot;
+import com.blackbooks.model.persistent.Author;
+import com.blackbooks.model.persistent.Book;
+import com.blackbooks.model.persistent.BookAuthor;
+import com.blackbooks.model.persistent.BookLocation;
+import com.blackbooks.model.persistent.Cover;
+import com.blackbooks.model.persistent.Series;
+import com.blackbooks.model.persistent.fts.BookFTS;
+import com.blackbooks.services.ExportService;
+import com.blackbooks.services.ExportServiceImpl;
+import com.blackbooks.services.SnapshotService;
+import com.blackbooks.services.SnapshotServiceImpl;
+import com.blackbooks.sql.Broker;
+import com.blackbooks.sql.BrokerManager;
+import com.blackbooks.test.data.Authors;
+import com.blackbooks.test.data.BookLocations;
+import com.blackbooks.test.data.Books;
+import com.blackbooks.test.data.Languages;
+import com.blackbooks.test.data.People;
+import com.blackbooks.test.data.Seriez;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Date;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class SnapshotServiceTest {
+
+    private SQLiteHelper sqLiteHelper;
+
+    private SQLiteDatabase db;
+
+    private ThumbnailManager thumbnailManager;
+
+    private SnapshotService snapshotService;
+
+    @Before
+    public void setUp() {
+        SQLiteHelper.initialize(RuntimeEnvironment.application);
+        sqLiteHelper = SQLiteHelper.getInstance();
+        db = sqLiteHelper.getWritableDatabase();
+        thumbnailManager = Mockito.mock(ThumbnailManager.class);
+        snapshotService = new SnapshotServiceImpl(sqLiteHelper, thumbnailManager, Mockito.mock(ChangeBus.class));
+    }
+
+    @After
+    public void tearDown() {
+        sqLiteHelper.close();
+    }
+
+    @Test
+    public void readSnapshot_should_restore_the_library_written_by_writeSnapshot() throws IOException {
+        roundTrip(false);
+    }
+
+    @Test
+    public void readSnapshot_should_restore_a_compressed_snapshot() throws IOException {
+        roundTrip(true);
+    }
+
+    @Test
+    public void readSnapshot_should_leave_the_library_unchanged_when_the_snapshot_is_truncated() throws IOException {
+        saveBook(Books.LA_PESTE, Authors.ALBERT_CAMUS);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        snapshotService.writeSnapshot(outputStream, true);
+        byte[] snapshot = outputStream.toByteArray();
+
+        saveBook(Books.LE_MYTHE_DE_SISYPHE, Authors.ALBERT_CAMUS);
+        String expected = dumpLibrary();
+
+        try {
+            snapshotService.readSnapshot(new ByteArrayInputStream(Arrays.copyOf(snapshot, snapshot.length - 4)));
+            Assert.fail("A truncated snapshot must not be read.");
+        } catch (IOException e) {
+            // Expected.
+        }
+        Assert.assertEquals(expected, dumpLibrary());
+    }
+
+    @Test
+    public void writeSnapshot_should_be_smaller_than_the_csv_export() throws IOException {
+        for (int i = 0; i < 500; i++) {
+            saveBook("Title " + i, "Author " + (i % 50));
+        }
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        snapshotService.writeSnapshot(outputStream, false);
+        int snapshotSize = outputStream.size();
+
+        outputStream = new ByteArrayOutputStream();
+        snapshotService.writeSnapshot(outputStream, true);
+        int compressedSnapshotSize = outputStream.size();
+
+        StringWriter writer = new StringWriter();
+        ExportService exportService = new ExportServiceImpl(sqLiteHelper);
+        exportService.exportBooks(writer, '"', ';', true, null);
+        int csvSize = writer.toString().getBytes("UTF-8").length;
+
+        Assert.assertTrue(snapshotSize < csvSize);
+        Assert.assertTrue(compressedSnapshotSize < snapshotSize);
+    }
+
+    private void roundTrip(boolean compress) throws IOException {
+        Cover cover = new Cover();
+        cover.hash = "hash";
+        cover.image = new byte[]{0, 1, 2, (byte) 0xFF};
+        long coverId = BrokerManager.getBroker(Cover.class).save(db, cover);
+
+        BookLocation bookLocation = new BookLocation();
+        bookLocation.name = BookLocations.LIVING_ROOM;
+        long bookLocationId = BrokerManager.getBroker(BookLocation.class).save(db, bookLocation);
+
+        Series series = new Series();
+        series.name = Seriez.THORGAL;
+        long seriesId = BrokerManager.getBroker(Series.class).save(db, series);
+
+        Book book = saveBook(Books.LA_PESTE, Authors.ALBERT_CAMUS);
+        book.comment = "Relu en \u00e9t\u00e9 \uD83D\uDCDA";
+        book.isFavourite = 1L;
+        book.loanedTo = People.JOHN_DOE;
+        book.loanDate = new Date(1500000000000L);
+        book.bookLocationId = bookLocationId;
+        book.seriesId = seriesId;
+        book.number = 3L;
+        book.thumbnailCoverId = coverId;
+        BrokerManager.getBroker(Book.class).save(db, book);
+        saveBook(Books.LE_MYTHE_DE_SISYPHE, Authors.ALBERT_CAMUS);
+
+        String expected = dumpLibrary();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Assert.assertEquals(2, snapshotService.writeSnapshot(outputStream, compress));
+
+        Book addedBook = saveBook("A book added after the snapshot", Authors.ALBERT_UDERZO);
+
+        int bookCount = snapshotService.readSnapshot(new ByteArrayInputStream(outputStream.toByteArray()));
+
+        Assert.assertEquals(2, bookCount);
+        Assert.assertEquals(expected, dumpLibrary());
+        Assert.assertEquals(1, count("SELECT COUNT(*) FROM " + BookFTS.NAME + " WHERE " + BookFTS.NAME + " MATCH 'peste'"));
+        Mockito.verify(thumbnailManager).removeThumbnails(addedBook.id);
+    }
+
+    private Book saveBook(String title, String authorName) {
+        Broker<Author> authorBroker = BrokerManager.getBroker(Author.class);
+        Long authorId = null;
+        Cursor cursor = db.rawQuery("SELECT AUT_ID FROM AUTHOR WHERE AUT_NAME = ?", new String[]{authorName});
+        try {
+            if (cursor.moveToFirst()) {
+                authorId = cursor.getLong(0);
+            }
+        } finally {
+            cursor.close();
+        }
+        if (authorId == null) {
+            Author author = new Author();
+            author.name = authorName;
+            authorId = authorBroker.save(db, author);
+        }
+
+        Book book = new Book();
+        book.title = title;
+        book.languageCode = Languages.FRENCH;
+        book.isRead = 0L;
+        book.isFavourite = 0L;
+        BrokerManager.getBroker(Book.class).save(db, book);
+
+        BookAuthor bookAuthor = new BookAuthor();
+        bookAuthor.bookId = book.id;
+        bookAuthor.authorId = authorId;
+        BrokerManager.getBroker(BookAuthor.class).save(db, bookAuthor);
+        return book;
+    }
+
+    /**
+     * Get the content of the tables of a snapshot and of the library
+     * statistics as text, including the counters computed by the triggers.
+     */
+    private String dumpLibrary() {
+        StringBuilder sb = new StringBuilder();
+        for (String table : Snapshot.getTables()) {
+            dumpTable(sb, table);
+        }
+        dumpTable(sb, "LIBRARY_STATS");
+        return sb.toString();
+    }
+
+    private void dumpTable(StringBuilder sb, String table) {
+        sb.append(table).append('\n');
+        Cursor cursor = db.rawQuery("SELECT * FROM " + table + " ORDER BY 1", null);
+        try {
+            while (cursor.moveToNext()) {
+                for (int i = 0; i < cursor.getColumnCount(); i++) {
+                    sb.append(cursor.getColumnName(i)).append('=');
+                    if (cursor.getType(i) == Cursor.FIELD_TYPE_BLOB) {
+                        sb.append(Arrays.toString(cursor.getBlob(i)));
+                    } else {
+                        sb.append(cursor.getString(i));
+                    }
+                    sb.append(';');
+                }
+                sb.append('\n');
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private long count(String sql) {
+        Cursor cursor = db.rawQuery(sql, null);
+        try {
+            cursor.moveToFirst();
+            return cursor.getLong(0);
+        } finally {
+            cursor.close();
+        }
+    }
+}
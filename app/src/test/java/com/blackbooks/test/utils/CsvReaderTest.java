@@ -0,0 +1,84 @@
+package com.blackbooks.test.utils;
+
+import com.blackbooks.utils.CsvReader;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CsvReaderTest {
+
+    @Test
+    public void nextRow_should_read_the_fields_of_each_row() throws IOException {
+        CsvReader reader = open("a;b;c\n1;2;3");
+
+        assertRow(reader, 1, "a", "b", "c");
+        assertRow(reader, 2, "1", "2", "3");
+        assertFalse(reader.nextRow());
+    }
+
+    @Test
+    public void nextRow_should_keep_the_separators_and_line_breaks_of_a_qualified_field() throws IOException {
+        CsvReader reader = open("\"La Peste\";\"A novel;\nin five parts\"\nL'Etranger;\"\"");
+
+        assertRow(reader, 1, "La Peste", "A novel;\nin five parts");
+        assertRow(reader, 3, "L'Etranger", "");
+        assertFalse(reader.nextRow());
+    }
+
+    @Test
+    public void nextRow_should_read_a_doubled_qualifier_as_a_qualifier() throws IOException {
+        CsvReader reader = open("\"The \"\"Plague\"\"\";\"\"\"\"");
+
+        assertRow(reader, 1, "The \"Plague\"", "\"");
+    }
+
+    @Test
+    public void nextRow_should_skip_the_byte_order_mark() throws IOException {
+        CsvReader reader = open("\uFEFFTitle;Authors");
+
+        assertRow(reader, 1, "Title", "Authors");
+    }
+
+    @Test
+    public void nextRow_should_handle_crlf_line_breaks_and_skip_empty_lines() throws IOException {
+        CsvReader reader = open("a;b\r\n\r\n\"c\r\nd\";e\r\n;\r\n");
+
+        assertRow(reader, 1, "a", "b");
+        assertRow(reader, 3, "c\r\nd", "e");
+        assertRow(reader, 5, "", "");
+        assertFalse(reader.nextRow());
+    }
+
+    @Test
+    public void nextRow_should_read_fields_longer_than_the_buffer() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        String value = sb.toString();
+        CsvReader reader = open("\"" + value + "\";x\n" + value + ";y");
+
+        assertRow(reader, 1, value, "x");
+        assertRow(reader, 2, value, "y");
+        assertFalse(reader.nextRow());
+    }
+
+    private static CsvReader open(String content) {
+        return new CsvReader(new StringReader(content), ';', '"');
+    }
+
+    private static void assertRow(CsvReader reader, int lineNumber, String... fields) throws IOException {
+        assertTrue(reader.nextRow());
+        assertEquals(lineNumber, reader.getLineNumber());
+        assertEquals(fields.length, reader.getFieldCount());
+        for (int i = 0; i < fields.length; i++) {
+            assertEquals(fields[i], reader.getField(i));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.blackbooks.test.utils;
+
+import com.blackbooks.BuildConfig;
+import com.blackbooks.model.nonpersistent.BookInfo;
+import com.blackbooks.model.nonpersistent.CsvColumn;
+import com.blackbooks.utils.CsvUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class ParseCsvFileTest {
+
+    private static final int BOOK_COUNT = 60000;
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("books", ".csv");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void parseCsvFile_should_return_the_books_in_the_order_of_the_rows() throws IOException, InterruptedException {
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.write("\uFEFFTitle;Description\r\n");
+            for (int i = 0; i < BOOK_COUNT; i++) {
+                if (i % 7 == 0) {
+                    writer.write("\"Title " + i + "\";\"A \"\"quoted\"\"\r\ndescription;\nin three lines\"\r\n");
+                } else {
+                    writer.write("Title " + i + ";\n");
+                }
+            }
+        } finally {
+            writer.close();
+        }
+
+        List<BookInfo> books = CsvUtils.parseCsvFile(file, ';', '"', true, getCsvColumns());
+
+        assertEquals(BOOK_COUNT, books.size());
+        for (int i = 0; i < BOOK_COUNT; i++) {
+            BookInfo book = books.get(i);
+            assertEquals("Title " + i, book.title);
+            if (i % 7 == 0) {
+                assertEquals("A \"quoted\"\r\ndescription;\nin three lines", book.description);
+            } else {
+                assertNull(book.description);
+            }
+        }
+    }
+
+    private static List<CsvColumn> getCsvColumns() {
+        List<CsvColumn> csvColumns = new ArrayList<CsvColumn>();
+        CsvColumn titleColumn = new CsvColumn(0, "Title");
+        titleColumn.setBookProperty(CsvColumn.BookProperty.TITLE);
+        csvColumns.add(titleColumn);
+        CsvColumn descriptionColumn = new CsvColumn(1, "Description");
+        descriptionColumn.setBookProperty(CsvColumn.BookProperty.DESCRIPTION);
+        csvColumns.add(descriptionColumn);
+        return csvColumns;
+    }
+}
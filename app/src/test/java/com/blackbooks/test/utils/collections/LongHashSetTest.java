@@ -0,0 +1,74 @@
+package com.blackbooks.test.utils.collections;
+
+import com.blackbooks.utils.collections.LongHashSet;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LongHashSetTest {
+
+    @Test
+    public void add_should_return_false_when_the_value_is_already_in_the_set() {
+        LongHashSet set = new LongHashSet();
+
+        assertTrue(set.add(42L));
+        assertFalse(set.add(42L));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    public void set_should_hold_zero_and_negative_values() {
+        LongHashSet set = new LongHashSet();
+
+        assertFalse(set.contains(0L));
+        assertTrue(set.add(0L));
+        assertTrue(set.add(-1L));
+        assertFalse(set.add(0L));
+
+        assertTrue(set.contains(0L));
+        assertTrue(set.contains(-1L));
+        assertEquals(2, set.size());
+
+        long[] values = set.toArray();
+        Arrays.sort(values);
+        assertArrayEquals(new long[]{-1L, 0L}, values);
+    }
+
+    @Test
+    public void set_should_keep_its_values_when_it_grows() {
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 10000; i++) {
+            long value = random.nextInt(5000);
+            assertEquals(expected.add(value), set.add(value));
+        }
+
+        assertEquals(expected.size(), set.size());
+        for (long value = -1; value <= 5000; value++) {
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+    }
+
+    @Test
+    public void clear_should_remove_all_the_values() {
+        LongHashSet set = new LongHashSet();
+        set.add(0L);
+        set.add(1L);
+
+        set.clear();
+
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(0L));
+        assertFalse(set.contains(1L));
+    }
+}
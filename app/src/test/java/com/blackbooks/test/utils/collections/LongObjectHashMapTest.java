@@ -0,0 +1,50 @@
+package com.blackbooks.test.utils.collections;
+
+import com.blackbooks.utils.collections.LongObjectHashMap;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LongObjectHashMapTest {
+
+    @Test
+    public void put_should_replace_and_return_the_previous_value() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+
+        assertNull(map.put(3L, "a"));
+        assertEquals("a", map.put(3L, "b"));
+
+        assertEquals("b", map.get(3L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void map_should_hold_the_key_zero() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+
+        assertFalse(map.containsKey(0L));
+        map.put(0L, null);
+
+        assertTrue(map.containsKey(0L));
+        assertNull(map.get(0L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void map_should_keep_its_entries_when_it_grows() {
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>(2);
+        for (long key = 1; key <= 10000; key++) {
+            map.put(key * 1024, key);
+        }
+
+        assertEquals(10000, map.size());
+        for (long key = 1; key <= 10000; key++) {
+            assertEquals(Long.valueOf(key), map.get(key * 1024));
+            assertNull(map.get(key * 1024 + 1));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.blackbooks.processor;
+
+/**
+ * A column of a table, as read from a field annotated with Column.
+ */
+final class BinderColumn {
+
+    private static final String LONG = "java.lang.Long";
+    private static final String STRING = "java.lang.String";
+    private static final String DATE = "java.util.Date";
+    private static final String BYTE_ARRAY = "byte[]";
+
+    String name;
+    String sqlType;
+    String fieldName;
+    String fieldType;
+    boolean primaryKey;
+    boolean readOnly;
+
+    /**
+     * Indicates whether the field type can be mapped to the SQLite type of the column.
+     *
+     * @return True if the binder can read and write the column.
+     */
+    boolean isSupported() {
+        if (sqlType.equals("INTEGER")) {
+            return isLong() || isDate();
+        } else if (sqlType.equals("TEXT")) {
+            return fieldType.equals(STRING);
+        } else if (sqlType.equals("BLOB")) {
+            return fieldType.equals(BYTE_ARRAY);
+        }
+        return false;
+    }
+
+    boolean isLong() {
+        return fieldType.equals(LONG);
+    }
+
+    boolean isDate() {
+        return fieldType.equals(DATE);
+    }
+
+    boolean isString() {
+        return fieldType.equals(STRING);
+    }
+
+    boolean isBlob() {
+        return fieldType.equals(BYTE_ARRAY);
+    }
+}
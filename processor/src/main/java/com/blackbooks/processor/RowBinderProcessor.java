@@ -0,0 +1,197 @@
+package com.blackbooks.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Annotation processor generating a RowBinder for each class annotated with Table.
+ * <p/>
+ * The annotations are read through their mirrors so that the processor does not depend on the
+ * application classes.
+ */
+public final class RowBinderProcessor extends AbstractProcessor {
+
+    private static final String TABLE_ANNOTATION = "com.blackbooks.model.metadata.Table";
+    private static final String COLUMN_ANNOTATION = "com.blackbooks.model.metadata.Column";
+
+    private static final String BINDER_SUFFIX = "_RowBinder";
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(TABLE_ANNOTATION);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement tableAnnotation = processingEnv.getElementUtils().getTypeElement(TABLE_ANNOTATION);
+        if (tableAnnotation == null) {
+            return false;
+        }
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(tableAnnotation)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            if (type.getNestingKind() != NestingKind.TOP_LEVEL) {
+                // The Broker falls back to reflection for nested classes.
+                continue;
+            }
+            try {
+                List<BinderColumn> columns = getColumns(type);
+                writeBinder(type, columns);
+            } catch (IllegalArgumentException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage(), type);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write the row binder: " + e.getMessage(), type);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the annotated columns of a type, including the ones declared by its super classes.
+     *
+     * @param type TypeElement.
+     * @return List of BinderColumn.
+     */
+    private List<BinderColumn> getColumns(TypeElement type) {
+        List<BinderColumn> columns = new ArrayList<BinderColumn>();
+
+        TypeElement currentType = type;
+        while (currentType != null) {
+            for (Element enclosed : currentType.getEnclosedElements()) {
+                if (enclosed.getKind() != ElementKind.FIELD) {
+                    continue;
+                }
+                AnnotationMirror columnMirror = getAnnotationMirror(enclosed, COLUMN_ANNOTATION);
+                if (columnMirror == null) {
+                    continue;
+                }
+                if (!enclosed.getModifiers().contains(Modifier.PUBLIC) || enclosed.getModifiers().contains(Modifier.STATIC)) {
+                    throw new IllegalArgumentException("Column field " + enclosed.getSimpleName() + " must be public and not static.");
+                }
+                columns.add(toBinderColumn((VariableElement) enclosed, columnMirror));
+            }
+
+            TypeMirror superclass = currentType.getSuperclass();
+            if (superclass.getKind() == TypeKind.DECLARED) {
+                currentType = (TypeElement) ((DeclaredType) superclass).asElement();
+            } else {
+                currentType = null;
+            }
+        }
+
+        int primaryKeyCount = 0;
+        for (BinderColumn column : columns) {
+            if (column.primaryKey) {
+                primaryKeyCount++;
+            }
+        }
+        if (primaryKeyCount != 1) {
+            throw new IllegalArgumentException("Table " + type.getSimpleName() + " must have exactly one primary key.");
+        }
+        return columns;
+    }
+
+    /**
+     * Build a BinderColumn from a field and its Column annotation.
+     *
+     * @param field        The annotated field.
+     * @param columnMirror The Column annotation.
+     * @return BinderColumn.
+     */
+    private BinderColumn toBinderColumn(VariableElement field, AnnotationMirror columnMirror) {
+        BinderColumn column = new BinderColumn();
+        column.fieldName = field.getSimpleName().toString();
+        column.fieldType = field.asType().toString();
+
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values = processingEnv.getElementUtils().getElementValuesWithDefaults(columnMirror);
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+            String key = entry.getKey().getSimpleName().toString();
+            Object value = entry.getValue().getValue();
+            if (key.equals("name")) {
+                column.name = (String) value;
+            } else if (key.equals("type")) {
+                column.sqlType = ((VariableElement) value).getSimpleName().toString();
+            } else if (key.equals("primaryKey")) {
+                column.primaryKey = (Boolean) value;
+            } else if (key.equals("readOnly")) {
+                column.readOnly = (Boolean) value;
+            }
+        }
+
+        if (!column.isSupported()) {
+            throw new IllegalArgumentException("Unsupported field type " + column.fieldType + " for " + column.sqlType + " column " + column.name + ".");
+        }
+        return column;
+    }
+
+    /**
+     * Write the source file of the binder of a type.
+     *
+     * @param type    TypeElement.
+     * @param columns Columns of the type.
+     * @throws IOException If the source file cannot be written.
+     */
+    private void writeBinder(TypeElement type, List<BinderColumn> columns) throws IOException {
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = packageElement.getQualifiedName().toString();
+        String typeName = type.getSimpleName().toString();
+        String binderName = typeName + BINDER_SUFFIX;
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(packageName + "." + binderName, type);
+        Writer writer = file.openWriter();
+        try {
+            writer.write(new RowBinderSource(packageName, typeName, binderName, columns).build());
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Get the mirror of an annotation on an element.
+     *
+     * @param element        Element.
+     * @param annotationName Qualified name of the annotation.
+     * @return AnnotationMirror or null if the element is not annotated.
+     */
+    private static AnnotationMirror getAnnotationMirror(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,220 @@
+package com.blackbooks.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the source code of the RowBinder of a persistent class.
+ */
+final class RowBinderSource {
+
+    private final String mPackageName;
+    private final String mTypeName;
+    private final String mBinderName;
+    private final List<BinderColumn> mColumns;
+
+    private final StringBuilder mSb = new StringBuilder();
+
+    /**
+     * Constructor.
+     *
+     * @param packageName Package of the persistent class.
+     * @param typeName    Simple name of the persistent class.
+     * @param binderName  Simple name of the binder to generate.
+     * @param columns     Columns of the persistent class.
+     */
+    RowBinderSource(String packageName, String typeName, String binderName, List<BinderColumn> columns) {
+        mPackageName = packageName;
+        mTypeName = typeName;
+        mBinderName = binderName;
+        mColumns = columns;
+    }
+
+    /**
+     * Build the source code.
+     *
+     * @return Java source code.
+     */
+    String build() {
+        line(0, "package " + mPackageName + ";");
+        line(0, "");
+        line(0, "import android.database.Cursor;");
+        line(0, "import android.database.sqlite.SQLiteStatement;");
+        line(0, "");
+        line(0, "import com.blackbooks.sql.RowBinder;");
+        line(0, "");
+        line(0, "/**");
+        line(0, " * Row binder of {@link " + mTypeName + "}. Generated from its column annotations, do not edit.");
+        line(0, " */");
+        line(0, "public final class " + mBinderName + " implements RowBinder<" + mTypeName + "> {");
+        line(0, "");
+        buildColumnNames();
+        line(0, "");
+        buildNewInstance();
+        line(0, "");
+        buildGetColumnIndexes();
+        line(0, "");
+        buildReadRow();
+        line(0, "");
+        buildGetValueColumnNames();
+        line(0, "");
+        buildBindValues();
+        line(0, "");
+        buildGetValues();
+        line(0, "");
+        buildGetPrimaryKey();
+        line(0, "");
+        buildSetPrimaryKey();
+        line(0, "}");
+        return mSb.toString();
+    }
+
+    private void buildColumnNames() {
+        line(1, "private static final String[] COLUMNS = new String[]{");
+        for (int i = 0; i < mColumns.size(); i++) {
+            String separator = i < mColumns.size() - 1 ? "," : "";
+            line(3, "\"" + mColumns.get(i).name + "\"" + separator);
+        }
+        line(1, "};");
+        line(0, "");
+        line(1, "private static final String[] VALUE_COLUMNS = new String[]{");
+        buildColumnNameList(getValueColumns());
+        line(1, "};");
+    }
+
+    private void buildColumnNameList(List<BinderColumn> columns) {
+        for (int i = 0; i < columns.size(); i++) {
+            String separator = i < columns.size() - 1 ? "," : "";
+            line(3, "\"" + columns.get(i).name + "\"" + separator);
+        }
+    }
+
+    private void buildNewInstance() {
+        line(1, "@Override");
+        line(1, "public " + mTypeName + " newInstance() {");
+        line(2, "return new " + mTypeName + "();");
+        line(1, "}");
+    }
+
+    private void buildGetColumnIndexes() {
+        line(1, "@Override");
+        line(1, "public int[] getColumnIndexes(Cursor cursor) {");
+        line(2, "int[] indexes = new int[COLUMNS.length];");
+        line(2, "for (int i = 0; i < COLUMNS.length; i++) {");
+        line(3, "indexes[i] = cursor.getColumnIndex(COLUMNS[i]);");
+        line(2, "}");
+        line(2, "return indexes;");
+        line(1, "}");
+    }
+
+    private void buildReadRow() {
+        line(1, "@Override");
+        line(1, "public void readRow(Cursor cursor, int[] columnIndexes, " + mTypeName + " bean) {");
+        line(2, "int index;");
+        for (int i = 0; i < mColumns.size(); i++) {
+            BinderColumn column = mColumns.get(i);
+            String field = "bean." + column.fieldName;
+            String read;
+            if (column.isLong()) {
+                read = "cursor.getLong(index)";
+            } else if (column.isDate()) {
+                read = "new java.util.Date(cursor.getLong(index))";
+            } else if (column.isString()) {
+                read = "cursor.getString(index)";
+            } else {
+                read = "cursor.getBlob(index)";
+            }
+            line(2, "index = columnIndexes[" + i + "];");
+            line(2, "if (index != -1) {");
+            line(3, field + " = cursor.isNull(index) ? null : " + read + ";");
+            line(2, "}");
+        }
+        line(1, "}");
+    }
+
+    private void buildGetValueColumnNames() {
+        line(1, "@Override");
+        line(1, "public String[] getValueColumnNames() {");
+        line(2, "return VALUE_COLUMNS;");
+        line(1, "}");
+    }
+
+    private void buildBindValues() {
+        line(1, "@Override");
+        line(1, "public void bindValues(" + mTypeName + " bean, SQLiteStatement statement) {");
+        line(2, "int index = 1;");
+        for (BinderColumn column : getValueColumns()) {
+            String field = "bean." + column.fieldName;
+            String nullCondition = field + " == null";
+            String bind;
+            if (column.isLong()) {
+                bind = "statement.bindLong(index, " + field + ");";
+            } else if (column.isDate()) {
+                bind = "statement.bindLong(index, " + field + ".getTime());";
+            } else if (column.isString()) {
+                bind = "statement.bindString(index, " + field + ".trim());";
+            } else {
+                nullCondition = field + " == null || " + field + ".length == 0";
+                bind = "statement.bindBlob(index, " + field + ");";
+            }
+            line(2, "if (" + nullCondition + ") {");
+            line(3, "statement.bindNull(index);");
+            line(2, "} else {");
+            line(3, bind);
+            line(2, "}");
+            line(2, "index++;");
+        }
+        line(1, "}");
+    }
+
+    private void buildGetValues() {
+        line(1, "@Override");
+        line(1, "public void getValues(" + mTypeName + " bean, Object[] values) {");
+        List<BinderColumn> valueColumns = getValueColumns();
+        for (int i = 0; i < valueColumns.size(); i++) {
+            line(2, "values[" + i + "] = bean." + valueColumns.get(i).fieldName + ";");
+        }
+        line(1, "}");
+    }
+
+    private void buildGetPrimaryKey() {
+        line(1, "@Override");
+        line(1, "public Long getPrimaryKey(" + mTypeName + " bean) {");
+        line(2, "return bean." + getPrimaryKeyColumn().fieldName + ";");
+        line(1, "}");
+    }
+
+    private void buildSetPrimaryKey() {
+        line(1, "@Override");
+        line(1, "public void setPrimaryKey(" + mTypeName + " bean, long id) {");
+        line(2, "bean." + getPrimaryKeyColumn().fieldName + " = id;");
+        line(1, "}");
+    }
+
+    private List<BinderColumn> getValueColumns() {
+        List<BinderColumn> valueColumns = new ArrayList<BinderColumn>();
+        for (BinderColumn column : mColumns) {
+            if (!column.primaryKey && !column.readOnly) {
+                valueColumns.add(column);
+            }
+        }
+        return valueColumns;
+    }
+
+    private BinderColumn getPrimaryKeyColumn() {
+        for (BinderColumn column : mColumns) {
+            if (column.primaryKey) {
+                return column;
+            }
+        }
+        throw new IllegalStateException("No primary key.");
+    }
+
+    private void line(int indent, String text) {
+        for (int i = 0; i < indent; i++) {
+            mSb.append("    ");
+        }
+        mSb.append(text);
+        mSb.append('\n');
+    }
+}